@@ -7,27 +7,26 @@ if [ -f "$CONF_FILE" ]; then
   export $(grep -v '^#' $CONF_FILE | xargs)
 fi
 
-export BROWSER
 export ENVIRONMENT
 
 if [ "$ENVIRONMENT" != "dev" ]; then
   echo -e "\033[0;31mWarning Executing Perf test against $ENVIRONMENT\033[0m"
 fi
 
-echo -e "\033[0;31mWarning this is a performance test please close any programs and save work you do not want to loose.\033[0m"
-echo -e "\033[0;31mPlease ensure your computer has 16gb of currently FREE memory\033[0m"
-echo -e "\033[0;31mPlease ensure your computer not being used for this test to valid\033[0m"
-read -p "Press <enter> to continue" I_UNDER_STAND_I_MAY_LOOSE_WORK
-echo -e "\033[1;33mTest Running (Expected run-time 20mins~) \033[0m"
+# Defaults to a 1 minute ramp up to 10 journeys/s, then 5 minutes at 10 journeys/s
+# Set API_LOAD_PROFILE and API_LOAD_MIX to change them (see README)
+API_LOAD_PROFILE="${API_LOAD_PROFILE:-1-10/60,10/300}"
+API_LOAD_MIX="${API_LOAD_MIX:-stub:1}"
+
+echo -e "\033[1;33mTest Running (profile ${API_LOAD_PROFILE}, mix ${API_LOAD_MIX}) \033[0m"
 
 export coreStubUrl=$CORE_STUB_URL
 export coreStubUsername=$CORE_STUB_USERNAME
 export coreStubPassword=$CORE_STUB_PASSWORD
-export orchestratorStubUrl=$ORCHESTRATOR_URL
 export API_GATEWAY_ID_PRIVATE=$API_GATEWAY_ID_PRIVATE
 export API_GATEWAY_ID_PUBLIC=$API_GATEWAY_ID_PUBLIC
 
 ###### Run tests
-seq 16 | parallel --progress -j8 -n0 ./gradlew cucumber -P tags=${TAG}
+./gradlew apiLoadTest -PapiLoadProfile="${API_LOAD_PROFILE}" -PapiLoadMix="${API_LOAD_MIX}"
 
-echo -e "\033[1;33mTest Complete\033[0m"
+echo -e "\033[1;33mTest Complete, reports in build/api-load\033[0m"
@@ -0,0 +1,267 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * The session, check passport, authorization, token and credential calls of one journey, as the
+ * PassportCRIAPI feature makes them, with the core stub creating the signed session and token
+ * requests. Each call is recorded as a phase, a journey stops at its first failed call.
+ *
+ * <p>The check may answer retry (the passport was not matched), the journey then carries on with
+ * the session state as a prove another way journey does.
+ */
+final class ApiJourney {
+
+    static final String STUB_CLAIMS = "stub-claims";
+    static final String STUB_SESSION_REQUEST = "stub-session-request";
+    static final String SESSION = "session";
+    static final String CHECK_PASSPORT = "check-passport";
+    static final String AUTHORIZATION = "authorization";
+    static final String STUB_TOKEN_REQUEST = "stub-token-request";
+    static final String TOKEN = "token";
+    static final String CREDENTIAL = "credential";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String RETRY_RESPONSE = "{\"result\":\"retry\"}";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LoadResults loadResults;
+    private final ApiLoadSettings apiLoadSettings;
+    private final String privateApiUrl;
+    private final String publicApiUrl;
+    private final String publicApiKey;
+    private final String passportRequestBody;
+
+    ApiJourney(
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            LoadResults loadResults,
+            ApiLoadSettings apiLoadSettings,
+            String privateApiUrl,
+            String publicApiUrl,
+            String publicApiKey,
+            String passportRequestBody) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.loadResults = loadResults;
+        this.apiLoadSettings = apiLoadSettings;
+        this.privateApiUrl = privateApiUrl;
+        this.publicApiUrl = publicApiUrl;
+        this.publicApiKey = publicApiKey;
+        this.passportRequestBody = passportRequestBody;
+    }
+
+    /** @param arrivalNanos the scheduled arrival, journey latency is measured from */
+    void run(TrafficSource trafficSource, long arrivalNanos) {
+        boolean journeyCompleted = false;
+        try {
+            runCalls(trafficSource);
+            journeyCompleted = true;
+        } catch (PhaseFailedException e) {
+            // Recorded with its phase
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            loadResults.recordJourney(
+                    trafficSource, System.nanoTime() - arrivalNanos, journeyCompleted);
+        }
+    }
+
+    private void runCalls(TrafficSource trafficSource)
+            throws PhaseFailedException, InterruptedException {
+        String criId = URLEncoder.encode(apiLoadSettings.criId(), StandardCharsets.UTF_8);
+
+        String claims =
+                send(
+                        trafficSource,
+                        STUB_CLAIMS,
+                        coreStubRequest(
+                                        trafficSource,
+                                        "/backend/generateInitialClaimsSet?cri="
+                                                + criId
+                                                + "&rowNumber="
+                                                + apiLoadSettings.userDataRowNumber())
+                                .GET());
+
+        String sessionRequestBody =
+                send(
+                        trafficSource,
+                        STUB_SESSION_REQUEST,
+                        coreStubRequest(trafficSource, "/backend/createSessionRequest?cri=" + criId)
+                                .setHeader("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(claims)));
+        String clientId =
+                readTree(trafficSource, STUB_SESSION_REQUEST, sessionRequestBody)
+                        .path("client_id")
+                        .asText();
+
+        JsonNode sessionResponse =
+                readTree(
+                        trafficSource,
+                        SESSION,
+                        send(
+                                trafficSource,
+                                SESSION,
+                                apiRequest(privateApiUrl + "/session")
+                                        .setHeader("X-Forwarded-For", "123456789")
+                                        .POST(
+                                                HttpRequest.BodyPublishers.ofString(
+                                                        sessionRequestBody))));
+        String sessionId = sessionResponse.path("session_id").asText();
+        String state = sessionResponse.path("state").asText();
+
+        String checkPassportResponse =
+                send(
+                        trafficSource,
+                        CHECK_PASSPORT,
+                        apiRequest(privateApiUrl + "/check-passport")
+                                .setHeader("session_id", sessionId)
+                                .POST(HttpRequest.BodyPublishers.ofString(passportRequestBody)));
+        if (RETRY_RESPONSE.equals(checkPassportResponse)) {
+            loadResults.recordOutcome(trafficSource, "retry");
+        } else {
+            JsonNode checkPassportSuccess =
+                    readTree(trafficSource, CHECK_PASSPORT, checkPassportResponse);
+            state = checkPassportSuccess.path("state").asText();
+            sessionId = checkPassportSuccess.path("session_id").asText();
+        }
+
+        JsonNode authorizationResponse =
+                readTree(
+                        trafficSource,
+                        AUTHORIZATION,
+                        send(
+                                trafficSource,
+                                AUTHORIZATION,
+                                apiRequest(
+                                                privateApiUrl
+                                                        + "/authorization?redirect_uri="
+                                                        + trafficSource.coreStubUrl()
+                                                        + "/callback&state="
+                                                        + state
+                                                        + "&scope=openid&response_type=code"
+                                                        + "&client_id="
+                                                        + clientId)
+                                        .setHeader("session-id", sessionId)
+                                        .GET()));
+        String authorizationCode =
+                authorizationResponse.path("authorizationCode").path("value").asText();
+
+        String tokenRequestBody =
+                send(
+                        trafficSource,
+                        STUB_TOKEN_REQUEST,
+                        coreStubRequest(
+                                        trafficSource,
+                                        "/backend/createTokenRequestPrivateKeyJWT"
+                                                + "?authorization_code="
+                                                + authorizationCode
+                                                + "&cri="
+                                                + criId)
+                                .GET());
+
+        String accessToken =
+                readTree(
+                                trafficSource,
+                                TOKEN,
+                                send(
+                                        trafficSource,
+                                        TOKEN,
+                                        publicApiRequest(publicApiUrl + "/token")
+                                                .POST(
+                                                        HttpRequest.BodyPublishers.ofString(
+                                                                tokenRequestBody))))
+                        .path("access_token")
+                        .asText();
+
+        send(
+                trafficSource,
+                CREDENTIAL,
+                publicApiRequest(publicApiUrl + "/credential/issue")
+                        .setHeader("Authorization", "Bearer " + accessToken)
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    /** @return the body of a 2xx response, any other is recorded as an error of the phase */
+    private String send(TrafficSource trafficSource, String phase, HttpRequest.Builder builder)
+            throws PhaseFailedException, InterruptedException {
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response =
+                    httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            loadResults.recordPhase(trafficSource, phase, System.nanoTime() - startNanos);
+
+            if (response.statusCode() / 100 != 2) {
+                loadResults.recordError(trafficSource, phase, "HTTP " + response.statusCode());
+                throw new PhaseFailedException();
+            }
+
+            return response.body();
+        } catch (IOException | IllegalArgumentException e) {
+            loadResults.recordPhase(trafficSource, phase, System.nanoTime() - startNanos);
+            loadResults.recordError(trafficSource, phase, e.getClass().getSimpleName());
+            throw new PhaseFailedException();
+        }
+    }
+
+    private HttpRequest.Builder coreStubRequest(TrafficSource trafficSource, String path) {
+        String credentials =
+                trafficSource.coreStubUsername() + ":" + trafficSource.coreStubPassword();
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(trafficSource.coreStubUrl() + path))
+                .timeout(REQUEST_TIMEOUT)
+                .setHeader("Accept", "application/json")
+                .setHeader(
+                        "Authorization",
+                        "Basic "
+                                + Base64.getEncoder()
+                                        .encodeToString(
+                                                credentials.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static HttpRequest.Builder apiRequest(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .setHeader("Accept", "application/json")
+                .setHeader("Content-Type", "application/json");
+    }
+
+    private HttpRequest.Builder publicApiRequest(String url) {
+        HttpRequest.Builder builder = apiRequest(url);
+        if (publicApiKey != null) {
+            builder.setHeader("x-api-key", publicApiKey);
+        }
+        return builder;
+    }
+
+    private JsonNode readTree(TrafficSource trafficSource, String phase, String body)
+            throws PhaseFailedException {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            loadResults.recordError(trafficSource, phase, "unreadable response");
+            throw new PhaseFailedException();
+        }
+    }
+
+    // The failure is already recorded
+    private static final class PhaseFailedException extends Exception {
+        PhaseFailedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+import uk.gov.di.ipv.cri.passport.acceptance_tests.model.PassportFormData;
+import uk.gov.di.ipv.cri.passport.acceptance_tests.service.ConfigurationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the API journey ({@link ApiJourney}) against the private and public API gateways of an
+ * environment (or local endpoints) at the arrivals of an {@link ArrivalProfile}, split across a
+ * mix of {@link TrafficSource}s, without a browser.
+ *
+ * <p>The report has the latency percentiles of each source's journeys and phases, the errors, and
+ * the journeys dropped at the in flight limit. The apiLoad.reportDirectory has an .hgrm percentile
+ * distribution for each, and throughput.csv, the arrivals, completions and journey latency of
+ * every second of the run.
+ */
+public final class ApiLoadGenerator {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long INTERVAL_MILLIS = 1000;
+    private static final long DRAIN_MINUTES = 2;
+
+    private ApiLoadGenerator() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ApiLoadSettings apiLoadSettings = ApiLoadSettings.fromSystemProperties();
+        ConfigurationService configurationService =
+                new ConfigurationService(System.getenv("ENVIRONMENT"));
+
+        String privateApiUrl =
+                apiLoadSettings.privateApiUrl() != null
+                        ? apiLoadSettings.privateApiUrl()
+                        : configurationService.getPrivateAPIEndpoint();
+        String publicApiUrl =
+                apiLoadSettings.publicApiUrl() != null
+                        ? apiLoadSettings.publicApiUrl()
+                        : configurationService.getPublicAPIEndpoint();
+        List<TrafficSource> trafficSources =
+                TrafficSource.fromMix(
+                        apiLoadSettings.mix(), configurationService.isUsingLocalStub());
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String passportRequestBody =
+                objectMapper.writeValueAsString(
+                        objectMapper.readValue(
+                                new File(
+                                        "src/test/resources/Data/"
+                                                + apiLoadSettings.passportData()
+                                                + ".json"),
+                                PassportFormData.class));
+
+        Files.createDirectories(apiLoadSettings.reportDirectory());
+        Random random = new Random();
+        long[] arrivalOffsetsNanos =
+                apiLoadSettings
+                        .arrivalProfile()
+                        .arrivalOffsetsNanos(apiLoadSettings.poisson(), random);
+
+        LoadResults loadResults = new LoadResults();
+        ApiJourney apiJourney =
+                new ApiJourney(
+                        HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build(),
+                        objectMapper,
+                        loadResults,
+                        apiLoadSettings,
+                        privateApiUrl,
+                        publicApiUrl,
+                        configurationService.getPublicApiGatewayKey(),
+                        passportRequestBody);
+
+        System.out.printf(
+                "Running %d journeys over %.0fs, profile %s%s, mix %s, max in flight %d%n",
+                arrivalOffsetsNanos.length,
+                apiLoadSettings.arrivalProfile().getDurationSeconds(),
+                apiLoadSettings.arrivalProfile(),
+                apiLoadSettings.poisson() ? " (poisson)" : "",
+                trafficSources,
+                apiLoadSettings.maxInFlight());
+
+        Semaphore inFlight = new Semaphore(apiLoadSettings.maxInFlight());
+        ExecutorService journeyExecutor = Executors.newCachedThreadPool();
+        ScheduledExecutorService intervalExecutor = Executors.newSingleThreadScheduledExecutor();
+
+        try (PrintStream throughput =
+                new PrintStream(
+                        Files.newOutputStream(
+                                apiLoadSettings.reportDirectory().resolve("throughput.csv")),
+                        true,
+                        StandardCharsets.UTF_8)) {
+            throughput.println(
+                    "second,target_rate,arrivals,dropped,finished,failed,in_flight,"
+                            + "journey_p50_ms,journey_p99_ms,journey_max_ms");
+
+            long startNanos = System.nanoTime();
+            ThroughputCurve throughputCurve =
+                    new ThroughputCurve(
+                            throughput,
+                            loadResults,
+                            apiLoadSettings.arrivalProfile(),
+                            apiLoadSettings.maxInFlight(),
+                            inFlight);
+            intervalExecutor.scheduleAtFixedRate(
+                    throughputCurve::writeInterval,
+                    INTERVAL_MILLIS,
+                    INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+
+            for (long arrivalOffsetNanos : arrivalOffsetsNanos) {
+                long arrivalNanos = startNanos + arrivalOffsetNanos;
+                LockSupport.parkNanos(arrivalNanos - System.nanoTime());
+
+                loadResults.recordArrival();
+                if (!inFlight.tryAcquire()) {
+                    loadResults.recordDropped();
+                    continue;
+                }
+
+                TrafficSource trafficSource = TrafficSource.select(trafficSources, random);
+                journeyExecutor.execute(
+                        () -> {
+                            try {
+                                apiJourney.run(trafficSource, arrivalNanos);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+            }
+
+            journeyExecutor.shutdown();
+            if (!journeyExecutor.awaitTermination(DRAIN_MINUTES, TimeUnit.MINUTES)) {
+                System.out.println("Journeys in flight after the drain time are not reported");
+            }
+            intervalExecutor.shutdown();
+            intervalExecutor.awaitTermination(INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            throughputCurve.writeInterval();
+
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+            System.out.printf(
+                    "%d journeys arrived in %.1fs, %d dropped, %d failed%n",
+                    loadResults.getArrivals(),
+                    elapsedSeconds,
+                    loadResults.getDropped(),
+                    loadResults.getFailed());
+            loadResults.report(System.out);
+            loadResults.writeHistograms(apiLoadSettings.reportDirectory());
+            System.out.printf(
+                    "HDR histograms and throughput.csv in %s%n",
+                    apiLoadSettings.reportDirectory().toAbsolutePath());
+        } finally {
+            journeyExecutor.shutdownNow();
+            intervalExecutor.shutdownNow();
+        }
+    }
+
+    /** Writes a line of the throughput curve for each interval of the run. */
+    private static final class ThroughputCurve {
+
+        private final PrintStream out;
+        private final LoadResults loadResults;
+        private final ArrivalProfile arrivalProfile;
+        private final int maxInFlight;
+        private final Semaphore inFlight;
+
+        private int second;
+        private long arrivalsBefore;
+        private long droppedBefore;
+        private long failedBefore;
+
+        ThroughputCurve(
+                PrintStream out,
+                LoadResults loadResults,
+                ArrivalProfile arrivalProfile,
+                int maxInFlight,
+                Semaphore inFlight) {
+            this.out = out;
+            this.loadResults = loadResults;
+            this.arrivalProfile = arrivalProfile;
+            this.maxInFlight = maxInFlight;
+            this.inFlight = inFlight;
+        }
+
+        synchronized void writeInterval() {
+            Histogram interval = loadResults.takeJourneyInterval();
+            long arrivals = loadResults.getArrivals();
+            long dropped = loadResults.getDropped();
+            long failed = loadResults.getFailed();
+
+            second++;
+            out.printf(
+                    "%d,%.2f,%d,%d,%d,%d,%d,%.2f,%.2f,%.2f%n",
+                    second,
+                    arrivalProfile.rateAt(second - 1.0),
+                    arrivals - arrivalsBefore,
+                    dropped - droppedBefore,
+                    interval.getTotalCount(),
+                    failed - failedBefore,
+                    maxInFlight - inFlight.availablePermits(),
+                    LoadResults.toMillis(interval.getValueAtPercentile(50)),
+                    LoadResults.toMillis(interval.getValueAtPercentile(99)),
+                    LoadResults.toMillis(interval.getMaxValue()));
+
+            arrivalsBefore = arrivals;
+            droppedBefore = dropped;
+            failedBefore = failed;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import java.nio.file.Path;
+
+/**
+ * Options of an API load run, from the apiLoad.* system properties.
+ *
+ * @param maxInFlight journeys arriving while this many are in flight are dropped (and reported),
+ *     the sign the API or the generator is saturated
+ * @param privateApiUrl null for the private API gateway of the environment
+ * @param publicApiUrl null for the public API gateway of the environment
+ */
+record ApiLoadSettings(
+        ArrivalProfile arrivalProfile,
+        boolean poisson,
+        int maxInFlight,
+        String mix,
+        String criId,
+        int userDataRowNumber,
+        String passportData,
+        String privateApiUrl,
+        String publicApiUrl,
+        Path reportDirectory) {
+
+    static ApiLoadSettings fromSystemProperties() {
+        return new ApiLoadSettings(
+                ArrivalProfile.parse(System.getProperty("apiLoad.profile", "1-10/60,10/300")),
+                Boolean.parseBoolean(System.getProperty("apiLoad.poisson", "true")),
+                Integer.getInteger("apiLoad.maxInFlight", 200),
+                System.getProperty("apiLoad.mix", "stub:1"),
+                System.getProperty("apiLoad.criId", "passport-v1-cri-dev"),
+                Integer.getInteger("apiLoad.rowNumber", 6),
+                System.getProperty("apiLoad.passportData", "PassportValidKennethJsonPayload"),
+                System.getProperty("apiLoad.privateApiUrl"),
+                System.getProperty("apiLoad.publicApiUrl"),
+                Path.of(System.getProperty("apiLoad.reportDirectory", "api-load")));
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journey arrival rate over a run, as comma separated stages of {@code <rate>/<seconds>} (a
+ * constant rate) or {@code <fromRate>-<toRate>/<seconds>} (a linear ramp), rates in journeys per
+ * second, e.g. {@code 1-20/60,20/300,20-0/30}.
+ *
+ * <p>Journeys arrive at the rate whatever the response times (an open model), so a slow API builds
+ * up journeys in flight rather than lowering the load. Arrivals are evenly spaced, or with poisson
+ * the gaps between them are exponentially distributed as with real traffic.
+ */
+final class ArrivalProfile {
+
+    record Stage(double fromRate, double toRate, double seconds) {
+
+        double arrivals() {
+            return (fromRate + toRate) / 2 * seconds;
+        }
+
+        double rateAt(double offsetSeconds) {
+            return fromRate + (toRate - fromRate) * offsetSeconds / seconds;
+        }
+
+        /** @return the offset into the stage by which the number of arrivals is reached */
+        double offsetOf(double arrivals) {
+            double slope = (toRate - fromRate) / seconds;
+            if (Math.abs(slope) < 1e-9) {
+                return arrivals / fromRate;
+            }
+
+            // arrivals = fromRate * offset + slope * offset^2 / 2
+            double discriminant = Math.max(fromRate * fromRate + 2 * slope * arrivals, 0);
+            return Math.min((Math.sqrt(discriminant) - fromRate) / slope, seconds);
+        }
+    }
+
+    private final List<Stage> stages;
+    private final String spec;
+
+    private ArrivalProfile(List<Stage> stages, String spec) {
+        this.stages = stages;
+        this.spec = spec;
+    }
+
+    static ArrivalProfile parse(String spec) {
+        List<Stage> stages = new ArrayList<>();
+
+        for (String stageSpec : spec.split(",")) {
+            String[] rateAndSeconds = stageSpec.trim().split("/");
+            if (rateAndSeconds.length != 2) {
+                throw new IllegalArgumentException("Invalid arrival profile stage " + stageSpec);
+            }
+
+            String[] rates = rateAndSeconds[0].split("-");
+            Stage stage;
+            try {
+                double fromRate = Double.parseDouble(rates[0]);
+                stage =
+                        new Stage(
+                                fromRate,
+                                rates.length == 2 ? Double.parseDouble(rates[1]) : fromRate,
+                                Double.parseDouble(rateAndSeconds[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid arrival profile stage " + stageSpec, e);
+            }
+
+            if (rates.length > 2
+                    || stage.fromRate() < 0
+                    || stage.toRate() < 0
+                    || stage.seconds() <= 0) {
+                throw new IllegalArgumentException("Invalid arrival profile stage " + stageSpec);
+            }
+
+            stages.add(stage);
+        }
+
+        return new ArrivalProfile(List.copyOf(stages), spec);
+    }
+
+    double getDurationSeconds() {
+        return stages.stream().mapToDouble(Stage::seconds).sum();
+    }
+
+    /** @return the target arrival rate, 0 after the last stage */
+    double rateAt(double seconds) {
+        double stageStart = 0;
+        for (Stage stage : stages) {
+            if (seconds < stageStart + stage.seconds()) {
+                return stage.rateAt(seconds - stageStart);
+            }
+            stageStart += stage.seconds();
+        }
+
+        return 0;
+    }
+
+    /** @return the arrival times, as nanos from the start of the run */
+    long[] arrivalOffsetsNanos(boolean poisson, Random random) {
+        List<Long> offsetsNanos = new ArrayList<>();
+
+        // Arrival n is at the time the integral of the rate reaches n (or the sum of n
+        // exponentially distributed gaps for poisson arrivals)
+        double arrivalsBefore = 0;
+        double stageStart = 0;
+        double nextArrival = nextGap(poisson, random);
+        for (Stage stage : stages) {
+            double stageArrivals = stage.arrivals();
+            while (stageArrivals > 0 && nextArrival <= arrivalsBefore + stageArrivals) {
+                double offsetSeconds = stageStart + stage.offsetOf(nextArrival - arrivalsBefore);
+                offsetsNanos.add((long) (offsetSeconds * TimeUnit.SECONDS.toNanos(1)));
+                nextArrival += nextGap(poisson, random);
+            }
+
+            arrivalsBefore += stageArrivals;
+            stageStart += stage.seconds();
+        }
+
+        return offsetsNanos.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static double nextGap(boolean poisson, Random random) {
+        return poisson ? -Math.log(1 - random.nextDouble()) : 1;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
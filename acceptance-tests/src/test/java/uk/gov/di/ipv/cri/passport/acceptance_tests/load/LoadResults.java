@@ -0,0 +1,142 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HDR histograms of the latency of each traffic source's journeys and their phases, recorded in
+ * microseconds by all journeys, with the error and outcome counts. Journey latency runs from the
+ * journey's scheduled arrival, so time spent waiting to be started is not hidden (coordinated
+ * omission).
+ */
+final class LoadResults {
+
+    static final String JOURNEY = "journey";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Histogram> histogramsByPhase = new LinkedHashMap<>();
+    private final Map<String, Integer> errors = new TreeMap<>();
+    private final Map<String, Integer> outcomes = new TreeMap<>();
+
+    // All journeys, read each interval for the throughput curve
+    private final Recorder journeyRecorder =
+            new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram journeyHistogram =
+            new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private final AtomicLong arrivals = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    void recordArrival() {
+        arrivals.incrementAndGet();
+    }
+
+    void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    synchronized void recordPhase(TrafficSource trafficSource, String phase, long latencyNanos) {
+        histogramsByPhase
+                .computeIfAbsent(
+                        trafficSource.label() + " " + phase,
+                        key -> new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS))
+                .recordValue(toMicros(latencyNanos));
+    }
+
+    /** @param reason the response status code or the exception thrown */
+    synchronized void recordError(TrafficSource trafficSource, String phase, String reason) {
+        errors.merge(trafficSource.label() + " " + phase + " " + reason, 1, Integer::sum);
+    }
+
+    synchronized void recordOutcome(TrafficSource trafficSource, String outcome) {
+        outcomes.merge(trafficSource.label() + " " + outcome, 1, Integer::sum);
+    }
+
+    void recordJourney(TrafficSource trafficSource, long latencyNanos, boolean journeyCompleted) {
+        if (!journeyCompleted) {
+            failed.incrementAndGet();
+        }
+        journeyRecorder.recordValue(toMicros(latencyNanos));
+        recordPhase(trafficSource, JOURNEY, latencyNanos);
+    }
+
+    long getArrivals() {
+        return arrivals.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    /** @return the journeys finished since the last interval, which are kept for the report */
+    synchronized Histogram takeJourneyInterval() {
+        Histogram interval = journeyRecorder.getIntervalHistogram();
+        journeyHistogram.add(interval);
+        return interval;
+    }
+
+    synchronized void report(PrintStream out) {
+        out.printf(
+                "%-30s %8s %9s %9s %9s %9s %9s%n",
+                "source phase", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        report(out, "all " + JOURNEY, journeyHistogram);
+        histogramsByPhase.forEach((phase, histogram) -> report(out, phase, histogram));
+
+        outcomes.forEach((outcome, count) -> out.printf("outcome %s x%d%n", outcome, count));
+        errors.forEach((error, count) -> out.printf("error %s x%d%n", error, count));
+    }
+
+    private static void report(PrintStream out, String phase, Histogram histogram) {
+        out.printf("%-30s %8d", phase, histogram.getTotalCount());
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+        }
+        out.printf(" %9.2f%n", histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    /** Writes the full percentile distribution of each histogram, in ms, as an .hgrm file. */
+    synchronized void writeHistograms(Path directory) throws IOException {
+        writeHistogram(directory.resolve("all-" + JOURNEY + ".hgrm"), journeyHistogram);
+        for (Map.Entry<String, Histogram> entry : histogramsByPhase.entrySet()) {
+            writeHistogram(
+                    directory.resolve(entry.getKey().replace(' ', '-') + ".hgrm"),
+                    entry.getValue());
+        }
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out =
+                new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    static double toMillis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    // Clamped, a value over the highest trackable cannot be recorded
+    private static long toMicros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.di.ipv.cri.passport.acceptance_tests.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A share of the journeys, started through one IPV core stub. The stub's client id decides the
+ * DVAD strategy the check passport lambda uses (e.g. the third party stub or UAT), so a mix of
+ * sources is a mix of strategies.
+ *
+ * @param label reported with each latency and error
+ * @param coreStubUrl including the scheme
+ */
+record TrafficSource(
+        String label,
+        int weight,
+        String coreStubUrl,
+        String coreStubUsername,
+        String coreStubPassword) {
+
+    /**
+     * The sources of a comma separated mix of {@code <label>:<weight>}, e.g. {@code
+     * stub:80,uat:20}. A source's core stub is read from the coreStubUrl_<label>,
+     * coreStubUsername_<label> and coreStubPassword_<label> environment variables, each falling
+     * back to the variable without the label.
+     */
+    static List<TrafficSource> fromMix(String mix, boolean usingLocalStub) {
+        List<TrafficSource> trafficSources = new ArrayList<>();
+
+        for (String entry : mix.split(",")) {
+            String[] labelAndWeight = entry.trim().split(":");
+            int weight;
+            try {
+                weight = labelAndWeight.length == 2 ? Integer.parseInt(labelAndWeight[1]) : -1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid traffic mix entry " + entry, e);
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Invalid traffic mix entry " + entry);
+            }
+
+            String label = labelAndWeight[0];
+            String coreStubUrl = getLabelledEnv("coreStubUrl", label);
+            if (coreStubUrl == null) {
+                throw new IllegalArgumentException("No core stub url for traffic source " + label);
+            }
+
+            trafficSources.add(
+                    new TrafficSource(
+                            label,
+                            weight,
+                            (usingLocalStub ? "http://" : "https://") + coreStubUrl,
+                            getLabelledEnv("coreStubUsername", label),
+                            getLabelledEnv("coreStubPassword", label)));
+        }
+
+        return List.copyOf(trafficSources);
+    }
+
+    static TrafficSource select(List<TrafficSource> trafficSources, Random random) {
+        int totalWeight = trafficSources.stream().mapToInt(TrafficSource::weight).sum();
+
+        int roll = random.nextInt(totalWeight);
+        for (TrafficSource trafficSource : trafficSources) {
+            roll -= trafficSource.weight();
+            if (roll < 0) {
+                return trafficSource;
+            }
+        }
+
+        throw new IllegalStateException("Traffic source weights changed");
+    }
+
+    private static String getLabelledEnv(String name, String label) {
+        String value = System.getenv(name + "_" + label);
+        return value != null ? value : System.getenv(name);
+    }
+
+    @Override
+    public String toString() {
+        return label + ":" + weight;
+    }
+}
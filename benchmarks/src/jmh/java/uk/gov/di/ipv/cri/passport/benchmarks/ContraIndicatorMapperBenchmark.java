@@ -0,0 +1,90 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.passport.checkpassport.domain.result.fields.ContraIndicatorMapperResult;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.CONTRAINDICATION_MAPPINGS;
+
+/**
+ * ContraIndicatorMapper.mapFlagsToCIs with the flag map a DVAD response gives - every mapped flag
+ * present, with none, one or all of them triggering their CI.
+ */
+@State(Scope.Benchmark)
+public class ContraIndicatorMapperBenchmark {
+
+    // Every fourth mapping needs two flags, as the general and specific reason
+    private static final int CI_MAPPINGS = 20;
+
+    public enum FlagScenario {
+        NONE_MATCHING,
+        ONE_MATCHING,
+        ALL_MATCHING
+    }
+
+    @Param public FlagScenario flagScenario;
+
+    private ContraIndicatorMapper contraIndicatorMapper;
+    private Map<String, String> flagMap;
+
+    @Setup
+    public void setUp() {
+        // Only read by the constructor
+        ParameterStoreService parameterStoreService =
+                mock(ParameterStoreService.class, withSettings().stubOnly());
+        when(parameterStoreService.getParameterValue(CONTRAINDICATION_MAPPINGS))
+                .thenReturn(createCiMap());
+        ServiceFactory serviceFactory = mock(ServiceFactory.class, withSettings().stubOnly());
+        when(serviceFactory.getParameterStoreService()).thenReturn(parameterStoreService);
+
+        contraIndicatorMapper = new ContraIndicatorMapper(serviceFactory);
+
+        // All required values are true
+        Map<String, String> primingFlagMap = contraIndicatorMapper.createPrimingFlagMap();
+
+        flagMap = new HashMap<>();
+        primingFlagMap.keySet().forEach(flag -> flagMap.put(flag, "false"));
+
+        switch (flagScenario) {
+            case ONE_MATCHING -> flagMap.put("flag1", "true");
+            case ALL_MATCHING -> flagMap.putAll(primingFlagMap);
+            default -> {
+                // No flags match
+            }
+        }
+    }
+
+    @Benchmark
+    public ContraIndicatorMapperResult mapFlagsToCIs() {
+        return contraIndicatorMapper.mapFlagsToCIs(flagMap);
+    }
+
+    private static String createCiMap() {
+        StringJoiner ciMap = new StringJoiner("||");
+
+        for (int mapping = 1; mapping <= CI_MAPPINGS; mapping++) {
+            if (mapping % 4 == 0) {
+                ciMap.add(
+                        String.format(
+                                "flag%da@true,flag%db@true:C%02d", mapping, mapping, mapping));
+            } else {
+                ciMap.add(String.format("flag%d@true:C%02d", mapping, mapping));
+            }
+        }
+
+        return ciMap.toString();
+    }
+}
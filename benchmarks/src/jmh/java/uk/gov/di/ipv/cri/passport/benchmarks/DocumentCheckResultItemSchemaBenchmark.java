@@ -0,0 +1,81 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItemTableSchema;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The document check result table schema - building it (part of the function init) then writing
+ * and reading an item, the bean (reflection) schema against the static one.
+ */
+@State(Scope.Benchmark)
+public class DocumentCheckResultItemSchemaBenchmark {
+
+    private TableSchema<DocumentCheckResultItem> beanTableSchema;
+    private TableSchema<DocumentCheckResultItem> staticTableSchema;
+
+    private DocumentCheckResultItem documentCheckResultItem;
+    private Map<String, AttributeValue> documentCheckResultItemAttributeValues;
+
+    @Setup
+    public void setUp() {
+        beanTableSchema = TableSchema.fromBean(DocumentCheckResultItem.class);
+        staticTableSchema = DocumentCheckResultItemTableSchema.create();
+
+        documentCheckResultItem = new DocumentCheckResultItem();
+        documentCheckResultItem.setSessionId(UUID.randomUUID());
+        documentCheckResultItem.setTransactionId(UUID.randomUUID().toString());
+        documentCheckResultItem.setStrengthScore(4);
+        documentCheckResultItem.setValidityScore(2);
+        documentCheckResultItem.setContraIndicators(List.of());
+        documentCheckResultItem.setDocumentNumber("321654987");
+        documentCheckResultItem.setExpiryDate("2030-01-01");
+        documentCheckResultItem.setCheckDetails(List.of("scenario_1"));
+        documentCheckResultItem.setFailedCheckDetails(List.of());
+        documentCheckResultItem.setCiReasons(List.of());
+        documentCheckResultItem.setTtl(1700000000L);
+
+        documentCheckResultItemAttributeValues =
+                staticTableSchema.itemToMap(documentCheckResultItem, true);
+    }
+
+    // The bean schema caches its introspection per class, so this is a warm build only
+    @Benchmark
+    public TableSchema<DocumentCheckResultItem> createBeanTableSchema() {
+        return TableSchema.fromBean(DocumentCheckResultItem.class);
+    }
+
+    @Benchmark
+    public TableSchema<DocumentCheckResultItem> createStaticTableSchema() {
+        return DocumentCheckResultItemTableSchema.create();
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> writeItemBeanTableSchema() {
+        return beanTableSchema.itemToMap(documentCheckResultItem, true);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> writeItemStaticTableSchema() {
+        return staticTableSchema.itemToMap(documentCheckResultItem, true);
+    }
+
+    @Benchmark
+    public DocumentCheckResultItem readItemBeanTableSchema() {
+        return beanTableSchema.mapToItem(documentCheckResultItemAttributeValues);
+    }
+
+    @Benchmark
+    public DocumentCheckResultItem readItemStaticTableSchema() {
+        return staticTableSchema.mapToItem(documentCheckResultItemAttributeValues);
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.GraphQLAPIResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.ResponseData;
+import uk.gov.di.ipv.cri.passport.library.dvad.util.responses.ResponseDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+/** Parsing the DVAD graphql response, with the response flags alongside the validation result. */
+@State(Scope.Benchmark)
+public class GraphQLAPIResponseBenchmark {
+
+    private static final int RESPONSE_FLAGS = 20;
+
+    private ObjectMapper objectMapper;
+    private String graphQLAPIResponseJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ServiceFactory().getObjectMapper();
+
+        ResponseData responseData = ResponseDataGenerator.createValidationResultTrueResponseData();
+        for (int flag = 1; flag <= RESPONSE_FLAGS; flag++) {
+            responseData.getValidatePassport().put("flag" + flag, "false");
+        }
+
+        graphQLAPIResponseJson =
+                objectMapper.writeValueAsString(
+                        GraphQLAPIResponse.builder().data(responseData).build());
+    }
+
+    @Benchmark
+    public GraphQLAPIResponse parseGraphQLAPIResponse() throws JsonProcessingException {
+        return objectMapper.readValue(graphQLAPIResponseJson, GraphQLAPIResponse.class);
+    }
+}
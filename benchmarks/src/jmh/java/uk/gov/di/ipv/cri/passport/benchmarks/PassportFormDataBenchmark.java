@@ -0,0 +1,46 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
+import uk.gov.di.ipv.cri.passport.checkpassport.validation.ValidationResult;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.util.List;
+
+/** The check passport request body - parsing then validating the passport form. */
+@State(Scope.Benchmark)
+public class PassportFormDataBenchmark {
+
+    private ObjectMapper objectMapper;
+    private FormDataValidator formDataValidator;
+
+    private String passportFormDataJson;
+    private PassportFormData passportFormData;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // As configured for the lambdas
+        objectMapper = new ServiceFactory().getObjectMapper();
+        formDataValidator = new FormDataValidator();
+
+        passportFormData = PassportFormTestDataGenerator.generate();
+        passportFormDataJson = objectMapper.writeValueAsString(passportFormData);
+    }
+
+    @Benchmark
+    public PassportFormData parsePassportFormData() throws JsonProcessingException {
+        return objectMapper.readValue(passportFormDataJson, PassportFormData.class);
+    }
+
+    @Benchmark
+    public ValidationResult<List<String>> validatePassportFormData() {
+        return formDataValidator.validate(passportFormData);
+    }
+}
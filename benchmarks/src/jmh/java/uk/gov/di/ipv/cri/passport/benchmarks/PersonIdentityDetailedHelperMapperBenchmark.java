@@ -0,0 +1,47 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.passport.library.DocumentCheckTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+
+import java.util.UUID;
+
+/** The passport form and stored person identity mapped to the audit restricted format. */
+@State(Scope.Benchmark)
+public class PersonIdentityDetailedHelperMapperBenchmark {
+
+    private PassportFormData passportFormData;
+    private PersonIdentityDetailed personIdentityDetailed;
+    private DocumentCheckResultItem documentCheckResultItem;
+
+    @Setup
+    public void setUp() {
+        passportFormData = PassportFormTestDataGenerator.generate();
+        personIdentityDetailed =
+                PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                        passportFormData);
+        documentCheckResultItem =
+                DocumentCheckTestDataGenerator.generateVerifiedResultItem(
+                        UUID.randomUUID(), passportFormData.getPassportNumber());
+    }
+
+    @Benchmark
+    public PersonIdentityDetailed passportFormDataToAuditRestrictedFormat() {
+        return PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                passportFormData);
+    }
+
+    @Benchmark
+    public PersonIdentityDetailed mapPersonIdentityDetailedAndPassportDataToAuditRestricted() {
+        return PersonIdentityDetailedHelperMapper
+                .mapPersonIdentityDetailedAndPassportDataToAuditRestricted(
+                        personIdentityDetailed, documentCheckResultItem);
+    }
+}
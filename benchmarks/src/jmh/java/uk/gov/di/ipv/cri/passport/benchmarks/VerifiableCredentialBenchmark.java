@@ -0,0 +1,128 @@
+package uk.gov.di.ipv.cri.passport.benchmarks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.passport.issuecredential.domain.verifiablecredential.Evidence;
+import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.issuecredential.util.EvidenceHelper;
+import uk.gov.di.ipv.cri.passport.library.DocumentCheckTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.VerifiableCredentialServiceTestFixtures;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
+
+/**
+ * Issuing the passport VC - the evidence, the VC claims and the ES256 signature. The claims are
+ * measured with a signer returning a fixed signature, so the signature cost is only in
+ * signVerifiableCredential.
+ *
+ * <p>The configuration lookups are answered by stub-only mocks.
+ */
+@State(Scope.Benchmark)
+public class VerifiableCredentialBenchmark implements VerifiableCredentialServiceTestFixtures {
+
+    private static final String SUBJECT = "urn:fdc:12345678";
+
+    private DocumentCheckResultItem documentCheckResultItem;
+    private PersonIdentityDetailed personIdentityDetailed;
+
+    private VerifiableCredentialService unsignedVerifiableCredentialService;
+    private VerifiableCredentialService verifiableCredentialService;
+
+    @Setup
+    public void setUp() throws InvalidKeySpecException, NoSuchAlgorithmException, JOSEException {
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        documentCheckResultItem =
+                DocumentCheckTestDataGenerator.generateVerifiedResultItem(
+                        UUID.randomUUID(), passportFormData.getPassportNumber());
+        personIdentityDetailed =
+                PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                        passportFormData);
+
+        ParameterStoreService parameterStoreService =
+                mock(ParameterStoreService.class, withSettings().stubOnly());
+        when(parameterStoreService.getStackParameterValue(MAX_JWT_TTL_UNIT)).thenReturn("SECONDS");
+
+        ConfigurationService configurationService =
+                mock(ConfigurationService.class, withSettings().stubOnly());
+        when(configurationService.getMaxJwtTtl()).thenReturn(15780000L);
+        when(configurationService.getVerifiableCredentialIssuer())
+                .thenReturn("https://review-p.account.gov.uk");
+
+        ServiceFactory serviceFactory = mock(ServiceFactory.class, withSettings().stubOnly());
+        when(serviceFactory.getObjectMapper()).thenReturn(new ServiceFactory().getObjectMapper());
+        when(serviceFactory.getParameterStoreService()).thenReturn(parameterStoreService);
+        when(serviceFactory.getCommonLibConfigurationService()).thenReturn(configurationService);
+
+        unsignedVerifiableCredentialService =
+                new VerifiableCredentialService(serviceFactory, new FixedSignatureSigner());
+        verifiableCredentialService =
+                new VerifiableCredentialService(serviceFactory, new ECDSASigner(getPrivateKey()));
+    }
+
+    @Benchmark
+    public Evidence documentCheckResultItemToEvidence() {
+        return EvidenceHelper.documentCheckResultItemToEvidence(documentCheckResultItem);
+    }
+
+    @Benchmark
+    public SignedJWT buildVerifiableCredential() throws JOSEException, NoSuchAlgorithmException {
+        return unsignedVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                SUBJECT, documentCheckResultItem, personIdentityDetailed);
+    }
+
+    @Benchmark
+    public SignedJWT signVerifiableCredential() throws JOSEException, NoSuchAlgorithmException {
+        return verifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                SUBJECT, documentCheckResultItem, personIdentityDetailed);
+    }
+
+    // An ES256 sized signature of zeros
+    private static class FixedSignatureSigner implements JWSSigner {
+
+        private static final Base64URL SIGNATURE = Base64URL.encode(new byte[64]);
+
+        private final JCAContext jcaContext = new JCAContext();
+
+        @Override
+        public Base64URL sign(JWSHeader header, byte[] signingInput) {
+            return SIGNATURE;
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(JWSAlgorithm.ES256);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
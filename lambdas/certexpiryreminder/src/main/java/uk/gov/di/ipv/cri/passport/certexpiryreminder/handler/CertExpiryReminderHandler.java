@@ -8,10 +8,10 @@ import software.amazon.lambda.powertools.logging.CorrelationIdPathConstants;
 import software.amazon.lambda.powertools.logging.Logging;
 import software.amazon.lambda.powertools.metrics.Metrics;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
-import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.passport.certexpiryreminder.handler.config.CertExpiryReminderConfig;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
@@ -37,12 +37,12 @@ public class CertExpiryReminderHandler implements RequestHandler<Object, Object>
     @ExcludeFromGeneratedCoverageReport
     public CertExpiryReminderHandler() {
         // Note avoidExecutionInterceptorsOnClientsUsedByPowerTools being false is safe as long as
-        // no
-        // ssm secrets/parameters are read in the constructor
-        ClientProviderFactory clientProviderFactory = new ClientProviderFactory(true, false);
-
+        // no ssm secrets/parameters are read in the constructor (this handler's
+        // ClientProviderFactory). The parameters are now read with the ServiceFactory SsmClient,
+        // which is built as the clients used by the powertools providers are, and still only in
+        // handleRequest.
         this.parameterStoreService =
-                new ParameterStoreService(clientProviderFactory.getSSMProvider());
+                new ParameterStoreService(new ServiceFactory().getSsmClient());
 
         this.certExpiryReminderConfig = new CertExpiryReminderConfig(parameterStoreService);
 
@@ -18,7 +18,6 @@ import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.SharedClaims;
 import uk.gov.di.ipv.cri.common.library.exception.SessionExpiredException;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
@@ -29,14 +28,21 @@ import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
 import uk.gov.di.ipv.cri.passport.checkpassport.services.DocumentDataVerificationService;
 import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
 import uk.gov.di.ipv.cri.passport.checkpassport.services.ThirdPartyAPIServiceFactory;
+import uk.gov.di.ipv.cri.passport.checkpassport.snapstart.CheckPassportPrimingResource;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
 import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
 import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
 import uk.gov.di.ipv.cri.passport.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
 import uk.gov.di.ipv.cri.passport.library.metrics.Definitions;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
@@ -50,7 +56,10 @@ import java.util.regex.Pattern;
 
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_EXPIRED;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.CONTRAINDICATION_MAPPINGS;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME;
 import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TTL_PARAMETER;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_DVAD_PARAMETER_PATH;
 import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.*;
 
 public class CheckPassportHandler
@@ -67,6 +76,15 @@ public class CheckPassportHandler
     // Maximum submissions from the front end form
     private static final int MAX_ATTEMPTS = 2;
 
+    // Parameters loaded during function init
+    private static final PassportConfigSnapshotSpec CONFIG_SNAPSHOT_SPEC =
+            PassportConfigSnapshotSpec.builder()
+                    .parameterPath(HMPO_DVAD_PARAMETER_PATH)
+                    .parameter(CONTRAINDICATION_MAPPINGS)
+                    .stackParameter(DOCUMENT_CHECK_RESULT_TABLE_NAME)
+                    .commonParameter(DOCUMENT_CHECK_RESULT_TTL_PARAMETER)
+                    .build();
+
     // Return values for retry scenario
     public static final String RESULT = "result";
     public static final String RESULT_RETRY = "retry";
@@ -75,6 +93,8 @@ public class CheckPassportHandler
 
     // CRI-Lib Common Services and objects
     private EventProbe eventProbe;
+    private AccumulatingEventProbe accumulatingEventProbe;
+    private InvocationTimeline invocationTimeline;
     private SessionService sessionService;
     private PersonIdentityService personIdentityService;
 
@@ -84,10 +104,15 @@ public class CheckPassportHandler
     // Check Passport only service
     private DocumentDataVerificationService documentDataVerificationService;
 
-    // Shared DataStore (Write)
-    private DataStore<DocumentCheckResultItem> documentCheckResultStore;
+    // Shared document check result store (Write)
+    private DocumentCheckResultStore documentCheckResultStore;
 
     private ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory;
+    private ThirdPartyAPIEndpointLatencyHistograms thirdPartyAPIEndpointLatencyHistograms;
+    private AwsSdkCallMetrics awsSdkCallMetrics;
+
+    // Held here as the CRaC global context only holds weak references to resources
+    private CheckPassportPrimingResource checkPassportPrimingResource;
 
     private long functionInitMetricLatchedValue = 0;
     private boolean functionInitMetricCaptured = false;
@@ -96,16 +121,27 @@ public class CheckPassportHandler
     public CheckPassportHandler() throws JsonProcessingException {
         // A reference to serviceFactory is not held in this class
         ServiceFactory serviceFactory = new ServiceFactory();
+        serviceFactory.loadConfigSnapshot(CONFIG_SNAPSHOT_SPEC);
+
+        FormDataValidator formDataValidator = new FormDataValidator();
+        ContraIndicatorMapper contraIndicatorMapper = new ContraIndicatorMapper(serviceFactory);
 
         // DocumentDataVerificationService is internal to CheckPassportHandler
         DocumentDataVerificationService documentDataVerificationServiceNotAssignedYet =
                 new DocumentDataVerificationService(
-                        serviceFactory,
-                        new FormDataValidator(),
-                        new ContraIndicatorMapper(serviceFactory));
+                        serviceFactory, formDataValidator, contraIndicatorMapper);
 
         // initializeLambdaServices is used to reduce uncovered code in the default constructor
         initializeLambdaServices(serviceFactory, documentDataVerificationServiceNotAssignedYet);
+
+        // Primes before the SnapStart checkpoint (only registered in the lambda runtime)
+        checkPassportPrimingResource =
+                new CheckPassportPrimingResource(
+                        serviceFactory,
+                        formDataValidator,
+                        contraIndicatorMapper,
+                        thirdPartyAPIServiceFactory);
+        checkPassportPrimingResource.register();
     }
 
     public CheckPassportHandler(
@@ -123,6 +159,8 @@ public class CheckPassportHandler
         this.parameterStoreService = serviceFactory.getParameterStoreService();
 
         this.eventProbe = serviceFactory.getEventProbe();
+        this.accumulatingEventProbe = serviceFactory.getAccumulatingEventProbe();
+        this.invocationTimeline = serviceFactory.getInvocationTimeline();
         this.sessionService = serviceFactory.getSessionService();
         this.personIdentityService = serviceFactory.getPersonIdentityService();
 
@@ -131,6 +169,9 @@ public class CheckPassportHandler
         this.documentCheckResultStore = serviceFactory.getDocumentCheckResultStore();
 
         this.thirdPartyAPIServiceFactory = new ThirdPartyAPIServiceFactory(serviceFactory);
+        this.thirdPartyAPIEndpointLatencyHistograms =
+                serviceFactory.getThirdPartyAPIEndpointLatencyHistograms();
+        this.awsSdkCallMetrics = serviceFactory.getAwsSdkCallMetrics();
 
         // Runtime/SnapStart function init duration
         functionInitMetricLatchedValue =
@@ -142,6 +183,7 @@ public class CheckPassportHandler
     @Metrics(captureColdStart = true)
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
+        invocationTimeline.begin("check_passport");
         try {
             LOGGER.info(
                     "Initiating lambda {} version {}",
@@ -158,6 +200,15 @@ public class CheckPassportHandler
                 functionInitMetricCaptured = true;
             }
 
+            // Parameter lookups since the last invocation (or function init)
+            parameterStoreService.publishCacheMetrics(eventProbe);
+
+            // Third party latencies since the last invocation
+            thirdPartyAPIEndpointLatencyHistograms.publishInterval(eventProbe);
+
+            // AWS call latency percentiles, at most once per publish interval
+            awsSdkCallMetrics.publishIfDue(eventProbe);
+
             long runTimeDuration =
                     System.currentTimeMillis() - FUNCTION_INIT_START_TIME_MILLISECONDS;
 
@@ -182,7 +233,9 @@ public class CheckPassportHandler
             }
 
             LOGGER.info("Extracting session from header ID {}", sessionId);
+            invocationTimeline.startPhase("session_validation");
             var sessionItem = sessionService.validateSessionId(sessionId);
+            invocationTimeline.stopPhase("session_validation");
 
             String clientId = sessionItem.getClientId();
             Strategy thirdPartyRouting = Strategy.fromClientIdString(clientId);
@@ -212,7 +265,9 @@ public class CheckPassportHandler
                 return lambdaCompletedOK(responseEvent);
             }
             ThirdPartyAPIService thirdPartyAPIService;
+            invocationTimeline.startPhase("form_parse");
             PassportFormData passportFormData = parsePassportFormRequest(input.getBody());
+            invocationTimeline.stopPhase("form_parse");
             eventProbe.counterMetric(FORM_DATA_PARSE_PASS);
             // ClientID dictates switch conditional, return new api service based on clientID value
             if (thirdPartyRouting == Strategy.STUB) {
@@ -239,8 +294,10 @@ public class CheckPassportHandler
                             sessionItem, documentDataVerificationResult, MAX_ATTEMPTS);
             LOGGER.info("CanRetry {}", canRetry);
 
+            invocationTimeline.startPhase("response_generation");
             APIGatewayProxyResponseEvent responseEvent =
                     determineExitResponseEvent(sessionItem, canRetry);
+            invocationTimeline.stopPhase("response_generation");
 
             // Use the completed OK exit sequence
             return lambdaCompletedOK(responseEvent);
@@ -313,6 +370,12 @@ public class CheckPassportHandler
             return ApiGatewayResponseGenerator.proxyJsonResponse(
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     new CommonExpressOAuthError(OAuth2Error.SERVER_ERROR));
+        } finally {
+            // One record per invocation, including the failed ones
+            invocationTimeline.emit();
+            if (accumulatingEventProbe != null) {
+                accumulatingEventProbe.flush();
+            }
         }
     }
 
@@ -407,6 +470,7 @@ public class CheckPassportHandler
         // each specific API Request
 
         LOGGER.info("Saving person identity...");
+        invocationTimeline.startPhase("save_person_identity");
         BirthDate birthDate = new BirthDate();
         birthDate.setValue(passportFormData.getDateOfBirth());
 
@@ -418,14 +482,17 @@ public class CheckPassportHandler
                                 passportFormData.getForenames(), passportFormData.getSurname())));
 
         personIdentityService.savePersonIdentity(sessionItem.getSessionId(), sharedClaims);
+        invocationTimeline.stopPhase("save_person_identity");
         LOGGER.info("Person identity saved.");
 
         LOGGER.info("Saving document check results...");
+        invocationTimeline.startPhase("save_document_check_result");
         final DocumentCheckResultItem documentCheckResultItem =
                 mapDocumentDataVerificationResultToDocumentCheckResultItem(
                         sessionItem, documentDataVerificationResult, passportFormData);
 
         documentCheckResultStore.create(documentCheckResultItem);
+        invocationTimeline.stopPhase("save_document_check_result");
         LOGGER.info("Document check results saved.");
 
         // NOTE: sessionItem.attemptCount is persisted at this point as
@@ -433,7 +500,9 @@ public class CheckPassportHandler
         // calling updateSession() to persist the authorization code
         // There is no need to-do two separate db calls
         LOGGER.info("Generating authorization code...");
+        invocationTimeline.startPhase("create_authorization_code");
         sessionService.createAuthorizationCode(sessionItem);
+        invocationTimeline.stopPhase("create_authorization_code");
         LOGGER.info("Authorization code saved.");
     }
 
@@ -1,9 +1,24 @@
 package uk.gov.di.ipv.cri.passport.checkpassport.handler;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
+
+import java.io.IOException;
 
 @ExcludeFromGeneratedCoverageReport
+// (De)serialized without reflection, keep the nested classes in step with the properties
+@JsonSerialize(using = CheckPassportSuccessResponse.CheckPassportSuccessResponseSerializer.class)
+@JsonDeserialize(
+        using = CheckPassportSuccessResponse.CheckPassportSuccessResponseDeserializer.class)
 public class CheckPassportSuccessResponse {
     @JsonProperty("session_id")
     private final String passportSessionId;
@@ -34,4 +49,84 @@ public class CheckPassportSuccessResponse {
     public String getRedirectURI() {
         return redirectURI;
     }
+
+    static class CheckPassportSuccessResponseSerializer
+            extends StdSerializer<CheckPassportSuccessResponse> {
+
+        CheckPassportSuccessResponseSerializer() {
+            super(CheckPassportSuccessResponse.class);
+        }
+
+        @Override
+        public void serialize(
+                CheckPassportSuccessResponse value,
+                JsonGenerator jsonGenerator,
+                SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            jsonGenerator.writeStringField("session_id", value.passportSessionId);
+            jsonGenerator.writeStringField("state", value.state);
+            jsonGenerator.writeStringField("redirect_uri", value.redirectURI);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    static class CheckPassportSuccessResponseDeserializer
+            extends StdDeserializer<CheckPassportSuccessResponse> {
+
+        CheckPassportSuccessResponseDeserializer() {
+            super(CheckPassportSuccessResponse.class);
+        }
+
+        @Override
+        public CheckPassportSuccessResponse deserialize(
+                JsonParser jsonParser, DeserializationContext context) throws IOException {
+            if (!JsonStreamingHelper.isAtObject(jsonParser)) {
+                return (CheckPassportSuccessResponse)
+                        context.handleUnexpectedToken(
+                                CheckPassportSuccessResponse.class, jsonParser);
+            }
+
+            String passportSessionId = null;
+            String state = null;
+            String redirectURI = null;
+            boolean hasPassportSessionId = false;
+            boolean hasState = false;
+            boolean hasRedirectURI = false;
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                switch (name) {
+                    case "session_id" -> {
+                        passportSessionId = JsonStreamingHelper.readString(jsonParser, context);
+                        hasPassportSessionId = true;
+                    }
+                    case "state" -> {
+                        state = JsonStreamingHelper.readString(jsonParser, context);
+                        hasState = true;
+                    }
+                    case "redirect_uri" -> {
+                        redirectURI = JsonStreamingHelper.readString(jsonParser, context);
+                        hasRedirectURI = true;
+                    }
+                    default -> context.handleUnknownProperty(
+                            jsonParser, this, CheckPassportSuccessResponse.class, name);
+                }
+            }
+
+            if (!hasPassportSessionId) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, CheckPassportSuccessResponse.class, "session_id");
+            } else if (!hasState) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, CheckPassportSuccessResponse.class, "state");
+            } else if (!hasRedirectURI) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, CheckPassportSuccessResponse.class, "redirect_uri");
+            }
+
+            return new CheckPassportSuccessResponse(passportSessionId, state, redirectURI);
+        }
+    }
 }
@@ -122,6 +122,24 @@ public class ContraIndicatorMapper {
         }
     }
 
+    /**
+     * Creates a flag map in which every mapped flag is set to the value that triggers its CI. Used
+     * to exercise mapFlagsToCIs when priming, the map contains sensitive flag names and is never
+     * logged.
+     *
+     * @return flag map matching every mapping
+     */
+    public Map<String, String> createPrimingFlagMap() {
+        Map<String, String> primingFlagMap = new HashMap<>();
+
+        for (Map.Entry<String, ContraIndicatorComplexMapping> entry :
+                flagToContraIndicatorMappings.entrySet()) {
+            primingFlagMap.put(entry.getKey(), entry.getValue().getRequiredFlagValue());
+        }
+
+        return primingFlagMap;
+    }
+
     public ContraIndicatorMapperResult mapFlagsToCIs(Map<String, String> flagMap) {
         Objects.requireNonNull(flagMap, "flagMap must not be null");
 
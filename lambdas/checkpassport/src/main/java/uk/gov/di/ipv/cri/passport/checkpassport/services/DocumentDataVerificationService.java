@@ -20,6 +20,8 @@ import uk.gov.di.ipv.cri.passport.library.domain.result.fields.APIResultSource;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.jfr.ThirdPartyCheckEvent;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
 
@@ -44,6 +46,7 @@ public class DocumentDataVerificationService {
     private static final int MIN_PASSPORT_GPG45_VALUE = 0;
 
     private final EventProbe eventProbe;
+    private final InvocationTimeline invocationTimeline;
     private final AuditService auditService;
 
     private final FormDataValidator formDataValidator;
@@ -55,6 +58,7 @@ public class DocumentDataVerificationService {
             ContraIndicatorMapper contraIndicatorMapper) {
 
         this.eventProbe = serviceFactory.getEventProbe();
+        this.invocationTimeline = serviceFactory.getInvocationTimeline();
         this.auditService = serviceFactory.getAuditService();
 
         this.formDataValidator = formDataValidator;
@@ -71,8 +75,10 @@ public class DocumentDataVerificationService {
             throws OAuthErrorResponseException {
         try {
             LOGGER.info("Validating form data...");
+            invocationTimeline.startPhase("form_validation");
             ValidationResult<List<String>> validationResult =
                     this.formDataValidator.validate(passportFormData);
+            invocationTimeline.stopPhase("form_validation");
             if (!validationResult.isValid()) {
                 String errorMessages = String.join(",", validationResult.getError());
                 LOGGER.error(
@@ -89,10 +95,13 @@ public class DocumentDataVerificationService {
 
             LOGGER.info(
                     "Performing data verification using {}", thirdPartyAPIService.getServiceName());
+            invocationTimeline.startPhase("third_party_check");
             ThirdPartyAPIResult thirdPartyAPIResult =
-                    thirdPartyAPIService.performCheck(passportFormData, strategy);
+                    performThirdPartyCheck(thirdPartyAPIService, passportFormData, strategy);
+            invocationTimeline.stopPhase("third_party_check");
 
             LOGGER.info("Sending audit event {}...", AuditEventType.REQUEST_SENT);
+            invocationTimeline.startPhase("audit_request_sent");
             auditService.sendAuditEvent(
                     AuditEventType.REQUEST_SENT,
                     new AuditEventContext(
@@ -100,14 +109,17 @@ public class DocumentDataVerificationService {
                                     .passportFormDataToAuditRestrictedFormat(passportFormData),
                             requestHeaders,
                             sessionItem));
+            invocationTimeline.stopPhase("audit_request_sent");
 
             LOGGER.info("Third party response mapped");
 
             APIResultSource apiResultSource = thirdPartyAPIResult.getApiResultSource();
 
             LOGGER.info("Mapping contra-indicators from Third party response");
+            invocationTimeline.startPhase("ci_mapping");
             ContraIndicatorMapperResult contraIndicatorMapperResult =
                     getContraIndicatorsResult(thirdPartyAPIResult);
+            invocationTimeline.stopPhase("ci_mapping");
 
             List<String> cis = contraIndicatorMapperResult.contraIndicators();
             int documentStrengthScore = MAX_PASSPORT_GPG45_STRENGTH_VALUE;
@@ -149,10 +161,12 @@ public class DocumentDataVerificationService {
                     contraIndicatorMapperResult.contraIndicatorReasons());
 
             LOGGER.info("Sending audit event {}...", AuditEventType.RESPONSE_RECEIVED);
+            invocationTimeline.startPhase("audit_response_received");
             auditService.sendAuditEvent(
                     AuditEventType.RESPONSE_RECEIVED,
                     new AuditEventContext(requestHeaders, sessionItem),
                     null);
+            invocationTimeline.stopPhase("audit_response_received");
 
             LOGGER.info(
                     "Document Data Verification Request Completed Indicators {}, Strength Score {}, Validity Score {}",
@@ -190,6 +204,30 @@ public class DocumentDataVerificationService {
     }
 
     // Handles the special case processing for the DOCUMENT_DATA_VERIFICATION_CI
+    // Recorded as a ThirdPartyCheckEvent when the flight recorder is running
+    private ThirdPartyAPIResult performThirdPartyCheck(
+            ThirdPartyAPIService thirdPartyAPIService,
+            PassportFormData passportFormData,
+            Strategy strategy)
+            throws OAuthErrorResponseException {
+        ThirdPartyCheckEvent thirdPartyCheckEvent =
+                new ThirdPartyCheckEvent(thirdPartyAPIService.getServiceName(), strategy.name());
+        thirdPartyCheckEvent.begin();
+
+        try {
+            ThirdPartyAPIResult thirdPartyAPIResult =
+                    thirdPartyAPIService.performCheck(passportFormData, strategy);
+            thirdPartyCheckEvent.setStatus(ThirdPartyCheckEvent.STATUS_OK);
+
+            return thirdPartyAPIResult;
+        } catch (OAuthErrorResponseException e) {
+            thirdPartyCheckEvent.setStatus(e.getErrorReason());
+            throw e;
+        } finally {
+            thirdPartyCheckEvent.commit();
+        }
+    }
+
     private ContraIndicatorMapperResult getContraIndicatorsResult(
             ThirdPartyAPIResult thirdPartyAPIResult) {
 
@@ -11,7 +11,7 @@ import java.util.Objects;
 public class FormDataValidator {
     private static final int NAME_STRING_MAX_LEN = 1024;
 
-    ValidationResult<List<String>> validate(PassportFormData passportForm) {
+    public ValidationResult<List<String>> validate(PassportFormData passportForm) {
         List<String> validationErrors = new ArrayList<>();
 
         List<String> foreNames = passportForm.getForenames();
@@ -4,9 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.impl.client.CloseableHttpClient;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
 import uk.gov.di.ipv.cri.passport.library.dvad.services.DVADCloseableHttpClientFactory;
 import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadThirdPartyAPIService;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.SharedDvadAccessToken;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.SharedDvadHealthState;
 import uk.gov.di.ipv.cri.passport.library.dvad.services.endpoints.DvadAPIEndpointFactory;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
@@ -17,13 +21,19 @@ public class ThirdPartyAPIServiceFactory {
     private final ObjectMapper objectMapper;
 
     private final ParameterStoreService parameterStoreService;
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
+    // Null unless the DVAD circuit state is shared across containers
+    private final SharedDvadHealthState sharedDvadHealthState;
+    // Null unless the DVAD access token is shared across containers
+    private final SharedDvadAccessToken sharedDvadAccessToken;
 
     public final ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
 
     // UAT/LIVE DVAD(0) - STUB DVAD(1)
     private static final int DVAD = 0;
     private static final int STUB = 1;
-    private final ThirdPartyAPIService[] thirdPartyAPIServices = new ThirdPartyAPIService[2];
+    private final DvadThirdPartyAPIService[] thirdPartyAPIServices =
+            new DvadThirdPartyAPIService[2];
 
     public ThirdPartyAPIServiceFactory(ServiceFactory serviceFactory)
             throws JsonProcessingException {
@@ -31,47 +41,70 @@ public class ThirdPartyAPIServiceFactory {
         this.eventProbe = serviceFactory.getEventProbe();
         this.objectMapper = serviceFactory.getObjectMapper();
         this.apacheHTTPClientFactoryService = serviceFactory.getApacheHTTPClientFactoryService();
+        this.latencyHistograms = serviceFactory.getThirdPartyAPIEndpointLatencyHistograms();
+        this.sharedDvadHealthState =
+                SharedDvadHealthState.fromEnvironment(
+                                () ->
+                                        serviceFactory
+                                                .getClientProviderFactory()
+                                                .getDynamoDbEnhancedClient())
+                        .orElse(null);
+        this.sharedDvadAccessToken =
+                SharedDvadAccessToken.fromEnvironment(
+                                () ->
+                                        serviceFactory
+                                                .getClientProviderFactory()
+                                                .getDynamoDbEnhancedClient(),
+                                () -> serviceFactory.getClientProviderFactory().getKMSClient(),
+                                objectMapper,
+                                eventProbe)
+                        .orElse(null);
 
         // Done this way to allow switching if needed to lazy init + singletons
         thirdPartyAPIServices[DVAD] = createDvadThirdPartyAPIService();
         thirdPartyAPIServices[STUB] = createDvadThirdPartyAPIServiceForStub();
     }
 
-    private ThirdPartyAPIService createDvadThirdPartyAPIService() throws JsonProcessingException {
+    private DvadThirdPartyAPIService createDvadThirdPartyAPIService()
+            throws JsonProcessingException {
 
         CloseableHttpClient closeableHttpClient =
-                new DVADCloseableHttpClientFactory()
+                new DVADCloseableHttpClientFactory(eventProbe)
                         .getClient(true, parameterStoreService, apacheHTTPClientFactoryService);
 
         // Reduces constructor load in DvadThirdPartyAPIService and allow endpoints to be mocked
         DvadAPIEndpointFactory dvadAPIEndpointFactory =
-                new DvadAPIEndpointFactory(parameterStoreService);
+                new DvadAPIEndpointFactory(parameterStoreService, latencyHistograms);
 
         return new DvadThirdPartyAPIService(
                 dvadAPIEndpointFactory,
                 parameterStoreService,
                 eventProbe,
                 closeableHttpClient,
-                objectMapper);
+                objectMapper,
+                sharedDvadHealthState,
+                sharedDvadAccessToken);
     }
 
-    private ThirdPartyAPIService createDvadThirdPartyAPIServiceForStub()
+    private DvadThirdPartyAPIService createDvadThirdPartyAPIServiceForStub()
             throws JsonProcessingException {
 
         CloseableHttpClient closeableHttpClient =
-                new DVADCloseableHttpClientFactory()
+                new DVADCloseableHttpClientFactory(eventProbe)
                         .getClient(false, parameterStoreService, apacheHTTPClientFactoryService);
 
         // Reduces constructor load in DvadThirdPartyAPIService and allow endpoints to be mocked
         DvadAPIEndpointFactory dvadAPIEndpointFactory =
-                new DvadAPIEndpointFactory(parameterStoreService);
+                new DvadAPIEndpointFactory(parameterStoreService, latencyHistograms);
 
         return new DvadThirdPartyAPIService(
                 dvadAPIEndpointFactory,
                 parameterStoreService,
                 eventProbe,
                 closeableHttpClient,
-                objectMapper);
+                objectMapper,
+                sharedDvadHealthState,
+                sharedDvadAccessToken);
     }
 
     public ThirdPartyAPIService getDvadThirdPartyAPIService() {
@@ -81,4 +114,14 @@ public class ThirdPartyAPIServiceFactory {
     public ThirdPartyAPIService getDvadThirdPartyAPIServiceForStub() {
         return thirdPartyAPIServices[STUB];
     }
+
+    /**
+     * Opens a connection to DVAD (UAT/LIVE) which is left pooled for the next check.
+     *
+     * @param strategy the DVAD endpoint to connect to
+     * @return true if DVAD reported UP
+     */
+    public boolean openDvadConnection(Strategy strategy) {
+        return thirdPartyAPIServices[DVAD].openConnection(strategy);
+    }
 }
@@ -0,0 +1,211 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.snapstart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
+import uk.gov.di.ipv.cri.passport.checkpassport.domain.result.fields.ContraIndicatorMapperResult;
+import uk.gov.di.ipv.cri.passport.checkpassport.handler.CheckPassportSuccessResponse;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ThirdPartyAPIServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.domain.result.ThirdPartyAPIResult;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadThirdPartyAPIService;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.endpoints.DvadAPIEndpointFactory;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.snapstart.PrimingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.snapstart.SnapStartPrimingResource;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static uk.gov.di.ipv.cri.passport.checkpassport.handler.CheckPassportHandler.RESULT;
+import static uk.gov.di.ipv.cri.passport.checkpassport.handler.CheckPassportHandler.RESULT_RETRY;
+
+/**
+ * Runs the check passport request path (form parse + validation, the DVAD health/token/graphql
+ * exchange against an in-memory DVAD, including a rejected graphql request, CI mapping and result
+ * serialisation) before the SnapStart checkpoint. No remote writes are made, DVAD is not called.
+ */
+public class CheckPassportPrimingResource extends SnapStartPrimingResource {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // DVAD endpoint reconnected to after restore (UAT/LIVE), any other value disables
+    private static final String RESTORE_CONNECTION_STRATEGY =
+            "SNAPSTART_RESTORE_CONNECTION_STRATEGY";
+
+    private static final String PRIMING_FORM_DATA =
+            """
+            {
+                "passportNumber": "123456789",
+                "surname": "Priming",
+                "forenames": ["Snap", "Start"],
+                "dateOfBirth": "1970-01-01",
+                "expiryDate": "2099-01-01"
+            }
+            """;
+
+    private final ObjectMapper objectMapper;
+    private final ParameterStoreService parameterStoreService;
+    private final ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
+
+    private final FormDataValidator formDataValidator;
+    private final ContraIndicatorMapper contraIndicatorMapper;
+    private final ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory;
+
+    public CheckPassportPrimingResource(
+            ServiceFactory serviceFactory,
+            FormDataValidator formDataValidator,
+            ContraIndicatorMapper contraIndicatorMapper,
+            ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory) {
+        this.objectMapper = serviceFactory.getObjectMapper();
+        this.parameterStoreService = serviceFactory.getParameterStoreService();
+        this.apacheHTTPClientFactoryService = serviceFactory.getApacheHTTPClientFactoryService();
+
+        this.formDataValidator = formDataValidator;
+        this.contraIndicatorMapper = contraIndicatorMapper;
+        this.thirdPartyAPIServiceFactory = thirdPartyAPIServiceFactory;
+    }
+
+    @Override
+    protected void prime() throws IOException, OAuthErrorResponseException {
+        PassportFormData passportFormData =
+                objectMapper.readValue(PRIMING_FORM_DATA, PassportFormData.class);
+        formDataValidator.validate(passportFormData);
+
+        // Same service and endpoint factory as a real check, only the http client differs
+        // (priming latencies are kept out of the shared latency histograms)
+        DvadAPIEndpointFactory primingDvadAPIEndpointFactory =
+                new DvadAPIEndpointFactory(
+                        parameterStoreService, new ThirdPartyAPIEndpointLatencyHistograms());
+        DvadThirdPartyAPIService inMemoryDvadThirdPartyAPIService =
+                createInMemoryDvadThirdPartyAPIService(
+                        primingDvadAPIEndpointFactory,
+                        new InMemoryDvadHttpClient(
+                                objectMapper, contraIndicatorMapper.createPrimingFlagMap()));
+
+        ThirdPartyAPIResult thirdPartyAPIResult =
+                inMemoryDvadThirdPartyAPIService.performCheck(passportFormData, Strategy.STUB);
+
+        primeGraphQLErrorResponse(primingDvadAPIEndpointFactory, passportFormData);
+
+        // The access token as cached in the shared token table
+        objectMapper.readValue(
+                objectMapper.writeValueAsBytes(
+                        AccessTokenResponse.builder()
+                                .accessToken("priming")
+                                .tokenType("Bearer")
+                                .expiresIn(1800)
+                                .build()),
+                AccessTokenResponse.class);
+
+        ContraIndicatorMapperResult contraIndicatorMapperResult =
+                contraIndicatorMapper.mapFlagsToCIs(thirdPartyAPIResult.getFlags());
+
+        PersonIdentityDetailedHelperMapper.mapNamesToCanonicalName(
+                passportFormData.getForenames(), passportFormData.getSurname());
+        PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                passportFormData);
+
+        DocumentCheckResultItem documentCheckResultItem = new DocumentCheckResultItem();
+        documentCheckResultItem.setSessionId(UUID.randomUUID());
+        documentCheckResultItem.setTransactionId(thirdPartyAPIResult.getTransactionId());
+        documentCheckResultItem.setContraIndicators(contraIndicatorMapperResult.contraIndicators());
+        documentCheckResultItem.setCiReasons(contraIndicatorMapperResult.contraIndicatorReasons());
+        documentCheckResultItem.setCheckDetails(
+                contraIndicatorMapperResult.contraIndicatorChecks());
+        documentCheckResultItem.setFailedCheckDetails(
+                contraIndicatorMapperResult.contraIndicatorFailedChecks());
+        documentCheckResultItem.setDocumentNumber(passportFormData.getPassportNumber());
+        documentCheckResultItem.setExpiryDate(String.valueOf(passportFormData.getExpiryDate()));
+
+        objectMapper.readValue(
+                objectMapper.writeValueAsString(documentCheckResultItem),
+                DocumentCheckResultItem.class);
+
+        ApiGatewayResponseGenerator.proxyJsonResponse(
+                HttpStatusCode.OK,
+                new CheckPassportSuccessResponse(
+                        documentCheckResultItem.getSessionId().toString(),
+                        "state",
+                        "https://localhost/redirect"));
+        ApiGatewayResponseGenerator.proxyJsonResponse(
+                HttpStatusCode.OK, Map.of(RESULT, RESULT_RETRY));
+    }
+
+    // DVAD rejecting the request, the errors segment is parsed and logged before the check fails
+    private void primeGraphQLErrorResponse(
+            DvadAPIEndpointFactory primingDvadAPIEndpointFactory,
+            PassportFormData passportFormData)
+            throws JsonProcessingException {
+        DvadThirdPartyAPIService errorDvadThirdPartyAPIService =
+                createInMemoryDvadThirdPartyAPIService(
+                        primingDvadAPIEndpointFactory,
+                        InMemoryDvadHttpClient.withGraphQLErrorResponse(objectMapper));
+
+        try {
+            errorDvadThirdPartyAPIService.performCheck(passportFormData, Strategy.STUB);
+            LOGGER.warn("Priming graphql error response was not rejected");
+        } catch (OAuthErrorResponseException e) {
+            LOGGER.info("Primed graphql error response");
+        }
+    }
+
+    private DvadThirdPartyAPIService createInMemoryDvadThirdPartyAPIService(
+            DvadAPIEndpointFactory primingDvadAPIEndpointFactory,
+            InMemoryDvadHttpClient inMemoryDvadHttpClient) {
+        return new DvadThirdPartyAPIService(
+                primingDvadAPIEndpointFactory,
+                parameterStoreService,
+                new PrimingEventProbe(),
+                inMemoryDvadHttpClient,
+                objectMapper);
+    }
+
+    @Override
+    protected void restore() {
+        // Connections in the snapshot were opened by a different execution environment
+        apacheHTTPClientFactoryService.closePooledConnections();
+
+        reopenDvadConnection(System.getenv(RESTORE_CONNECTION_STRATEGY));
+    }
+
+    CompletableFuture<Boolean> reopenDvadConnection(String strategyName) {
+        final Strategy strategy = restoreConnectionStrategy(strategyName);
+
+        if (strategy == null) {
+            LOGGER.info("DVAD connection not reopened after restore");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Not awaited, the first invocation can start while the TLS handshake completes
+        return CompletableFuture.supplyAsync(
+                () -> thirdPartyAPIServiceFactory.openDvadConnection(strategy));
+    }
+
+    private static Strategy restoreConnectionStrategy(String strategyName) {
+        if (strategyName == null) {
+            return Strategy.LIVE;
+        }
+
+        return switch (strategyName) {
+            case "UAT" -> Strategy.UAT;
+            case "LIVE" -> Strategy.LIVE;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.snapstart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.GraphQLAPIResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.HealthCheckResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.ResponseData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.gov.di.ipv.cri.passport.library.dvad.domain.response.RequestHeaderKeys.HEADER_CONTENT_TYPE;
+
+/**
+ * A CloseableHttpClient which answers the DVAD health, token and graphql requests in memory, used
+ * by {@link CheckPassportPrimingResource} to run the DVAD request/response path before the
+ * SnapStart checkpoint without a network.
+ *
+ * <p>Requests are routed by shape - GET is the health endpoint, a form POST is the token endpoint
+ * and a JSON POST is the graphql endpoint.
+ */
+class InMemoryDvadHttpClient extends CloseableHttpClient {
+
+    private static final String BEARER_TOKEN_TYPE = "Bearer";
+    private static final long TOKEN_LIFETIME_SECONDS = 1800;
+    private static final String VALIDATION_RESULT_FIELD = "validationResult";
+
+    // Every optional field of the errors segment is set, the classification as an object
+    private static final String GRAPHQL_ERROR_RESPONSE_BODY =
+            """
+            {
+                "data": null,
+                "errors": [
+                    {
+                        "message": "Priming",
+                        "locations": [{"line": 1, "column": 1}],
+                        "path": ["validatePassport"],
+                        "extensions": {
+                            "errorCode": "PRIMING",
+                            "classification": {"type": "ValidationError"}
+                        }
+                    }
+                ]
+            }
+            """;
+
+    private final String healthResponseBody;
+    private final String tokenResponseBody;
+    private final String graphQLResponseBody;
+
+    private final HttpParams httpParams = new BasicHttpParams();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    /**
+     * @param objectMapper used to create the response bodies
+     * @param validatePassportFlags flags returned (along with validationResult true) in the
+     *     graphql response
+     */
+    InMemoryDvadHttpClient(ObjectMapper objectMapper, Map<String, String> validatePassportFlags)
+            throws JsonProcessingException {
+        this(objectMapper, createGraphQLResponseBody(objectMapper, validatePassportFlags));
+    }
+
+    private InMemoryDvadHttpClient(ObjectMapper objectMapper, String graphQLResponseBody)
+            throws JsonProcessingException {
+
+        healthResponseBody =
+                objectMapper.writeValueAsString(HealthCheckResponse.builder().status("UP").build());
+
+        tokenResponseBody =
+                objectMapper.writeValueAsString(
+                        AccessTokenResponse.builder()
+                                .accessToken("in-memory")
+                                .tokenType(BEARER_TOKEN_TYPE)
+                                .expiresIn(TOKEN_LIFETIME_SECONDS)
+                                .build());
+
+        this.graphQLResponseBody = graphQLResponseBody;
+    }
+
+    /** A client whose graphql endpoint rejects the request with an errors segment. */
+    static InMemoryDvadHttpClient withGraphQLErrorResponse(ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        return new InMemoryDvadHttpClient(objectMapper, GRAPHQL_ERROR_RESPONSE_BODY);
+    }
+
+    private static String createGraphQLResponseBody(
+            ObjectMapper objectMapper, Map<String, String> validatePassportFlags)
+            throws JsonProcessingException {
+        Map<String, String> validatePassport = new HashMap<>(validatePassportFlags);
+        validatePassport.put(VALIDATION_RESULT_FIELD, "true");
+
+        return objectMapper.writeValueAsString(
+                GraphQLAPIResponse.builder()
+                        .data(ResponseData.builder().validatePassport(validatePassport).build())
+                        .build());
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(
+            HttpHost target, HttpRequest request, HttpContext context)
+            throws ClientProtocolException {
+
+        requestCount.incrementAndGet();
+
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return new InMemoryHttpResponse(healthResponseBody);
+        }
+
+        Header contentType = request.getFirstHeader(HEADER_CONTENT_TYPE);
+        if (contentType != null
+                && ContentType.APPLICATION_FORM_URLENCODED
+                        .getMimeType()
+                        .equals(contentType.getValue())) {
+            return new InMemoryHttpResponse(tokenResponseBody);
+        }
+
+        return new InMemoryHttpResponse(graphQLResponseBody);
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return httpParams;
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager() {
+        throw new UnsupportedOperationException("No connections are made");
+    }
+
+    private static class InMemoryHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+
+        InMemoryHttpResponse(String body) {
+            super(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"));
+            setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
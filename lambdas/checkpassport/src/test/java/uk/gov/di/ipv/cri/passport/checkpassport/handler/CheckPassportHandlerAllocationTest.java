@@ -0,0 +1,204 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.checkpassport.domain.result.DocumentDataVerificationResult;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.DocumentDataVerificationService;
+import uk.gov.di.ipv.cri.passport.checkpassport.util.DocumentDataVerificationServiceResultDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.AllocationBudget;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TTL_PARAMETER;
+
+/**
+ * The handler around a stubbed DocumentDataVerificationService, so the budget covers the request
+ * parsing, session and result handling and the response. Stub-only mocks are used as they do not
+ * record invocations, their stubbing lookups are still counted.
+ */
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class CheckPassportHandlerAllocationTest {
+
+    private static final String TEST_STRATEGY_ENDPOINTS =
+            """
+            {
+                "STUB": "http://localhostStub",
+                "UAT": "http://localhostUat",
+                "LIVE": "http://localhostLive"
+            }
+            """;
+
+    private final ObjectMapper realObjectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock(stubOnly = true)
+    private Context mockLambdaContext;
+
+    // Returned via the ServiceFactory
+    @Mock(stubOnly = true)
+    private EventProbe mockEventProbe;
+
+    @Mock(stubOnly = true)
+    private AccumulatingEventProbe mockAccumulatingEventProbe;
+
+    @Mock(stubOnly = true)
+    private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+
+    @Mock(stubOnly = true)
+    private InvocationTimeline mockInvocationTimeline;
+
+    @Mock(stubOnly = true)
+    private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
+
+    @Mock(stubOnly = true)
+    private ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
+
+    @Mock(stubOnly = true)
+    private ParameterStoreService mockParameterStoreService;
+
+    @Mock(stubOnly = true)
+    private SessionService mockSessionService;
+
+    @Mock(stubOnly = true)
+    private PersonIdentityService mockPersonIdentityService;
+
+    @Mock(stubOnly = true)
+    private DocumentCheckResultStore mockDocumentCheckResultStore;
+
+    @Mock(stubOnly = true)
+    private ServiceFactory mockServiceFactory;
+
+    @Mock(stubOnly = true)
+    private DocumentDataVerificationService mockDocumentDataVerificationService;
+
+    private CheckPassportHandler checkPassportHandler;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        environmentVariables.set("AWS_REGION", "eu-west-2");
+        environmentVariables.set("AWS_STACK_NAME", "TEST_STACK");
+        environmentVariables.set("DVAD_PERFORMANCE_STUB_IN_USE", "false");
+        environmentVariables.set("DEV_ENVIRONMENT_ONLY_ENHANCED_DEBUG", "false");
+
+        when(mockParameterStoreService.getParameterValue("HMPODVAD/API/EndpointUrl"))
+                .thenReturn("http://localhost");
+        when(mockParameterStoreService.getParameterValue(
+                        "HMPODVAD/API/TestStrategy/EndpointUrl")) // pragma: allowlist secret
+                .thenReturn(TEST_STRATEGY_ENDPOINTS);
+
+        mockServiceFactoryBehaviour();
+
+        checkPassportHandler =
+                new CheckPassportHandler(mockServiceFactory, mockDocumentDataVerificationService);
+    }
+
+    @Test
+    void handleRequestShouldStayWithinAllocationBudget()
+            throws JsonProcessingException, OAuthErrorResponseException {
+        final String sessionId = UUID.randomUUID().toString();
+
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        DocumentDataVerificationResult documentDataVerificationResult =
+                DocumentDataVerificationServiceResultDataGenerator.generate(passportFormData);
+        documentDataVerificationResult.setContraIndicators(new ArrayList<>());
+        documentDataVerificationResult.setChecksSucceeded(List.of("verification_check"));
+
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId);
+
+        APIGatewayProxyRequestEvent requestEvent =
+                new APIGatewayProxyRequestEvent()
+                        .withBody(realObjectMapper.writeValueAsString(passportFormData))
+                        .withHeaders(requestHeaders);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.fromString(sessionId));
+        sessionItem.setState(UUID.randomUUID().toString());
+        sessionItem.setRedirectUri(URI.create("https://example.com"));
+        sessionItem.setClientId("testNoChangeId");
+
+        when(mockSessionService.validateSessionId(sessionId)).thenReturn(sessionItem);
+        when(mockDocumentDataVerificationService.verifyData(
+                        any(ThirdPartyAPIService.class),
+                        any(PassportFormData.class),
+                        eq(sessionItem),
+                        eq(requestHeaders),
+                        eq(Strategy.NO_CHANGE)))
+                .thenReturn(documentDataVerificationResult);
+        when(mockParameterStoreService.getCommonParameterValue(DOCUMENT_CHECK_RESULT_TTL_PARAMETER))
+                .thenReturn("7200");
+        when(mockLambdaContext.getFunctionName()).thenReturn("functionName");
+        when(mockLambdaContext.getFunctionVersion()).thenReturn("1.0");
+
+        APIGatewayProxyResponseEvent responseEvent =
+                checkPassportHandler.handleRequest(requestEvent, mockLambdaContext);
+        assertEquals(200, responseEvent.getStatusCode());
+
+        // Each operation is a first attempt, the handler increments the count
+        // Report only until measured, budget with ALLOCATION_BUDGET_CHECK_PASSPORT_HANDLER
+        AllocationBudget.reportOnly("check-passport-handler")
+                .assertWithinBudget(
+                        () -> {
+                            sessionItem.setAttemptCount(0);
+                            checkPassportHandler.handleRequest(requestEvent, mockLambdaContext);
+                        });
+    }
+
+    private void mockServiceFactoryBehaviour() {
+        when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
+        when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getAccumulatingEventProbe())
+                .thenReturn(mockAccumulatingEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(mockInvocationTimeline);
+        when(mockServiceFactory.getAwsSdkCallMetrics()).thenReturn(mockAwsSdkCallMetrics);
+        when(mockServiceFactory.getApacheHTTPClientFactoryService())
+                .thenReturn(mockApacheHTTPClientFactoryService);
+        when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
+        when(mockServiceFactory.getThirdPartyAPIEndpointLatencyHistograms())
+                .thenReturn(mockLatencyHistograms);
+        when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
+        when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
+        when(mockServiceFactory.getDocumentCheckResultStore())
+                .thenReturn(mockDocumentCheckResultStore);
+    }
+}
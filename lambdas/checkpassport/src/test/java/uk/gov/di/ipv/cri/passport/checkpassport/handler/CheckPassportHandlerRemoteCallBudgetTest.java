@@ -0,0 +1,358 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.SharedClaims;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.checkpassport.domain.result.DocumentDataVerificationResult;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.DocumentDataVerificationService;
+import uk.gov.di.ipv.cri.passport.checkpassport.util.DocumentDataVerificationServiceResultDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationIoLedger;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TTL_PARAMETER;
+
+/**
+ * Holds a warm check passport invocation to a remote call budget, so a new per request SSM, KMS or
+ * DynamoDB call fails the build.
+ *
+ * <p>The ParameterStoreService and DocumentCheckResultStore use real SDK clients over a stand-in
+ * http client, with the ServiceFactory override configuration so their calls are counted by
+ * AwsSdkCallMetricsInterceptor (in the lambda only the SsmClient is built by ServiceFactory). The
+ * common lib session and person identity services are mocked and record the DynamoDB operation
+ * each method makes. DVAD calls are not counted here (DocumentDataVerificationService is mocked).
+ */
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class CheckPassportHandlerRemoteCallBudgetTest {
+
+    // validateSessionId, savePersonIdentity, the document check result and the authorization code
+    private static final int WARM_INVOCATION_REMOTE_CALL_BUDGET = 4;
+
+    private static final String TEST_STACK = "TEST_STACK";
+    private static final String TEST_COMMON_STACK = "TEST_COMMON_STACK";
+
+    private static final String TEST_STRATEGY_ENDPOINTS =
+            """
+            {
+                "STUB": "http://localhostStub",
+                "UAT": "http://localhostUat",
+                "LIVE": "http://localhostLive"
+            }
+            """;
+
+    private final ObjectMapper realObjectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final InvocationIoLedger ioLedger = InvocationIoLedger.getInstance();
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private Context mockLambdaContext;
+
+    // Returned via the ServiceFactory
+    @Mock private EventProbe mockEventProbe;
+    @Mock private AccumulatingEventProbe mockAccumulatingEventProbe;
+    @Mock private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
+    @Mock private ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
+    @Mock private SessionService mockSessionService;
+    @Mock private PersonIdentityService mockPersonIdentityService;
+    @Mock private ServiceFactory mockServiceFactory;
+
+    @Mock private DocumentDataVerificationService mockDocumentDataVerificationService;
+
+    private CheckPassportHandler checkPassportHandler;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        environmentVariables.set("AWS_REGION", "eu-west-2");
+        environmentVariables.set("AWS_STACK_NAME", TEST_STACK);
+        environmentVariables.set("COMMON_PARAMETER_NAME_PREFIX", TEST_COMMON_STACK);
+        environmentVariables.set("DVAD_PERFORMANCE_STUB_IN_USE", "false");
+        environmentVariables.set("DEV_ENVIRONMENT_ONLY_ENHANCED_DEBUG", "false");
+
+        StandInAwsHttpClient standInAwsHttpClient =
+                new StandInAwsHttpClient(
+                        realObjectMapper,
+                        Map.of(
+                                "/" + TEST_STACK + "/HMPODVAD/API/EndpointUrl",
+                                "http://localhost",
+                                "/" + TEST_STACK + "/HMPODVAD/API/TestStrategy/EndpointUrl",
+                                TEST_STRATEGY_ENDPOINTS,
+                                "/" + TEST_COMMON_STACK + "/" + DOCUMENT_CHECK_RESULT_TTL_PARAMETER,
+                                "7200"));
+
+        SsmClient ssmClient =
+                SsmClient.builder()
+                        .endpointOverride(URI.create("http://localhost"))
+                        .region(Region.EU_WEST_2)
+                        .credentialsProvider(createCredentialsProvider())
+                        .httpClient(standInAwsHttpClient)
+                        .overrideConfiguration(ServiceFactory.createClientOverrideConfiguration())
+                        .build();
+        DynamoDbClient dynamoDbClient =
+                DynamoDbClient.builder()
+                        .endpointOverride(URI.create("http://localhost"))
+                        .region(Region.EU_WEST_2)
+                        .credentialsProvider(createCredentialsProvider())
+                        .httpClient(standInAwsHttpClient)
+                        .overrideConfiguration(ServiceFactory.createClientOverrideConfiguration())
+                        .build();
+
+        when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
+        when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getAccumulatingEventProbe())
+                .thenReturn(mockAccumulatingEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(new InvocationTimeline());
+        when(mockServiceFactory.getAwsSdkCallMetrics()).thenReturn(mockAwsSdkCallMetrics);
+        when(mockServiceFactory.getApacheHTTPClientFactoryService())
+                .thenReturn(mockApacheHTTPClientFactoryService);
+        when(mockServiceFactory.getParameterStoreService())
+                .thenReturn(new ParameterStoreService(ssmClient));
+        when(mockServiceFactory.getThirdPartyAPIEndpointLatencyHistograms())
+                .thenReturn(mockLatencyHistograms);
+        when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
+        when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
+        when(mockServiceFactory.getDocumentCheckResultStore())
+                .thenReturn(
+                        new DocumentCheckResultStore(
+                                "document-check-result",
+                                DynamoDbEnhancedClient.builder()
+                                        .dynamoDbClient(dynamoDbClient)
+                                        .build()));
+
+        checkPassportHandler =
+                new CheckPassportHandler(mockServiceFactory, mockDocumentDataVerificationService);
+    }
+
+    @Test
+    void warmInvocationShouldStayWithinRemoteCallBudget()
+            throws JsonProcessingException, OAuthErrorResponseException {
+        final String sessionId = UUID.randomUUID().toString();
+
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        DocumentDataVerificationResult documentDataVerificationResult =
+                DocumentDataVerificationServiceResultDataGenerator.generate(passportFormData);
+        documentDataVerificationResult.setContraIndicators(new ArrayList<>());
+        documentDataVerificationResult.setChecksSucceeded(List.of("verification_check"));
+
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId);
+
+        APIGatewayProxyRequestEvent requestEvent =
+                new APIGatewayProxyRequestEvent()
+                        .withBody(realObjectMapper.writeValueAsString(passportFormData))
+                        .withHeaders(requestHeaders);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.fromString(sessionId));
+        sessionItem.setState(UUID.randomUUID().toString());
+        sessionItem.setRedirectUri(URI.create("https://example.com"));
+        sessionItem.setClientId("testNoChangeId");
+
+        when(mockSessionService.validateSessionId(sessionId))
+                .thenAnswer(
+                        invocation -> {
+                            ioLedger.recordCall("DynamoDb", "GetItem");
+                            return sessionItem;
+                        });
+        doAnswer(
+                        invocation -> {
+                            ioLedger.recordCall("DynamoDb", "PutItem");
+                            return null;
+                        })
+                .when(mockPersonIdentityService)
+                .savePersonIdentity(eq(sessionItem.getSessionId()), any(SharedClaims.class));
+        doAnswer(
+                        invocation -> {
+                            ioLedger.recordCall("DynamoDb", "UpdateItem");
+                            return null;
+                        })
+                .when(mockSessionService)
+                .createAuthorizationCode(sessionItem);
+        when(mockDocumentDataVerificationService.verifyData(
+                        any(ThirdPartyAPIService.class),
+                        any(PassportFormData.class),
+                        eq(sessionItem),
+                        eq(requestHeaders),
+                        eq(Strategy.NO_CHANGE)))
+                .thenReturn(documentDataVerificationResult);
+        when(mockLambdaContext.getFunctionName()).thenReturn("functionName");
+        when(mockLambdaContext.getFunctionVersion()).thenReturn("1.0");
+
+        // The first invocation reads the parameters not loaded during function init
+        APIGatewayProxyResponseEvent firstResponseEvent =
+                checkPassportHandler.handleRequest(requestEvent, mockLambdaContext);
+        assertEquals(200, firstResponseEvent.getStatusCode());
+
+        sessionItem.setAttemptCount(0);
+
+        APIGatewayProxyResponseEvent warmResponseEvent =
+                checkPassportHandler.handleRequest(requestEvent, mockLambdaContext);
+        assertEquals(200, warmResponseEvent.getStatusCode());
+
+        // The ledger holds the last invocation until the next begins
+        assertEquals(
+                0,
+                ioLedger.getCallCount("Ssm", "GetParameter"),
+                "Parameters read by a warm invocation " + ioLedger.getCallCounts());
+        // Person identity and the document check result
+        assertEquals(
+                2,
+                ioLedger.getCallCount("DynamoDb", "PutItem"),
+                "Unexpected writes " + ioLedger.getCallCounts());
+        assertTrue(
+                ioLedger.getTotalCalls() <= WARM_INVOCATION_REMOTE_CALL_BUDGET,
+                String.format(
+                        "Warm invocation made %d remote calls, budget %d - %s",
+                        ioLedger.getTotalCalls(),
+                        WARM_INVOCATION_REMOTE_CALL_BUDGET,
+                        ioLedger.getCallCounts()));
+    }
+
+    private static StaticCredentialsProvider createCredentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+    }
+
+    /**
+     * Answers the AWS JSON protocol calls the handler makes. GetParameter returns the value held
+     * for the name (empty if none), anything else an empty response.
+     */
+    private static final class StandInAwsHttpClient implements SdkHttpClient {
+
+        private final ObjectMapper objectMapper;
+        private final Map<String, String> parameters;
+
+        StandInAwsHttpClient(ObjectMapper objectMapper, Map<String, String> parameters) {
+            this.objectMapper = objectMapper;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() throws IOException {
+                    String target =
+                            request.httpRequest().firstMatchingHeader("X-Amz-Target").orElse("");
+
+                    byte[] body = createResponseBody(target, readRequestBody(request));
+
+                    return HttpExecuteResponse.builder()
+                            .response(
+                                    SdkHttpResponse.builder()
+                                            .statusCode(200)
+                                            .putHeader(
+                                                    "Content-Type", "application/x-amz-json-1.1")
+                                            .putHeader(
+                                                    "Content-Length",
+                                                    Integer.toString(body.length))
+                                            .build())
+                            .responseBody(
+                                    AbortableInputStream.create(new ByteArrayInputStream(body)))
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                    // Answered synchronously
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            // Nothing held open
+        }
+
+        private byte[] createResponseBody(String target, JsonNode requestBody)
+                throws JsonProcessingException {
+            if ("AmazonSSM.GetParameter".equals(target)) {
+                String name = requestBody.path("Name").asText();
+
+                return objectMapper.writeValueAsBytes(
+                        Map.of(
+                                "Parameter",
+                                Map.of(
+                                        "Name",
+                                        name,
+                                        "Value",
+                                        parameters.getOrDefault(name, ""),
+                                        "Version",
+                                        1)));
+            }
+
+            return "{}".getBytes(StandardCharsets.UTF_8);
+        }
+
+        private JsonNode readRequestBody(HttpExecuteRequest request) throws IOException {
+            if (request.contentStreamProvider().isEmpty()) {
+                return objectMapper.createObjectNode();
+            }
+
+            try (InputStream content = request.contentStreamProvider().get().newStream()) {
+                return objectMapper.readTree(content);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
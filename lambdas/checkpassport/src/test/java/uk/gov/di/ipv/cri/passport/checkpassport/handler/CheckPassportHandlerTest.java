@@ -21,7 +21,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.common.library.exception.SessionExpiredException;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
@@ -34,7 +33,12 @@ import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
 import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
 import uk.gov.di.ipv.cri.passport.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
 import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
@@ -51,6 +55,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_EXPIRED;
@@ -89,11 +94,15 @@ class CheckPassportHandlerTest {
 
     // Returned via the ServiceFactory
     @Mock private EventProbe mockEventProbe;
+    @Mock private AccumulatingEventProbe mockAccumulatingEventProbe;
+    @Mock private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+    @Mock private InvocationTimeline mockInvocationTimeline;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
     @Mock private ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
     @Mock private ParameterStoreService mockParameterStoreService;
     @Mock private SessionService mockSessionService;
     @Mock private PersonIdentityService mockPersonIdentityService;
-    @Mock private DataStore<DocumentCheckResultItem> mockDocumentCheckResultStore;
+    @Mock private DocumentCheckResultStore mockDocumentCheckResultStore;
 
     // Created in check passport
     @Mock private ServiceFactory mockServiceFactory;
@@ -193,6 +202,12 @@ class CheckPassportHandlerTest {
                 mapDocumentDataVerificationResultToDocumentCheckResultItem(
                         sessionItem, testDocumentDataVerificationResult, passportFormData);
         verify(mockDocumentCheckResultStore).create(documentCheckResultItem);
+
+        InOrder timelineInOrder = inOrder(mockInvocationTimeline);
+        timelineInOrder.verify(mockInvocationTimeline).begin("check_passport");
+        timelineInOrder.verify(mockInvocationTimeline).emit();
+        verify(mockAccumulatingEventProbe).flush();
+
         JsonNode responseTreeRootNode = realObjectMapper.readTree(responseEvent.getBody());
 
         assertNotNull(responseEvent);
@@ -611,6 +626,22 @@ class CheckPassportHandlerTest {
                 oauthErrorNode.get("error_description").textValue()); // error description
     }
 
+    @Test
+    void handleResponseShouldNotFlushWhenTheEventProbeDoesNotAccumulateMetrics() {
+        // An injected EventProbe writes its own metrics
+        when(mockServiceFactory.getAccumulatingEventProbe()).thenReturn(null);
+        checkPassportHandler =
+                new CheckPassportHandler(mockServiceFactory, mockDocumentDataVerificationService);
+
+        APIGatewayProxyResponseEvent responseEvent =
+                checkPassportHandler.handleRequest(
+                        new APIGatewayProxyRequestEvent().withHeaders(new HashMap<>()),
+                        mockLambdaContext);
+
+        assertEquals(HttpStatusCode.FORBIDDEN, responseEvent.getStatusCode());
+        verifyNoInteractions(mockAccumulatingEventProbe);
+    }
+
     @Test
     void handleResponseShouldThrowExceptionWhenSessionIdIsInvalidUUID()
             throws JsonProcessingException {
@@ -651,12 +682,19 @@ class CheckPassportHandlerTest {
     private void mockServiceFactoryBehaviour() {
         when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getAccumulatingEventProbe())
+                .thenReturn(mockAccumulatingEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(mockInvocationTimeline);
+        when(mockServiceFactory.getAwsSdkCallMetrics()).thenReturn(mockAwsSdkCallMetrics);
 
         when(mockServiceFactory.getApacheHTTPClientFactoryService())
                 .thenReturn(mockApacheHTTPClientFactoryService);
 
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
 
+        when(mockServiceFactory.getThirdPartyAPIEndpointLatencyHistograms())
+                .thenReturn(mockLatencyHistograms);
+
         when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
 
         when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
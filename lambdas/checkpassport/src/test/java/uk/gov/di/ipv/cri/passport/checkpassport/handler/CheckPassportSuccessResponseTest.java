@@ -0,0 +1,54 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.assertEveryPropertyRoundTrips;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createReflectiveObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.readOutcome;
+
+class CheckPassportSuccessResponseTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final ObjectMapper REFLECTIVE_OBJECT_MAPPER = createReflectiveObjectMapper();
+
+    @Test
+    void shouldSerializeAsTheReflectiveSerializer() throws JsonProcessingException {
+        CheckPassportSuccessResponse checkPassportSuccessResponse =
+                new CheckPassportSuccessResponse("SESSION_ID", null, "https://example.com");
+
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.writeValueAsString(checkPassportSuccessResponse),
+                OBJECT_MAPPER.writeValueAsString(checkPassportSuccessResponse));
+    }
+
+    @Test
+    void shouldRoundTripEveryProperty() throws JsonProcessingException {
+        assertEveryPropertyRoundTrips(
+                new CheckPassportSuccessResponse("SESSION_ID", "STATE", "https://example.com"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "{\"session_id\":\"SESSION_ID\",\"state\":\"STATE\","
+                        + "\"redirect_uri\":\"https://example.com\"}",
+                "{\"session_id\":\"SESSION_ID\",\"state\":null,\"redirect_uri\":null}",
+                // Missing required property
+                "{\"session_id\":\"SESSION_ID\",\"redirect_uri\":\"https://example.com\"}",
+                // Unknown property
+                "{\"session_id\":\"SESSION_ID\",\"state\":\"STATE\","
+                        + "\"redirect_uri\":\"https://example.com\",\"unknown\":1}",
+                "[]"
+            })
+    void shouldDeserializeAsTheReflectiveDeserializer(String json) {
+        assertEquals(
+                readOutcome(REFLECTIVE_OBJECT_MAPPER, json, CheckPassportSuccessResponse.class),
+                readOutcome(OBJECT_MAPPER, json, CheckPassportSuccessResponse.class));
+    }
+}
@@ -118,6 +118,21 @@ class ContraindicationMappingsTest {
         assertNotNull(testContraIndicatorMapper);
     }
 
+    @Test
+    void shouldCreatePrimingFlagMapWhichMatchesEveryMapping() {
+
+        Map<String, String> primingFlagMap = contraIndicatorMapper.createPrimingFlagMap();
+
+        assertEquals(10, primingFlagMap.size());
+        assertEquals("false", primingFlagMap.get("flagTwo"));
+
+        ContraIndicatorMapperResult mapperResult =
+                contraIndicatorMapper.mapFlagsToCIs(primingFlagMap);
+
+        assertEquals(6, mapperResult.contraIndicators().size());
+        assertTrue(mapperResult.contraIndicatorChecks().isEmpty());
+    }
+
     @Test
     void shouldReturnCIForOneValidSingleMapping() {
 
@@ -25,6 +25,7 @@ import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
 import uk.gov.di.ipv.cri.passport.library.domain.result.ThirdPartyAPIResult;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
 
@@ -58,6 +59,7 @@ class DocumentDataVerificationServiceTest {
 
     @Mock private ServiceFactory mockServiceFactory;
     @Mock private EventProbe mockEventProbe;
+    @Mock private InvocationTimeline mockInvocationTimeline;
     @Mock private AuditService mockAuditService;
 
     @Mock private FormDataValidator mockFormDataValidator;
@@ -309,6 +311,7 @@ class DocumentDataVerificationServiceTest {
 
     private void mockServiceFactoryBehaviour() {
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(mockInvocationTimeline);
         when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
     }
 }
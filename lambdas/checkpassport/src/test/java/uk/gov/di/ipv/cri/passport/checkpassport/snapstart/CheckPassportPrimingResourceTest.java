@@ -0,0 +1,150 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.snapstart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.passport.checkpassport.domain.result.fields.ContraIndicatorMapperResult;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ThirdPartyAPIServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
+import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_GRAPHQL;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_HEALTH;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_TOKEN;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_URL;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_GRAPHQL_QUERY_STRING;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.TEST_STRATEGY_HMPO_API_ENDPOINT_URL;
+
+@ExtendWith(MockitoExtension.class)
+class CheckPassportPrimingResourceTest {
+
+    private static final String TEST_ENDPOINT = "https://localhost";
+
+    @Mock private ServiceFactory mockServiceFactory;
+
+    // Returned via the ServiceFactory
+    private final ObjectMapper realObjectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+    @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
+
+    @Mock private ContraIndicatorMapper mockContraIndicatorMapper;
+    @Mock private ThirdPartyAPIServiceFactory mockThirdPartyAPIServiceFactory;
+
+    private CheckPassportPrimingResource checkPassportPrimingResource;
+
+    @BeforeEach
+    void setUp() {
+        when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
+        when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
+        when(mockServiceFactory.getApacheHTTPClientFactoryService())
+                .thenReturn(mockApacheHTTPClientFactoryService);
+
+        checkPassportPrimingResource =
+                new CheckPassportPrimingResource(
+                        mockServiceFactory,
+                        new FormDataValidator(),
+                        mockContraIndicatorMapper,
+                        mockThirdPartyAPIServiceFactory);
+    }
+
+    @Test
+    void shouldPrimeTheCheckPathWithoutCallingDvad() {
+        when(mockParameterStoreService.getParameterValue(HMPO_API_ENDPOINT_URL))
+                .thenReturn(TEST_ENDPOINT);
+        when(mockParameterStoreService.getParameterValue(TEST_STRATEGY_HMPO_API_ENDPOINT_URL))
+                .thenReturn("{\"STUB\":\"" + TEST_ENDPOINT + "\"}");
+        when(mockParameterStoreService.getParameterValue(HMPO_API_ENDPOINT_HEALTH))
+                .thenReturn("/health");
+        when(mockParameterStoreService.getParameterValue(HMPO_API_ENDPOINT_TOKEN))
+                .thenReturn("/token");
+        when(mockParameterStoreService.getParameterValue(HMPO_API_ENDPOINT_GRAPHQL))
+                .thenReturn("/graphql");
+        when(mockParameterStoreService.getAllParametersFromPathWithDecryption(
+                        DvadAPIHeaderValues.DVAD_HEADER_PARAMETER_PATH))
+                .thenReturn(
+                        Map.of(
+                                DvadAPIHeaderValues.MAP_KEY_APIKEY,
+                                "TEST_KEY",
+                                DvadAPIHeaderValues.MAP_KEY_USERAGENT,
+                                "TEST_USER_AGENT",
+                                DvadAPIHeaderValues.MAP_KEY_NETWORKTYPE,
+                                "TEST_NETWORK_TYPE",
+                                DvadAPIHeaderValues.MAP_KEY_CLIENTID,
+                                "TEST_CLIENT_ID",
+                                DvadAPIHeaderValues.MAP_KEY_SECRET,
+                                "TEST_SECRET",
+                                DvadAPIHeaderValues.MAP_KEY_GRANTTYPE,
+                                "TEST_GRANT_TYPE"));
+        when(mockParameterStoreService.getEncryptedParameterValue(HMPO_GRAPHQL_QUERY_STRING))
+                .thenReturn("query");
+
+        when(mockContraIndicatorMapper.createPrimingFlagMap())
+                .thenReturn(Map.of("testFlag", "true"));
+        when(mockContraIndicatorMapper.mapFlagsToCIs(anyMap()))
+                .thenReturn(
+                        ContraIndicatorMapperResult.builder()
+                                .contraIndicatorChecks(List.of("verification_check"))
+                                .build());
+
+        assertDoesNotThrow(() -> checkPassportPrimingResource.prime());
+
+        verify(mockContraIndicatorMapper).mapFlagsToCIs(anyMap());
+        // The accepted and the rejected graphql request
+        verify(mockParameterStoreService, times(2))
+                .getEncryptedParameterValue(HMPO_GRAPHQL_QUERY_STRING);
+        verifyNoInteractions(mockThirdPartyAPIServiceFactory);
+    }
+
+    @Test
+    void shouldClosePooledConnectionsOnRestore() {
+        checkPassportPrimingResource.restore();
+
+        verify(mockApacheHTTPClientFactoryService).closePooledConnections();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"UAT, UAT", "LIVE, LIVE"})
+    void shouldReopenDvadConnectionForStrategy(String strategyName, Strategy expectedStrategy) {
+        when(mockThirdPartyAPIServiceFactory.openDvadConnection(expectedStrategy))
+                .thenReturn(true);
+
+        assertTrue(checkPassportPrimingResource.reopenDvadConnection(strategyName).join());
+    }
+
+    @Test
+    void shouldReopenLiveDvadConnectionWhenStrategyNotSet() {
+        when(mockThirdPartyAPIServiceFactory.openDvadConnection(Strategy.LIVE)).thenReturn(true);
+
+        assertTrue(checkPassportPrimingResource.reopenDvadConnection(null).join());
+    }
+
+    @Test
+    void shouldNotReopenDvadConnectionForOtherStrategies() {
+        assertFalse(checkPassportPrimingResource.reopenDvadConnection("NONE").join());
+
+        verifyNoInteractions(mockThirdPartyAPIServiceFactory);
+    }
+}
@@ -0,0 +1,100 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.snapstart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.gov.di.ipv.cri.passport.library.AllocationBudget;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.domain.result.ThirdPartyAPIResult;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadThirdPartyAPIService;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.endpoints.DvadAPIEndpointFactory;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.parameters.InMemoryParameterSource;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.snapstart.PrimingEventProbe;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SystemStubsExtension.class)
+class DvadThirdPartyAPIServiceAllocationTest {
+
+    private static final String TEST_STACK = "TEST_STACK";
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    private DvadThirdPartyAPIService dvadThirdPartyAPIService;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        environmentVariables.set("AWS_STACK_NAME", TEST_STACK);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ParameterStoreService parameterStoreService =
+                new ParameterStoreService(
+                        new InMemoryParameterSource(
+                                Map.of(
+                                        stackParameter("HMPODVAD/API/EndpointUrl"),
+                                        "http://localhost",
+                                        stackParameter("HMPODVAD/API/TestStrategy/EndpointUrl"),
+                                        "{\"STUB\": \"http://localhost\"}",
+                                        stackParameter("HMPODVAD/API/HealthPath"),
+                                        "/health",
+                                        stackParameter("HMPODVAD/API/TokenPath"),
+                                        "/token",
+                                        stackParameter("HMPODVAD/API/GraphQLPath"),
+                                        "/graphql",
+                                        stackParameter("HMPODVAD/API/GraphQl/QueryString"),
+                                        "query",
+                                        stackParameter("HMPODVAD/API/Header/ApiKey"),
+                                        "apiKey",
+                                        stackParameter("HMPODVAD/API/Header/ClientId"),
+                                        "clientId",
+                                        stackParameter("HMPODVAD/API/Header/GrantType"),
+                                        "client_credentials")));
+
+        DvadAPIEndpointFactory dvadAPIEndpointFactory =
+                new DvadAPIEndpointFactory(
+                        parameterStoreService, new ThirdPartyAPIEndpointLatencyHistograms());
+        InMemoryDvadHttpClient inMemoryDvadHttpClient =
+                new InMemoryDvadHttpClient(objectMapper, Map.of("passportFound", "true"));
+
+        dvadThirdPartyAPIService =
+                new DvadThirdPartyAPIService(
+                        dvadAPIEndpointFactory,
+                        parameterStoreService,
+                        new PrimingEventProbe(),
+                        inMemoryDvadHttpClient,
+                        objectMapper);
+    }
+
+    @Test
+    void performCheckShouldStayWithinAllocationBudget() throws OAuthErrorResponseException {
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        ThirdPartyAPIResult result =
+                dvadThirdPartyAPIService.performCheck(passportFormData, Strategy.STUB);
+        assertTrue(result.isValid());
+
+        // Report only until measured, budget with ALLOCATION_BUDGET_DVAD_PERFORM_CHECK
+        AllocationBudget.reportOnly("dvad-perform-check")
+                .assertWithinBudget(
+                        () ->
+                                dvadThirdPartyAPIService.performCheck(
+                                        passportFormData, Strategy.STUB));
+    }
+
+    private static String stackParameter(String parameterName) {
+        return "/" + TEST_STACK + "/" + parameterName;
+    }
+}
@@ -0,0 +1,160 @@
+package uk.gov.di.ipv.cri.passport.checkpassport.snapstart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.GraphQLAPIResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.HealthCheckResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.errors.Errors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.passport.library.dvad.domain.response.RequestHeaderKeys.HEADER_CONTENT_TYPE;
+
+class InMemoryDvadHttpClientTest {
+
+    private static final String TEST_ENDPOINT = "https://localhost/endpoint";
+
+    private final ObjectMapper realObjectMapper = new ObjectMapper();
+
+    private InMemoryDvadHttpClient inMemoryDvadHttpClient;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        inMemoryDvadHttpClient =
+                new InMemoryDvadHttpClient(realObjectMapper, Map.of("testFlag", "false"));
+    }
+
+    @Test
+    void shouldAnswerHealthCheckRequestsWithStatusUp() throws IOException {
+        try (CloseableHttpResponse response =
+                inMemoryDvadHttpClient.execute(new HttpGet(TEST_ENDPOINT))) {
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+
+            HealthCheckResponse healthCheckResponse =
+                    realObjectMapper.readValue(
+                            EntityUtils.toString(response.getEntity()), HealthCheckResponse.class);
+
+            assertEquals("UP", healthCheckResponse.status());
+        }
+    }
+
+    @Test
+    void shouldAnswerFormPostsWithABearerToken() throws IOException {
+        HttpPost request = new HttpPost(TEST_ENDPOINT);
+        request.addHeader(
+                HEADER_CONTENT_TYPE, ContentType.APPLICATION_FORM_URLENCODED.getMimeType());
+        request.setEntity(new StringEntity("a=b", ContentType.APPLICATION_FORM_URLENCODED));
+
+        try (CloseableHttpResponse response = inMemoryDvadHttpClient.execute(request)) {
+
+            AccessTokenResponse accessTokenResponse =
+                    realObjectMapper.readValue(
+                            EntityUtils.toString(response.getEntity()), AccessTokenResponse.class);
+
+            assertEquals("Bearer", accessTokenResponse.tokenType());
+            assertEquals(1800, accessTokenResponse.expiresIn());
+        }
+    }
+
+    @Test
+    void shouldAnswerJsonPostsWithAGraphQLResponseContainingTheFlags() throws IOException {
+        HttpPost request = new HttpPost(TEST_ENDPOINT);
+        request.addHeader(HEADER_CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
+        request.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = inMemoryDvadHttpClient.execute(request)) {
+
+            GraphQLAPIResponse graphQLAPIResponse =
+                    realObjectMapper.readValue(
+                            EntityUtils.toString(response.getEntity()), GraphQLAPIResponse.class);
+
+            Map<String, String> validatePassport =
+                    graphQLAPIResponse.getData().getValidatePassport();
+            assertEquals("true", validatePassport.get("validationResult"));
+            assertEquals("false", validatePassport.get("testFlag"));
+        }
+
+        assertEquals(1, inMemoryDvadHttpClient.getRequestCount());
+    }
+
+    @Test
+    void shouldAnswerJsonPostsWithAGraphQLErrorResponseWhenCreatedForErrors() throws IOException {
+        InMemoryDvadHttpClient errorDvadHttpClient =
+                InMemoryDvadHttpClient.withGraphQLErrorResponse(realObjectMapper);
+
+        HttpPost request = new HttpPost(TEST_ENDPOINT);
+        request.addHeader(HEADER_CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
+        request.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = errorDvadHttpClient.execute(request)) {
+
+            GraphQLAPIResponse graphQLAPIResponse =
+                    realObjectMapper.readValue(
+                            EntityUtils.toString(response.getEntity()), GraphQLAPIResponse.class);
+
+            assertNull(graphQLAPIResponse.getData());
+
+            Errors errors = graphQLAPIResponse.getErrors().get(0);
+            assertEquals("Priming", errors.message());
+            assertEquals(List.of("validatePassport"), errors.path());
+            assertEquals(1, errors.locations().size());
+            assertEquals("PRIMING", errors.extensions().errorCode());
+            assertNotNull(errors.extensions().classification());
+        }
+    }
+
+    @Test
+    void shouldCountRequestsFromConcurrentCallers() throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                executorService.execute(
+                        () -> {
+                            try (CloseableHttpResponse response =
+                                    inMemoryDvadHttpClient.execute(new HttpGet(TEST_ENDPOINT))) {
+                                EntityUtils.consume(response.getEntity());
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, inMemoryDvadHttpClient.getRequestCount());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldNotSupportAConnectionManager() {
+        inMemoryDvadHttpClient.close();
+
+        assertNotNull(inMemoryDvadHttpClient.getParams());
+        assertThrows(
+                UnsupportedOperationException.class,
+                inMemoryDvadHttpClient::getConnectionManager);
+    }
+}
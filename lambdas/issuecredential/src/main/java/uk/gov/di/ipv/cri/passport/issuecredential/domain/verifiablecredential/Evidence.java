@@ -1,14 +1,23 @@
 package uk.gov.di.ipv.cri.passport.issuecredential.domain.verifiablecredential;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.passport.issuecredential.domain.CiReasons;
 import uk.gov.di.ipv.cri.passport.issuecredential.domain.checkdetails.Check;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
 
+import java.io.IOException;
 import java.util.List;
 
 @ExcludeFromGeneratedCoverageReport
 @JsonInclude(JsonInclude.Include.NON_NULL)
+// Serialized without reflection (it is only written), keep the nested class in step with the
+// properties and those of Check and CiReasons
+@JsonSerialize(using = Evidence.EvidenceSerializer.class)
 public class Evidence {
 
     private String type = "IdentityCheck";
@@ -119,4 +128,78 @@ public class Evidence {
                 + ciReasons
                 + '}';
     }
+
+    static class EvidenceSerializer extends StdSerializer<Evidence> {
+
+        EvidenceSerializer() {
+            super(Evidence.class);
+        }
+
+        @Override
+        public void serialize(
+                Evidence value, JsonGenerator jsonGenerator, SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            if (value.type != null) {
+                jsonGenerator.writeStringField("type", value.type);
+            }
+            if (value.txn != null) {
+                jsonGenerator.writeStringField("txn", value.txn);
+            }
+            jsonGenerator.writeNumberField("strengthScore", value.strengthScore);
+            jsonGenerator.writeNumberField("validityScore", value.validityScore);
+            if (value.ci != null) {
+                JsonStreamingHelper.writeStringListField(jsonGenerator, "ci", value.ci);
+            }
+            if (value.checkDetails != null) {
+                writeChecksField(jsonGenerator, "checkDetails", value.checkDetails);
+            }
+            if (value.failedCheckDetails != null) {
+                writeChecksField(jsonGenerator, "failedCheckDetails", value.failedCheckDetails);
+            }
+            if (value.ciReasons != null) {
+                writeCiReasonsField(jsonGenerator, value.ciReasons);
+            }
+            jsonGenerator.writeEndObject();
+        }
+
+        // Check is NON_NULL with txn ignored
+        private static void writeChecksField(
+                JsonGenerator jsonGenerator, String name, List<Check> checks) throws IOException {
+            jsonGenerator.writeArrayFieldStart(name);
+            for (Check check : checks) {
+                if (check == null) {
+                    jsonGenerator.writeNull();
+                    continue;
+                }
+
+                jsonGenerator.writeStartObject(check);
+                if (check.getCheckMethod() != null) {
+                    jsonGenerator.writeStringField("checkMethod", check.getCheckMethod());
+                }
+                if (check.getDataCheck() != null) {
+                    jsonGenerator.writeStringField("dataCheck", check.getDataCheck());
+                }
+                jsonGenerator.writeEndObject();
+            }
+            jsonGenerator.writeEndArray();
+        }
+
+        private static void writeCiReasonsField(
+                JsonGenerator jsonGenerator, List<CiReasons> ciReasons) throws IOException {
+            jsonGenerator.writeArrayFieldStart("ciReasons");
+            for (CiReasons ciReason : ciReasons) {
+                if (ciReason == null) {
+                    jsonGenerator.writeNull();
+                    continue;
+                }
+
+                jsonGenerator.writeStartObject(ciReason);
+                jsonGenerator.writeStringField("ci", ciReason.getCi());
+                jsonGenerator.writeStringField("reason", ciReason.getReason());
+                jsonGenerator.writeEndObject();
+            }
+            jsonGenerator.writeEndArray();
+        }
+    }
 }
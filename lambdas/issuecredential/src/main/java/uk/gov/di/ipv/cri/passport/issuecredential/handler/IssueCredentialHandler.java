@@ -26,7 +26,6 @@ import uk.gov.di.ipv.cri.common.library.exception.AccessTokenExpiredException;
 import uk.gov.di.ipv.cri.common.library.exception.SessionExpiredException;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
@@ -36,11 +35,18 @@ import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.common.library.util.KMSSigner;
 import uk.gov.di.ipv.cri.passport.issuecredential.exception.CredentialRequestException;
 import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.issuecredential.snapstart.IssueCredentialPrimingResource;
 import uk.gov.di.ipv.cri.passport.issuecredential.util.IssueCredentialPassportAuditExtensionUtil;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
 import uk.gov.di.ipv.cri.passport.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
 import uk.gov.di.ipv.cri.passport.library.metrics.Definitions;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
 import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 
 import java.time.Duration;
@@ -52,6 +58,8 @@ import java.util.Optional;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.ACCESS_TOKEN_EXPIRED;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_EXPIRED;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
 import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK;
 import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PASSPORT_CI_PREFIX;
@@ -66,10 +74,22 @@ public class IssueCredentialHandler
     public static final String AUTHORIZATION_HEADER_KEY = "Authorization";
     private static final String LAMBDA_EXCEPTION_ERROR_MESSAGE =
             "Exception while handling lambda {} exception {}";
+
+    // Parameters loaded during function init
+    private static final PassportConfigSnapshotSpec CONFIG_SNAPSHOT_SPEC =
+            PassportConfigSnapshotSpec.builder()
+                    .stackParameter(DOCUMENT_CHECK_RESULT_TABLE_NAME)
+                    .stackParameter(MAX_JWT_TTL_UNIT)
+                    .build();
+
     private ConfigurationService commonLibConfigurationService;
+    private ParameterStoreService parameterStoreService;
 
     // CommonLib
     private EventProbe eventProbe;
+    private AccumulatingEventProbe accumulatingEventProbe;
+    private InvocationTimeline invocationTimeline;
+    private AwsSdkCallMetrics awsSdkCallMetrics;
     private SessionService sessionService;
     private PersonIdentityService personIdentityService;
     private AuditService auditService;
@@ -77,8 +97,11 @@ public class IssueCredentialHandler
     // Issue Credential Specific
     private VerifiableCredentialService verifiableCredentialService;
 
-    // Shared DataStore (Read)
-    private DataStore<DocumentCheckResultItem> documentCheckResultStore;
+    // Shared document check result store (Read)
+    private DocumentCheckResultStore documentCheckResultStore;
+
+    // Held here as the CRaC global context only holds weak references to resources
+    private IssueCredentialPrimingResource issueCredentialPrimingResource;
 
     private long functionInitMetricLatchedValue = 0;
     private boolean functionInitMetricCaptured = false;
@@ -87,6 +110,7 @@ public class IssueCredentialHandler
     public IssueCredentialHandler() {
         // A reference to serviceFactory is not held in this class
         ServiceFactory serviceFactory = new ServiceFactory();
+        serviceFactory.loadConfigSnapshot(CONFIG_SNAPSHOT_SPEC);
 
         KMSSigner kmsSigner =
                 new KMSSigner(
@@ -100,6 +124,10 @@ public class IssueCredentialHandler
                 new VerifiableCredentialService(serviceFactory, kmsSigner);
 
         initializeLambdaServices(serviceFactory, verifiableCredentialServiceNotAssignedYet);
+
+        // Primes before the SnapStart checkpoint (only registered in the lambda runtime)
+        issueCredentialPrimingResource = new IssueCredentialPrimingResource(serviceFactory);
+        issueCredentialPrimingResource.register();
     }
 
     public IssueCredentialHandler(
@@ -112,8 +140,12 @@ public class IssueCredentialHandler
             ServiceFactory serviceFactory,
             VerifiableCredentialService verifiableCredentialService) {
         this.commonLibConfigurationService = serviceFactory.getCommonLibConfigurationService();
+        this.parameterStoreService = serviceFactory.getParameterStoreService();
 
         this.eventProbe = serviceFactory.getEventProbe();
+        this.accumulatingEventProbe = serviceFactory.getAccumulatingEventProbe();
+        this.invocationTimeline = serviceFactory.getInvocationTimeline();
+        this.awsSdkCallMetrics = serviceFactory.getAwsSdkCallMetrics();
         this.sessionService = serviceFactory.getSessionService();
         this.auditService = serviceFactory.getAuditService();
         this.personIdentityService = serviceFactory.getPersonIdentityService();
@@ -132,7 +164,7 @@ public class IssueCredentialHandler
     @Metrics(captureColdStart = true)
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
-
+        invocationTimeline.begin("issue_credential");
         try {
             LOGGER.info(
                     "Initiating lambda {} version {}",
@@ -149,6 +181,12 @@ public class IssueCredentialHandler
                 functionInitMetricCaptured = true;
             }
 
+            // Parameter lookups since the last invocation (or function init)
+            parameterStoreService.publishCacheMetrics(eventProbe);
+
+            // AWS call latency percentiles, at most once per publish interval
+            awsSdkCallMetrics.publishIfDue(eventProbe);
+
             long runTimeDuration =
                     System.currentTimeMillis() - FUNCTION_INIT_START_TIME_MILLISECONDS;
 
@@ -166,8 +204,13 @@ public class IssueCredentialHandler
                     runTimeDuration);
 
             LOGGER.info("Validating access token...");
+            invocationTimeline.startPhase("access_token_validation");
             var accessToken = validateInputHeaderBearerToken(input.getHeaders());
+            invocationTimeline.stopPhase("access_token_validation");
+
+            invocationTimeline.startPhase("session_lookup");
             var sessionItem = this.sessionService.getSessionByAccessToken(accessToken);
+            invocationTimeline.stopPhase("session_lookup");
 
             if (sessionItem == null || sessionItem.getSessionId() == null) {
                 throw new SessionNotFoundException("Session not found in headers");
@@ -175,10 +218,15 @@ public class IssueCredentialHandler
             LOGGER.info("Extracted session from session store ID {}", sessionItem.getSessionId());
 
             LOGGER.info("Retrieving identity details and document check results...");
+            invocationTimeline.startPhase("person_identity_lookup");
             var personIdentityDetailed =
                     personIdentityService.getPersonIdentityDetailed(sessionItem.getSessionId());
+            invocationTimeline.stopPhase("person_identity_lookup");
+
+            invocationTimeline.startPhase("document_check_result_lookup");
             DocumentCheckResultItem documentCheckResultItem =
                     documentCheckResultStore.getItem(sessionItem.getSessionId().toString());
+            invocationTimeline.stopPhase("document_check_result_lookup");
 
             if (documentCheckResultItem == null) {
                 LOGGER.error("User has arrived in issue credential without completing check");
@@ -189,11 +237,13 @@ public class IssueCredentialHandler
             LOGGER.info("VC content retrieved.");
 
             LOGGER.info("Generating verifiable credential...");
+            invocationTimeline.startPhase("vc_generation");
             SignedJWT signedJWT =
                     verifiableCredentialService.generateSignedVerifiableCredentialJwt(
                             sessionItem.getSubject(),
                             documentCheckResultItem,
                             personIdentityDetailed);
+            invocationTimeline.stopPhase("vc_generation");
             LOGGER.info("Credential generated");
 
             String verifiableCredentialIssuer =
@@ -207,24 +257,33 @@ public class IssueCredentialHandler
                                     personIdentityDetailed, documentCheckResultItem);
 
             LOGGER.info("Sending audit event {}...", AuditEventType.VC_ISSUED);
+            invocationTimeline.startPhase("audit_vc_issued");
             auditService.sendAuditEvent(
                     AuditEventType.VC_ISSUED,
                     new AuditEventContext(auditRestricted, input.getHeaders(), sessionItem),
                     IssueCredentialPassportAuditExtensionUtil
                             .generateVCISSDocumentCheckAuditExtension(
                                     verifiableCredentialIssuer, List.of(documentCheckResultItem)));
+            invocationTimeline.stopPhase("audit_vc_issued");
 
             // CI Metric captured here as check lambda can have multiple attempts
             recordCIMetrics(PASSPORT_CI_PREFIX, documentCheckResultItem.getContraIndicators());
 
             LOGGER.info("Sending audit event {}...", AuditEventType.END);
+            invocationTimeline.startPhase("audit_end");
             auditService.sendAuditEvent(
                     AuditEventType.END, new AuditEventContext(input.getHeaders(), sessionItem));
+            invocationTimeline.stopPhase("audit_end");
 
             eventProbe.counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
 
-            return ApiGatewayResponseGenerator.proxyJwtResponse(
-                    HttpStatusCode.OK, signedJWT.serialize());
+            invocationTimeline.startPhase("response_generation");
+            APIGatewayProxyResponseEvent responseEvent =
+                    ApiGatewayResponseGenerator.proxyJwtResponse(
+                            HttpStatusCode.OK, signedJWT.serialize());
+            invocationTimeline.stopPhase("response_generation");
+
+            return responseEvent;
         } catch (SessionNotFoundException e) {
 
             String customOAuth2ErrorDescription = SESSION_NOT_FOUND.getMessage();
@@ -302,6 +361,12 @@ public class IssueCredentialHandler
 
             return ApiGatewayResponseGenerator.proxyJsonResponse(
                     HttpStatusCode.INTERNAL_SERVER_ERROR, e.getMessage());
+        } finally {
+            // One record per invocation, including the failed ones
+            invocationTimeline.emit();
+            if (accumulatingEventProbe != null) {
+                accumulatingEventProbe.flush();
+            }
         }
     }
 
@@ -0,0 +1,108 @@
+package uk.gov.di.ipv.cri.passport.issuecredential.snapstart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.SignedJWT;
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
+import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.issuecredential.util.IssueCredentialPassportAuditExtensionUtil;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItemTableSchema;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.passport.library.snapstart.SnapStartPrimingResource;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the issue credential request path (document check item mapping, VC claims, evidence, JWT
+ * signing, audit extension and response serialisation) before the SnapStart checkpoint. The VC is
+ * signed with an ephemeral local key, KMS is not called and nothing is written or sent.
+ */
+public class IssueCredentialPrimingResource extends SnapStartPrimingResource {
+
+    private static final String PRIMING_SUBJECT = "urn:fdc:snapstart-priming";
+
+    private static final String PRIMING_FORM_DATA =
+            """
+            {
+                "passportNumber": "123456789",
+                "surname": "Priming",
+                "forenames": ["Snap", "Start"],
+                "dateOfBirth": "1970-01-01",
+                "expiryDate": "2099-01-01"
+            }
+            """;
+
+    private final ServiceFactory serviceFactory;
+    private final ObjectMapper objectMapper;
+    private final ConfigurationService commonLibConfigurationService;
+
+    public IssueCredentialPrimingResource(ServiceFactory serviceFactory) {
+        this.serviceFactory = serviceFactory;
+        this.objectMapper = serviceFactory.getObjectMapper();
+        this.commonLibConfigurationService = serviceFactory.getCommonLibConfigurationService();
+    }
+
+    @Override
+    protected void prime() throws JsonProcessingException, JOSEException, NoSuchAlgorithmException {
+        PassportFormData passportFormData =
+                objectMapper.readValue(PRIMING_FORM_DATA, PassportFormData.class);
+
+        PersonIdentityDetailed personIdentityDetailed =
+                PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                        passportFormData);
+
+        DocumentCheckResultItem documentCheckResultItem = new DocumentCheckResultItem();
+        documentCheckResultItem.setSessionId(UUID.randomUUID());
+        documentCheckResultItem.setTransactionId(UUID.randomUUID().toString());
+        documentCheckResultItem.setDocumentNumber(passportFormData.getPassportNumber());
+        documentCheckResultItem.setExpiryDate(String.valueOf(passportFormData.getExpiryDate()));
+        documentCheckResultItem.setContraIndicators(List.of());
+        documentCheckResultItem.setStrengthScore(4);
+        documentCheckResultItem.setValidityScore(2);
+        documentCheckResultItem.setCheckDetails(List.of("verification_check"));
+
+        // The item as read back from the document check table
+        documentCheckResultItem =
+                DocumentCheckResultItemTableSchema.TABLE_SCHEMA.mapToItem(
+                        DocumentCheckResultItemTableSchema.TABLE_SCHEMA.itemToMap(
+                                documentCheckResultItem, true));
+
+        // Same claims/signing path as the handler, only the signer differs
+        VerifiableCredentialService primingVerifiableCredentialService =
+                new VerifiableCredentialService(
+                        serviceFactory,
+                        new ECDSASigner(new ECKeyGenerator(Curve.P_256).generate()));
+
+        SignedJWT signedJWT =
+                primingVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        PRIMING_SUBJECT, documentCheckResultItem, personIdentityDetailed);
+
+        PersonIdentityDetailedHelperMapper
+                .mapPersonIdentityDetailedAndPassportDataToAuditRestricted(
+                        personIdentityDetailed, documentCheckResultItem);
+
+        objectMapper.writeValueAsString(
+                IssueCredentialPassportAuditExtensionUtil.generateVCISSDocumentCheckAuditExtension(
+                        commonLibConfigurationService.getVerifiableCredentialIssuer(),
+                        List.of(documentCheckResultItem)));
+
+        ApiGatewayResponseGenerator.proxyJwtResponse(HttpStatusCode.OK, signedJWT.serialize());
+    }
+
+    @Override
+    protected void restore() {
+        // Issue credential holds no pooled connections or per environment state
+    }
+}
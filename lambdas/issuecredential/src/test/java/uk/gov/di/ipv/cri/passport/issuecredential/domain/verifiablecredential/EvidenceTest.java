@@ -0,0 +1,69 @@
+package uk.gov.di.ipv.cri.passport.issuecredential.domain.verifiablecredential;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.passport.issuecredential.domain.CiReasons;
+import uk.gov.di.ipv.cri.passport.issuecredential.domain.checkdetails.Check;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.assertEveryPropertyRoundTrips;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createReflectiveObjectMapper;
+
+class EvidenceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final ObjectMapper REFLECTIVE_OBJECT_MAPPER = createReflectiveObjectMapper();
+
+    @Test
+    void shouldSerializeAsTheReflectiveSerializer() throws JsonProcessingException {
+        Check check = new Check("scenario_1");
+        check.setTxn("TXN"); // Ignored
+
+        Evidence evidence = new Evidence("TXN", 4, 2, List.of("A01"));
+        evidence.setCheckDetails(List.of(check));
+        evidence.setFailedCheckDetails(Arrays.asList(new Check(null), null));
+        evidence.setCiReasons(
+                Arrays.asList(new CiReasons("A01", "reason"), new CiReasons(null, null), null));
+
+        assertSerializedAsTheReflectiveSerializer(evidence);
+    }
+
+    @Test
+    void shouldSerializeWithoutNullPropertiesAsTheReflectiveSerializer()
+            throws JsonProcessingException {
+        assertSerializedAsTheReflectiveSerializer(new Evidence());
+
+        Evidence evidence = new Evidence();
+        evidence.setType(null);
+        evidence.setCi(new ArrayList<>(Arrays.asList("A01", null)));
+        assertSerializedAsTheReflectiveSerializer(evidence);
+    }
+
+    @Test
+    void shouldWriteEveryProperty() throws JsonProcessingException {
+        Evidence evidence = new Evidence("TXN", 4, 2, List.of("A01"));
+        evidence.setCheckDetails(List.of(new Check("scenario_1")));
+        evidence.setFailedCheckDetails(List.of(new Check("scenario_2")));
+        evidence.setCiReasons(List.of(new CiReasons("A01", "reason")));
+
+        assertEveryPropertyRoundTrips(evidence);
+    }
+
+    private static void assertSerializedAsTheReflectiveSerializer(Evidence evidence)
+            throws JsonProcessingException {
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.writeValueAsString(evidence),
+                OBJECT_MAPPER.writeValueAsString(evidence));
+        // As the VC claims are built
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.convertValue(evidence, Map.class),
+                OBJECT_MAPPER.convertValue(evidence, Map.class));
+    }
+}
@@ -31,7 +31,6 @@ import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
@@ -44,7 +43,12 @@ import uk.gov.di.ipv.cri.passport.library.DocumentCheckTestDataGenerator;
 import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
 import uk.gov.di.ipv.cri.passport.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
 import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
@@ -65,6 +69,7 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
@@ -85,11 +90,15 @@ class IssueCredentialHandlerTest {
     @Mock private ServiceFactory mockServiceFactory;
 
     @Mock private EventProbe mockEventProbe;
+    @Mock private AccumulatingEventProbe mockAccumulatingEventProbe;
+    @Mock private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+    @Mock private InvocationTimeline mockInvocationTimeline;
     @Mock private ConfigurationService mockCommonLibConfigurationService;
     @Mock private SessionService mockSessionService;
     @Mock private AuditService mockAuditService;
     @Mock private PersonIdentityService mockPersonIdentityService;
-    @Mock private DataStore<DocumentCheckResultItem> mockDocumentCheckResultStore;
+    @Mock private DocumentCheckResultStore mockDocumentCheckResultStore;
+    @Mock private ParameterStoreService mockParameterStoreService;
 
     // Issue Credential only services
     @Mock private VerifiableCredentialService mockVerifiableCredentialService;
@@ -340,6 +349,21 @@ class IssueCredentialHandlerTest {
         assertEquals(HttpStatusCode.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void shouldNotFlushWhenTheEventProbeDoesNotAccumulateMetrics() {
+        // An injected EventProbe writes its own metrics
+        when(mockServiceFactory.getAccumulatingEventProbe()).thenReturn(null);
+        issueCredentialHandler =
+                new IssueCredentialHandler(mockServiceFactory, mockVerifiableCredentialService);
+
+        APIGatewayProxyResponseEvent response =
+                issueCredentialHandler.handleRequest(
+                        new APIGatewayProxyRequestEvent(), mockLambdaContext);
+
+        assertEquals(HttpStatusCode.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(mockAccumulatingEventProbe);
+    }
+
     @Test
     void shouldThrowAWSExceptionWhenAServerErrorOccursRetrievingASessionItemWithAccessToken()
             throws JsonProcessingException, SqsException {
@@ -496,9 +520,14 @@ class IssueCredentialHandlerTest {
 
     private void mockServiceFactoryBehaviour() {
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getAccumulatingEventProbe())
+                .thenReturn(mockAccumulatingEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(mockInvocationTimeline);
+        when(mockServiceFactory.getAwsSdkCallMetrics()).thenReturn(mockAwsSdkCallMetrics);
 
         when(mockServiceFactory.getCommonLibConfigurationService())
                 .thenReturn(mockCommonLibConfigurationService);
+        when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
 
         when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
         when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
@@ -42,7 +42,11 @@ import uk.gov.di.ipv.cri.passport.issuecredential.handler.IssueCredentialHandler
 import uk.gov.di.ipv.cri.passport.issuecredential.pact.utils.Injector;
 import uk.gov.di.ipv.cri.passport.issuecredential.pact.utils.MockHttpServer;
 import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
 import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
@@ -94,10 +98,13 @@ class IssueCredentialHandlerTest {
 
     @Mock private ServiceFactory mockServiceFactory;
     @Mock private EventProbe mockEventProbe;
+    @Mock private AccumulatingEventProbe mockAccumulatingEventProbe;
+    @Mock private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+    @Mock private InvocationTimeline mockInvocationTimeline;
     @Mock private ConfigurationService mockCommonLibConfigurationService;
     private SessionService sessionService;
     @Mock private AuditService mockAuditService;
-    @Mock private DataStore<DocumentCheckResultItem> mockDocumentCheckResultStore;
+    @Mock private DocumentCheckResultStore mockDocumentCheckResultStore;
     @Mock private ParameterStoreService mockParameterStoreService;
 
     @Mock private DataStore<SessionItem> sessionItemDataStore;
@@ -365,6 +372,10 @@ class IssueCredentialHandlerTest {
 
         when(mockServiceFactory.getObjectMapper()).thenReturn(new ObjectMapper());
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getAccumulatingEventProbe())
+                .thenReturn(mockAccumulatingEventProbe);
+        when(mockServiceFactory.getInvocationTimeline()).thenReturn(mockInvocationTimeline);
+        when(mockServiceFactory.getAwsSdkCallMetrics()).thenReturn(mockAwsSdkCallMetrics);
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
         when(mockServiceFactory.getCommonLibConfigurationService())
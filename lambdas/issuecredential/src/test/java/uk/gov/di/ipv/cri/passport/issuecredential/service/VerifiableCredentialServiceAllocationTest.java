@@ -0,0 +1,91 @@
+package uk.gov.di.ipv.cri.passport.issuecredential.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.passport.library.AllocationBudget;
+import uk.gov.di.ipv.cri.passport.library.DocumentCheckTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.VerifiableCredentialServiceTestFixtures;
+import uk.gov.di.ipv.cri.passport.library.domain.PassportFormData;
+import uk.gov.di.ipv.cri.passport.library.helpers.PersonIdentityDetailedHelperMapper;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiableCredentialServiceAllocationTest implements VerifiableCredentialServiceTestFixtures {
+
+    private static final String UNIT_TEST_VC_ISSUER = "https://UNIT_TEST_VC_ISSUER";
+    private static final String UNIT_TEST_SUBJECT = "urn:fdc:12345678";
+
+    @Mock(stubOnly = true)
+    private ServiceFactory mockServiceFactory;
+
+    @Mock(stubOnly = true)
+    private ParameterStoreService mockParameterStoreService;
+
+    @Mock(stubOnly = true)
+    private ConfigurationService mockCommonLibConfigurationService;
+
+    private VerifiableCredentialService verifiableCredentialService;
+
+    @BeforeEach
+    void setUp() throws InvalidKeySpecException, NoSuchAlgorithmException, JOSEException {
+        when(mockServiceFactory.getObjectMapper())
+                .thenReturn(new ObjectMapper().registerModule(new JavaTimeModule()));
+        when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
+        when(mockServiceFactory.getCommonLibConfigurationService())
+                .thenReturn(mockCommonLibConfigurationService);
+
+        verifiableCredentialService =
+                new VerifiableCredentialService(
+                        mockServiceFactory, new ECDSASigner(getPrivateKey()));
+    }
+
+    @Test
+    void generateSignedVerifiableCredentialJwtShouldStayWithinAllocationBudget() {
+        when(mockCommonLibConfigurationService.getMaxJwtTtl()).thenReturn(3600L);
+        when(mockParameterStoreService.getStackParameterValue(MAX_JWT_TTL_UNIT))
+                .thenReturn("SECONDS");
+        when(mockCommonLibConfigurationService.getVerifiableCredentialIssuer())
+                .thenReturn(UNIT_TEST_VC_ISSUER);
+
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        PersonIdentityDetailed personIdentityDetailed =
+                PersonIdentityDetailedHelperMapper.passportFormDataToAuditRestrictedFormat(
+                        passportFormData);
+
+        DocumentCheckResultItem documentCheckResultItem =
+                DocumentCheckTestDataGenerator.generateVerifiedResultItem(
+                        UUID.randomUUID(), passportFormData.getPassportNumber());
+
+        // Signing dominates, fewer operations keep the test quick
+        // Report only until measured, budget with ALLOCATION_BUDGET_VERIFIABLE_CREDENTIAL_SERVICE
+        AllocationBudget.reportOnly("verifiable-credential-service")
+                .warmupOperations(1_000)
+                .measuredOperations(200)
+                .assertWithinBudget(
+                        () ->
+                                verifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                                        UNIT_TEST_SUBJECT,
+                                        documentCheckResultItem,
+                                        personIdentityDetailed));
+    }
+}
@@ -0,0 +1,65 @@
+package uk.gov.di.ipv.cri.passport.issuecredential.snapstart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
+
+@ExtendWith(MockitoExtension.class)
+class IssueCredentialPrimingResourceTest {
+
+    @Mock private ServiceFactory mockServiceFactory;
+
+    // Returned via the ServiceFactory
+    private final ObjectMapper realObjectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+    @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private ConfigurationService mockCommonLibConfigurationService;
+
+    private IssueCredentialPrimingResource issueCredentialPrimingResource;
+
+    @BeforeEach
+    void setUp() {
+        when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
+        when(mockServiceFactory.getCommonLibConfigurationService())
+                .thenReturn(mockCommonLibConfigurationService);
+
+        issueCredentialPrimingResource = new IssueCredentialPrimingResource(mockServiceFactory);
+    }
+
+    @Test
+    void shouldPrimeTheIssueCredentialPathWithALocalSigner() {
+        when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
+
+        when(mockCommonLibConfigurationService.getMaxJwtTtl()).thenReturn(3600L);
+        when(mockParameterStoreService.getStackParameterValue(MAX_JWT_TTL_UNIT))
+                .thenReturn("SECONDS");
+        when(mockCommonLibConfigurationService.getVerifiableCredentialIssuer())
+                .thenReturn("https://localhost/issuer");
+
+        assertDoesNotThrow(() -> issueCredentialPrimingResource.prime());
+
+        verify(mockParameterStoreService).getStackParameterValue(MAX_JWT_TTL_UNIT);
+        verify(mockCommonLibConfigurationService, atLeastOnce()).getVerifiableCredentialIssuer();
+    }
+
+    @Test
+    void shouldHaveNothingToRestore() {
+        assertDoesNotThrow(() -> issueCredentialPrimingResource.restore());
+
+        verifyNoMoreInteractions(mockCommonLibConfigurationService);
+    }
+}
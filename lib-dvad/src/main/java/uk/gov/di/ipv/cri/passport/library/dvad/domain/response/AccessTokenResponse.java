@@ -2,8 +2,22 @@ package uk.gov.di.ipv.cri.passport.library.dvad.domain.response;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
+
+import java.io.IOException;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
+// (De)serialized without reflection, keep the nested classes in step with the properties
+@JsonSerialize(using = AccessTokenResponse.AccessTokenResponseSerializer.class)
+@JsonDeserialize(using = AccessTokenResponse.AccessTokenResponseDeserializer.class)
 public record AccessTokenResponse(
         @JsonProperty(value = "access_token", required = true) String accessToken,
         @JsonProperty(value = "token_type", required = true) String tokenType,
@@ -63,4 +77,85 @@ public record AccessTokenResponse(
                     accessToken, tokenType, expiresIn, refreshToken, refreshExpiresIn, scope);
         }
     }
+
+    static class AccessTokenResponseSerializer extends StdSerializer<AccessTokenResponse> {
+
+        AccessTokenResponseSerializer() {
+            super(AccessTokenResponse.class);
+        }
+
+        @Override
+        public void serialize(
+                AccessTokenResponse value, JsonGenerator jsonGenerator, SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            jsonGenerator.writeStringField("access_token", value.accessToken);
+            jsonGenerator.writeStringField("token_type", value.tokenType);
+            jsonGenerator.writeNumberField("expires_in", value.expiresIn);
+            jsonGenerator.writeStringField("refresh_token", value.refreshToken);
+            jsonGenerator.writeNumberField("refresh_expires_in", value.refreshExpiresIn);
+            jsonGenerator.writeStringField("scope", value.scope);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    static class AccessTokenResponseDeserializer extends StdDeserializer<AccessTokenResponse> {
+
+        AccessTokenResponseDeserializer() {
+            super(AccessTokenResponse.class);
+        }
+
+        @Override
+        public AccessTokenResponse deserialize(
+                JsonParser jsonParser, DeserializationContext context) throws IOException {
+            if (!JsonStreamingHelper.isAtObject(jsonParser)) {
+                return (AccessTokenResponse)
+                        context.handleUnexpectedToken(AccessTokenResponse.class, jsonParser);
+            }
+
+            AccessTokenResponseBuilder builder = AccessTokenResponse.builder();
+            boolean hasAccessToken = false;
+            boolean hasTokenType = false;
+            boolean hasExpiresIn = false;
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                switch (name) {
+                    case "access_token" -> {
+                        builder.accessToken(JsonStreamingHelper.readString(jsonParser, context));
+                        hasAccessToken = true;
+                    }
+                    case "token_type" -> {
+                        builder.tokenType(JsonStreamingHelper.readString(jsonParser, context));
+                        hasTokenType = true;
+                    }
+                    case "expires_in" -> {
+                        builder.expiresIn(JsonStreamingHelper.readLong(jsonParser, context));
+                        hasExpiresIn = true;
+                    }
+                    case "refresh_token" -> builder.refreshToken(
+                            JsonStreamingHelper.readString(jsonParser, context));
+                    case "refresh_expires_in" -> builder.refreshExpiresIn(
+                            JsonStreamingHelper.readLong(jsonParser, context));
+                    case "scope" -> builder.scope(
+                            JsonStreamingHelper.readString(jsonParser, context));
+                    default -> jsonParser.skipChildren(); // ignoreUnknown
+                }
+            }
+
+            if (!hasAccessToken) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, AccessTokenResponse.class, "access_token");
+            } else if (!hasTokenType) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, AccessTokenResponse.class, "token_type");
+            } else if (!hasExpiresIn) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, AccessTokenResponse.class, "expires_in");
+            }
+
+            return builder.build();
+        }
+    }
 }
@@ -3,14 +3,27 @@ package uk.gov.di.ipv.cri.passport.library.dvad.domain.response;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
 import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.ResponseData;
 import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.errors.Errors;
 
+import java.io.IOException;
 import java.util.List;
 
 // Ignore everything but the data or error segment,
 // which is the only part to be mapped
 @JsonIgnoreProperties(ignoreUnknown = true)
+// (De)serialized without reflection, keep the nested classes in step with the properties
+@JsonSerialize(using = GraphQLAPIResponse.GraphQLAPIResponseSerializer.class)
+@JsonDeserialize(using = GraphQLAPIResponse.GraphQLAPIResponseDeserializer.class)
 public class GraphQLAPIResponse {
 
     @JsonProperty("data")
@@ -68,4 +81,67 @@ public class GraphQLAPIResponse {
             return graphQLAPIResponse;
         }
     }
+
+    static class GraphQLAPIResponseSerializer extends StdSerializer<GraphQLAPIResponse> {
+
+        GraphQLAPIResponseSerializer() {
+            super(GraphQLAPIResponse.class);
+        }
+
+        @Override
+        public void serialize(
+                GraphQLAPIResponse value, JsonGenerator jsonGenerator, SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            provider.defaultSerializeField("data", value.data, jsonGenerator);
+            // Errors (only on a failed request) are left to Jackson
+            provider.defaultSerializeField("errors", value.errors, jsonGenerator);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    static class GraphQLAPIResponseDeserializer extends StdDeserializer<GraphQLAPIResponse> {
+
+        GraphQLAPIResponseDeserializer() {
+            super(GraphQLAPIResponse.class);
+        }
+
+        @Override
+        public GraphQLAPIResponse deserialize(
+                JsonParser jsonParser, DeserializationContext context) throws IOException {
+            if (!JsonStreamingHelper.isAtObject(jsonParser)) {
+                return (GraphQLAPIResponse)
+                        context.handleUnexpectedToken(GraphQLAPIResponse.class, jsonParser);
+            }
+
+            ResponseData data = null;
+            boolean hasData = false;
+            List<Errors> errors = null;
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                switch (name) {
+                    case "data" -> {
+                        data = JsonStreamingHelper.read(jsonParser, context, ResponseData.class);
+                        hasData = true;
+                    }
+                    case "errors" -> errors =
+                            JsonStreamingHelper.read(
+                                    jsonParser,
+                                    context,
+                                    context.getTypeFactory()
+                                            .constructCollectionType(List.class, Errors.class));
+                    default -> jsonParser.skipChildren(); // ignoreUnknown
+                }
+            }
+
+            if (!hasData) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, GraphQLAPIResponse.class, "data");
+            }
+
+            return new GraphQLAPIResponse(data, errors);
+        }
+    }
 }
@@ -3,10 +3,23 @@ package uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
 
+import java.io.IOException;
 import java.util.Map;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
+// (De)serialized without reflection, keep the nested classes in step with the properties
+@JsonSerialize(using = ResponseData.ResponseDataSerializer.class)
+@JsonDeserialize(using = ResponseData.ResponseDataDeserializer.class)
 public class ResponseData {
 
     @JsonProperty("validatePassport")
@@ -49,4 +62,51 @@ public class ResponseData {
             return responseData;
         }
     }
+
+    static class ResponseDataSerializer extends StdSerializer<ResponseData> {
+
+        ResponseDataSerializer() {
+            super(ResponseData.class);
+        }
+
+        @Override
+        public void serialize(
+                ResponseData value, JsonGenerator jsonGenerator, SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            JsonStreamingHelper.writeStringMapField(
+                    jsonGenerator, "validatePassport", value.validatePassport);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    static class ResponseDataDeserializer extends StdDeserializer<ResponseData> {
+
+        ResponseDataDeserializer() {
+            super(ResponseData.class);
+        }
+
+        @Override
+        public ResponseData deserialize(JsonParser jsonParser, DeserializationContext context)
+                throws IOException {
+            if (!JsonStreamingHelper.isAtObject(jsonParser)) {
+                return (ResponseData) context.handleUnexpectedToken(ResponseData.class, jsonParser);
+            }
+
+            ResponseData responseData = new ResponseData();
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                if (name.equals("validatePassport")) {
+                    responseData.validatePassport =
+                            JsonStreamingHelper.readStringMap(jsonParser, context);
+                } else {
+                    jsonParser.skipChildren(); // ignoreUnknown
+                }
+            }
+
+            return responseData;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+/**
+ * The DVAD access token of one Strategy, shared by all containers. The token is KMS encrypted, a
+ * container refreshing it holds a lease until refreshLeaseExpiresAt so only one container calls the
+ * token endpoint. Version is incremented by each write, each written over the version last read.
+ */
+@ExcludeFromGeneratedCoverageReport
+public class DvadAccessTokenItem {
+
+    private String strategy;
+    private String encryptedAccessTokenResponse;
+    private long expiresAt;
+    private long refreshLeaseExpiresAt;
+    private long version;
+    private long updatedAt;
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    /** @return the AccessTokenResponse JSON KMS encrypted and base64 encoded, null if none yet */
+    public String getEncryptedAccessTokenResponse() {
+        return encryptedAccessTokenResponse;
+    }
+
+    public void setEncryptedAccessTokenResponse(String encryptedAccessTokenResponse) {
+        this.encryptedAccessTokenResponse = encryptedAccessTokenResponse;
+    }
+
+    /** @return epoch millis the token expires */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /** @return epoch millis the refresh lease of a container expires, 0 if not refreshing */
+    public long getRefreshLeaseExpiresAt() {
+        return refreshLeaseExpiresAt;
+    }
+
+    public void setRefreshLeaseExpiresAt(long refreshLeaseExpiresAt) {
+        this.refreshLeaseExpiresAt = refreshLeaseExpiresAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /** @return epoch millis the item was written */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,122 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+/** The DVAD access token table, one item per Strategy. */
+public class DvadAccessTokenStore {
+
+    static final TableSchema<DvadAccessTokenItem> TABLE_SCHEMA =
+            StaticTableSchema.builder(DvadAccessTokenItem.class)
+                    .newItemSupplier(DvadAccessTokenItem::new)
+                    .addAttribute(
+                            String.class,
+                            attribute ->
+                                    attribute
+                                            .name("strategy")
+                                            .getter(DvadAccessTokenItem::getStrategy)
+                                            .setter(DvadAccessTokenItem::setStrategy)
+                                            .tags(StaticAttributeTags.primaryPartitionKey()))
+                    .addAttribute(
+                            String.class,
+                            attribute ->
+                                    attribute
+                                            .name("encryptedAccessTokenResponse")
+                                            .getter(
+                                                    DvadAccessTokenItem
+                                                            ::getEncryptedAccessTokenResponse)
+                                            .setter(
+                                                    DvadAccessTokenItem
+                                                            ::setEncryptedAccessTokenResponse))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("expiresAt")
+                                            .getter(DvadAccessTokenItem::getExpiresAt)
+                                            .setter(DvadAccessTokenItem::setExpiresAt))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("refreshLeaseExpiresAt")
+                                            .getter(DvadAccessTokenItem::getRefreshLeaseExpiresAt)
+                                            .setter(DvadAccessTokenItem::setRefreshLeaseExpiresAt))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("version")
+                                            .getter(DvadAccessTokenItem::getVersion)
+                                            .setter(DvadAccessTokenItem::setVersion))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("updatedAt")
+                                            .getter(DvadAccessTokenItem::getUpdatedAt)
+                                            .setter(DvadAccessTokenItem::setUpdatedAt))
+                    .build();
+
+    // Written over the version last read, or where no container has written yet
+    private static final String VERSION_CONDITION =
+            "attribute_not_exists(#strategy) OR #version = :expectedVersion";
+
+    private final DynamoDbTable<DvadAccessTokenItem> table;
+
+    public DvadAccessTokenStore(String tableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this.table = dynamoDbEnhancedClient.table(tableName, TABLE_SCHEMA);
+    }
+
+    /**
+     * Read consistently, so a container does not lead a refresh over a version already replaced.
+     *
+     * @return the item of the strategy, null if no token has been shared
+     */
+    public DvadAccessTokenItem getItem(String strategy) {
+        return table.getItem(
+                GetItemEnhancedRequest.builder()
+                        .key(Key.builder().partitionValue(strategy).build())
+                        .consistentRead(true)
+                        .build());
+    }
+
+    /**
+     * Writes the item, with its version set to expectedVersion + 1.
+     *
+     * @return false if the item has been written by another container since expectedVersion
+     */
+    public boolean putItemIfVersion(DvadAccessTokenItem item, long expectedVersion) {
+        item.setVersion(expectedVersion + 1);
+
+        Expression condition =
+                Expression.builder()
+                        .expression(VERSION_CONDITION)
+                        .putExpressionName("#strategy", "strategy")
+                        .putExpressionName("#version", "version")
+                        .putExpressionValue(
+                                ":expectedVersion",
+                                AttributeValue.fromN(Long.toString(expectedVersion)))
+                        .build();
+
+        try {
+            table.putItem(
+                    PutItemEnhancedRequest.builder(DvadAccessTokenItem.class)
+                            .item(item)
+                            .conditionExpression(condition)
+                            .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
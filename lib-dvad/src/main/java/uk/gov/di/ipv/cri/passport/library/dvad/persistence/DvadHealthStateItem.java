@@ -0,0 +1,60 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+/**
+ * The DVAD circuit state of one Strategy, shared by all containers. Version is incremented by each
+ * published transition, a transition is only written over the version its container last read.
+ */
+@ExcludeFromGeneratedCoverageReport
+public class DvadHealthStateItem {
+
+    private String strategy;
+    private String state;
+    private long openedAt;
+    private long version;
+    private long updatedAt;
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    /** @return the DvadCircuitBreaker.State name, OPEN or CLOSED */
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /** @return epoch millis the circuit was opened, when OPEN */
+    public long getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(long openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /** @return epoch millis the item was written */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
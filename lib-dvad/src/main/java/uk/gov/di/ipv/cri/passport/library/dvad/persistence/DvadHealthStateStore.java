@@ -0,0 +1,105 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+/**
+ * The DVAD health state table, one item per Strategy. Uses a static table schema, as {@link
+ * uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore} does.
+ */
+public class DvadHealthStateStore {
+
+    static final TableSchema<DvadHealthStateItem> TABLE_SCHEMA =
+            StaticTableSchema.builder(DvadHealthStateItem.class)
+                    .newItemSupplier(DvadHealthStateItem::new)
+                    .addAttribute(
+                            String.class,
+                            attribute ->
+                                    attribute
+                                            .name("strategy")
+                                            .getter(DvadHealthStateItem::getStrategy)
+                                            .setter(DvadHealthStateItem::setStrategy)
+                                            .tags(StaticAttributeTags.primaryPartitionKey()))
+                    .addAttribute(
+                            String.class,
+                            attribute ->
+                                    attribute
+                                            .name("state")
+                                            .getter(DvadHealthStateItem::getState)
+                                            .setter(DvadHealthStateItem::setState))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("openedAt")
+                                            .getter(DvadHealthStateItem::getOpenedAt)
+                                            .setter(DvadHealthStateItem::setOpenedAt))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("version")
+                                            .getter(DvadHealthStateItem::getVersion)
+                                            .setter(DvadHealthStateItem::setVersion))
+                    .addAttribute(
+                            Long.class,
+                            attribute ->
+                                    attribute
+                                            .name("updatedAt")
+                                            .getter(DvadHealthStateItem::getUpdatedAt)
+                                            .setter(DvadHealthStateItem::setUpdatedAt))
+                    .build();
+
+    // Written over the version last read, or where no container has written yet
+    private static final String VERSION_CONDITION =
+            "attribute_not_exists(#strategy) OR #version = :expectedVersion";
+
+    private final DynamoDbTable<DvadHealthStateItem> table;
+
+    public DvadHealthStateStore(String tableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this.table = dynamoDbEnhancedClient.table(tableName, TABLE_SCHEMA);
+    }
+
+    /** @return the item of the strategy, null if no transition has been published */
+    public DvadHealthStateItem getItem(String strategy) {
+        return table.getItem(Key.builder().partitionValue(strategy).build());
+    }
+
+    /**
+     * Writes the item, with its version set to expectedVersion + 1.
+     *
+     * @return false if the item has been written by another container since expectedVersion
+     */
+    public boolean putItemIfVersion(DvadHealthStateItem item, long expectedVersion) {
+        item.setVersion(expectedVersion + 1);
+
+        Expression condition =
+                Expression.builder()
+                        .expression(VERSION_CONDITION)
+                        .putExpressionName("#strategy", "strategy")
+                        .putExpressionName("#version", "version")
+                        .putExpressionValue(
+                                ":expectedVersion",
+                                AttributeValue.fromN(Long.toString(expectedVersion)))
+                        .build();
+
+        try {
+            table.putItem(
+                    PutItemEnhancedRequest.builder(DvadHealthStateItem.class)
+                            .item(item)
+                            .conditionExpression(condition)
+                            .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
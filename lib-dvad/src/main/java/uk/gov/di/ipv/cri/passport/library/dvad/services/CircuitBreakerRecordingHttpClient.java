@@ -0,0 +1,69 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * Wraps a DVAD http client, recording the outcome of each call in a {@link DvadCircuitBreaker}.
+ * Calls failing with an IOException (connect, read timeout, reset) or answered with a 5xx are
+ * failures, any other reply shows the API is up and is a success.
+ */
+public class CircuitBreakerRecordingHttpClient extends CloseableHttpClient {
+
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final CloseableHttpClient closeableHttpClient;
+    private final DvadCircuitBreaker dvadCircuitBreaker;
+
+    public CircuitBreakerRecordingHttpClient(
+            CloseableHttpClient closeableHttpClient, DvadCircuitBreaker dvadCircuitBreaker) {
+        this.closeableHttpClient = closeableHttpClient;
+        this.dvadCircuitBreaker = dvadCircuitBreaker;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(
+            HttpHost target, HttpRequest request, HttpContext context)
+            throws IOException, ClientProtocolException {
+        CloseableHttpResponse response;
+        try {
+            response = closeableHttpClient.execute(target, request, context);
+        } catch (IOException e) {
+            dvadCircuitBreaker.recordFailure();
+            throw e;
+        }
+
+        if (response.getStatusLine().getStatusCode() >= HTTP_SERVER_ERROR) {
+            dvadCircuitBreaker.recordFailure();
+        } else {
+            dvadCircuitBreaker.recordSuccess();
+        }
+
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeableHttpClient.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return closeableHttpClient.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager() {
+        return closeableHttpClient.getConnectionManager();
+    }
+}
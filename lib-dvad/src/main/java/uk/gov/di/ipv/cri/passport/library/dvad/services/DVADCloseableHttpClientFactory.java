@@ -1,6 +1,7 @@
 package uk.gov.di.ipv.cri.passport.library.dvad.services;
 
 import org.apache.http.impl.client.CloseableHttpClient;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters;
 import uk.gov.di.ipv.cri.passport.library.exceptions.HttpClientException;
 import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
@@ -14,6 +15,7 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Map;
+import java.util.Optional;
 
 public class DVADCloseableHttpClientFactory {
     public static final String MAP_KEY_TLS_CERT = "TLSCert-24-09-2024";
@@ -21,10 +23,36 @@ public class DVADCloseableHttpClientFactory {
     public static final String MAP_KEY_TLS_ROOT_CERT = "TLSRootCertificate";
     public static final String MAP_KEY_TLS_INT_CERT = "TLSIntermediateCertificate-24-09-2024";
 
+    private final EventProbe eventProbe;
+
+    public DVADCloseableHttpClientFactory(EventProbe eventProbe) {
+        this.eventProbe = eventProbe;
+    }
+
+    /**
+     * @return the client, wrapped in a FaultInjectingHttpClient when DVAD_FAULT_INJECTION is set
+     *     in an environment it is allowed in
+     */
     public CloseableHttpClient getClient(
             boolean tlsOn,
             ParameterStoreService parameterStoreService,
             ApacheHTTPClientFactoryService apacheHTTPClientFactoryService) {
+        CloseableHttpClient closeableHttpClient =
+                createClient(tlsOn, parameterStoreService, apacheHTTPClientFactoryService);
+
+        Optional<DvadFaultInjection> dvadFaultInjection = DvadFaultInjection.fromEnvironment();
+        if (dvadFaultInjection.isPresent()) {
+            return new FaultInjectingHttpClient(
+                    closeableHttpClient, dvadFaultInjection.get(), eventProbe);
+        }
+
+        return closeableHttpClient;
+    }
+
+    private CloseableHttpClient createClient(
+            boolean tlsOn,
+            ParameterStoreService parameterStoreService,
+            ApacheHTTPClientFactoryService apacheHTTPClientFactoryService) {
         try {
             if (tlsOn) {
                 Map<String, String> dvadHtpClientCertsKeysMap =
@@ -0,0 +1,355 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_ADOPTED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_CLOSED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_HALF_OPEN;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_OPENED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_REJECTED;
+
+/**
+ * The DVAD API health of one Strategy, inferred from the outcome of every call made to it. A call
+ * failing to connect, timing out or answered with a 5xx is a failure, any other reply a success.
+ *
+ * <ul>
+ *   <li>CLOSED - checks are made, the outcomes are counted in a sliding window of windowSeconds.
+ *       Once the window holds minimumCalls with failureRatePercent of them failed the circuit opens
+ *   <li>OPEN - checks are rejected without calling DVAD, until openSeconds have passed
+ *   <li>HALF_OPEN - the next check is made with a health check probe first, a probe reporting UP
+ *       closes the circuit and any other outcome opens it again. Other checks are rejected while
+ *       the probe is made
+ * </ul>
+ *
+ * <p>Read from DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS, DVAD_CIRCUIT_BREAKER_MINIMUM_CALLS,
+ * DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT and DVAD_CIRCUIT_BREAKER_OPEN_SECONDS, each optional.
+ * A value that is not a number or out of range (each at least 1, the window at most an hour and the
+ * failure rate at most 100) is logged and the default used.
+ *
+ * <p>With a {@link SharedDvadHealthState} the OPEN and CLOSED transitions are published to the
+ * other containers, and theirs adopted before each check. HALF_OPEN is not shared, each container
+ * makes its own probe. The shared state is read and published outside the monitor, so checks and
+ * outcomes are not held up behind a table call.
+ */
+public class DvadCircuitBreaker {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String WINDOW_SECONDS_ENV = "DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS";
+    static final String MINIMUM_CALLS_ENV = "DVAD_CIRCUIT_BREAKER_MINIMUM_CALLS";
+    static final String FAILURE_RATE_PERCENT_ENV = "DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT";
+    static final String OPEN_SECONDS_ENV = "DVAD_CIRCUIT_BREAKER_OPEN_SECONDS";
+
+    private static final int DEFAULT_WINDOW_SECONDS = 60;
+    private static final int DEFAULT_MINIMUM_CALLS = 10;
+    private static final int DEFAULT_FAILURE_RATE_PERCENT = 50;
+    private static final int DEFAULT_OPEN_SECONDS = 30;
+    // The window is held as one bucket per second
+    private static final int MAXIMUM_WINDOW_SECONDS = 3600;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN;
+    }
+
+    /** The outcome of asking to make a check. */
+    public enum Permit {
+        PERMITTED,
+        // Permitted, once a health check has found the API UP
+        PROBE,
+        REJECTED;
+    }
+
+    record Settings(int windowSeconds, int minimumCalls, int failureRatePercent, int openSeconds) {
+
+        static Settings fromEnvironment() {
+            return new Settings(
+                    readEnvironment(
+                            WINDOW_SECONDS_ENV, DEFAULT_WINDOW_SECONDS, 1, MAXIMUM_WINDOW_SECONDS),
+                    readEnvironment(MINIMUM_CALLS_ENV, DEFAULT_MINIMUM_CALLS, 1, Integer.MAX_VALUE),
+                    readEnvironment(FAILURE_RATE_PERCENT_ENV, DEFAULT_FAILURE_RATE_PERCENT, 1, 100),
+                    readEnvironment(OPEN_SECONDS_ENV, DEFAULT_OPEN_SECONDS, 1, Integer.MAX_VALUE));
+        }
+
+        private static int readEnvironment(
+                String name, int defaultValue, int minimumValue, int maximumValue) {
+            String value = System.getenv(name);
+
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+
+            try {
+                int setting = Integer.parseInt(value.trim());
+                if (setting >= minimumValue && setting <= maximumValue) {
+                    return setting;
+                }
+            } catch (NumberFormatException e) {
+                // Warned below
+            }
+
+            // Not fatal, the breakers are built with the function and must not stop it starting
+            LOGGER.warn(
+                    "Invalid {} {}, expected {} to {}, using {}",
+                    name,
+                    value,
+                    minimumValue,
+                    maximumValue,
+                    defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // A transition to publish, with the version of the last shared transition when it was made
+    private record SharedTransition(State state, long openedAtMillis, long expectedVersion) {}
+
+    private final Strategy strategy;
+    private final Settings settings;
+    private final EventProbe eventProbe;
+    private final Clock clock;
+    // Null if the state is not shared
+    private final SharedDvadHealthState sharedHealthState;
+
+    // Per second buckets of the window, indexed by the epoch second modulo the window length
+    private final long[] bucketSeconds;
+    private final int[] bucketCalls;
+    private final int[] bucketFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private long probeStartedAtMillis;
+    // The version of the last shared transition read or published
+    private long sharedVersion;
+
+    DvadCircuitBreaker(Strategy strategy, Settings settings, EventProbe eventProbe, Clock clock) {
+        this(strategy, settings, eventProbe, clock, null);
+    }
+
+    DvadCircuitBreaker(
+            Strategy strategy,
+            Settings settings,
+            EventProbe eventProbe,
+            Clock clock,
+            SharedDvadHealthState sharedHealthState) {
+        this.strategy = strategy;
+        this.settings = settings;
+        this.eventProbe = eventProbe;
+        this.clock = clock;
+        this.sharedHealthState = sharedHealthState;
+
+        int windowSeconds = Math.max(settings.windowSeconds(), 1);
+        this.bucketSeconds = new long[windowSeconds];
+        this.bucketCalls = new int[windowSeconds];
+        this.bucketFailures = new int[windowSeconds];
+    }
+
+    /**
+     * @param sharedHealthState the state shared with other containers, null if not shared
+     * @return a circuit breaker for each Strategy, with the settings from the environment
+     */
+    static Map<Strategy, DvadCircuitBreaker> createPerStrategy(
+            EventProbe eventProbe, SharedDvadHealthState sharedHealthState) {
+        return createPerStrategy(
+                Settings.fromEnvironment(), eventProbe, Clock.systemUTC(), sharedHealthState);
+    }
+
+    static Map<Strategy, DvadCircuitBreaker> createPerStrategy(
+            Settings settings,
+            EventProbe eventProbe,
+            Clock clock,
+            SharedDvadHealthState sharedHealthState) {
+        Map<Strategy, DvadCircuitBreaker> circuitBreakers = new EnumMap<>(Strategy.class);
+        for (Strategy strategy : Strategy.values()) {
+            circuitBreakers.put(
+                    strategy,
+                    new DvadCircuitBreaker(
+                            strategy, settings, eventProbe, clock, sharedHealthState));
+        }
+
+        return circuitBreakers;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Asks to make a check, a REJECTED check is counted as the circuit_rejected metric. */
+    public Permit tryAcquire() {
+        SharedDvadHealthState.Snapshot snapshot =
+                sharedHealthState == null ? null : sharedHealthState.read(strategy);
+
+        synchronized (this) {
+            adoptSharedState(snapshot);
+
+            long nowMillis = clock.millis();
+            long openMillis = settings.openSeconds() * MILLIS_PER_SECOND;
+
+            switch (state) {
+                case CLOSED:
+                    return Permit.PERMITTED;
+                case OPEN:
+                    if (nowMillis - openedAtMillis >= openMillis) {
+                        // HALF_OPEN is not shared, there is nothing to publish
+                        transitionTo(State.HALF_OPEN);
+                        probeStartedAtMillis = nowMillis;
+                        return Permit.PROBE;
+                    }
+                    break;
+                case HALF_OPEN:
+                    // A probe not recorded in the open duration was lost, allow another
+                    if (nowMillis - probeStartedAtMillis >= openMillis) {
+                        probeStartedAtMillis = nowMillis;
+                        return Permit.PROBE;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+
+        eventProbe.counterMetric(DVAD_HEALTH_CIRCUIT_REJECTED.withEndpointPrefix());
+        return Permit.REJECTED;
+    }
+
+    public void recordSuccess() {
+        SharedTransition sharedTransition = null;
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                resetWindow();
+                sharedTransition = transitionTo(State.CLOSED);
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+
+        publish(sharedTransition);
+    }
+
+    public void recordFailure() {
+        SharedTransition sharedTransition = null;
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                sharedTransition = open();
+            } else if (state == State.CLOSED && record(true)) {
+                sharedTransition = open();
+            }
+        }
+
+        publish(sharedTransition);
+    }
+
+    // Returns true if the window is now over the failure rate threshold
+    private boolean record(boolean failure) {
+        long nowSecond = clock.millis() / MILLIS_PER_SECOND;
+        int bucket = (int) (nowSecond % bucketSeconds.length);
+        if (bucketSeconds[bucket] != nowSecond) {
+            bucketSeconds[bucket] = nowSecond;
+            bucketCalls[bucket] = 0;
+            bucketFailures[bucket] = 0;
+        }
+        bucketCalls[bucket]++;
+        if (!failure) {
+            return false;
+        }
+        bucketFailures[bucket]++;
+
+        int calls = 0;
+        int failures = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (nowSecond - bucketSeconds[i] < bucketSeconds.length) {
+                calls += bucketCalls[i];
+                failures += bucketFailures[i];
+            }
+        }
+
+        return calls >= settings.minimumCalls()
+                && failures * 100L >= (long) calls * settings.failureRatePercent();
+    }
+
+    private SharedTransition open() {
+        openedAtMillis = clock.millis();
+        return transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            bucketCalls[i] = 0;
+            bucketFailures[i] = 0;
+        }
+    }
+
+    // Returns the transition to publish once the monitor is released, null if none
+    private SharedTransition transitionTo(State newState) {
+        LOGGER.warn("DVAD circuit for {} {} -> {}", strategy, state, newState);
+        state = newState;
+
+        ThirdPartyAPIEndpointMetric metric =
+                switch (newState) {
+                    case OPEN -> DVAD_HEALTH_CIRCUIT_OPENED;
+                    case HALF_OPEN -> DVAD_HEALTH_CIRCUIT_HALF_OPEN;
+                    case CLOSED -> DVAD_HEALTH_CIRCUIT_CLOSED;
+                };
+        eventProbe.counterMetric(metric.withEndpointPrefix());
+
+        if (sharedHealthState == null || newState == State.HALF_OPEN) {
+            return null;
+        }
+
+        return new SharedTransition(newState, openedAtMillis, sharedVersion);
+    }
+
+    // A lost publish is corrected when the newer transition is read on the next check
+    private void publish(SharedTransition sharedTransition) {
+        if (sharedTransition == null
+                || !sharedHealthState.publish(
+                        strategy,
+                        sharedTransition.state(),
+                        sharedTransition.openedAtMillis(),
+                        sharedTransition.expectedVersion())) {
+            return;
+        }
+
+        synchronized (this) {
+            // Unless a later transition was adopted while publishing
+            sharedVersion = Math.max(sharedVersion, sharedTransition.expectedVersion() + 1);
+        }
+    }
+
+    // Called holding the monitor, with the snapshot read before it was taken
+    private void adoptSharedState(SharedDvadHealthState.Snapshot snapshot) {
+        if (snapshot == null || snapshot.version() <= sharedVersion) {
+            return;
+        }
+        sharedVersion = snapshot.version();
+
+        State adoptedState = snapshot.state();
+        if (adoptedState == State.OPEN) {
+            openedAtMillis = snapshot.openedAtMillis();
+        } else {
+            resetWindow();
+        }
+
+        if (state != adoptedState) {
+            LOGGER.warn(
+                    "DVAD circuit for {} {} -> {} published by another container",
+                    strategy,
+                    state,
+                    adoptedState);
+            state = adoptedState;
+            eventProbe.counterMetric(DVAD_HEALTH_CIRCUIT_ADOPTED.withEndpointPrefix());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT;
+
+/**
+ * Faults injected into a share of the DVAD calls, to soak test the timeout and error handling.
+ * Read from DVAD_FAULT_INJECTION as comma separated rules of {@code
+ * <endpoint>:<fault>:<percent>[:<ms>]}, e.g. {@code graphql:delay:10:3000,token:reset:2}.
+ *
+ * <ul>
+ *   <li>endpoint - health, token or graphql
+ *   <li>delay - the call is held for ms before being sent
+ *   <li>reset - the call is sent, then the connection is dropped before the response is read
+ *   <li>timeout - no response until the socket timeout of the request (or ms), then a read timeout
+ *   <li>slowdrip - the response body is read one byte every ms
+ * </ul>
+ *
+ * <p>Only ever enabled in the dev and build environments, the variable is ignored in any other.
+ */
+public final class DvadFaultInjection {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String FAULT_INJECTION_ENV = "DVAD_FAULT_INJECTION";
+    static final String ENVIRONMENT_ENV = "ENVIRONMENT";
+
+    // Never production, staging or integration
+    private static final Set<String> ALLOWED_ENVIRONMENTS = Set.of("dev", "build");
+
+    private static final Map<String, ThirdPartyAPIMetricEndpointPrefix> ENDPOINTS =
+            Map.of(
+                    "health", DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT,
+                    "token", DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT,
+                    "graphql", DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+
+    enum Fault {
+        DELAY,
+        RESET,
+        TIMEOUT,
+        SLOWDRIP;
+    }
+
+    /** @param millis 0 when not given */
+    record Rule(Fault fault, double percent, long millis) {}
+
+    private final Map<ThirdPartyAPIMetricEndpointPrefix, List<Rule>> rulesByEndpoint;
+
+    private DvadFaultInjection(Map<ThirdPartyAPIMetricEndpointPrefix, List<Rule>> rulesByEndpoint) {
+        this.rulesByEndpoint = rulesByEndpoint;
+    }
+
+    /** @return the configured fault injection, empty if not set or not allowed */
+    public static Optional<DvadFaultInjection> fromEnvironment() {
+        String spec = System.getenv(FAULT_INJECTION_ENV);
+        if (spec == null || spec.isBlank()) {
+            return Optional.empty();
+        }
+
+        String environment = System.getenv(ENVIRONMENT_ENV);
+        if (environment == null || !ALLOWED_ENVIRONMENTS.contains(environment)) {
+            LOGGER.error(
+                    "{} is set but ignored, fault injection is not allowed in environment {}",
+                    FAULT_INJECTION_ENV,
+                    environment);
+            return Optional.empty();
+        }
+
+        DvadFaultInjection dvadFaultInjection = parse(spec);
+        LOGGER.warn("DVAD fault injection enabled in {} - {}", environment, spec);
+
+        return Optional.of(dvadFaultInjection);
+    }
+
+    static DvadFaultInjection parse(String spec) {
+        Map<ThirdPartyAPIMetricEndpointPrefix, List<Rule>> rulesByEndpoint =
+                new EnumMap<>(ThirdPartyAPIMetricEndpointPrefix.class);
+
+        for (String ruleSpec : spec.split(",")) {
+            String[] parts = ruleSpec.trim().split(":");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException("Invalid fault injection rule " + ruleSpec);
+            }
+
+            ThirdPartyAPIMetricEndpointPrefix endpoint = ENDPOINTS.get(parts[0]);
+            if (endpoint == null) {
+                throw new IllegalArgumentException("Unknown fault injection endpoint " + parts[0]);
+            }
+
+            Rule rule;
+            try {
+                rule =
+                        new Rule(
+                                Fault.valueOf(parts[1].toUpperCase()),
+                                Double.parseDouble(parts[2]),
+                                parts.length == 4 ? Long.parseLong(parts[3]) : 0);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid fault injection rule " + ruleSpec, e);
+            }
+
+            if (rule.percent() <= 0 || rule.millis() < 0) {
+                throw new IllegalArgumentException("Invalid fault injection rule " + ruleSpec);
+            }
+            if ((rule.fault() == Fault.DELAY || rule.fault() == Fault.SLOWDRIP)
+                    && rule.millis() == 0) {
+                throw new IllegalArgumentException("Fault injection rule needs ms " + ruleSpec);
+            }
+
+            rulesByEndpoint.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(rule);
+        }
+
+        // Each call is given at most one fault
+        rulesByEndpoint.forEach(
+                (endpoint, rules) -> {
+                    if (rules.stream().mapToDouble(Rule::percent).sum() > 100) {
+                        throw new IllegalArgumentException(
+                                "Fault injection percentages over 100 for " + endpoint);
+                    }
+                });
+
+        return new DvadFaultInjection(rulesByEndpoint);
+    }
+
+    /** @return the rule to apply to this call to the endpoint, null for none */
+    Rule select(ThirdPartyAPIMetricEndpointPrefix endpoint) {
+        List<Rule> rules = rulesByEndpoint.get(endpoint);
+        if (rules == null) {
+            return null;
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble(100);
+        for (Rule rule : rules) {
+            roll -= rule.percent();
+            if (roll < 0) {
+                return rule;
+            }
+        }
+
+        return null;
+    }
+}
@@ -26,8 +26,10 @@ import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
+import uk.gov.di.ipv.cri.passport.library.snapstart.PrimingEventProbe;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -54,18 +56,74 @@ public class DvadThirdPartyAPIService implements ThirdPartyAPIService {
     private final CloseableHttpClient closeableHttpClient;
     private final ObjectMapper objectMapper;
 
+    private final Map<Strategy, DvadCircuitBreaker> circuitBreakers;
+    // The client for the token and graphql calls of each Strategy, feeding its circuit breaker
+    private final Map<Strategy, CloseableHttpClient> recordingHttpClients;
+    // Null if each check requests its own token
+    private final SharedDvadAccessToken sharedAccessToken;
+
     public DvadThirdPartyAPIService(
             DvadAPIEndpointFactory dvadAPIEndpointFactory,
             ParameterStoreService parameterStoreService,
             EventProbe eventProbe,
             CloseableHttpClient closeableHttpClient,
             ObjectMapper objectMapper) {
+        this(
+                dvadAPIEndpointFactory,
+                parameterStoreService,
+                eventProbe,
+                closeableHttpClient,
+                objectMapper,
+                (SharedDvadHealthState) null,
+                null);
+    }
+
+    /**
+     * @param sharedHealthState the circuit state shared with other containers, null if not
+     * @param sharedAccessToken the access token shared with other containers, null if not
+     */
+    public DvadThirdPartyAPIService(
+            DvadAPIEndpointFactory dvadAPIEndpointFactory,
+            ParameterStoreService parameterStoreService,
+            EventProbe eventProbe,
+            CloseableHttpClient closeableHttpClient,
+            ObjectMapper objectMapper,
+            SharedDvadHealthState sharedHealthState,
+            SharedDvadAccessToken sharedAccessToken) {
+        this(
+                dvadAPIEndpointFactory,
+                parameterStoreService,
+                eventProbe,
+                closeableHttpClient,
+                objectMapper,
+                DvadCircuitBreaker.createPerStrategy(eventProbe, sharedHealthState),
+                sharedAccessToken);
+    }
+
+    DvadThirdPartyAPIService(
+            DvadAPIEndpointFactory dvadAPIEndpointFactory,
+            ParameterStoreService parameterStoreService,
+            EventProbe eventProbe,
+            CloseableHttpClient closeableHttpClient,
+            ObjectMapper objectMapper,
+            Map<Strategy, DvadCircuitBreaker> circuitBreakers,
+            SharedDvadAccessToken sharedAccessToken) {
 
         this.dvadAPIEndpointFactory = dvadAPIEndpointFactory;
         this.parameterStoreService = parameterStoreService;
         this.eventProbe = eventProbe;
         this.closeableHttpClient = closeableHttpClient;
         this.objectMapper = objectMapper;
+        this.circuitBreakers = circuitBreakers;
+        this.sharedAccessToken = sharedAccessToken;
+
+        this.recordingHttpClients = new EnumMap<>(Strategy.class);
+        circuitBreakers.forEach(
+                (strategy, circuitBreaker) ->
+                        recordingHttpClients.put(
+                                strategy,
+                                new CircuitBreakerRecordingHttpClient(
+                                        closeableHttpClient, circuitBreaker)));
     }
 
     @Override
@@ -77,6 +135,16 @@ public class DvadThirdPartyAPIService implements ThirdPartyAPIService {
     public ThirdPartyAPIResult performCheck(PassportFormData passportFormData, Strategy strategy)
             throws OAuthErrorResponseException {
 
+        // Fail fast while DVAD is known to be down, rather than waiting out connect timeouts
+        final DvadCircuitBreaker circuitBreaker = circuitBreakers.get(strategy);
+        final DvadCircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == DvadCircuitBreaker.Permit.REJECTED) {
+            LOGGER.error("Remote API circuit for {} is open, check not attempted", strategy);
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.ERROR_THIRD_PARTY_API_HEALTH_ENDPOINT_NOT_UP);
+        }
+
         LOGGER.info(() -> String.format("%s reading header parameters", SERVICE_NAME));
         final DvadAPIHeaderValues dvadAPIHeaderValues =
                 new DvadAPIHeaderValues(parameterStoreService);
@@ -85,41 +153,35 @@ public class DvadThirdPartyAPIService implements ThirdPartyAPIService {
         final RequestConfig defaultRequestConfig =
                 new HttpRequestConfig().getDefaultRequestConfig();
 
-        final HealthCheckService healthCheckService =
-                dvadAPIEndpointFactory.createHealthCheckService(
-                        closeableHttpClient,
-                        defaultRequestConfig,
-                        objectMapper,
-                        eventProbe,
-                        strategy);
+        final CloseableHttpClient recordingHttpClient = recordingHttpClients.get(strategy);
         final TokenRequestService tokenRequestService =
                 dvadAPIEndpointFactory.createTokenRequestService(
-                        closeableHttpClient,
+                        recordingHttpClient,
                         defaultRequestConfig,
                         objectMapper,
                         eventProbe,
                         strategy);
         final GraphQLRequestService graphQLRequestService =
                 dvadAPIEndpointFactory.createGraphQLRequestService(
-                        closeableHttpClient,
+                        recordingHttpClient,
                         defaultRequestConfig,
                         objectMapper,
                         eventProbe,
                         strategy);
 
-        // Perform API Health Check
-        final boolean remoteAPIsUP = healthCheckService.checkRemoteApiIsUp(dvadAPIHeaderValues);
-
-        if (!remoteAPIsUP) {
-            LOGGER.error("Remote API is down");
-            throw new OAuthErrorResponseException(
-                    HttpStatusCode.INTERNAL_SERVER_ERROR,
-                    ErrorResponse.ERROR_THIRD_PARTY_API_HEALTH_ENDPOINT_NOT_UP);
+        // Health is inferred from the token and graphql calls, checked only to close the circuit
+        if (permit == DvadCircuitBreaker.Permit.PROBE) {
+            probeRemoteApi(dvadAPIHeaderValues, defaultRequestConfig, circuitBreaker, strategy);
         }
-        LOGGER.info("Remote API is UP");
 
         AccessTokenResponse accessTokenResponse =
-                tokenRequestService.requestAccessToken(dvadAPIHeaderValues, true);
+                sharedAccessToken == null
+                        ? tokenRequestService.requestAccessToken(dvadAPIHeaderValues, true)
+                        : sharedAccessToken.getAccessToken(
+                                strategy,
+                                () ->
+                                        tokenRequestService.requestAccessToken(
+                                                dvadAPIHeaderValues, true));
 
         // Retrieved per connection to allow query change with-out re-deploy (power-tools cached)
         final String queryString =
@@ -166,6 +228,65 @@ public class DvadThirdPartyAPIService implements ThirdPartyAPIService {
         return result;
     }
 
+    private void probeRemoteApi(
+            DvadAPIHeaderValues dvadAPIHeaderValues,
+            RequestConfig defaultRequestConfig,
+            DvadCircuitBreaker circuitBreaker,
+            Strategy strategy)
+            throws OAuthErrorResponseException {
+        final HealthCheckService healthCheckService =
+                dvadAPIEndpointFactory.createHealthCheckService(
+                        closeableHttpClient,
+                        defaultRequestConfig,
+                        objectMapper,
+                        eventProbe,
+                        strategy);
+
+        final boolean remoteAPIsUP;
+        try {
+            remoteAPIsUP = healthCheckService.checkRemoteApiIsUp(dvadAPIHeaderValues);
+        } catch (OAuthErrorResponseException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+
+        if (!remoteAPIsUP) {
+            circuitBreaker.recordFailure();
+            LOGGER.error("Remote API is down");
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.ERROR_THIRD_PARTY_API_HEALTH_ENDPOINT_NOT_UP);
+        }
+
+        circuitBreaker.recordSuccess();
+        LOGGER.info("Remote API is UP");
+    }
+
+    /**
+     * Opens a connection to the remote API with a health check, leaving the connection in the
+     * client pool for the next check. Metrics are not recorded as this is not part of a check.
+     *
+     * @param strategy the endpoint to connect to
+     * @return true if the remote API reported UP
+     */
+    public boolean openConnection(Strategy strategy) {
+        final HealthCheckService healthCheckService =
+                dvadAPIEndpointFactory.createHealthCheckService(
+                        closeableHttpClient,
+                        new HttpRequestConfig().getDefaultRequestConfig(),
+                        objectMapper,
+                        new PrimingEventProbe(),
+                        strategy);
+
+        try {
+            return healthCheckService.checkRemoteApiIsUp(
+                    new DvadAPIHeaderValues(parameterStoreService));
+        } catch (OAuthErrorResponseException e) {
+            LOGGER.warn("{} unable to open connection - {}", SERVICE_NAME, e.getErrorReason());
+            return false;
+        }
+    }
+
     private void assertNoErrorsSetInGraphQLResponse(GraphQLAPIResponse graphQLAPIResponse)
             throws OAuthErrorResponseException {
         final List<Errors> errors = graphQLAPIResponse.getErrors();
@@ -0,0 +1,182 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadFaultInjection.Rule;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.FAULT_INJECTED;
+
+/**
+ * Wraps a DVAD http client, applying the {@link DvadFaultInjection} rules of the endpoint to each
+ * call. The endpoint is known from the ConnectionTimings context the call is executed with, calls
+ * without one are passed through.
+ *
+ * <p>Faults surface as they would from a real connection (IOExceptions, held or slow responses),
+ * each is counted as the endpoint fault_injected metric suffixed with the fault.
+ */
+public class FaultInjectingHttpClient extends CloseableHttpClient {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String FAULT_METRIC_FORMAT = "%s_%s";
+
+    private final CloseableHttpClient closeableHttpClient;
+    private final DvadFaultInjection dvadFaultInjection;
+    private final EventProbe eventProbe;
+
+    public FaultInjectingHttpClient(
+            CloseableHttpClient closeableHttpClient,
+            DvadFaultInjection dvadFaultInjection,
+            EventProbe eventProbe) {
+        this.closeableHttpClient = closeableHttpClient;
+        this.dvadFaultInjection = dvadFaultInjection;
+        this.eventProbe = eventProbe;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(
+            HttpHost target, HttpRequest request, HttpContext context)
+            throws IOException, ClientProtocolException {
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+        Rule rule =
+                connectionTimings == null
+                        ? null
+                        : dvadFaultInjection.select(connectionTimings.getEndpoint());
+
+        if (rule == null) {
+            return closeableHttpClient.execute(target, request, context);
+        }
+
+        ThirdPartyAPIMetricEndpointPrefix endpoint = connectionTimings.getEndpoint();
+        String fault = rule.fault().name().toLowerCase();
+        LOGGER.info("Injecting {} fault into {} call", fault, endpoint);
+        eventProbe.counterMetric(
+                String.format(
+                        FAULT_METRIC_FORMAT,
+                        ThirdPartyAPIEndpointMetric.of(endpoint, FAULT_INJECTED)
+                                .withEndpointPrefix(),
+                        fault));
+
+        switch (rule.fault()) {
+            case DELAY:
+                sleep(rule.millis());
+                return closeableHttpClient.execute(target, request, context);
+            case RESET:
+                // Closed unread, the connection is discarded rather than returned to the pool
+                closeableHttpClient.execute(target, request, context).close();
+                throw new SocketException("Connection reset (injected fault)");
+            case TIMEOUT:
+                sleep(rule.millis() > 0 ? rule.millis() : socketTimeoutMillis(request));
+                throw new SocketTimeoutException("Read timed out (injected fault)");
+            case SLOWDRIP:
+                CloseableHttpResponse response =
+                        closeableHttpClient.execute(target, request, context);
+                if (response.getEntity() != null) {
+                    response.setEntity(new SlowDripEntity(response.getEntity(), rule.millis()));
+                }
+                return response;
+            default:
+                throw new IllegalStateException("Unknown fault " + rule.fault());
+        }
+    }
+
+    private static long socketTimeoutMillis(HttpRequest request) {
+        RequestConfig requestConfig =
+                request instanceof Configurable configurable ? configurable.getConfig() : null;
+
+        return requestConfig == null ? 0 : Math.max(requestConfig.getSocketTimeout(), 0);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during injected fault");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeableHttpClient.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return closeableHttpClient.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager() {
+        return closeableHttpClient.getConnectionManager();
+    }
+
+    /** Gives the response body one byte per read, each after the drip interval. */
+    private static final class SlowDripEntity extends HttpEntityWrapper {
+
+        private final long dripMillis;
+
+        SlowDripEntity(HttpEntity entity, long dripMillis) {
+            super(entity);
+            this.dripMillis = dripMillis;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    sleep(dripMillis);
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (length == 0) {
+                        return 0;
+                    }
+                    sleep(dripMillis);
+                    return super.read(buffer, offset, 1);
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try (InputStream inputStream = getContent()) {
+                inputStream.transferTo(outputStream);
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+    }
+}
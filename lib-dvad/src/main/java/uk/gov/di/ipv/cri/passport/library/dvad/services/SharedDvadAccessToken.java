@@ -0,0 +1,305 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.EncryptRequest;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadAccessTokenItem;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadAccessTokenStore;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static uk.gov.di.ipv.cri.passport.library.dvad.services.endpoints.TokenRequestService.ACCESS_TOKEN_EXPIRATION_WINDOW_SECONDS;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_REQUEST_REUSING_CACHED_TOKEN;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_SHARED_TOKEN_FALLBACK;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_SHARED_TOKEN_REFRESHED;
+
+/**
+ * The DVAD access token of each Strategy shared by all containers, so the token endpoint is called
+ * once per token lifetime for the fleet rather than once per check in each container.
+ *
+ * <ul>
+ *   <li>A token with more than the expiration window and the refresh ahead time left is used
+ *   <li>Otherwise one container wins a conditional write of a refresh lease, calls the token
+ *       endpoint and shares the new token. The others keep using the current token while it has
+ *       more than the expiration window left
+ *   <li>With no usable token and another container refreshing, a container requests a token for
+ *       itself, counted as the shared_token_fallback metric
+ * </ul>
+ *
+ * <p>Enabled by DVAD_ACCESS_TOKEN_TABLE_NAME, the token is encrypted with the KMS key
+ * DVAD_ACCESS_TOKEN_KMS_KEY_ID. The table is only an optimisation, a read or write failing is
+ * logged and the container requests its own token.
+ */
+public class SharedDvadAccessToken {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String TABLE_NAME_ENV = "DVAD_ACCESS_TOKEN_TABLE_NAME";
+    static final String KMS_KEY_ID_ENV = "DVAD_ACCESS_TOKEN_KMS_KEY_ID";
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private static final long EXPIRATION_WINDOW_MILLIS =
+            ACCESS_TOKEN_EXPIRATION_WINDOW_SECONDS * MILLIS_PER_SECOND;
+    // A refresh is led this long before the token enters the expiration window
+    private static final long REFRESH_AHEAD_MILLIS = 30 * MILLIS_PER_SECOND;
+    // Time a leader has to share a new token before another container can lead the refresh
+    private static final long REFRESH_LEASE_MILLIS = 10 * MILLIS_PER_SECOND;
+
+    private static final String ENCRYPTION_CONTEXT_KEY = "strategy";
+
+    /** Calls the token endpoint. */
+    @FunctionalInterface
+    public interface TokenRequest {
+        AccessTokenResponse requestAccessToken() throws OAuthErrorResponseException;
+    }
+
+    private record Token(AccessTokenResponse accessTokenResponse, long expiresAtMillis) {}
+
+    private final DvadAccessTokenStore dvadAccessTokenStore;
+    private final KmsClient kmsClient;
+    private final String kmsKeyId;
+    private final ObjectMapper objectMapper;
+    private final EventProbe eventProbe;
+    private final Clock clock;
+
+    // The token last used by this container, so the table is only read when it needs a refresh
+    private final Map<Strategy, Token> localTokens = new EnumMap<>(Strategy.class);
+
+    SharedDvadAccessToken(
+            DvadAccessTokenStore dvadAccessTokenStore,
+            KmsClient kmsClient,
+            String kmsKeyId,
+            ObjectMapper objectMapper,
+            EventProbe eventProbe,
+            Clock clock) {
+        this.dvadAccessTokenStore = dvadAccessTokenStore;
+        this.kmsClient = kmsClient;
+        this.kmsKeyId = kmsKeyId;
+        this.objectMapper = objectMapper;
+        this.eventProbe = eventProbe;
+        this.clock = clock;
+    }
+
+    /**
+     * @param dynamoDbEnhancedClient only called if the shared token is enabled
+     * @param kmsClient only called if the shared token is enabled
+     * @return the shared token, empty if DVAD_ACCESS_TOKEN_TABLE_NAME is not set
+     */
+    public static Optional<SharedDvadAccessToken> fromEnvironment(
+            Supplier<DynamoDbEnhancedClient> dynamoDbEnhancedClient,
+            Supplier<KmsClient> kmsClient,
+            ObjectMapper objectMapper,
+            EventProbe eventProbe) {
+        String tableName = System.getenv(TABLE_NAME_ENV);
+        if (tableName == null || tableName.isBlank()) {
+            return Optional.empty();
+        }
+
+        String kmsKeyId = System.getenv(KMS_KEY_ID_ENV);
+        if (kmsKeyId == null || kmsKeyId.isBlank()) {
+            throw new IllegalStateException(KMS_KEY_ID_ENV + " is required with " + TABLE_NAME_ENV);
+        }
+
+        LOGGER.info("DVAD access token shared through {}", tableName);
+
+        return Optional.of(
+                new SharedDvadAccessToken(
+                        new DvadAccessTokenStore(tableName.trim(), dynamoDbEnhancedClient.get()),
+                        kmsClient.get(),
+                        kmsKeyId.trim(),
+                        objectMapper,
+                        eventProbe,
+                        Clock.systemUTC()));
+    }
+
+    /**
+     * @param tokenRequest requests a new token, when this container leads a refresh or falls back
+     * @return a token with more than the expiration window left
+     */
+    public synchronized AccessTokenResponse getAccessToken(
+            Strategy strategy, TokenRequest tokenRequest) throws OAuthErrorResponseException {
+        long nowMillis = clock.millis();
+
+        Token localToken = localTokens.get(strategy);
+        if (localToken != null && isFresh(localToken, nowMillis)) {
+            return reuse(localToken);
+        }
+
+        DvadAccessTokenItem item;
+        try {
+            item = dvadAccessTokenStore.getItem(strategy.name());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to read the shared DVAD access token for {}", strategy, e);
+            return requestForThisContainer(strategy, tokenRequest);
+        }
+
+        Token sharedToken = decrypt(strategy, item);
+        if (sharedToken != null && isFresh(sharedToken, nowMillis)) {
+            localTokens.put(strategy, sharedToken);
+            return reuse(sharedToken);
+        }
+
+        long leasedVersion = tryLeaseRefresh(strategy, item, nowMillis);
+        if (leasedVersion > 0) {
+            return refresh(strategy, tokenRequest, leasedVersion);
+        }
+
+        // Another container is refreshing, the current token is used until it nears expiry
+        if (sharedToken != null && isUsable(sharedToken, nowMillis)) {
+            localTokens.put(strategy, sharedToken);
+            return reuse(sharedToken);
+        }
+
+        return requestForThisContainer(strategy, tokenRequest);
+    }
+
+    private static boolean isFresh(Token token, long nowMillis) {
+        return token.expiresAtMillis() - nowMillis
+                > EXPIRATION_WINDOW_MILLIS + REFRESH_AHEAD_MILLIS;
+    }
+
+    private static boolean isUsable(Token token, long nowMillis) {
+        return token.expiresAtMillis() - nowMillis > EXPIRATION_WINDOW_MILLIS;
+    }
+
+    private AccessTokenResponse reuse(Token token) {
+        eventProbe.counterMetric(DVAD_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+
+        return token.accessTokenResponse();
+    }
+
+    // Returns the version written with the lease, 0 if another container holds it
+    private long tryLeaseRefresh(Strategy strategy, DvadAccessTokenItem item, long nowMillis) {
+        if (item != null && item.getRefreshLeaseExpiresAt() > nowMillis) {
+            return 0;
+        }
+
+        DvadAccessTokenItem leaseItem = new DvadAccessTokenItem();
+        leaseItem.setStrategy(strategy.name());
+        if (item != null) {
+            leaseItem.setEncryptedAccessTokenResponse(item.getEncryptedAccessTokenResponse());
+            leaseItem.setExpiresAt(item.getExpiresAt());
+        }
+        leaseItem.setRefreshLeaseExpiresAt(nowMillis + REFRESH_LEASE_MILLIS);
+        leaseItem.setUpdatedAt(nowMillis);
+
+        long expectedVersion = item == null ? 0 : item.getVersion();
+        try {
+            return dvadAccessTokenStore.putItemIfVersion(leaseItem, expectedVersion)
+                    ? expectedVersion + 1
+                    : 0;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to lease the shared DVAD access token for {}", strategy, e);
+            return 0;
+        }
+    }
+
+    // A refresh failing leaves the lease to expire, the next container to read leads instead
+    private AccessTokenResponse refresh(
+            Strategy strategy, TokenRequest tokenRequest, long leasedVersion)
+            throws OAuthErrorResponseException {
+        LOGGER.info("Refreshing the shared DVAD access token for {}", strategy);
+
+        AccessTokenResponse accessTokenResponse = tokenRequest.requestAccessToken();
+        long nowMillis = clock.millis();
+        Token token =
+                new Token(
+                        accessTokenResponse,
+                        nowMillis + accessTokenResponse.expiresIn() * MILLIS_PER_SECOND);
+        localTokens.put(strategy, token);
+
+        eventProbe.counterMetric(DVAD_TOKEN_SHARED_TOKEN_REFRESHED.withEndpointPrefix());
+
+        try {
+            DvadAccessTokenItem item = new DvadAccessTokenItem();
+            item.setStrategy(strategy.name());
+            item.setEncryptedAccessTokenResponse(encrypt(strategy, accessTokenResponse));
+            item.setExpiresAt(token.expiresAtMillis());
+            item.setUpdatedAt(nowMillis);
+
+            if (!dvadAccessTokenStore.putItemIfVersion(item, leasedVersion)) {
+                LOGGER.warn("Shared DVAD access token for {} replaced during refresh", strategy);
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            LOGGER.warn("Unable to share the DVAD access token for {}", strategy, e);
+        }
+
+        return accessTokenResponse;
+    }
+
+    private AccessTokenResponse requestForThisContainer(
+            Strategy strategy, TokenRequest tokenRequest) throws OAuthErrorResponseException {
+        LOGGER.info("Requesting a DVAD access token for {} not shared", strategy);
+
+        eventProbe.counterMetric(DVAD_TOKEN_SHARED_TOKEN_FALLBACK.withEndpointPrefix());
+
+        AccessTokenResponse accessTokenResponse = tokenRequest.requestAccessToken();
+        localTokens.put(
+                strategy,
+                new Token(
+                        accessTokenResponse,
+                        clock.millis() + accessTokenResponse.expiresIn() * MILLIS_PER_SECOND));
+
+        return accessTokenResponse;
+    }
+
+    private String encrypt(Strategy strategy, AccessTokenResponse accessTokenResponse)
+            throws JsonProcessingException {
+        EncryptRequest encryptRequest =
+                EncryptRequest.builder()
+                        .keyId(kmsKeyId)
+                        .plaintext(
+                                SdkBytes.fromByteArray(
+                                        objectMapper.writeValueAsBytes(accessTokenResponse)))
+                        .encryptionContext(Map.of(ENCRYPTION_CONTEXT_KEY, strategy.name()))
+                        .build();
+
+        return Base64.getEncoder()
+                .encodeToString(kmsClient.encrypt(encryptRequest).ciphertextBlob().asByteArray());
+    }
+
+    // Returns null if there is no token or it cannot be decrypted
+    private Token decrypt(Strategy strategy, DvadAccessTokenItem item) {
+        if (item == null || item.getEncryptedAccessTokenResponse() == null) {
+            return null;
+        }
+
+        try {
+            byte[] ciphertext =
+                    Base64.getDecoder().decode(item.getEncryptedAccessTokenResponse());
+            DecryptRequest decryptRequest =
+                    DecryptRequest.builder()
+                            .keyId(kmsKeyId)
+                            .ciphertextBlob(SdkBytes.fromByteArray(ciphertext))
+                            .encryptionContext(Map.of(ENCRYPTION_CONTEXT_KEY, strategy.name()))
+                            .build();
+
+            AccessTokenResponse accessTokenResponse =
+                    objectMapper.readValue(
+                            kmsClient.decrypt(decryptRequest).plaintext().asByteArray(),
+                            AccessTokenResponse.class);
+
+            return new Token(accessTokenResponse, item.getExpiresAt());
+        } catch (RuntimeException | IOException e) {
+            LOGGER.warn("Unable to decrypt the shared DVAD access token for {}", strategy, e);
+            return null;
+        }
+    }
+}
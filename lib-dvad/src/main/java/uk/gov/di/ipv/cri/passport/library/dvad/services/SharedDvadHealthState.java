@@ -0,0 +1,178 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadHealthStateItem;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadHealthStateStore;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.State;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The DVAD circuit state of each Strategy shared by all containers, so an outage (or recovery)
+ * detected by one container is adopted by the others within the read TTL.
+ *
+ * <p>Enabled by DVAD_HEALTH_STATE_TABLE_NAME, the read TTL is DVAD_HEALTH_STATE_READ_TTL_SECONDS
+ * (default 5). The table is only an optimisation, a read or write failing is logged and the
+ * container carries on with its own circuit state.
+ */
+public class SharedDvadHealthState {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String TABLE_NAME_ENV = "DVAD_HEALTH_STATE_TABLE_NAME";
+    static final String READ_TTL_SECONDS_ENV = "DVAD_HEALTH_STATE_READ_TTL_SECONDS";
+
+    private static final int DEFAULT_READ_TTL_SECONDS = 5;
+    private static final int MAXIMUM_READ_TTL_SECONDS = 3600;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    /** A published transition, version increases with each one. */
+    record Snapshot(State state, long openedAtMillis, long version) {}
+
+    private record CachedRead(Snapshot snapshot, long readAtMillis) {}
+
+    private final DvadHealthStateStore dvadHealthStateStore;
+    private final long readTtlMillis;
+    private final Clock clock;
+
+    private final Map<Strategy, CachedRead> cachedReads = new EnumMap<>(Strategy.class);
+
+    SharedDvadHealthState(
+            DvadHealthStateStore dvadHealthStateStore, long readTtlMillis, Clock clock) {
+        this.dvadHealthStateStore = dvadHealthStateStore;
+        this.readTtlMillis = readTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @param dynamoDbEnhancedClient only called if the shared state is enabled
+     * @return the shared state, empty if DVAD_HEALTH_STATE_TABLE_NAME is not set
+     */
+    public static Optional<SharedDvadHealthState> fromEnvironment(
+            Supplier<DynamoDbEnhancedClient> dynamoDbEnhancedClient) {
+        String tableName = System.getenv(TABLE_NAME_ENV);
+        if (tableName == null || tableName.isBlank()) {
+            return Optional.empty();
+        }
+
+        long readTtlSeconds = parseReadTtlSeconds(System.getenv(READ_TTL_SECONDS_ENV));
+
+        LOGGER.info("DVAD health state shared through {}", tableName);
+
+        return Optional.of(
+                new SharedDvadHealthState(
+                        new DvadHealthStateStore(tableName.trim(), dynamoDbEnhancedClient.get()),
+                        readTtlSeconds * MILLIS_PER_SECOND,
+                        Clock.systemUTC()));
+    }
+
+    /**
+     * @return the read TTL, the default if not set, not a number or out of range (0, reading the
+     *     table before every check, to an hour)
+     */
+    static long parseReadTtlSeconds(String readTtl) {
+        if (readTtl == null || readTtl.isBlank()) {
+            return DEFAULT_READ_TTL_SECONDS;
+        }
+
+        try {
+            long readTtlSeconds = Long.parseLong(readTtl.trim());
+            if (readTtlSeconds >= 0 && readTtlSeconds <= MAXIMUM_READ_TTL_SECONDS) {
+                return readTtlSeconds;
+            }
+        } catch (NumberFormatException e) {
+            // Warned below
+        }
+
+        // Not fatal, the shared state is built with the function and must not stop it starting
+        LOGGER.warn(
+                "Invalid {} {}, expected 0 to {}, using {}",
+                READ_TTL_SECONDS_ENV,
+                readTtl,
+                MAXIMUM_READ_TTL_SECONDS,
+                DEFAULT_READ_TTL_SECONDS);
+        return DEFAULT_READ_TTL_SECONDS;
+    }
+
+    /**
+     * Reads the state of the strategy, from the table at most once per read TTL.
+     *
+     * @return the last published transition, null if there is none or it could not be read
+     */
+    synchronized Snapshot read(Strategy strategy) {
+        long nowMillis = clock.millis();
+
+        CachedRead cachedRead = cachedReads.get(strategy);
+        if (cachedRead != null && nowMillis - cachedRead.readAtMillis() < readTtlMillis) {
+            return cachedRead.snapshot();
+        }
+
+        Snapshot snapshot;
+        try {
+            DvadHealthStateItem item = dvadHealthStateStore.getItem(strategy.name());
+            snapshot =
+                    item == null
+                            ? null
+                            : new Snapshot(
+                                    State.valueOf(item.getState()),
+                                    item.getOpenedAt(),
+                                    item.getVersion());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to read the shared DVAD health state for {}", strategy, e);
+            snapshot = cachedRead == null ? null : cachedRead.snapshot();
+        }
+
+        // A failed read is also cached, so an unavailable table is not retried on every check
+        cachedReads.put(strategy, new CachedRead(snapshot, nowMillis));
+
+        return snapshot;
+    }
+
+    /**
+     * Publishes a transition of the strategy, written only if expectedVersion is still the latest.
+     *
+     * @return true if written, the published version is then expectedVersion + 1
+     */
+    synchronized boolean publish(
+            Strategy strategy, State state, long openedAtMillis, long expectedVersion) {
+        long nowMillis = clock.millis();
+
+        DvadHealthStateItem item = new DvadHealthStateItem();
+        item.setStrategy(strategy.name());
+        item.setState(state.name());
+        item.setOpenedAt(openedAtMillis);
+        item.setUpdatedAt(nowMillis);
+
+        boolean written;
+        try {
+            written = dvadHealthStateStore.putItemIfVersion(item, expectedVersion);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to publish the shared DVAD health state for {}", strategy, e);
+            return false;
+        }
+
+        if (written) {
+            cachedReads.put(
+                    strategy,
+                    new CachedRead(
+                            new Snapshot(state, openedAtMillis, expectedVersion + 1), nowMillis));
+        } else {
+            // Another container published first, its transition is read on the next check
+            LOGGER.info(
+                    "Shared DVAD health state for {} changed since version {}",
+                    strategy,
+                    expectedVersion);
+            cachedReads.remove(strategy);
+        }
+
+        return written;
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 
 import java.util.Map;
@@ -31,8 +32,14 @@ public class DvadAPIEndpointFactory {
     final String hmpoEndPoint;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public DvadAPIEndpointFactory(ParameterStoreService parameterStoreService)
+    // Shared by the created services, so latencies accumulate across services and invocations
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
+
+    public DvadAPIEndpointFactory(
+            ParameterStoreService parameterStoreService,
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms)
             throws JsonProcessingException {
+        this.latencyHistograms = latencyHistograms;
 
         // Url of the API
         hmpoEndPoint = parameterStoreService.getParameterValue(HMPO_API_ENDPOINT_URL);
@@ -68,7 +75,12 @@ public class DvadAPIEndpointFactory {
                 String.format(END_POINT_PATH_FORMAT, hmpoEndpoint, healthPath);
 
         return new HealthCheckService(
-                healthEndpoint, closeableHttpClient, requestConfig, objectMapper, eventProbe);
+                healthEndpoint,
+                closeableHttpClient,
+                requestConfig,
+                objectMapper,
+                eventProbe,
+                latencyHistograms);
     }
 
     /**
@@ -88,7 +100,12 @@ public class DvadAPIEndpointFactory {
         String hmpoEndpoint = hmpoEndPoints.get(strategy.name());
         final String tokenEndpoint = String.format(END_POINT_PATH_FORMAT, hmpoEndpoint, tokenPath);
         return new TokenRequestService(
-                tokenEndpoint, closeableHttpClient, requestConfig, objectMapper, eventProbe);
+                tokenEndpoint,
+                closeableHttpClient,
+                requestConfig,
+                objectMapper,
+                eventProbe,
+                latencyHistograms);
     }
 
     /**
@@ -110,7 +127,12 @@ public class DvadAPIEndpointFactory {
         final String graphQlEndpoint =
                 String.format(END_POINT_PATH_FORMAT, hmpoEndpoint, graphQLPath);
         return new GraphQLRequestService(
-                graphQlEndpoint, closeableHttpClient, requestConfig, objectMapper, eventProbe);
+                graphQlEndpoint,
+                closeableHttpClient,
+                requestConfig,
+                objectMapper,
+                eventProbe,
+                latencyHistograms);
     }
 
     public Map<String, String> constructParameterMap(String parameterValue)
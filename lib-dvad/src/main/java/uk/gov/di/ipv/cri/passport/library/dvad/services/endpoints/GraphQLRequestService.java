@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -22,6 +23,8 @@ import uk.gov.di.ipv.cri.passport.library.dvad.domain.result.endpoints.GraphQLSe
 import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReply;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReplyHelper;
 import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
@@ -43,6 +46,7 @@ import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMe
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_TYPE_EXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
 
 public class GraphQLRequestService {
 
@@ -58,6 +62,7 @@ public class GraphQLRequestService {
     private final ObjectMapper objectMapper;
 
     private final EventProbe eventProbe;
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
 
     private final StopWatch stopWatch;
 
@@ -66,12 +71,14 @@ public class GraphQLRequestService {
             CloseableHttpClient closeableHttpClient,
             RequestConfig requestConfig,
             ObjectMapper objectMapper,
-            EventProbe eventProbe) {
+            EventProbe eventProbe,
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms) {
         this.requestURI = URI.create(endpoint);
         this.closeableHttpClient = closeableHttpClient;
         this.requestConfig = requestConfig;
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
+        this.latencyHistograms = latencyHistograms;
         this.stopWatch = new StopWatch();
     }
 
@@ -130,8 +137,11 @@ public class GraphQLRequestService {
         String requestURIString = requestURI.toString();
         LOGGER.debug("GraphQL request endpoint is {}", requestURIString);
         LOGGER.info("Submitting GraphQL request to third party...");
+        // Connection and response phases are timed against the endpoint
+        final HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
         stopWatch.start();
-        try (CloseableHttpResponse response = closeableHttpClient.execute(request)) {
+        try (CloseableHttpResponse response = closeableHttpClient.execute(request, context)) {
 
             eventProbe.counterMetric(DVAD_GRAPHQL_REQUEST_SEND_OK.withEndpointPrefix());
 
@@ -140,8 +150,10 @@ public class GraphQLRequestService {
                     HTTPReplyHelper.retrieveStatusCodeAndBodyFromResponse(response, ENDPOINT_NAME);
         } catch (IOException e) {
             // No Response Latency
+            long responseLatency = stopWatch.stop();
             eventProbe.counterMetric(
-                    DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+                    DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+            latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, responseLatency);
 
             LOGGER.error("IOException executing GraphQL request - {}", e.getMessage());
 
@@ -154,8 +166,10 @@ public class GraphQLRequestService {
         }
 
         // Response Latency
+        long responseLatency = stopWatch.stop();
         eventProbe.counterMetric(
-                DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+                DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, responseLatency);
 
         if (httpReply.statusCode == 200) {
 
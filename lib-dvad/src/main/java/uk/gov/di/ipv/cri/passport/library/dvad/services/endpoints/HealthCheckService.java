@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +15,8 @@ import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.HealthCheckRespon
 import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReply;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReplyHelper;
 import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
@@ -36,6 +39,7 @@ import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMe
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_RESPONSE_TYPE_VALID;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
 
 public class HealthCheckService {
 
@@ -51,6 +55,7 @@ public class HealthCheckService {
     private final ObjectMapper objectMapper;
 
     private final EventProbe eventProbe;
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
 
     private final StopWatch stopWatch;
 
@@ -59,12 +64,14 @@ public class HealthCheckService {
             CloseableHttpClient closeableHttpClient,
             RequestConfig requestConfig,
             ObjectMapper objectMapper,
-            EventProbe eventProbe) {
+            EventProbe eventProbe,
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms) {
         this.requestURI = URI.create(endpoint);
         this.closeableHttpClient = closeableHttpClient;
         this.requestConfig = requestConfig;
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
+        this.latencyHistograms = latencyHistograms;
         this.stopWatch = new StopWatch();
     }
 
@@ -90,8 +97,11 @@ public class HealthCheckService {
         String requestURIString = requestURI.toString();
         LOGGER.debug("Health check endpoint is {}", requestURIString);
         LOGGER.info("Submitting health check request to third party...");
+        // Connection and response phases are timed against the endpoint
+        final HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT);
         stopWatch.start();
-        try (CloseableHttpResponse response = closeableHttpClient.execute(request)) {
+        try (CloseableHttpResponse response = closeableHttpClient.execute(request, context)) {
 
             eventProbe.counterMetric(DVAD_HEALTH_REQUEST_SEND_OK.withEndpointPrefix());
 
@@ -101,8 +111,10 @@ public class HealthCheckService {
         } catch (IOException e) {
 
             // No Response Latency
+            long responseLatency = stopWatch.stop();
             eventProbe.counterMetric(
-                    DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+                    DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+            latencyHistograms.record(DVAD_HEALTH_RESPONSE_LATENCY, responseLatency);
 
             LOGGER.error("IOException executing health check request - {}", e.getMessage());
 
@@ -115,8 +127,10 @@ public class HealthCheckService {
         }
 
         // Response Latency
+        long responseLatency = stopWatch.stop();
         eventProbe.counterMetric(
-                DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+                DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+        latencyHistograms.record(DVAD_HEALTH_RESPONSE_LATENCY, responseLatency);
 
         if (httpReply.statusCode == 200) {
             LOGGER.info("HealthCheck status code {}", httpReply.statusCode);
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -17,6 +18,8 @@ import uk.gov.di.ipv.cri.passport.library.dvad.services.AccessTokenResponseCache
 import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReply;
 import uk.gov.di.ipv.cri.passport.library.util.HTTPReplyHelper;
 import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
@@ -41,6 +44,7 @@ import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMe
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_RESPONSE_TYPE_VALID;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT;
 
 public class TokenRequestService {
 
@@ -60,6 +64,7 @@ public class TokenRequestService {
     private final ObjectMapper objectMapper;
 
     private final EventProbe eventProbe;
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
 
     private AccessTokenResponseCache accessTokenResponseCache = null;
 
@@ -70,12 +75,14 @@ public class TokenRequestService {
             CloseableHttpClient closeableHttpClient,
             RequestConfig requestConfig,
             ObjectMapper objectMapper,
-            EventProbe eventProbe) {
+            EventProbe eventProbe,
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms) {
         this.requestURI = URI.create(endpoint);
         this.closeableHttpClient = closeableHttpClient;
         this.requestConfig = requestConfig;
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
+        this.latencyHistograms = latencyHistograms;
         this.stopWatch = new StopWatch();
     }
 
@@ -180,8 +187,11 @@ public class TokenRequestService {
         String requestURIString = requestURI.toString();
         LOGGER.debug("Token request endpoint is {}", requestURIString);
         LOGGER.info("Submitting token request to third party...");
+        // Connection and response phases are timed against the endpoint
+        final HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT);
         stopWatch.start();
-        try (CloseableHttpResponse response = closeableHttpClient.execute(request)) {
+        try (CloseableHttpResponse response = closeableHttpClient.execute(request, context)) {
 
             eventProbe.counterMetric(DVAD_TOKEN_REQUEST_SEND_OK.withEndpointPrefix());
 
@@ -190,8 +200,10 @@ public class TokenRequestService {
                     HTTPReplyHelper.retrieveStatusCodeAndBodyFromResponse(response, ENDPOINT_NAME);
         } catch (IOException e) {
             // No Response Latency
+            long responseLatency = stopWatch.stop();
             eventProbe.counterMetric(
-                    DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+                    DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+            latencyHistograms.record(DVAD_TOKEN_RESPONSE_LATENCY, responseLatency);
 
             LOGGER.error("IOException executing token request - {}", e.getMessage());
 
@@ -204,8 +216,9 @@ public class TokenRequestService {
         }
 
         // Response Latency
-        eventProbe.counterMetric(
-                DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+        long responseLatency = stopWatch.stop();
+        eventProbe.counterMetric(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), responseLatency);
+        latencyHistograms.record(DVAD_TOKEN_RESPONSE_LATENCY, responseLatency);
 
         if (httpReply.statusCode == 200) {
             LOGGER.info("Token status code {}", httpReply.statusCode);
@@ -0,0 +1,89 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DvadAccessTokenStoreTest {
+
+    private static final String TABLE_NAME = "dvad-access-token";
+
+    @Mock private DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
+    @Mock private DynamoDbTable<DvadAccessTokenItem> mockTable;
+
+    @Captor private ArgumentCaptor<GetItemEnhancedRequest> getItemCaptor;
+    @Captor private ArgumentCaptor<PutItemEnhancedRequest<DvadAccessTokenItem>> putItemCaptor;
+
+    private DvadAccessTokenStore dvadAccessTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        when(mockDynamoDbEnhancedClient.table(TABLE_NAME, DvadAccessTokenStore.TABLE_SCHEMA))
+                .thenReturn(mockTable);
+
+        dvadAccessTokenStore = new DvadAccessTokenStore(TABLE_NAME, mockDynamoDbEnhancedClient);
+    }
+
+    @Test
+    void shouldGetTheItemByStrategyWithAConsistentRead() {
+        DvadAccessTokenItem item = new DvadAccessTokenItem();
+        when(mockTable.getItem(any(GetItemEnhancedRequest.class))).thenReturn(item);
+
+        assertSame(item, dvadAccessTokenStore.getItem("LIVE"));
+
+        verify(mockTable).getItem(getItemCaptor.capture());
+        assertEquals(Key.builder().partitionValue("LIVE").build(), getItemCaptor.getValue().key());
+        assertTrue(getItemCaptor.getValue().consistentRead());
+    }
+
+    @Test
+    void shouldPutTheItemWithTheNextVersionConditionalOnTheExpectedVersion() {
+        DvadAccessTokenItem item = new DvadAccessTokenItem();
+        item.setStrategy("LIVE");
+
+        assertTrue(dvadAccessTokenStore.putItemIfVersion(item, 7));
+
+        verify(mockTable).putItem(putItemCaptor.capture());
+        PutItemEnhancedRequest<DvadAccessTokenItem> putItemRequest = putItemCaptor.getValue();
+        assertSame(item, putItemRequest.item());
+        assertEquals(8, item.getVersion());
+
+        Expression condition = putItemRequest.conditionExpression();
+        assertEquals(
+                "attribute_not_exists(#strategy) OR #version = :expectedVersion",
+                condition.expression());
+        assertEquals(
+                AttributeValue.fromN("7"), condition.expressionValues().get(":expectedVersion"));
+    }
+
+    @Test
+    void shouldReturnFalseWhenTheItemHasBeenWrittenSinceTheExpectedVersion() {
+        doThrow(ConditionalCheckFailedException.builder().message("version").build())
+                .when(mockTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertFalse(dvadAccessTokenStore.putItemIfVersion(new DvadAccessTokenItem(), 7));
+    }
+}
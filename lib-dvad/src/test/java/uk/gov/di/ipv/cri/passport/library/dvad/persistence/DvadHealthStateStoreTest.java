@@ -0,0 +1,84 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DvadHealthStateStoreTest {
+
+    private static final String TABLE_NAME = "dvad-health-state";
+
+    @Mock private DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
+    @Mock private DynamoDbTable<DvadHealthStateItem> mockTable;
+
+    @Captor private ArgumentCaptor<PutItemEnhancedRequest<DvadHealthStateItem>> putItemCaptor;
+
+    private DvadHealthStateStore dvadHealthStateStore;
+
+    @BeforeEach
+    void setUp() {
+        when(mockDynamoDbEnhancedClient.table(TABLE_NAME, DvadHealthStateStore.TABLE_SCHEMA))
+                .thenReturn(mockTable);
+
+        dvadHealthStateStore = new DvadHealthStateStore(TABLE_NAME, mockDynamoDbEnhancedClient);
+    }
+
+    @Test
+    void shouldGetTheItemByStrategy() {
+        DvadHealthStateItem item = new DvadHealthStateItem();
+        when(mockTable.getItem(Key.builder().partitionValue("LIVE").build())).thenReturn(item);
+
+        assertSame(item, dvadHealthStateStore.getItem("LIVE"));
+    }
+
+    @Test
+    void shouldPutTheItemWithTheNextVersionConditionalOnTheExpectedVersion() {
+        DvadHealthStateItem item = new DvadHealthStateItem();
+        item.setStrategy("LIVE");
+
+        assertTrue(dvadHealthStateStore.putItemIfVersion(item, 3));
+
+        verify(mockTable).putItem(putItemCaptor.capture());
+        PutItemEnhancedRequest<DvadHealthStateItem> putItemRequest = putItemCaptor.getValue();
+        assertSame(item, putItemRequest.item());
+        assertEquals(4, item.getVersion());
+
+        Expression condition = putItemRequest.conditionExpression();
+        assertEquals(
+                "attribute_not_exists(#strategy) OR #version = :expectedVersion",
+                condition.expression());
+        assertEquals("version", condition.expressionNames().get("#version"));
+        assertEquals(
+                AttributeValue.fromN("3"), condition.expressionValues().get(":expectedVersion"));
+    }
+
+    @Test
+    void shouldReturnFalseWhenTheItemHasBeenWrittenSinceTheExpectedVersion() {
+        doThrow(ConditionalCheckFailedException.builder().message("version").build())
+                .when(mockTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertFalse(dvadHealthStateStore.putItemIfVersion(new DvadHealthStateItem(), 3));
+    }
+}
@@ -0,0 +1,78 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.assertEveryPropertyRoundTrips;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createReflectiveObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.readOutcome;
+
+class AccessTokenResponseTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final ObjectMapper REFLECTIVE_OBJECT_MAPPER = createReflectiveObjectMapper();
+
+    @Test
+    void shouldSerializeAsTheReflectiveSerializer() throws JsonProcessingException {
+        for (AccessTokenResponse accessTokenResponse :
+                List.of(
+                        AccessTokenResponse.builder()
+                                .accessToken("TOKEN")
+                                .tokenType("Bearer")
+                                .expiresIn(1800)
+                                .refreshToken("REFRESH_TOKEN")
+                                .refreshExpiresIn(3600)
+                                .scope("SCOPE")
+                                .build(),
+                        AccessTokenResponse.builder().build())) {
+            assertEquals(
+                    REFLECTIVE_OBJECT_MAPPER.writeValueAsString(accessTokenResponse),
+                    OBJECT_MAPPER.writeValueAsString(accessTokenResponse));
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryProperty() throws JsonProcessingException {
+        assertEveryPropertyRoundTrips(
+                AccessTokenResponse.builder()
+                        .accessToken("TOKEN")
+                        .tokenType("Bearer")
+                        .expiresIn(1800)
+                        .refreshToken("REFRESH_TOKEN")
+                        .refreshExpiresIn(3600)
+                        .scope("SCOPE")
+                        .build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\",\"expires_in\":1800,"
+                        + "\"refresh_token\":\"REFRESH_TOKEN\",\"refresh_expires_in\":3600,"
+                        + "\"scope\":\"SCOPE\",\"not-before-policy\":0}",
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\",\"expires_in\":\"1800\","
+                        + "\"refresh_token\":null,\"refresh_expires_in\":null,\"scope\":null}",
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\",\"expires_in\":null}",
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\",\"expires_in\":1800.5}",
+                // Missing required property
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\"}",
+                "{}",
+                // Invalid values
+                "{\"access_token\":\"TOKEN\",\"token_type\":\"Bearer\",\"expires_in\":\"soon\"}",
+                "{\"access_token\":[],\"token_type\":\"Bearer\",\"expires_in\":1800}",
+                "\"TOKEN\""
+            })
+    void shouldDeserializeAsTheReflectiveDeserializer(String json) {
+        assertEquals(
+                readOutcome(REFLECTIVE_OBJECT_MAPPER, json, AccessTokenResponse.class),
+                readOutcome(OBJECT_MAPPER, json, AccessTokenResponse.class));
+    }
+}
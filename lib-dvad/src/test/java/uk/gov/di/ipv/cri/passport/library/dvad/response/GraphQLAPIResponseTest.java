@@ -0,0 +1,109 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.GraphQLAPIResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.ResponseData;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.errors.Errors;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.errors.Extensions;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.fields.errors.Locations;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.assertEveryPropertyRoundTrips;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createReflectiveObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.readOutcome;
+
+class GraphQLAPIResponseTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final ObjectMapper REFLECTIVE_OBJECT_MAPPER = createReflectiveObjectMapper();
+
+    @Test
+    void shouldSerializeAsTheReflectiveSerializer() throws JsonProcessingException {
+        Map<String, String> validatePassport = new LinkedHashMap<>();
+        validatePassport.put("validationResult", "SUCCESS");
+        validatePassport.put("matchResult", "MATCH");
+        validatePassport.put("passportFound", null);
+
+        for (GraphQLAPIResponse graphQLAPIResponse :
+                List.of(
+                        GraphQLAPIResponse.builder()
+                                .data(
+                                        ResponseData.builder()
+                                                .validatePassport(validatePassport)
+                                                .build())
+                                .build(),
+                        GraphQLAPIResponse.builder()
+                                .data(ResponseData.builder().build())
+                                .errors(List.of(Errors.builder().message("error").build()))
+                                .build(),
+                        GraphQLAPIResponse.builder().build())) {
+            assertEquals(
+                    REFLECTIVE_OBJECT_MAPPER.writeValueAsString(graphQLAPIResponse),
+                    OBJECT_MAPPER.writeValueAsString(graphQLAPIResponse));
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryProperty() throws JsonProcessingException {
+        // Includes the ResponseData (de)serializers
+        assertEveryPropertyRoundTrips(
+                GraphQLAPIResponse.builder()
+                        .data(
+                                ResponseData.builder()
+                                        .validatePassport(Map.of("validationResult", "SUCCESS"))
+                                        .build())
+                        .errors(
+                                List.of(
+                                        Errors.builder()
+                                                .message("error")
+                                                .locations(
+                                                        List.of(
+                                                                Locations.builder()
+                                                                        .line("1")
+                                                                        .column("2")
+                                                                        .build()))
+                                                .path(List.of("validatePassport"))
+                                                .extensions(
+                                                        Extensions.builder()
+                                                                .errorCode("E")
+                                                                .classification("T")
+                                                                .build())
+                                                .build()))
+                        .build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "{\"data\":{\"validatePassport\":{\"validationResult\":\"SUCCESS\","
+                        + "\"matchResult\":\"MATCH\",\"passportFound\":true,\"other\":null}},"
+                        + "\"extensions\":{\"cost\":[1]}}",
+                "{\"data\":null,\"errors\":[{\"message\":\"error\","
+                        + "\"locations\":[{\"line\":1,\"column\":2}],"
+                        + "\"path\":[\"validatePassport\"],\"extensions\":{\"errorCode\":\"E\","
+                        + "\"classification\":{\"type\":\"T\"}}}]}",
+                "{\"data\":{},\"errors\":null}",
+                "{\"data\":{\"validatePassport\":null,\"unknown\":1}}",
+                // Missing required property
+                "{\"errors\":[]}",
+                // Invalid values
+                "{\"data\":{\"validatePassport\":[]}}",
+                "{\"data\":{\"validatePassport\":{\"validationResult\":{}}}}",
+                "{\"data\":\"SUCCESS\"}",
+                "[]"
+            })
+    void shouldDeserializeAsTheReflectiveDeserializer(String json) {
+        assertEquals(
+                readOutcome(REFLECTIVE_OBJECT_MAPPER, json, GraphQLAPIResponse.class),
+                readOutcome(OBJECT_MAPPER, json, GraphQLAPIResponse.class));
+    }
+}
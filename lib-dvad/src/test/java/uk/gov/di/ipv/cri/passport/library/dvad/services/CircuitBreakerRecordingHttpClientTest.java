@@ -0,0 +1,99 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerRecordingHttpClientTest {
+
+    private static final String TEST_ENDPOINT = "https://localhost/graphql";
+
+    @Mock private CloseableHttpClient mockCloseableHttpClient;
+    @Mock private CloseableHttpResponse mockCloseableHttpResponse;
+    @Mock private DvadCircuitBreaker mockDvadCircuitBreaker;
+
+    private CircuitBreakerRecordingHttpClient circuitBreakerRecordingHttpClient;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRecordingHttpClient =
+                new CircuitBreakerRecordingHttpClient(
+                        mockCloseableHttpClient, mockDvadCircuitBreaker);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"200", "400", "401", "404"})
+    void shouldRecordSuccessForAReplyBelow500(int statusCode) throws IOException {
+        mockReply(statusCode);
+
+        assertSame(
+                mockCloseableHttpResponse,
+                circuitBreakerRecordingHttpClient.execute(new HttpGet(TEST_ENDPOINT)));
+
+        verify(mockDvadCircuitBreaker).recordSuccess();
+        verifyNoMoreInteractions(mockDvadCircuitBreaker);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"500", "502", "503", "504"})
+    void shouldRecordFailureForA5xxReply(int statusCode) throws IOException {
+        mockReply(statusCode);
+
+        assertSame(
+                mockCloseableHttpResponse,
+                circuitBreakerRecordingHttpClient.execute(new HttpGet(TEST_ENDPOINT)));
+
+        verify(mockDvadCircuitBreaker).recordFailure();
+        verifyNoMoreInteractions(mockDvadCircuitBreaker);
+    }
+
+    @Test
+    void shouldRecordFailureAndRethrowWhenTheCallFails() throws IOException {
+        SocketTimeoutException readTimeout = new SocketTimeoutException("Read timed out");
+        when(mockCloseableHttpClient.execute(
+                        any(HttpHost.class), any(HttpGet.class), nullable(HttpContext.class)))
+                .thenThrow(readTimeout);
+
+        IOException thrown =
+                assertThrows(
+                        IOException.class,
+                        () ->
+                                circuitBreakerRecordingHttpClient.execute(
+                                        new HttpGet(TEST_ENDPOINT)));
+
+        assertSame(readTimeout, thrown);
+        verify(mockDvadCircuitBreaker).recordFailure();
+        verifyNoMoreInteractions(mockDvadCircuitBreaker);
+    }
+
+    private void mockReply(int statusCode) throws IOException {
+        when(mockCloseableHttpResponse.getStatusLine())
+                .thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+        when(mockCloseableHttpClient.execute(
+                        any(HttpHost.class), any(HttpGet.class), nullable(HttpContext.class)))
+                .thenReturn(mockCloseableHttpResponse);
+    }
+}
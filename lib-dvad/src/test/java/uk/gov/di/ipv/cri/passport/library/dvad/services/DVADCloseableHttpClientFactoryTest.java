@@ -7,7 +7,9 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
@@ -30,6 +32,8 @@ class DVADCloseableHttpClientFactoryTest {
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
     @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
+    @Mock private EventProbe mockEventProbe;
 
     @BeforeEach
     void setUp() {
@@ -43,7 +47,7 @@ class DVADCloseableHttpClientFactoryTest {
     })
     void shouldGetClientFromDVADCloseableHttpClientFactory(boolean tlsOn) {
         DVADCloseableHttpClientFactory dvadCloseableHttpClientFactory =
-                new DVADCloseableHttpClientFactory();
+                new DVADCloseableHttpClientFactory(mockEventProbe);
 
         if (tlsOn) {
             Map<String, String> testParameterMap =
@@ -68,7 +72,8 @@ class DVADCloseableHttpClientFactoryTest {
                                 dvadCloseableHttpClientFactory.getClient(
                                         tlsOn,
                                         mockParameterStoreService,
-                                        new ApacheHTTPClientFactoryService()));
+                                        new ApacheHTTPClientFactoryService(
+                                                mockLatencyHistograms, mockEventProbe)));
 
         assertNotNull(closeableHttpClient);
     }
@@ -0,0 +1,59 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.Settings;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SystemStubsExtension.class)
+class DvadCircuitBreakerSettingsTest {
+
+    private static final Settings DEFAULT_SETTINGS = new Settings(60, 10, 50, 30);
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Test
+    void shouldUseTheDefaultsWhenNotSet() {
+        assertEquals(DEFAULT_SETTINGS, Settings.fromEnvironment());
+    }
+
+    @Test
+    void shouldReadTheLimitsOfEachRange() {
+        environmentVariables.set(DvadCircuitBreaker.WINDOW_SECONDS_ENV, "3600");
+        environmentVariables.set(DvadCircuitBreaker.MINIMUM_CALLS_ENV, "1");
+        environmentVariables.set(DvadCircuitBreaker.FAILURE_RATE_PERCENT_ENV, "100");
+        environmentVariables.set(DvadCircuitBreaker.OPEN_SECONDS_ENV, "1");
+
+        assertEquals(new Settings(3600, 1, 100, 1), Settings.fromEnvironment());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS, sixty",
+        "DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS, 0",
+        "DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS, -60",
+        "DVAD_CIRCUIT_BREAKER_WINDOW_SECONDS, 3601",
+        "DVAD_CIRCUIT_BREAKER_MINIMUM_CALLS, 10.5",
+        "DVAD_CIRCUIT_BREAKER_MINIMUM_CALLS, 0",
+        "DVAD_CIRCUIT_BREAKER_MINIMUM_CALLS, -1",
+        "DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT, 50%",
+        "DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT, 0",
+        "DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT, -50",
+        "DVAD_CIRCUIT_BREAKER_FAILURE_RATE_PERCENT, 101",
+        "DVAD_CIRCUIT_BREAKER_OPEN_SECONDS, 30s",
+        "DVAD_CIRCUIT_BREAKER_OPEN_SECONDS, 0",
+        "DVAD_CIRCUIT_BREAKER_OPEN_SECONDS, -30",
+        "DVAD_CIRCUIT_BREAKER_OPEN_SECONDS, 99999999999"
+    })
+    void shouldUseTheDefaultForAnInvalidValue(String name, String value) {
+        environmentVariables.set(name, value);
+
+        assertEquals(DEFAULT_SETTINGS, Settings.fromEnvironment());
+    }
+}
@@ -0,0 +1,313 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.Permit;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.Settings;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.State;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.SharedDvadHealthState.Snapshot;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.time.Clock;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_ADOPTED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_CLOSED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_HALF_OPEN;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_OPENED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_REJECTED;
+
+@ExtendWith({MockitoExtension.class, SystemStubsExtension.class})
+class DvadCircuitBreakerTest {
+
+    private static final int WINDOW_SECONDS = 10;
+    private static final int MINIMUM_CALLS = 4;
+    private static final int FAILURE_RATE_PERCENT = 50;
+    private static final int OPEN_SECONDS = 30;
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private EventProbe mockEventProbe;
+    @Mock private Clock mockClock;
+    @Mock private SharedDvadHealthState mockSharedDvadHealthState;
+
+    private long testTimeMillis = 1_700_000_000_000L;
+
+    private DvadCircuitBreaker dvadCircuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        dvadCircuitBreaker =
+                new DvadCircuitBreaker(
+                        Strategy.LIVE,
+                        new Settings(
+                                WINDOW_SECONDS, MINIMUM_CALLS, FAILURE_RATE_PERCENT, OPEN_SECONDS),
+                        mockEventProbe,
+                        mockClock);
+    }
+
+    @Test
+    void shouldPermitChecksWhileClosed() {
+        dvadCircuitBreaker.recordSuccess();
+        dvadCircuitBreaker.recordFailure();
+
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+        assertEquals(Permit.PERMITTED, dvadCircuitBreaker.tryAcquire());
+        verify(mockEventProbe, never())
+                .counterMetric(DVAD_HEALTH_CIRCUIT_REJECTED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldNotOpenBeforeTheMinimumCallsAreRecorded() {
+        for (int call = 0; call < MINIMUM_CALLS - 1; call++) {
+            dvadCircuitBreaker.recordFailure();
+        }
+
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+    }
+
+    @Test
+    void shouldOpenWhenTheFailureRateIsReachedInTheWindow() {
+        dvadCircuitBreaker.recordSuccess();
+        dvadCircuitBreaker.recordSuccess();
+        dvadCircuitBreaker.recordFailure();
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+
+        testTimeMillis += 1000;
+        dvadCircuitBreaker.recordFailure();
+
+        assertEquals(State.OPEN, dvadCircuitBreaker.getState());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_OPENED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldNotCountOutcomesOutsideTheWindow() {
+        dvadCircuitBreaker.recordFailure();
+        dvadCircuitBreaker.recordFailure();
+        dvadCircuitBreaker.recordFailure();
+
+        testTimeMillis += WINDOW_SECONDS * 1000L;
+        dvadCircuitBreaker.recordFailure();
+
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+    }
+
+    @Test
+    void shouldRejectChecksWhileOpenThenProbeOnceTheOpenDurationHasPassed() {
+        open();
+
+        assertEquals(Permit.REJECTED, dvadCircuitBreaker.tryAcquire());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_REJECTED.withEndpointPrefix());
+
+        testTimeMillis += OPEN_SECONDS * 1000L;
+
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, dvadCircuitBreaker.getState());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_HALF_OPEN.withEndpointPrefix());
+
+        // Only the probe is made
+        assertEquals(Permit.REJECTED, dvadCircuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldCloseWithAnEmptyWindowWhenTheProbeSucceeds() {
+        open();
+        testTimeMillis += OPEN_SECONDS * 1000L;
+        dvadCircuitBreaker.tryAcquire();
+
+        dvadCircuitBreaker.recordSuccess();
+
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+        assertEquals(Permit.PERMITTED, dvadCircuitBreaker.tryAcquire());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_CLOSED.withEndpointPrefix());
+
+        // The failures before opening are not counted again
+        dvadCircuitBreaker.recordFailure();
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+    }
+
+    @Test
+    void shouldOpenAgainWhenTheProbeFails() {
+        open();
+        testTimeMillis += OPEN_SECONDS * 1000L;
+        dvadCircuitBreaker.tryAcquire();
+
+        dvadCircuitBreaker.recordFailure();
+
+        assertEquals(State.OPEN, dvadCircuitBreaker.getState());
+        assertEquals(Permit.REJECTED, dvadCircuitBreaker.tryAcquire());
+        verify(mockEventProbe, times(2))
+                .counterMetric(DVAD_HEALTH_CIRCUIT_OPENED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldProbeAgainWhenAProbeOutcomeIsNotRecorded() {
+        open();
+        testTimeMillis += OPEN_SECONDS * 1000L;
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+
+        testTimeMillis += OPEN_SECONDS * 1000L;
+
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, dvadCircuitBreaker.getState());
+    }
+
+    @Test
+    void shouldCreateAnIndependentCircuitBreakerForEachStrategy() {
+        Map<Strategy, DvadCircuitBreaker> circuitBreakers =
+                DvadCircuitBreaker.createPerStrategy(
+                        new Settings(WINDOW_SECONDS, 1, FAILURE_RATE_PERCENT, OPEN_SECONDS),
+                        mockEventProbe,
+                        mockClock,
+                        null);
+
+        circuitBreakers.get(Strategy.LIVE).recordFailure();
+
+        assertEquals(Strategy.values().length, circuitBreakers.size());
+        assertEquals(State.OPEN, circuitBreakers.get(Strategy.LIVE).getState());
+        assertEquals(State.CLOSED, circuitBreakers.get(Strategy.STUB).getState());
+    }
+
+    @Test
+    void shouldReadSettingsFromEnvironmentWithDefaults() {
+        environmentVariables.set(DvadCircuitBreaker.MINIMUM_CALLS_ENV, "1");
+        environmentVariables.set(DvadCircuitBreaker.OPEN_SECONDS_ENV, " 5 ");
+
+        Settings settings = Settings.fromEnvironment();
+        assertEquals(new Settings(60, 1, 50, 5), settings);
+
+        dvadCircuitBreaker =
+                new DvadCircuitBreaker(Strategy.LIVE, settings, mockEventProbe, mockClock);
+        dvadCircuitBreaker.recordFailure();
+        testTimeMillis += 5000;
+
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldPublishOpenAndClosedTransitionsButNotHalfOpen() {
+        useSharedHealthState();
+        long openedAtMillis = testTimeMillis;
+        when(mockSharedDvadHealthState.publish(Strategy.LIVE, State.OPEN, openedAtMillis, 0))
+                .thenReturn(true);
+        when(mockSharedDvadHealthState.publish(Strategy.LIVE, State.CLOSED, openedAtMillis, 1))
+                .thenReturn(true);
+
+        open();
+        testTimeMillis += OPEN_SECONDS * 1000L;
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+        dvadCircuitBreaker.recordSuccess();
+
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+        verify(mockSharedDvadHealthState, never())
+                .publish(eq(Strategy.LIVE), eq(State.HALF_OPEN), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldAdoptAnOpenCircuitPublishedByAnotherContainer() {
+        useSharedHealthState();
+        when(mockSharedDvadHealthState.read(Strategy.LIVE))
+                .thenReturn(new Snapshot(State.OPEN, testTimeMillis - 1000, 1));
+
+        assertEquals(Permit.REJECTED, dvadCircuitBreaker.tryAcquire());
+        assertEquals(State.OPEN, dvadCircuitBreaker.getState());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_ADOPTED.withEndpointPrefix());
+        verify(mockEventProbe, never())
+                .counterMetric(DVAD_HEALTH_CIRCUIT_OPENED.withEndpointPrefix());
+
+        // Probes once the open duration has passed since the other container opened it
+        testTimeMillis += OPEN_SECONDS * 1000L - 1000;
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldAdoptAClosedCircuitPublishedByAnotherContainer() {
+        useSharedHealthState();
+        when(mockSharedDvadHealthState.publish(Strategy.LIVE, State.OPEN, testTimeMillis, 0))
+                .thenReturn(true);
+        open();
+
+        when(mockSharedDvadHealthState.read(Strategy.LIVE))
+                .thenReturn(new Snapshot(State.CLOSED, 0, 2));
+
+        assertEquals(Permit.PERMITTED, dvadCircuitBreaker.tryAcquire());
+        assertEquals(State.CLOSED, dvadCircuitBreaker.getState());
+        verify(mockEventProbe).counterMetric(DVAD_HEALTH_CIRCUIT_ADOPTED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldNotAdoptATransitionAlreadyPublishedByThisContainer() {
+        useSharedHealthState();
+        when(mockSharedDvadHealthState.publish(Strategy.LIVE, State.OPEN, testTimeMillis, 0))
+                .thenReturn(true);
+        open();
+
+        testTimeMillis += OPEN_SECONDS * 1000L;
+        when(mockSharedDvadHealthState.read(Strategy.LIVE))
+                .thenReturn(new Snapshot(State.OPEN, testTimeMillis, 1));
+
+        assertEquals(Permit.PROBE, dvadCircuitBreaker.tryAcquire());
+        verify(mockEventProbe, never())
+                .counterMetric(DVAD_HEALTH_CIRCUIT_ADOPTED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldReadAndPublishTheSharedStateWithoutHoldingTheMonitor() {
+        useSharedHealthState();
+        when(mockSharedDvadHealthState.read(Strategy.LIVE))
+                .thenAnswer(
+                        invocation -> {
+                            assertFalse(Thread.holdsLock(dvadCircuitBreaker));
+                            return null;
+                        });
+        when(mockSharedDvadHealthState.publish(
+                        eq(Strategy.LIVE), eq(State.OPEN), anyLong(), anyLong()))
+                .thenAnswer(
+                        invocation -> {
+                            assertFalse(Thread.holdsLock(dvadCircuitBreaker));
+                            return true;
+                        });
+
+        assertEquals(Permit.PERMITTED, dvadCircuitBreaker.tryAcquire());
+        open();
+
+        verify(mockSharedDvadHealthState).read(Strategy.LIVE);
+        verify(mockSharedDvadHealthState).publish(Strategy.LIVE, State.OPEN, testTimeMillis, 0);
+    }
+
+    private void useSharedHealthState() {
+        dvadCircuitBreaker =
+                new DvadCircuitBreaker(
+                        Strategy.LIVE,
+                        new Settings(
+                                WINDOW_SECONDS, MINIMUM_CALLS, FAILURE_RATE_PERCENT, OPEN_SECONDS),
+                        mockEventProbe,
+                        mockClock,
+                        mockSharedDvadHealthState);
+    }
+
+    private void open() {
+        for (int call = 0; call < MINIMUM_CALLS; call++) {
+            dvadCircuitBreaker.recordFailure();
+        }
+
+        assertEquals(State.OPEN, dvadCircuitBreaker.getState());
+    }
+}
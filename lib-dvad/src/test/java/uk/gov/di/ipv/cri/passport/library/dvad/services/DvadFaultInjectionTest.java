@@ -0,0 +1,106 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadFaultInjection.Fault;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadFaultInjection.Rule;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT;
+
+@ExtendWith(SystemStubsExtension.class)
+class DvadFaultInjectionTest {
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dev", "build"})
+    void shouldBeEnabledInDevAndBuild(String environment) {
+        environmentVariables.set(DvadFaultInjection.ENVIRONMENT_ENV, environment);
+        environmentVariables.set(DvadFaultInjection.FAULT_INJECTION_ENV, "graphql:reset:100");
+
+        assertTrue(DvadFaultInjection.fromEnvironment().isPresent());
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"staging", "integration", "production", "Dev", ""})
+    void shouldNeverBeEnabledOutsideDevAndBuild(String environment) {
+        environmentVariables.set(DvadFaultInjection.ENVIRONMENT_ENV, environment);
+        environmentVariables.set(DvadFaultInjection.FAULT_INJECTION_ENV, "graphql:reset:100");
+
+        assertTrue(DvadFaultInjection.fromEnvironment().isEmpty());
+    }
+
+    @Test
+    void shouldNotBeEnabledWhenNotSet() {
+        environmentVariables.set(DvadFaultInjection.ENVIRONMENT_ENV, "dev");
+        environmentVariables.set(DvadFaultInjection.FAULT_INJECTION_ENV, " ");
+
+        assertTrue(DvadFaultInjection.fromEnvironment().isEmpty());
+    }
+
+    @Test
+    void shouldSelectTheRuleOfTheEndpoint() {
+        DvadFaultInjection dvadFaultInjection =
+                DvadFaultInjection.parse("graphql:delay:100:3000, token:timeout:100");
+
+        assertEquals(
+                new Rule(Fault.DELAY, 100, 3000),
+                dvadFaultInjection.select(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT));
+        assertEquals(
+                new Rule(Fault.TIMEOUT, 100, 0),
+                dvadFaultInjection.select(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT));
+        assertNull(dvadFaultInjection.select(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT));
+    }
+
+    @Test
+    void shouldSelectEachRuleForItsShareOfCalls() {
+        DvadFaultInjection dvadFaultInjection =
+                DvadFaultInjection.parse("graphql:reset:25,graphql:slowdrip:25:10");
+
+        int calls = 20000;
+        int resets = 0;
+        int slowDrips = 0;
+        for (int call = 0; call < calls; call++) {
+            Rule rule = dvadFaultInjection.select(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+            if (rule != null && rule.fault() == Fault.RESET) {
+                resets++;
+            } else if (rule != null && rule.fault() == Fault.SLOWDRIP) {
+                slowDrips++;
+            }
+        }
+
+        assertEquals(0.25, resets / (double) calls, 0.02);
+        assertEquals(0.25, slowDrips / (double) calls, 0.02);
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "graphql:reset",
+                "graphql:reset:10:20:30",
+                "passport:reset:10",
+                "graphql:drop:10",
+                "graphql:reset:ten",
+                "graphql:reset:0",
+                "graphql:delay:10",
+                "graphql:slowdrip:10",
+                "graphql:delay:10:-1",
+                "graphql:reset:60,graphql:timeout:50"
+            })
+    void shouldRejectInvalidRules(String spec) {
+        assertThrows(IllegalArgumentException.class, () -> DvadFaultInjection.parse(spec));
+    }
+}
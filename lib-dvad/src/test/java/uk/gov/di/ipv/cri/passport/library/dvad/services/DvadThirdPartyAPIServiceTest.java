@@ -36,8 +36,10 @@ import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException
 import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.passport.library.service.ThirdPartyAPIService;
+import uk.gov.di.ipv.cri.passport.library.snapstart.PrimingEventProbe;
 
 import java.lang.reflect.Method;
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,11 +48,14 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.passport.library.domain.result.fields.APIResultSource.DVAD;
@@ -58,6 +63,8 @@ import static uk.gov.di.ipv.cri.passport.library.domain.result.fields.APIResultS
 @ExtendWith(MockitoExtension.class)
 class DvadThirdPartyAPIServiceTest {
 
+    private static final int TEST_CIRCUIT_OPEN_SECONDS = 30;
+
     private ObjectMapper realObjectMapper;
 
     @Mock private EventProbe mockEventProbe;
@@ -70,9 +77,15 @@ class DvadThirdPartyAPIServiceTest {
     @Mock private HealthCheckService mockHealthCheckService;
     @Mock private TokenRequestService mockTokenRequestService;
     @Mock private GraphQLRequestService mockGraphQLRequestService;
+    @Mock private SharedDvadAccessToken mockSharedDvadAccessToken;
+
+    @Mock private Clock mockClock;
 
     private ThirdPartyAPIService dvadThirdPartyAPIServiceTest;
 
+    private DvadCircuitBreaker openCircuitBreaker;
+    private long testTimeMillis;
+
     @BeforeEach
     void setUp() {
         realObjectMapper = new ObjectMapper();
@@ -102,16 +115,8 @@ class DvadThirdPartyAPIServiceTest {
     void shouldReturnIsValidTrueGivenValidDataAndAllThirdPartyEndpointsRespond(
             boolean validationResult) throws OAuthErrorResponseException {
 
-        when(mockDvadAPIEndpointFactory.createHealthCheckService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockHealthCheckService);
-
         when(mockDvadAPIEndpointFactory.createTokenRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -119,7 +124,7 @@ class DvadThirdPartyAPIServiceTest {
                 .thenReturn(mockTokenRequestService);
 
         when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -130,9 +135,6 @@ class DvadThirdPartyAPIServiceTest {
 
         PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
-        // Health service Response
-        boolean testHealthCheckStatusUp = true;
-
         // Token service Response
         AccessTokenResponse testValidAccessTokenResponse =
                 AccessTokenResponse.builder()
@@ -164,9 +166,6 @@ class DvadThirdPartyAPIServiceTest {
 
         mockDvadAPIHeaderValues();
 
-        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
-                .thenReturn(testHealthCheckStatusUp);
-
         when(mockTokenRequestService.requestAccessToken(any(DvadAPIHeaderValues.class), eq(true)))
                 .thenReturn(testValidAccessTokenResponse);
 
@@ -213,16 +212,8 @@ class DvadThirdPartyAPIServiceTest {
     void shouldThrowOAuthErrorResponseExceptionWhenAPIResponseContainsErrorsOrIsEmpty(
             boolean errors) throws OAuthErrorResponseException {
 
-        when(mockDvadAPIEndpointFactory.createHealthCheckService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockHealthCheckService);
-
         when(mockDvadAPIEndpointFactory.createTokenRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -230,7 +221,7 @@ class DvadThirdPartyAPIServiceTest {
                 .thenReturn(mockTokenRequestService);
 
         when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -239,9 +230,6 @@ class DvadThirdPartyAPIServiceTest {
 
         PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
-        // Health service Response
-        boolean testHealthCheckStatusUp = true;
-
         // Token service Response
         AccessTokenResponse testValidAccessTokenResponse =
                 AccessTokenResponse.builder()
@@ -272,9 +260,6 @@ class DvadThirdPartyAPIServiceTest {
 
         mockDvadAPIHeaderValues();
 
-        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
-                .thenReturn(testHealthCheckStatusUp);
-
         when(mockTokenRequestService.requestAccessToken(any(DvadAPIHeaderValues.class), eq(true)))
                 .thenReturn(testValidAccessTokenResponse);
 
@@ -331,32 +316,37 @@ class DvadThirdPartyAPIServiceTest {
     }
 
     @Test
-    void shouldReturnOAuthErrorResponseExceptionWhenHealthEndpointIsDown()
-            throws OAuthErrorResponseException {
+    void shouldReturnOAuthErrorResponseExceptionWithoutCallingDVADWhenCircuitIsOpen() {
+        dvadThirdPartyAPIServiceTest = createServiceWithOpenCircuit(Strategy.NO_CHANGE);
 
-        when(mockDvadAPIEndpointFactory.createHealthCheckService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockHealthCheckService);
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
-        when(mockDvadAPIEndpointFactory.createTokenRequestService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockTokenRequestService);
+        OAuthErrorResponseException thrownException =
+                Assertions.assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                dvadThirdPartyAPIServiceTest.performCheck(
+                                        passportFormData, Strategy.NO_CHANGE),
+                        "Expected OAuthErrorResponseException");
 
-        when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockGraphQLRequestService);
+        Assertions.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, thrownException.getStatusCode());
+        Assertions.assertEquals(
+                ErrorResponse.ERROR_THIRD_PARTY_API_HEALTH_ENDPOINT_NOT_UP,
+                thrownException.getErrorReason());
+
+        verify(mockEventProbe)
+                .counterMetric(
+                        ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_REJECTED
+                                .withEndpointPrefix());
+        verifyNoInteractions(mockDvadAPIEndpointFactory);
+    }
+
+    @Test
+    void shouldReturnOAuthErrorResponseExceptionWhenHealthEndpointIsDown()
+            throws OAuthErrorResponseException {
+        dvadThirdPartyAPIServiceTest = createServiceWithOpenCircuit(Strategy.NO_CHANGE);
+
+        mockEndpointServicesForProbe(Strategy.NO_CHANGE);
 
         PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
@@ -367,6 +357,9 @@ class DvadThirdPartyAPIServiceTest {
         when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
                 .thenReturn(testHealthCheckStatusUp);
 
+        // Open duration passed, the check is made as a health check probe
+        testTimeMillis += TEST_CIRCUIT_OPEN_SECONDS * 1000L;
+
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
                         HttpStatus.SC_INTERNAL_SERVER_ERROR,
@@ -384,6 +377,142 @@ class DvadThirdPartyAPIServiceTest {
                 expectedReturnedException.getStatusCode(), thrownException.getStatusCode());
         Assertions.assertEquals(
                 expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
+
+        // The failed probe opens the circuit again
+        assertEquals(DvadCircuitBreaker.State.OPEN, openCircuitBreaker.getState());
+    }
+
+    @Test
+    void shouldCloseCircuitAndPerformCheckWhenHealthCheckProbeReportsUp()
+            throws OAuthErrorResponseException {
+        dvadThirdPartyAPIServiceTest = createServiceWithOpenCircuit(Strategy.NO_CHANGE);
+
+        mockEndpointServicesForProbe(Strategy.NO_CHANGE);
+
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        AccessTokenResponse testValidAccessTokenResponse =
+                AccessTokenResponse.builder()
+                        .accessToken("A_TOKEN_VALUE")
+                        .tokenType("Bearer")
+                        .expiresIn(1800)
+                        .build();
+
+        GraphQLServiceResult testGraphQLServiceResult =
+                GraphQLServiceResult.builder()
+                        .graphQLAPIResponse(
+                                GraphQLAPIResponse.builder()
+                                        .data(
+                                                ResponseDataGenerator
+                                                        .createValidationResultTrueResponseData())
+                                        .build())
+                        .requestId(UUID.randomUUID().toString())
+                        .build();
+
+        mockDvadAPIHeaderValues();
+
+        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
+                .thenReturn(true);
+
+        when(mockTokenRequestService.requestAccessToken(any(DvadAPIHeaderValues.class), eq(true)))
+                .thenReturn(testValidAccessTokenResponse);
+
+        final String TEST_QUERY_STRING = "TEST_QUERY_STRING";
+        when(mockParameterStoreService.getEncryptedParameterValue(
+                        ParameterStoreParameters.HMPO_GRAPHQL_QUERY_STRING))
+                .thenReturn(TEST_QUERY_STRING);
+
+        when(mockGraphQLRequestService.performGraphQLQuery(
+                        eq(testValidAccessTokenResponse),
+                        any(DvadAPIHeaderValues.class),
+                        eq(TEST_QUERY_STRING),
+                        eq(passportFormData)))
+                .thenReturn(testGraphQLServiceResult);
+
+        testTimeMillis += TEST_CIRCUIT_OPEN_SECONDS * 1000L;
+
+        ThirdPartyAPIResult result =
+                dvadThirdPartyAPIServiceTest.performCheck(passportFormData, Strategy.NO_CHANGE);
+
+        assertTrue(result.isValid());
+        assertEquals(DvadCircuitBreaker.State.CLOSED, openCircuitBreaker.getState());
+        verify(mockEventProbe)
+                .counterMetric(
+                        ThirdPartyAPIEndpointMetric.DVAD_HEALTH_CIRCUIT_CLOSED
+                                .withEndpointPrefix());
+    }
+
+    @Test
+    void shouldUseTheSharedAccessTokenWhenTheTokenIsShared() throws OAuthErrorResponseException {
+        dvadThirdPartyAPIServiceTest =
+                new DvadThirdPartyAPIService(
+                        mockDvadAPIEndpointFactory,
+                        mockParameterStoreService,
+                        mockEventProbe,
+                        mockCloseableHttpClient,
+                        realObjectMapper,
+                        (SharedDvadHealthState) null,
+                        mockSharedDvadAccessToken);
+
+        when(mockDvadAPIEndpointFactory.createTokenRequestService(
+                        any(CircuitBreakerRecordingHttpClient.class),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        eq(mockEventProbe),
+                        eq(Strategy.NO_CHANGE)))
+                .thenReturn(mockTokenRequestService);
+        when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
+                        any(CircuitBreakerRecordingHttpClient.class),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        eq(mockEventProbe),
+                        eq(Strategy.NO_CHANGE)))
+                .thenReturn(mockGraphQLRequestService);
+
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        AccessTokenResponse testSharedAccessTokenResponse =
+                AccessTokenResponse.builder()
+                        .accessToken("A_SHARED_TOKEN_VALUE")
+                        .tokenType("Bearer")
+                        .expiresIn(1800)
+                        .build();
+
+        GraphQLServiceResult testGraphQLServiceResult =
+                GraphQLServiceResult.builder()
+                        .graphQLAPIResponse(
+                                GraphQLAPIResponse.builder()
+                                        .data(
+                                                ResponseDataGenerator
+                                                        .createValidationResultTrueResponseData())
+                                        .build())
+                        .requestId(UUID.randomUUID().toString())
+                        .build();
+
+        mockDvadAPIHeaderValues();
+
+        when(mockSharedDvadAccessToken.getAccessToken(
+                        eq(Strategy.NO_CHANGE), any(SharedDvadAccessToken.TokenRequest.class)))
+                .thenReturn(testSharedAccessTokenResponse);
+
+        final String TEST_QUERY_STRING = "TEST_QUERY_STRING";
+        when(mockParameterStoreService.getEncryptedParameterValue(
+                        ParameterStoreParameters.HMPO_GRAPHQL_QUERY_STRING))
+                .thenReturn(TEST_QUERY_STRING);
+
+        when(mockGraphQLRequestService.performGraphQLQuery(
+                        eq(testSharedAccessTokenResponse),
+                        any(DvadAPIHeaderValues.class),
+                        eq(TEST_QUERY_STRING),
+                        eq(passportFormData)))
+                .thenReturn(testGraphQLServiceResult);
+
+        ThirdPartyAPIResult result =
+                dvadThirdPartyAPIServiceTest.performCheck(passportFormData, Strategy.NO_CHANGE);
+
+        assertTrue(result.isValid());
+        // Only requested through the shared token, when it needs a refresh
+        verifyNoInteractions(mockTokenRequestService);
     }
 
     @ParameterizedTest
@@ -396,16 +525,8 @@ class DvadThirdPartyAPIServiceTest {
     void shouldReturnOAuthErrorResponseExceptionWhenGraphQLResponseFailsValidation(
             String forcedFailure) throws OAuthErrorResponseException {
 
-        when(mockDvadAPIEndpointFactory.createHealthCheckService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(mockHealthCheckService);
-
         when(mockDvadAPIEndpointFactory.createTokenRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -413,7 +534,7 @@ class DvadThirdPartyAPIServiceTest {
                 .thenReturn(mockTokenRequestService);
 
         when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -422,9 +543,6 @@ class DvadThirdPartyAPIServiceTest {
 
         PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
-        // Health service Response
-        boolean testHealthCheckStatusUp = true;
-
         // Token service Response
         AccessTokenResponse testValidAccessTokenResponse =
                 AccessTokenResponse.builder()
@@ -479,9 +597,6 @@ class DvadThirdPartyAPIServiceTest {
 
         mockDvadAPIHeaderValues();
 
-        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
-                .thenReturn(testHealthCheckStatusUp);
-
         when(mockTokenRequestService.requestAccessToken(any(DvadAPIHeaderValues.class), eq(true)))
                 .thenReturn(testValidAccessTokenResponse);
 
@@ -613,16 +728,8 @@ class DvadThirdPartyAPIServiceTest {
     void shouldReturnIsValidTrueGivenValidDataAndStrategyEqualsStubAndAllThirdPartyEndpointsRespond(
             boolean validationResult) throws OAuthErrorResponseException {
 
-        when(mockDvadAPIEndpointFactory.createHealthCheckService(
-                        eq(mockCloseableHttpClient),
-                        any(RequestConfig.class),
-                        eq(realObjectMapper),
-                        eq(mockEventProbe),
-                        eq(Strategy.STUB)))
-                .thenReturn(mockHealthCheckService);
-
         when(mockDvadAPIEndpointFactory.createTokenRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -630,7 +737,7 @@ class DvadThirdPartyAPIServiceTest {
                 .thenReturn(mockTokenRequestService);
 
         when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
-                        eq(mockCloseableHttpClient),
+                        any(CircuitBreakerRecordingHttpClient.class),
                         any(RequestConfig.class),
                         eq(realObjectMapper),
                         eq(mockEventProbe),
@@ -641,9 +748,6 @@ class DvadThirdPartyAPIServiceTest {
 
         PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
 
-        // Health service Response
-        boolean testHealthCheckStatusUp = true;
-
         // Token service Response
         AccessTokenResponse testValidAccessTokenResponse =
                 AccessTokenResponse.builder()
@@ -675,9 +779,6 @@ class DvadThirdPartyAPIServiceTest {
 
         mockDvadAPIHeaderValues();
 
-        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
-                .thenReturn(testHealthCheckStatusUp);
-
         when(mockTokenRequestService.requestAccessToken(any(DvadAPIHeaderValues.class), eq(true)))
                 .thenReturn(testValidAccessTokenResponse);
 
@@ -751,6 +852,108 @@ class DvadThirdPartyAPIServiceTest {
         assertNotNull(messagePartMap.get("classification"));
     }
 
+    @ParameterizedTest
+    @CsvSource({"true", "false"})
+    void shouldOpenConnectionWithHealthCheckWithoutRecordingMetrics(boolean remoteApiUp)
+            throws OAuthErrorResponseException {
+        when(mockDvadAPIEndpointFactory.createHealthCheckService(
+                        eq(mockCloseableHttpClient),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        any(PrimingEventProbe.class),
+                        eq(Strategy.LIVE)))
+                .thenReturn(mockHealthCheckService);
+
+        mockDvadAPIHeaderValues();
+
+        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
+                .thenReturn(remoteApiUp);
+
+        DvadThirdPartyAPIService dvadThirdPartyAPIService =
+                (DvadThirdPartyAPIService) dvadThirdPartyAPIServiceTest;
+
+        assertEquals(remoteApiUp, dvadThirdPartyAPIService.openConnection(Strategy.LIVE));
+
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldReturnFalseWhenOpenConnectionFails() throws OAuthErrorResponseException {
+        when(mockDvadAPIEndpointFactory.createHealthCheckService(
+                        eq(mockCloseableHttpClient),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        any(PrimingEventProbe.class),
+                        eq(Strategy.LIVE)))
+                .thenReturn(mockHealthCheckService);
+
+        mockDvadAPIHeaderValues();
+
+        when(mockHealthCheckService.checkRemoteApiIsUp(any(DvadAPIHeaderValues.class)))
+                .thenThrow(
+                        new OAuthErrorResponseException(
+                                HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                                ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_HEALTH_ENDPOINT));
+
+        DvadThirdPartyAPIService dvadThirdPartyAPIService =
+                (DvadThirdPartyAPIService) dvadThirdPartyAPIServiceTest;
+
+        assertFalse(dvadThirdPartyAPIService.openConnection(Strategy.LIVE));
+
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    // A single failure opens the circuit of the strategy
+    private ThirdPartyAPIService createServiceWithOpenCircuit(Strategy strategy) {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        Map<Strategy, DvadCircuitBreaker> circuitBreakers =
+                DvadCircuitBreaker.createPerStrategy(
+                        new DvadCircuitBreaker.Settings(10, 1, 50, TEST_CIRCUIT_OPEN_SECONDS),
+                        mockEventProbe,
+                        mockClock,
+                        null);
+
+        openCircuitBreaker = circuitBreakers.get(strategy);
+        openCircuitBreaker.recordFailure();
+
+        return new DvadThirdPartyAPIService(
+                mockDvadAPIEndpointFactory,
+                mockParameterStoreService,
+                mockEventProbe,
+                mockCloseableHttpClient,
+                realObjectMapper,
+                circuitBreakers,
+                null);
+    }
+
+    // The probe health check is made with the client directly, its outcome recorded explicitly
+    private void mockEndpointServicesForProbe(Strategy strategy) {
+        when(mockDvadAPIEndpointFactory.createHealthCheckService(
+                        eq(mockCloseableHttpClient),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        eq(mockEventProbe),
+                        eq(strategy)))
+                .thenReturn(mockHealthCheckService);
+
+        when(mockDvadAPIEndpointFactory.createTokenRequestService(
+                        any(CircuitBreakerRecordingHttpClient.class),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        eq(mockEventProbe),
+                        eq(strategy)))
+                .thenReturn(mockTokenRequestService);
+
+        when(mockDvadAPIEndpointFactory.createGraphQLRequestService(
+                        any(CircuitBreakerRecordingHttpClient.class),
+                        any(RequestConfig.class),
+                        eq(realObjectMapper),
+                        eq(mockEventProbe),
+                        eq(strategy)))
+                .thenReturn(mockGraphQLRequestService);
+    }
+
     private void mockDvadAPIHeaderValues() {
         // Mock Parameter store fetches in DvadAPIHeaderValues
         Map<String, String> testParameterMap =
@@ -0,0 +1,193 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.HealthCheckResponse;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
+
+@ExtendWith(MockitoExtension.class)
+class FaultInjectingHttpClientTest {
+
+    private static final String TEST_ENDPOINT = "https://localhost/health";
+
+    private static final String HEALTH_RESPONSE_BODY = healthResponseBody();
+
+    @Mock private CloseableHttpClient mockHttpClient;
+    @Mock private EventProbe mockEventProbe;
+
+    @Test
+    void shouldPassThroughCallsWithoutAFault() throws IOException {
+        stubHealthResponse();
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("graphql:reset:100");
+
+        try (CloseableHttpResponse response =
+                faultInjectingHttpClient.execute(
+                        new HttpGet(TEST_ENDPOINT),
+                        ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT))) {
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+        }
+
+        verify(mockHttpClient)
+                .execute(any(HttpHost.class), any(HttpRequest.class), nullable(HttpContext.class));
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldPassThroughCallsWithoutConnectionTimings() throws IOException {
+        stubHealthResponse();
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("health:reset:100");
+
+        try (CloseableHttpResponse response =
+                faultInjectingHttpClient.execute(new HttpGet(TEST_ENDPOINT))) {
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+        }
+
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldDelayTheCall() throws IOException {
+        stubHealthResponse();
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("health:delay:100:50");
+
+        long startNanos = System.nanoTime();
+        try (CloseableHttpResponse response = executeHealthCheck(faultInjectingHttpClient)) {
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+        }
+
+        assertTrue(System.nanoTime() - startNanos >= 50_000_000L);
+        verify(mockEventProbe)
+                .counterMetric("dvad_third_party_api_health_endpoint_fault_injected_delay");
+    }
+
+    @Test
+    void shouldResetTheConnectionAfterSendingTheCall() throws IOException {
+        stubHealthResponse();
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("health:reset:100");
+
+        assertThrows(SocketException.class, () -> executeHealthCheck(faultInjectingHttpClient));
+
+        verify(mockHttpClient)
+                .execute(any(HttpHost.class), any(HttpRequest.class), nullable(HttpContext.class));
+        verify(mockEventProbe)
+                .counterMetric("dvad_third_party_api_health_endpoint_fault_injected_reset");
+    }
+
+    @Test
+    void shouldTimeOutAfterTheSocketTimeoutOfTheRequest() {
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("health:timeout:100");
+
+        HttpGet request = new HttpGet(TEST_ENDPOINT);
+        request.setConfig(RequestConfig.custom().setSocketTimeout(50).build());
+
+        long startNanos = System.nanoTime();
+        assertThrows(
+                SocketTimeoutException.class,
+                () ->
+                        faultInjectingHttpClient.execute(
+                                request,
+                                ConnectionTimings.createContext(
+                                        DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT)));
+
+        assertTrue(System.nanoTime() - startNanos >= 50_000_000L);
+        verifyNoInteractions(mockHttpClient);
+        verify(mockEventProbe)
+                .counterMetric("dvad_third_party_api_health_endpoint_fault_injected_timeout");
+    }
+
+    @Test
+    void shouldDripTheResponseBody() throws IOException {
+        stubHealthResponse();
+        FaultInjectingHttpClient faultInjectingHttpClient = createClient("health:slowdrip:100:2");
+
+        long startNanos = System.nanoTime();
+        try (CloseableHttpResponse response = executeHealthCheck(faultInjectingHttpClient)) {
+            String body = EntityUtils.toString(response.getEntity());
+
+            assertEquals(HEALTH_RESPONSE_BODY, body);
+            // Each byte is read after the drip interval
+            assertTrue(System.nanoTime() - startNanos >= body.length() * 2_000_000L);
+        }
+
+        verify(mockEventProbe)
+                .counterMetric("dvad_third_party_api_health_endpoint_fault_injected_slowdrip");
+    }
+
+    private FaultInjectingHttpClient createClient(String spec) {
+        return new FaultInjectingHttpClient(
+                mockHttpClient, DvadFaultInjection.parse(spec), mockEventProbe);
+    }
+
+    // A new response per call, the slowdrip fault replaces the entity
+    private void stubHealthResponse() throws IOException {
+        when(mockHttpClient.execute(
+                        any(HttpHost.class), any(HttpRequest.class), nullable(HttpContext.class)))
+                .thenAnswer(invocation -> new TestHttpResponse(HEALTH_RESPONSE_BODY));
+    }
+
+    private static String healthResponseBody() {
+        try {
+            return new ObjectMapper()
+                    .writeValueAsString(HealthCheckResponse.builder().status("UP").build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CloseableHttpResponse executeHealthCheck(
+            FaultInjectingHttpClient faultInjectingHttpClient) throws IOException {
+        return faultInjectingHttpClient.execute(
+                new HttpGet(TEST_ENDPOINT),
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT));
+    }
+
+    private static class TestHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+
+        TestHttpResponse(String body) {
+            super(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"));
+            setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
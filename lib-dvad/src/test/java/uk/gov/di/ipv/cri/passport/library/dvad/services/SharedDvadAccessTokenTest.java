@@ -0,0 +1,325 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.EncryptRequest;
+import software.amazon.awssdk.services.kms.model.EncryptResponse;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadAccessTokenItem;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadAccessTokenStore;
+import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_REQUEST_REUSING_CACHED_TOKEN;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_SHARED_TOKEN_FALLBACK;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_SHARED_TOKEN_REFRESHED;
+
+@ExtendWith({MockitoExtension.class, SystemStubsExtension.class})
+class SharedDvadAccessTokenTest {
+
+    private static final String TEST_KMS_KEY_ID = "test-kms-key-id";
+
+    // Remaining lifetimes either side of the 30s expiration window and 30s refresh ahead time
+    private static final long FRESH_MILLIS = 600_000;
+    private static final long NEAR_EXPIRY_MILLIS = 45_000;
+    private static final long EXPIRING_MILLIS = 20_000;
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private DvadAccessTokenStore mockDvadAccessTokenStore;
+    @Mock private KmsClient mockKmsClient;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private Clock mockClock;
+    @Mock private SharedDvadAccessToken.TokenRequest mockTokenRequest;
+
+    @Captor private ArgumentCaptor<DvadAccessTokenItem> itemCaptor;
+    @Captor private ArgumentCaptor<EncryptRequest> encryptRequestCaptor;
+
+    private final ObjectMapper realObjectMapper = new ObjectMapper();
+
+    private long testTimeMillis = 1_700_000_000_000L;
+
+    private SharedDvadAccessToken sharedDvadAccessToken;
+
+    @BeforeEach
+    void setUp() {
+        sharedDvadAccessToken =
+                new SharedDvadAccessToken(
+                        mockDvadAccessTokenStore,
+                        mockKmsClient,
+                        TEST_KMS_KEY_ID,
+                        realObjectMapper,
+                        mockEventProbe,
+                        mockClock);
+    }
+
+    @Test
+    void shouldReuseASharedTokenWithMoreThanTheRefreshAheadTimeLeft() throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        mockKmsDecrypt();
+        AccessTokenResponse sharedToken = accessTokenResponse("A_SHARED_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.getItem("LIVE"))
+                .thenReturn(sharedItem(sharedToken, testTimeMillis + FRESH_MILLIS, 0, 3));
+
+        assertEquals(sharedToken, getAccessToken());
+
+        // Reused by this container without reading the table again
+        testTimeMillis += 60_000;
+        assertEquals(sharedToken, getAccessToken());
+
+        verify(mockDvadAccessTokenStore).getItem("LIVE");
+        verifyNoInteractions(mockTokenRequest);
+        verify(mockEventProbe, times(2))
+                .counterMetric(DVAD_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldLeadTheRefreshAndShareTheEncryptedTokenWhenTheSharedTokenNearsExpiry()
+            throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        mockKmsDecrypt();
+        mockKmsEncrypt();
+        AccessTokenResponse sharedToken = accessTokenResponse("A_SHARED_TOKEN_VALUE");
+        AccessTokenResponse newToken = accessTokenResponse("A_NEW_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.getItem("LIVE"))
+                .thenReturn(sharedItem(sharedToken, testTimeMillis + NEAR_EXPIRY_MILLIS, 0, 3));
+        when(mockDvadAccessTokenStore.putItemIfVersion(any(DvadAccessTokenItem.class), eq(3L)))
+                .thenReturn(true);
+        when(mockDvadAccessTokenStore.putItemIfVersion(any(DvadAccessTokenItem.class), eq(4L)))
+                .thenReturn(true);
+        when(mockTokenRequest.requestAccessToken()).thenReturn(newToken);
+
+        assertEquals(newToken, getAccessToken());
+
+        verify(mockDvadAccessTokenStore).putItemIfVersion(itemCaptor.capture(), eq(3L));
+        assertEquals(testTimeMillis + 10_000, itemCaptor.getValue().getRefreshLeaseExpiresAt());
+
+        verify(mockDvadAccessTokenStore).putItemIfVersion(itemCaptor.capture(), eq(4L));
+        DvadAccessTokenItem sharedItem = itemCaptor.getValue();
+        assertEquals(0, sharedItem.getRefreshLeaseExpiresAt());
+        assertEquals(testTimeMillis + 1_800_000, sharedItem.getExpiresAt());
+        assertEquals(newToken, decode(sharedItem.getEncryptedAccessTokenResponse()));
+
+        verify(mockKmsClient).encrypt(encryptRequestCaptor.capture());
+        assertEquals(TEST_KMS_KEY_ID, encryptRequestCaptor.getValue().keyId());
+        assertEquals(
+                Map.of("strategy", "LIVE"), encryptRequestCaptor.getValue().encryptionContext());
+
+        verify(mockEventProbe)
+                .counterMetric(DVAD_TOKEN_SHARED_TOKEN_REFRESHED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldLeadTheFirstRefreshWhenNoTokenIsShared() throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        mockKmsEncrypt();
+        AccessTokenResponse newToken = accessTokenResponse("A_NEW_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.putItemIfVersion(any(DvadAccessTokenItem.class), eq(0L)))
+                .thenReturn(true);
+        when(mockDvadAccessTokenStore.putItemIfVersion(any(DvadAccessTokenItem.class), eq(1L)))
+                .thenReturn(true);
+        when(mockTokenRequest.requestAccessToken()).thenReturn(newToken);
+
+        assertEquals(newToken, getAccessToken());
+
+        verify(mockEventProbe)
+                .counterMetric(DVAD_TOKEN_SHARED_TOKEN_REFRESHED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldUseTheCurrentTokenWhileAnotherContainerRefreshes() throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        mockKmsDecrypt();
+        AccessTokenResponse sharedToken = accessTokenResponse("A_SHARED_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.getItem("LIVE"))
+                .thenReturn(
+                        sharedItem(
+                                sharedToken,
+                                testTimeMillis + NEAR_EXPIRY_MILLIS,
+                                testTimeMillis + 5_000,
+                                4));
+
+        assertEquals(sharedToken, getAccessToken());
+
+        verify(mockDvadAccessTokenStore, never())
+                .putItemIfVersion(any(DvadAccessTokenItem.class), anyLong());
+        verifyNoInteractions(mockTokenRequest);
+    }
+
+    @Test
+    void shouldRequestATokenForThisContainerWhenNoneIsUsableAndAnotherContainerRefreshes()
+            throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        mockKmsDecrypt();
+        AccessTokenResponse newToken = accessTokenResponse("A_NEW_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.getItem("LIVE"))
+                .thenReturn(
+                        sharedItem(
+                                accessTokenResponse("A_SHARED_TOKEN_VALUE"),
+                                testTimeMillis + EXPIRING_MILLIS,
+                                testTimeMillis + 5_000,
+                                4));
+        when(mockTokenRequest.requestAccessToken()).thenReturn(newToken);
+
+        assertEquals(newToken, getAccessToken());
+
+        verify(mockDvadAccessTokenStore, never())
+                .putItemIfVersion(any(DvadAccessTokenItem.class), anyLong());
+        verify(mockEventProbe)
+                .counterMetric(DVAD_TOKEN_SHARED_TOKEN_FALLBACK.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldRequestATokenForThisContainerWhenTheTableCannotBeRead() throws Exception {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        AccessTokenResponse newToken = accessTokenResponse("A_NEW_TOKEN_VALUE");
+        when(mockDvadAccessTokenStore.getItem("LIVE"))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"));
+        when(mockTokenRequest.requestAccessToken()).thenReturn(newToken);
+
+        assertEquals(newToken, getAccessToken());
+
+        verify(mockEventProbe)
+                .counterMetric(DVAD_TOKEN_SHARED_TOKEN_FALLBACK.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldNotBeCreatedWhenTheTableNameIsNotSet(
+            @Mock Supplier<DynamoDbEnhancedClient> mockDynamoDbEnhancedClientSupplier,
+            @Mock Supplier<KmsClient> mockKmsClientSupplier) {
+        assertTrue(
+                SharedDvadAccessToken.fromEnvironment(
+                                mockDynamoDbEnhancedClientSupplier,
+                                mockKmsClientSupplier,
+                                realObjectMapper,
+                                mockEventProbe)
+                        .isEmpty());
+        verifyNoInteractions(mockDynamoDbEnhancedClientSupplier, mockKmsClientSupplier);
+    }
+
+    @Test
+    void shouldRequireTheKmsKeyWhenTheTableNameIsSet(
+            @Mock Supplier<DynamoDbEnhancedClient> mockDynamoDbEnhancedClientSupplier,
+            @Mock Supplier<KmsClient> mockKmsClientSupplier) {
+        environmentVariables.set(SharedDvadAccessToken.TABLE_NAME_ENV, "dvad-access-token");
+
+        assertThrows(
+                IllegalStateException.class,
+                () ->
+                        SharedDvadAccessToken.fromEnvironment(
+                                mockDynamoDbEnhancedClientSupplier,
+                                mockKmsClientSupplier,
+                                realObjectMapper,
+                                mockEventProbe));
+    }
+
+    @Test
+    void shouldBeCreatedWhenTheTableNameAndKmsKeyAreSet(
+            @Mock Supplier<DynamoDbEnhancedClient> mockDynamoDbEnhancedClientSupplier,
+            @Mock DynamoDbEnhancedClient mockDynamoDbEnhancedClient) {
+        environmentVariables.set(SharedDvadAccessToken.TABLE_NAME_ENV, "dvad-access-token");
+        environmentVariables.set(SharedDvadAccessToken.KMS_KEY_ID_ENV, TEST_KMS_KEY_ID);
+        when(mockDynamoDbEnhancedClientSupplier.get()).thenReturn(mockDynamoDbEnhancedClient);
+
+        assertTrue(
+                SharedDvadAccessToken.fromEnvironment(
+                                mockDynamoDbEnhancedClientSupplier,
+                                () -> mockKmsClient,
+                                realObjectMapper,
+                                mockEventProbe)
+                        .isPresent());
+        verify(mockDynamoDbEnhancedClient).table(eq("dvad-access-token"), any());
+    }
+
+    private AccessTokenResponse getAccessToken() throws OAuthErrorResponseException {
+        return sharedDvadAccessToken.getAccessToken(Strategy.LIVE, mockTokenRequest);
+    }
+
+    // The test KMS key returns the plaintext as the ciphertext
+    private void mockKmsEncrypt() {
+        when(mockKmsClient.encrypt(any(EncryptRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                EncryptResponse.builder()
+                                        .ciphertextBlob(
+                                                invocation
+                                                        .<EncryptRequest>getArgument(0)
+                                                        .plaintext())
+                                        .build());
+    }
+
+    private void mockKmsDecrypt() {
+        when(mockKmsClient.decrypt(any(DecryptRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                DecryptResponse.builder()
+                                        .plaintext(
+                                                invocation
+                                                        .<DecryptRequest>getArgument(0)
+                                                        .ciphertextBlob())
+                                        .build());
+    }
+
+    private DvadAccessTokenItem sharedItem(
+            AccessTokenResponse accessTokenResponse,
+            long expiresAt,
+            long refreshLeaseExpiresAt,
+            long version)
+            throws IOException {
+        DvadAccessTokenItem item = new DvadAccessTokenItem();
+        item.setStrategy("LIVE");
+        item.setEncryptedAccessTokenResponse(
+                Base64.getEncoder()
+                        .encodeToString(realObjectMapper.writeValueAsBytes(accessTokenResponse)));
+        item.setExpiresAt(expiresAt);
+        item.setRefreshLeaseExpiresAt(refreshLeaseExpiresAt);
+        item.setVersion(version);
+        return item;
+    }
+
+    private AccessTokenResponse decode(String encryptedAccessTokenResponse) throws IOException {
+        return realObjectMapper.readValue(
+                Base64.getDecoder().decode(encryptedAccessTokenResponse),
+                AccessTokenResponse.class);
+    }
+
+    private static AccessTokenResponse accessTokenResponse(String accessToken) {
+        return AccessTokenResponse.builder()
+                .accessToken(accessToken)
+                .tokenType("Bearer")
+                .expiresIn(1800)
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package uk.gov.di.ipv.cri.passport.library.dvad.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import uk.gov.di.ipv.cri.passport.library.domain.Strategy;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadHealthStateItem;
+import uk.gov.di.ipv.cri.passport.library.dvad.persistence.DvadHealthStateStore;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadCircuitBreaker.State;
+import uk.gov.di.ipv.cri.passport.library.dvad.services.SharedDvadHealthState.Snapshot;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.time.Clock;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class, SystemStubsExtension.class})
+class SharedDvadHealthStateTest {
+
+    private static final long READ_TTL_MILLIS = 5000;
+    private static final long OPENED_AT_MILLIS = 1_699_999_990_000L;
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private DvadHealthStateStore mockDvadHealthStateStore;
+    @Mock private Clock mockClock;
+    @Mock private Supplier<DynamoDbEnhancedClient> mockDynamoDbEnhancedClientSupplier;
+
+    @Captor private ArgumentCaptor<DvadHealthStateItem> itemCaptor;
+
+    private long testTimeMillis = 1_700_000_000_000L;
+
+    private SharedDvadHealthState sharedDvadHealthState;
+
+    @BeforeEach
+    void setUp() {
+        sharedDvadHealthState =
+                new SharedDvadHealthState(mockDvadHealthStateStore, READ_TTL_MILLIS, mockClock);
+    }
+
+    @Test
+    void shouldReadTheTableAtMostOncePerReadTtl() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        when(mockDvadHealthStateStore.getItem("LIVE")).thenReturn(openItem(2));
+
+        Snapshot expected = new Snapshot(State.OPEN, OPENED_AT_MILLIS, 2);
+        assertEquals(expected, sharedDvadHealthState.read(Strategy.LIVE));
+
+        testTimeMillis += READ_TTL_MILLIS - 1;
+        assertEquals(expected, sharedDvadHealthState.read(Strategy.LIVE));
+        verify(mockDvadHealthStateStore).getItem("LIVE");
+
+        testTimeMillis += 1;
+        assertEquals(expected, sharedDvadHealthState.read(Strategy.LIVE));
+        verify(mockDvadHealthStateStore, times(2)).getItem("LIVE");
+    }
+
+    @Test
+    void shouldReturnNullWhenNoTransitionHasBeenPublished() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        assertNull(sharedDvadHealthState.read(Strategy.STUB));
+    }
+
+    @Test
+    void shouldReturnTheLastReadStateWhenTheTableCannotBeRead() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        when(mockDvadHealthStateStore.getItem("LIVE"))
+                .thenReturn(openItem(2))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"));
+
+        sharedDvadHealthState.read(Strategy.LIVE);
+        testTimeMillis += READ_TTL_MILLIS;
+
+        assertEquals(
+                new Snapshot(State.OPEN, OPENED_AT_MILLIS, 2),
+                sharedDvadHealthState.read(Strategy.LIVE));
+    }
+
+    @Test
+    void shouldPublishATransitionAndCacheIt() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        when(mockDvadHealthStateStore.putItemIfVersion(any(DvadHealthStateItem.class), eq(2L)))
+                .thenReturn(true);
+
+        assertTrue(sharedDvadHealthState.publish(Strategy.LIVE, State.OPEN, OPENED_AT_MILLIS, 2));
+
+        verify(mockDvadHealthStateStore).putItemIfVersion(itemCaptor.capture(), eq(2L));
+        DvadHealthStateItem item = itemCaptor.getValue();
+        assertEquals("LIVE", item.getStrategy());
+        assertEquals("OPEN", item.getState());
+        assertEquals(OPENED_AT_MILLIS, item.getOpenedAt());
+        assertEquals(testTimeMillis, item.getUpdatedAt());
+
+        assertEquals(
+                new Snapshot(State.OPEN, OPENED_AT_MILLIS, 3),
+                sharedDvadHealthState.read(Strategy.LIVE));
+    }
+
+    @Test
+    void shouldReadTheTableAgainWhenAnotherContainerPublishedFirst() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        when(mockDvadHealthStateStore.getItem("LIVE")).thenReturn(openItem(2), openItem(3));
+        when(mockDvadHealthStateStore.putItemIfVersion(any(DvadHealthStateItem.class), eq(2L)))
+                .thenReturn(false);
+
+        sharedDvadHealthState.read(Strategy.LIVE);
+        assertFalse(sharedDvadHealthState.publish(Strategy.LIVE, State.OPEN, testTimeMillis, 2));
+
+        assertEquals(3, sharedDvadHealthState.read(Strategy.LIVE).version());
+    }
+
+    @Test
+    void shouldNotFailWhenATransitionCannotBePublished() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+        when(mockDvadHealthStateStore.putItemIfVersion(any(DvadHealthStateItem.class), anyLong()))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"));
+
+        assertFalse(sharedDvadHealthState.publish(Strategy.LIVE, State.CLOSED, 0, 0));
+    }
+
+    @Test
+    void shouldNotBeCreatedWhenTheTableNameIsNotSet() {
+        environmentVariables.set(SharedDvadHealthState.TABLE_NAME_ENV, " ");
+
+        assertTrue(
+                SharedDvadHealthState.fromEnvironment(mockDynamoDbEnhancedClientSupplier)
+                        .isEmpty());
+        verifyNoInteractions(mockDynamoDbEnhancedClientSupplier);
+    }
+
+    @Test
+    void shouldBeCreatedWhenTheTableNameIsSet(@Mock DynamoDbEnhancedClient mockClient) {
+        environmentVariables.set(SharedDvadHealthState.TABLE_NAME_ENV, "dvad-health-state");
+        environmentVariables.set(SharedDvadHealthState.READ_TTL_SECONDS_ENV, "2");
+        when(mockDynamoDbEnhancedClientSupplier.get()).thenReturn(mockClient);
+
+        assertTrue(
+                SharedDvadHealthState.fromEnvironment(mockDynamoDbEnhancedClientSupplier)
+                        .isPresent());
+        verify(mockClient).table(eq("dvad-health-state"), any());
+    }
+
+    @Test
+    void shouldReadTheReadTtlInRange() {
+        assertEquals(2, SharedDvadHealthState.parseReadTtlSeconds(" 2 "));
+        assertEquals(0, SharedDvadHealthState.parseReadTtlSeconds("0"));
+        assertEquals(3600, SharedDvadHealthState.parseReadTtlSeconds("3600"));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "five", "5s", "-1", "3601", "99999999999999999999"})
+    void shouldUseTheDefaultReadTtlWhenNotSetOrInvalid(String readTtl) {
+        assertEquals(5, SharedDvadHealthState.parseReadTtlSeconds(readTtl));
+    }
+
+    private static DvadHealthStateItem openItem(long version) {
+        DvadHealthStateItem item = new DvadHealthStateItem();
+        item.setStrategy("LIVE");
+        item.setState("OPEN");
+        item.setOpenedAt(OPENED_AT_MILLIS);
+        item.setVersion(version);
+        return item;
+    }
+}
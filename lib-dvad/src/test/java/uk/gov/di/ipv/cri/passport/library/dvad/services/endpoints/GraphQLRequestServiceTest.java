@@ -9,6 +9,7 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +29,7 @@ import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.dvad.util.responses.DVADResponseFixtures;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 
 import java.io.IOException;
@@ -42,10 +44,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_REQUEST_CREATED;
@@ -63,6 +67,7 @@ class GraphQLRequestServiceTest {
     @Mock private RequestConfig mockRequestConfig;
     @Mock private CloseableHttpClient mockCloseableHttpClient;
     @Mock private EventProbe mockEventProbe;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
 
     // Used in most tests
     private ObjectMapper realObjectMapper;
@@ -83,7 +88,8 @@ class GraphQLRequestServiceTest {
                         mockCloseableHttpClient,
                         mockRequestConfig,
                         realObjectMapper,
-                        mockEventProbe);
+                        mockEventProbe,
+                        mockLatencyHistograms);
 
         // Mock Parameter store fetches in DvadAPIHeaderValues
         Map<String, String> testParameterMap =
@@ -119,7 +125,7 @@ class GraphQLRequestServiceTest {
                 DVADResponseFixtures.mockGraphQLAPIResponse(200, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(graphQLAPIResponse);
 
         // Method args
@@ -144,7 +150,7 @@ class GraphQLRequestServiceTest {
         InOrder inOrderMockCloseableHttpClient = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClient
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbe = inOrder(mockEventProbe);
@@ -157,6 +163,7 @@ class GraphQLRequestServiceTest {
         inOrderMockEventProbe
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbe
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -182,7 +189,8 @@ class GraphQLRequestServiceTest {
                         mockCloseableHttpClient,
                         mockRequestConfig,
                         spyObjectMapper,
-                        mockEventProbe);
+                        mockEventProbe,
+                        mockLatencyHistograms);
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -228,7 +236,9 @@ class GraphQLRequestServiceTest {
             throws IOException {
         Exception exceptionCaught = new IOException("GraphQl Endpoint Timed out");
 
-        doThrow(exceptionCaught).when(mockCloseableHttpClient).execute(any(HttpPost.class));
+        doThrow(exceptionCaught)
+                .when(mockCloseableHttpClient)
+                .execute(any(HttpPost.class), any(HttpContext.class));
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -261,7 +271,7 @@ class GraphQLRequestServiceTest {
         InOrder inOrderMockHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -271,6 +281,7 @@ class GraphQLRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -293,7 +304,7 @@ class GraphQLRequestServiceTest {
                 DVADResponseFixtures.mockGraphQLAPIResponse(500, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(graphQLAPIResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -327,7 +338,7 @@ class GraphQLRequestServiceTest {
         InOrder inOrderMockHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -340,6 +351,7 @@ class GraphQLRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -361,7 +373,7 @@ class GraphQLRequestServiceTest {
                 DVADResponseFixtures.mockGraphQLAPIResponse(200, false);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(graphQLAPIResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -395,7 +407,7 @@ class GraphQLRequestServiceTest {
         InOrder inOrderMockHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -408,6 +420,7 @@ class GraphQLRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -7,6 +7,7 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +23,7 @@ import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.dvad.util.responses.DVADResponseFixtures;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 
 import java.io.IOException;
@@ -37,10 +39,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_REQUEST_CREATED;
@@ -62,6 +66,7 @@ class HealthCheckServiceTest {
     @Mock private RequestConfig mockRequestConfig;
     private ObjectMapper realObjectMapper;
     @Mock private EventProbe mockEventProbe;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
 
     private HealthCheckService healthCheckService;
 
@@ -79,7 +84,8 @@ class HealthCheckServiceTest {
                         mockCloseableHttpClient,
                         mockRequestConfig,
                         realObjectMapper,
-                        mockEventProbe);
+                        mockEventProbe,
+                        mockLatencyHistograms);
 
         // Mock Parameter store fetches in DvadAPIHeaderValues
         Map<String, String> testParameterMap =
@@ -119,7 +125,7 @@ class HealthCheckServiceTest {
                 DVADResponseFixtures.mockHealthCheckResponse(200, apiStatus, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(healthCheckResponse);
 
         boolean apiIsUp = healthCheckService.checkRemoteApiIsUp(realDvadAPIHeaderValues);
@@ -128,7 +134,7 @@ class HealthCheckServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpGet.class));
+                .execute(any(HttpGet.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -141,6 +147,7 @@ class HealthCheckServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_HEALTH_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVAD_HEALTH_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -175,7 +182,7 @@ class HealthCheckServiceTest {
                 DVADResponseFixtures.mockHealthCheckResponse(500, true, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(healthCheckResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -186,7 +193,7 @@ class HealthCheckServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpGet.class));
+                .execute(any(HttpGet.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -199,6 +206,7 @@ class HealthCheckServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_HEALTH_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -219,7 +227,7 @@ class HealthCheckServiceTest {
                 DVADResponseFixtures.mockHealthCheckResponse(200, true, false);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(healthCheckResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -239,7 +247,7 @@ class HealthCheckServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpGet.class));
+                .execute(any(HttpGet.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -252,6 +260,7 @@ class HealthCheckServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_HEALTH_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVAD_HEALTH_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -271,7 +280,9 @@ class HealthCheckServiceTest {
 
         Exception exceptionCaught = new IOException("Health Endpoint Timed out");
 
-        doThrow(exceptionCaught).when(mockCloseableHttpClient).execute(any(HttpGet.class));
+        doThrow(exceptionCaught)
+                .when(mockCloseableHttpClient)
+                .execute(any(HttpGet.class), any(HttpContext.class));
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -288,7 +299,7 @@ class HealthCheckServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpGet.class));
+                .execute(any(HttpGet.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -298,6 +309,7 @@ class HealthCheckServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_HEALTH_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_HEALTH_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
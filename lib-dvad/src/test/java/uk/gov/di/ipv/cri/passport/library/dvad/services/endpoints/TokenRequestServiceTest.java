@@ -8,6 +8,7 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +25,7 @@ import uk.gov.di.ipv.cri.passport.library.dvad.services.DvadAPIHeaderValues;
 import uk.gov.di.ipv.cri.passport.library.dvad.util.responses.DVADResponseFixtures;
 import uk.gov.di.ipv.cri.passport.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
 
 import java.io.IOException;
@@ -39,10 +41,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.passport.library.dvad.services.endpoints.TokenRequestService.ACCESS_TOKEN_EXPIRATION_WINDOW_SECONDS;
@@ -67,6 +71,7 @@ class TokenRequestServiceTest {
     @Mock private CloseableHttpClient mockCloseableHttpClient;
     private ObjectMapper realObjectMapper;
     @Mock private EventProbe mockEventProbe;
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
 
     private TokenRequestService tokenRequestService;
 
@@ -84,7 +89,8 @@ class TokenRequestServiceTest {
                         mockCloseableHttpClient,
                         mockRequestConfig,
                         realObjectMapper,
-                        mockEventProbe);
+                        mockEventProbe,
+                        mockLatencyHistograms);
 
         // Mock Parameter store fetches in DvadAPIHeaderValues
         Map<String, String> testParameterMap =
@@ -121,7 +127,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(200, "Bearer", 1800, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -133,7 +139,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -146,6 +152,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVAD_TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -169,7 +176,9 @@ class TokenRequestServiceTest {
 
         Exception exceptionCaught = new IOException("Token Endpoint Timed out");
 
-        doThrow(exceptionCaught).when(mockCloseableHttpClient).execute(any(HttpPost.class));
+        doThrow(exceptionCaught)
+                .when(mockCloseableHttpClient)
+                .execute(any(HttpPost.class), any(HttpContext.class));
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -186,7 +195,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -196,6 +205,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -217,7 +227,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(501, "Bearer", 1800, false);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -237,7 +247,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -250,6 +260,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(
@@ -270,7 +281,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(200, "Bearer", 1800, false);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -290,7 +301,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -303,6 +314,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVAD_TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -331,7 +343,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(200, tokenType, expiresIn, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -351,7 +363,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -364,6 +376,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVAD_TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -387,7 +400,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(200, "Bearer", 1800, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse);
 
         String requestId = UUID.randomUUID().toString();
@@ -406,7 +419,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(1))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         // Times 1 here is more important - token is cached
@@ -420,6 +433,7 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(eq(DVAD_TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        verify(mockLatencyHistograms).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVAD_TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -447,7 +461,7 @@ class TokenRequestServiceTest {
                 DVADResponseFixtures.mockTokenResponse(200, "Bearer", 1800, true);
 
         // HttpClient response
-        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture()))
+        when(mockCloseableHttpClient.execute(httpRequestCaptor.capture(), any(HttpContext.class)))
                 .thenReturn(tokenResponse1)
                 .thenReturn(tokenResponse2);
 
@@ -467,7 +481,7 @@ class TokenRequestServiceTest {
         InOrder inOrderMockCloseableHttpClientSequence = inOrder(mockCloseableHttpClient);
         inOrderMockCloseableHttpClientSequence
                 .verify(mockCloseableHttpClient, times(2))
-                .execute(any(HttpPost.class));
+                .execute(any(HttpPost.class), any(HttpContext.class));
         verifyNoMoreInteractions(mockCloseableHttpClient);
 
         // Times 1 here is more important - token is cached
@@ -505,6 +519,8 @@ class TokenRequestServiceTest {
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVAD_TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
         verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockLatencyHistograms, times(2)).record(eq(DVAD_TOKEN_RESPONSE_LATENCY), anyLong());
     }
 
     private void assertTokenHeaders(
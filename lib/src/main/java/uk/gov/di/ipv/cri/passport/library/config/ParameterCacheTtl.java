@@ -0,0 +1,63 @@
+package uk.gov.di.ipv.cri.passport.library.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.CONTRAINDICATION_MAPPINGS;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TTL_PARAMETER;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_GRAPHQL;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_HEALTH;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_TOKEN;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_ENDPOINT_URL;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_HEADER_PARAMETER_PATH;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_GRAPHQL_QUERY_STRING;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_HTTP_CLIENT_PARAMETER_PATH;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.TEST_STRATEGY_HMPO_API_ENDPOINT_URL;
+
+/**
+ * How long a cached parameter is served before it is refreshed in the background. Values past
+ * their ttl are still served until the refresh completes.
+ */
+public enum ParameterCacheTtl {
+    // Set at deploy time (table names, endpoints, queries)
+    STATIC(Duration.ofMinutes(30)),
+    // Credentials that are rotated while the lambda is running (api keys, tls keys/certs)
+    ROTATING_SECRET(Duration.ofMinutes(5)),
+    // Values operations may change to alter behaviour
+    TUNABLE(Duration.ofMinutes(1));
+
+    private static final Map<String, ParameterCacheTtl> PARAMETER_TTLS =
+            Map.ofEntries(
+                    Map.entry(CONTRAINDICATION_MAPPINGS, TUNABLE),
+                    Map.entry(DOCUMENT_CHECK_RESULT_TABLE_NAME, STATIC),
+                    Map.entry(DOCUMENT_CHECK_RESULT_TTL_PARAMETER, TUNABLE),
+                    Map.entry(HMPO_GRAPHQL_QUERY_STRING, STATIC),
+                    Map.entry(TEST_STRATEGY_HMPO_API_ENDPOINT_URL, STATIC),
+                    Map.entry(HMPO_API_ENDPOINT_URL, STATIC),
+                    Map.entry(HMPO_API_ENDPOINT_HEALTH, STATIC),
+                    Map.entry(HMPO_API_ENDPOINT_TOKEN, STATIC),
+                    Map.entry(HMPO_API_ENDPOINT_GRAPHQL, STATIC),
+                    Map.entry(HMPO_API_HEADER_PARAMETER_PATH, ROTATING_SECRET),
+                    Map.entry(HMPO_HTTP_CLIENT_PARAMETER_PATH, ROTATING_SECRET),
+                    Map.entry(MAX_JWT_TTL_UNIT, TUNABLE));
+
+    private final long ttlMillis;
+
+    ParameterCacheTtl(Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * @param parameterName unprefixed parameter name or path
+     * @return the ttl of a known parameter, TUNABLE for any other
+     */
+    public static ParameterCacheTtl forParameter(String parameterName) {
+        return PARAMETER_TTLS.getOrDefault(parameterName, TUNABLE);
+    }
+}
@@ -10,6 +10,9 @@ public class ParameterStoreParameters {
     public static final String DOCUMENT_CHECK_RESULT_TTL_PARAMETER =
             "SessionTtl"; // Linked to Common SessionTTL
 
+    // All HMPO DVAD parameters (endpoints, headers, http client, query)
+    public static final String HMPO_DVAD_PARAMETER_PATH = "HMPODVAD";
+
     public static final String HMPO_GRAPHQL_QUERY_STRING =
             "HMPODVAD/API/GraphQl/QueryString"; // Non-public
 
@@ -0,0 +1,146 @@
+package uk.gov.di.ipv.cri.passport.library.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable copy of the parameters a lambda reads, keyed by full parameter name. Loaded once
+ * during function init (see PassportConfigSnapshotLoader) and replaced as a whole when refreshed.
+ *
+ * <p>SecureString values are held decrypted, so they are only returned to lookups made with
+ * decryption - a lookup without it gets null and fetches the parameter as it did before.
+ */
+public final class PassportConfigSnapshot {
+
+    public static final PassportConfigSnapshot EMPTY =
+            new PassportConfigSnapshot(Map.of(), Map.of(), Set.of(), List.of(), 0, 0);
+
+    private final Map<String, String> values;
+    private final Map<String, Long> versions;
+    private final Set<String> secureStringNames;
+    private final List<String> paths;
+
+    private final long loadedAtMillis;
+    private final long loadDurationMs;
+
+    /**
+     * @param values parameter values by full parameter name
+     * @param versions parameter versions by full parameter name
+     * @param secureStringNames full names of the SecureString parameters (values decrypted)
+     * @param paths paths all parameters were loaded from (recursively)
+     * @param loadedAtMillis epoch millis the snapshot was loaded at
+     * @param loadDurationMs time taken to fetch all parameters
+     */
+    public PassportConfigSnapshot(
+            Map<String, String> values,
+            Map<String, Long> versions,
+            Set<String> secureStringNames,
+            List<String> paths,
+            long loadedAtMillis,
+            long loadDurationMs) {
+        this.values = Map.copyOf(values);
+        this.versions = Map.copyOf(versions);
+        this.secureStringNames = Set.copyOf(secureStringNames);
+        this.paths = List.copyOf(paths);
+        this.loadedAtMillis = loadedAtMillis;
+        this.loadDurationMs = loadDurationMs;
+    }
+
+    /** The same parameters, checked as unchanged at loadedAtMillis. */
+    public PassportConfigSnapshot withLoadedAt(long loadedAtMillis, long loadDurationMs) {
+        return new PassportConfigSnapshot(
+                values, versions, secureStringNames, paths, loadedAtMillis, loadDurationMs);
+    }
+
+    /**
+     * @param name full parameter name
+     * @param withDecryption the lookup decrypts SecureString parameters
+     * @return the value or null if the parameter is not in this snapshot (or is a SecureString and
+     *     the lookup does not decrypt)
+     */
+    public String getValue(String name, boolean withDecryption) {
+        if (!withDecryption && secureStringNames.contains(name)) {
+            return null;
+        }
+
+        return values.get(name);
+    }
+
+    /**
+     * Parameters under a path, keyed as SSMProvider getMultiple does (name relative to the path).
+     *
+     * @param path full path
+     * @param recursive include parameters in sub paths
+     * @param withDecryption the lookup decrypts SecureString parameters
+     * @return the parameters or null if the path was not loaded into this snapshot (or holds a
+     *     SecureString and the lookup does not decrypt)
+     */
+    public Map<String, String> getValuesByPath(
+            String path, boolean recursive, boolean withDecryption) {
+        if (!containsPath(path)) {
+            return null;
+        }
+
+        final String pathPrefix = path + "/";
+
+        Map<String, String> pathValues = new HashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getKey().startsWith(pathPrefix)) {
+                continue;
+            }
+
+            String relativeName = entry.getKey().substring(pathPrefix.length());
+            if (recursive || relativeName.indexOf('/') == -1) {
+                if (!withDecryption && secureStringNames.contains(entry.getKey())) {
+                    return null;
+                }
+
+                pathValues.put(relativeName, entry.getValue());
+            }
+        }
+
+        return pathValues;
+    }
+
+    /** True if both snapshots hold the same versions of the same parameters. */
+    public boolean hasSameVersions(PassportConfigSnapshot other) {
+        return hasVersions(other.versions);
+    }
+
+    /** True if the versions (by full parameter name) are those of this snapshot. */
+    public boolean hasVersions(Map<String, Long> otherVersions) {
+        return Objects.equals(versions, otherVersions);
+    }
+
+    /**
+     * @param name full parameter name
+     * @return the version or null if the parameter is not in this snapshot
+     */
+    public Long getVersion(String name) {
+        return versions.get(name);
+    }
+
+    public int getParameterCount() {
+        return values.size();
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public long getLoadDurationMs() {
+        return loadDurationMs;
+    }
+
+    private boolean containsPath(String path) {
+        for (String loadedPath : paths) {
+            if (path.equals(loadedPath) || path.startsWith(loadedPath + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package uk.gov.di.ipv.cri.passport.library.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parameters loaded into a PassportConfigSnapshot. Names are unprefixed, as used with the
+ * matching ParameterStoreService get methods.
+ */
+public record PassportConfigSnapshotSpec(
+        List<String> parameterPaths,
+        List<String> parameters,
+        List<String> stackParameters,
+        List<String> commonParameters) {
+
+    public static PassportConfigSnapshotSpecBuilder builder() {
+        return new PassportConfigSnapshotSpecBuilder();
+    }
+
+    public static class PassportConfigSnapshotSpecBuilder {
+        private final List<String> parameterPaths = new ArrayList<>();
+        private final List<String> parameters = new ArrayList<>();
+        private final List<String> stackParameters = new ArrayList<>();
+        private final List<String> commonParameters = new ArrayList<>();
+
+        private PassportConfigSnapshotSpecBuilder() {
+            // Intended
+        }
+
+        /**
+         * All parameters (recursive) under a prefixed path. Loaded decrypted, SecureString values
+         * are only returned to lookups with decryption.
+         */
+        public PassportConfigSnapshotSpecBuilder parameterPath(String parameterPath) {
+            this.parameterPaths.add(parameterPath);
+            return this;
+        }
+
+        public PassportConfigSnapshotSpecBuilder parameter(String parameter) {
+            this.parameters.add(parameter);
+            return this;
+        }
+
+        public PassportConfigSnapshotSpecBuilder stackParameter(String stackParameter) {
+            this.stackParameters.add(stackParameter);
+            return this;
+        }
+
+        public PassportConfigSnapshotSpecBuilder commonParameter(String commonParameter) {
+            this.commonParameters.add(commonParameter);
+            return this;
+        }
+
+        public PassportConfigSnapshotSpec build() {
+            return new PassportConfigSnapshotSpec(
+                    List.copyOf(parameterPaths),
+                    List.copyOf(parameters),
+                    List.copyOf(stackParameters),
+                    List.copyOf(commonParameters));
+        }
+    }
+}
@@ -3,11 +3,22 @@ package uk.gov.di.ipv.cri.passport.library.domain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.passport.library.util.JsonStreamingHelper;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -15,8 +26,13 @@ import java.util.UUID;
 
 @DynamoDbBean
 @ExcludeFromGeneratedCoverageReport
+// (De)serialized without reflection, keep the nested classes in step with the properties
+@JsonSerialize(using = PassportFormData.PassportFormDataSerializer.class)
+@JsonDeserialize(using = PassportFormData.PassportFormDataDeserializer.class)
 public class PassportFormData {
     private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(DATE_FORMAT);
     private static final String TIMESTAMP_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
     private static final String TIME_ZONE = "UTC";
@@ -168,4 +184,143 @@ public class PassportFormData {
                 + expiryDate
                 + '}';
     }
+
+    // Properties in the order of the bean serializer, creator properties first
+    static class PassportFormDataSerializer extends StdSerializer<PassportFormData> {
+
+        PassportFormDataSerializer() {
+            super(PassportFormData.class);
+        }
+
+        @Override
+        public void serialize(
+                PassportFormData value, JsonGenerator jsonGenerator, SerializerProvider provider)
+                throws IOException {
+            jsonGenerator.writeStartObject(value);
+            jsonGenerator.writeStringField("passportNumber", value.passportNumber);
+            jsonGenerator.writeStringField("surname", value.surname);
+            JsonStreamingHelper.writeStringListField(jsonGenerator, "forenames", value.forenames);
+            JsonStreamingHelper.writeLocalDateField(
+                    jsonGenerator, "dateOfBirth", value.dateOfBirth, DATE_FORMATTER);
+            JsonStreamingHelper.writeLocalDateField(
+                    jsonGenerator, "expiryDate", value.expiryDate, DATE_FORMATTER);
+            JsonStreamingHelper.writeUUIDField(jsonGenerator, "correlationId", value.correlationId);
+            JsonStreamingHelper.writeUUIDField(jsonGenerator, "requestId", value.requestId);
+            jsonGenerator.writeStringField("timestamp", value.timestamp);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    // Creates with the @JsonCreator constructor then sets any other properties given
+    static class PassportFormDataDeserializer extends StdDeserializer<PassportFormData> {
+
+        PassportFormDataDeserializer() {
+            super(PassportFormData.class);
+        }
+
+        @Override
+        public PassportFormData deserialize(
+                JsonParser jsonParser, DeserializationContext context) throws IOException {
+            if (!JsonStreamingHelper.isAtObject(jsonParser)) {
+                return (PassportFormData)
+                        context.handleUnexpectedToken(PassportFormData.class, jsonParser);
+            }
+
+            String passportNumber = null;
+            String surname = null;
+            List<String> forenames = null;
+            LocalDate dateOfBirth = null;
+            LocalDate expiryDate = null;
+            boolean hasPassportNumber = false;
+            boolean hasSurname = false;
+            boolean hasForenames = false;
+            boolean hasDateOfBirth = false;
+            boolean hasExpiryDate = false;
+
+            UUID correlationId = null;
+            UUID requestId = null;
+            String timestamp = null;
+            boolean hasCorrelationId = false;
+            boolean hasRequestId = false;
+            boolean hasTimestamp = false;
+
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                switch (name) {
+                    case "passportNumber" -> {
+                        passportNumber = JsonStreamingHelper.readString(jsonParser, context);
+                        hasPassportNumber = true;
+                    }
+                    case "surname" -> {
+                        surname = JsonStreamingHelper.readString(jsonParser, context);
+                        hasSurname = true;
+                    }
+                    case "forenames" -> {
+                        forenames = JsonStreamingHelper.readStringList(jsonParser, context, true);
+                        hasForenames = true;
+                    }
+                    case "dateOfBirth" -> {
+                        dateOfBirth =
+                                JsonStreamingHelper.readLocalDate(
+                                        jsonParser, context, DATE_FORMATTER);
+                        hasDateOfBirth = true;
+                    }
+                    case "expiryDate" -> {
+                        expiryDate =
+                                JsonStreamingHelper.readLocalDate(
+                                        jsonParser, context, DATE_FORMATTER);
+                        hasExpiryDate = true;
+                    }
+                    case "correlationId" -> {
+                        correlationId = JsonStreamingHelper.readUUID(jsonParser, context);
+                        hasCorrelationId = true;
+                    }
+                    case "requestId" -> {
+                        requestId = JsonStreamingHelper.readUUID(jsonParser, context);
+                        hasRequestId = true;
+                    }
+                    case "timestamp" -> {
+                        timestamp = JsonStreamingHelper.readString(jsonParser, context);
+                        hasTimestamp = true;
+                    }
+                    default -> context.handleUnknownProperty(
+                            jsonParser, this, PassportFormData.class, name);
+                }
+            }
+
+            if (!hasPassportNumber) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, PassportFormData.class, "passportNumber");
+            } else if (!hasSurname) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, PassportFormData.class, "surname");
+            } else if (!hasForenames) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, PassportFormData.class, "forenames");
+            } else if (!hasDateOfBirth) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, PassportFormData.class, "dateOfBirth");
+            } else if (!hasExpiryDate) {
+                return JsonStreamingHelper.reportMissingProperty(
+                        context, PassportFormData.class, "expiryDate");
+            }
+
+            PassportFormData passportFormData =
+                    new PassportFormData(
+                            passportNumber, surname, forenames, dateOfBirth, expiryDate);
+            if (hasCorrelationId) {
+                passportFormData.correlationId = correlationId;
+            }
+            if (hasRequestId) {
+                passportFormData.requestId = requestId;
+            }
+            if (hasTimestamp) {
+                passportFormData.timestamp = timestamp;
+            }
+
+            return passportFormData;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Times DNS resolution for new connections. The resolver is not given the request context, so the
+ * duration is held for the connecting thread until ConnectionTimingSSLConnectionSocketFactory
+ * (called next on the same thread) takes it.
+ */
+public class ConnectionTimingDnsResolver implements DnsResolver {
+
+    private final DnsResolver dnsResolver;
+
+    private final ThreadLocal<Long> lastResolveNanos = new ThreadLocal<>();
+
+    public ConnectionTimingDnsResolver() {
+        this(SystemDefaultDnsResolver.INSTANCE);
+    }
+
+    ConnectionTimingDnsResolver(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long startNanos = System.nanoTime();
+
+        InetAddress[] addresses = dnsResolver.resolve(host);
+
+        lastResolveNanos.set(System.nanoTime() - startNanos);
+
+        return addresses;
+    }
+
+    /** @return the duration of the last resolve on this thread, NOT_SET if none since last taken */
+    long takeLastResolveNanos() {
+        Long resolveNanos = lastResolveNanos.get();
+        lastResolveNanos.remove();
+
+        return resolveNanos == null ? ConnectionTimings.NOT_SET : resolveNanos;
+    }
+}
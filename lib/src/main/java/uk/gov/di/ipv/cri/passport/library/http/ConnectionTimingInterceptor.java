@@ -0,0 +1,243 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.jfr.DvadEndpointCallEvent;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationIoLedger;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static uk.gov.di.ipv.cri.passport.library.http.ConnectionTimings.NOT_SET;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_BODY_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_FIRST_BYTE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_CONNECT_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_DNS_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_HANDSHAKE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_SESSION_NEW;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_SESSION_RESUMED;
+
+/**
+ * Marks the start of a request and the arrival of the response headers in the ConnectionTimings of
+ * the request. The response body is timed until its stream is closed (HTTPReplyHelper reads then
+ * closes it), after which every phase is recorded against the endpoint.
+ *
+ * <p>Each request is counted in the InvocationIoLedger, and while the flight recorder is running
+ * is also a DvadEndpointCallEvent.
+ */
+public class ConnectionTimingInterceptor
+        implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+    static final String CALL_EVENT_ATTRIBUTE = "passport.endpoint-call-event";
+
+    // Ledger service names for requests with and without ConnectionTimings
+    static final String DVAD_SERVICE = "DVAD";
+    static final String HTTP_SERVICE = "HTTP";
+
+    private final ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
+    private final EventProbe eventProbe;
+    private final PassportFlightRecorder flightRecorder;
+    private final InvocationIoLedger ioLedger;
+
+    public ConnectionTimingInterceptor(
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms, EventProbe eventProbe) {
+        this(
+                latencyHistograms,
+                eventProbe,
+                PassportFlightRecorder.getInstance(),
+                InvocationIoLedger.getInstance());
+    }
+
+    ConnectionTimingInterceptor(
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms,
+            EventProbe eventProbe,
+            PassportFlightRecorder flightRecorder,
+            InvocationIoLedger ioLedger) {
+        this.latencyHistograms = latencyHistograms;
+        this.eventProbe = eventProbe;
+        this.flightRecorder = flightRecorder;
+        this.ioLedger = ioLedger;
+    }
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+
+        if (connectionTimings == null) {
+            ioLedger.recordCall(HTTP_SERVICE, request.getRequestLine().getMethod());
+            return;
+        }
+
+        ioLedger.recordCall(DVAD_SERVICE, connectionTimings.getEndpoint().name());
+
+        connectionTimings.requestStarted(System.nanoTime());
+
+        if (flightRecorder.isRecording()) {
+            DvadEndpointCallEvent callEvent =
+                    new DvadEndpointCallEvent(connectionTimings.getEndpoint().name());
+
+            if (request instanceof HttpEntityEnclosingRequest entityEnclosingRequest
+                    && entityEnclosingRequest.getEntity() != null) {
+                callEvent.setRequestBytes(entityEnclosingRequest.getEntity().getContentLength());
+            }
+
+            callEvent.begin();
+            context.setAttribute(CALL_EVENT_ATTRIBUTE, callEvent);
+        }
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+
+        if (connectionTimings == null) {
+            return;
+        }
+
+        connectionTimings.responseHeadersReceived(System.nanoTime());
+
+        DvadEndpointCallEvent callEvent =
+                (DvadEndpointCallEvent) context.getAttribute(CALL_EVENT_ATTRIBUTE);
+
+        if (callEvent != null) {
+            callEvent.setStatusCode(response.getStatusLine().getStatusCode());
+        }
+
+        HttpEntity entity = response.getEntity();
+
+        if (entity == null) {
+            record(connectionTimings, callEvent);
+        } else {
+            response.setEntity(
+                    new BodyTimingEntity(
+                            entity,
+                            connectionTimings,
+                            timings -> record(timings, callEvent)));
+        }
+    }
+
+    private void record(ConnectionTimings connectionTimings, DvadEndpointCallEvent callEvent) {
+        ThirdPartyAPIMetricEndpointPrefix endpoint = connectionTimings.getEndpoint();
+
+        recordIfSet(endpoint, CONNECTION_DNS_LATENCY, connectionTimings.getDnsNanos());
+        recordIfSet(endpoint, CONNECTION_CONNECT_LATENCY, connectionTimings.getConnectNanos());
+        recordIfSet(
+                endpoint,
+                CONNECTION_TLS_HANDSHAKE_LATENCY,
+                connectionTimings.getTlsHandshakeNanos());
+        recordIfSet(
+                endpoint, API_RESPONSE_FIRST_BYTE_LATENCY, connectionTimings.getFirstByteNanos());
+        recordIfSet(endpoint, API_RESPONSE_BODY_LATENCY, connectionTimings.getBodyNanos());
+
+        Boolean tlsSessionResumed = connectionTimings.getTlsSessionResumed();
+
+        if (tlsSessionResumed != null) {
+            ThirdPartyAPIEndpointMetricType sessionMetricType =
+                    Boolean.TRUE.equals(tlsSessionResumed)
+                            ? CONNECTION_TLS_SESSION_RESUMED
+                            : CONNECTION_TLS_SESSION_NEW;
+
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.of(endpoint, sessionMetricType)
+                            .withEndpointPrefix());
+        }
+
+        if (callEvent != null) {
+            callEvent.setNewConnection(connectionTimings.getConnectNanos() != NOT_SET);
+            callEvent.setTlsSessionResumed(Boolean.TRUE.equals(tlsSessionResumed));
+            callEvent.setResponseBytes(Math.max(connectionTimings.getBodyBytes(), 0));
+            callEvent.commit();
+        }
+    }
+
+    private void recordIfSet(
+            ThirdPartyAPIMetricEndpointPrefix endpoint,
+            ThirdPartyAPIEndpointMetricType metricType,
+            long nanos) {
+        if (nanos != NOT_SET) {
+            latencyHistograms.record(
+                    ThirdPartyAPIEndpointMetric.of(endpoint, metricType),
+                    TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /** Times the response body until its content stream is closed or it has been written out. */
+    private static final class BodyTimingEntity extends HttpEntityWrapper {
+
+        private final ConnectionTimings connectionTimings;
+        private final Consumer<ConnectionTimings> onBodyRead;
+        private final AtomicBoolean bodyRead = new AtomicBoolean();
+
+        BodyTimingEntity(
+                HttpEntity entity,
+                ConnectionTimings connectionTimings,
+                Consumer<ConnectionTimings> onBodyRead) {
+            super(entity);
+            this.connectionTimings = connectionTimings;
+            this.onBodyRead = onBodyRead;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                private long bytesRead;
+
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    bytesRead += read == -1 ? 0 : 1;
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    bytesRead += Math.max(read, 0);
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        bodyRead(bytesRead);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try {
+                super.writeTo(outStream);
+            } finally {
+                bodyRead(getContentLength());
+            }
+        }
+
+        private void bodyRead(long bytes) {
+            if (bodyRead.compareAndSet(false, true)) {
+                connectionTimings.responseBodyRead(System.nanoTime(), bytes);
+                onBodyRead.accept(connectionTimings);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * SSLConnectionSocketFactory that records the DNS, TCP connect and TLS handshake time of new
+ * connections into the ConnectionTimings of the request.
+ *
+ * <p>Extended rather than wrapped, as the handshake happens in createLayeredSocket which
+ * SSLConnectionSocketFactory calls on itself from connectSocket.
+ */
+public class ConnectionTimingSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+    private final ConnectionTimingDnsResolver dnsResolver;
+
+    public ConnectionTimingSSLConnectionSocketFactory(
+            SSLContext sslContext, ConnectionTimingDnsResolver dnsResolver) {
+        super(sslContext, getDefaultHostnameVerifier());
+        this.dnsResolver = dnsResolver;
+    }
+
+    @Override
+    public Socket connectSocket(
+            int connectTimeout,
+            Socket socket,
+            HttpHost host,
+            InetSocketAddress remoteAddress,
+            InetSocketAddress localAddress,
+            HttpContext context)
+            throws IOException {
+        long startNanos = System.nanoTime();
+
+        // TCP connect then the TLS handshake (createLayeredSocket)
+        Socket connectedSocket =
+                super.connectSocket(
+                        connectTimeout, socket, host, remoteAddress, localAddress, context);
+
+        long connectedAtNanos = System.nanoTime();
+
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+        long dnsNanos = dnsResolver.takeLastResolveNanos();
+
+        if (connectionTimings != null) {
+            long tlsHandshakeNanos = Math.max(connectionTimings.getTlsHandshakeNanos(), 0);
+
+            connectionTimings.dnsResolved(dnsNanos);
+            connectionTimings.connected(
+                    connectedAtNanos - startNanos - tlsHandshakeNanos, connectedAtNanos);
+        }
+
+        return connectedSocket;
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+            throws IOException {
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        Socket layeredSocket = super.createLayeredSocket(socket, target, port, context);
+
+        long handshakeNanos = System.nanoTime() - startNanos;
+
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+
+        if (connectionTimings != null && layeredSocket instanceof SSLSocket sslSocket) {
+            // A resumed session was created by an earlier handshake
+            boolean sessionResumed = sslSocket.getSession().getCreationTime() < startMillis;
+
+            connectionTimings.tlsHandshakeCompleted(handshakeNanos, sessionResumed);
+        }
+
+        return layeredSocket;
+    }
+}
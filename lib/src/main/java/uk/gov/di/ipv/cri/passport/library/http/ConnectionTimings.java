@@ -0,0 +1,115 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix;
+
+/**
+ * Phase timings of one request made with a client from ApacheHTTPClientFactoryService. Held in the
+ * HttpContext of the request, connection phases (DNS, connect, TLS) are only set when the request
+ * opened a new connection rather than using a pooled one.
+ */
+public class ConnectionTimings {
+
+    static final String CONTEXT_ATTRIBUTE = "passport.connection-timings";
+
+    static final long NOT_SET = -1;
+
+    private final ThirdPartyAPIMetricEndpointPrefix endpoint;
+
+    private long requestStartNanos = NOT_SET;
+    private long connectedAtNanos = NOT_SET;
+    private long responseHeadersAtNanos = NOT_SET;
+
+    private long dnsNanos = NOT_SET;
+    private long connectNanos = NOT_SET;
+    private long tlsHandshakeNanos = NOT_SET;
+    private Boolean tlsSessionResumed;
+    private long firstByteNanos = NOT_SET;
+    private long bodyNanos = NOT_SET;
+    private long bodyBytes = NOT_SET;
+
+    ConnectionTimings(ThirdPartyAPIMetricEndpointPrefix endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param endpoint the endpoint the timings are reported for
+     * @return a context to execute the request with
+     */
+    public static HttpClientContext createContext(ThirdPartyAPIMetricEndpointPrefix endpoint) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(CONTEXT_ATTRIBUTE, new ConnectionTimings(endpoint));
+
+        return context;
+    }
+
+    /** @return the timings of the request, null if it was not executed with createContext */
+    public static ConnectionTimings from(HttpContext context) {
+        return context == null ? null : (ConnectionTimings) context.getAttribute(CONTEXT_ATTRIBUTE);
+    }
+
+    void requestStarted(long nanos) {
+        requestStartNanos = nanos;
+    }
+
+    void dnsResolved(long durationNanos) {
+        dnsNanos = durationNanos;
+    }
+
+    void connected(long durationNanos, long atNanos) {
+        connectNanos = durationNanos;
+        connectedAtNanos = atNanos;
+    }
+
+    void tlsHandshakeCompleted(long durationNanos, boolean sessionResumed) {
+        tlsHandshakeNanos = durationNanos;
+        tlsSessionResumed = sessionResumed;
+    }
+
+    // Measured from the connection being ready, so excludes the connection phases
+    void responseHeadersReceived(long nanos) {
+        long sentAtNanos = Math.max(requestStartNanos, connectedAtNanos);
+
+        responseHeadersAtNanos = nanos;
+        firstByteNanos = sentAtNanos == NOT_SET ? NOT_SET : nanos - sentAtNanos;
+    }
+
+    void responseBodyRead(long nanos, long bytes) {
+        bodyNanos = responseHeadersAtNanos == NOT_SET ? NOT_SET : nanos - responseHeadersAtNanos;
+        bodyBytes = bytes;
+    }
+
+    public ThirdPartyAPIMetricEndpointPrefix getEndpoint() {
+        return endpoint;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsHandshakeNanos() {
+        return tlsHandshakeNanos;
+    }
+
+    /** @return null when no TLS handshake was made for the request */
+    public Boolean getTlsSessionResumed() {
+        return tlsSessionResumed;
+    }
+
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    public long getBodyNanos() {
+        return bodyNanos;
+    }
+
+    public long getBodyBytes() {
+        return bodyBytes;
+    }
+}
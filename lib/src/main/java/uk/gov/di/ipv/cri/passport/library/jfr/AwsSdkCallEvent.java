@@ -0,0 +1,65 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One AWS SDK call including its retries, recorded by AwsSdkCallMetricsInterceptor on the clients
+ * built by ServiceFactory (the SSM parameter reads).
+ */
+@Name("uk.gov.di.ipv.cri.passport.AwsSdkCall")
+@Label("AWS SDK Call")
+@Category("Passport CRI")
+@Description("A call made with an AWS SDK client")
+@Enabled(false)
+@StackTrace(false)
+public class AwsSdkCallEvent extends Event {
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_THROTTLED = "THROTTLED";
+
+    @Label("Service")
+    private String service;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Attempts")
+    private int attempts;
+
+    @Label("Status")
+    private String status;
+
+    @Label("Request Bytes")
+    @DataAmount
+    private long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    private long responseBytes;
+
+    public AwsSdkCallEvent(String service, String operation) {
+        this.service = service;
+        this.operation = operation;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setPayloadBytes(long sent, long received) {
+        this.requestBytes = sent;
+        this.responseBytes = received;
+    }
+}
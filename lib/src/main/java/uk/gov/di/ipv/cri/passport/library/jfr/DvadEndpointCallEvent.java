@@ -0,0 +1,68 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HTTP request to a third party endpoint, from sending the request until its response body has
+ * been read. Recorded by ConnectionTimingInterceptor, so requests that fail without a response are
+ * not included.
+ */
+@Name("uk.gov.di.ipv.cri.passport.DvadEndpointCall")
+@Label("DVAD Endpoint Call")
+@Category("Passport CRI")
+@Description("A request to a DVAD endpoint (health, token or graphql)")
+@Enabled(false)
+@StackTrace(false)
+public class DvadEndpointCallEvent extends Event {
+
+    @Label("Endpoint")
+    private String endpoint;
+
+    @Label("Status Code")
+    private int statusCode;
+
+    @Label("Request Bytes")
+    @DataAmount
+    private long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    private long responseBytes;
+
+    @Label("New Connection")
+    private boolean newConnection;
+
+    @Label("TLS Session Resumed")
+    private boolean tlsSessionResumed;
+
+    public DvadEndpointCallEvent(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public void setRequestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    public void setNewConnection(boolean newConnection) {
+        this.newConnection = newConnection;
+    }
+
+    public void setTlsSessionResumed(boolean tlsSessionResumed) {
+        this.tlsSessionResumed = tlsSessionResumed;
+    }
+}
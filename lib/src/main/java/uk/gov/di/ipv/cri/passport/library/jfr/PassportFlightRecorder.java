@@ -0,0 +1,141 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Java Flight Recorder recording of the passport events, alongside the JDK default
+ * settings (sockets, allocation, GC). The passport events are disabled unless this recording
+ * enables them, so nothing is recorded when JFR_EVENTS_ENABLED is not "true".
+ *
+ * <p>With JFR_DUMP_THRESHOLD_MS set, the recording is dumped to JFR_DUMP_DIRECTORY (default /tmp)
+ * when an invocation takes at least that long. The recording keeps the last two minutes, which
+ * always covers the slow invocation.
+ */
+public class PassportFlightRecorder {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String ENABLED_ENV = "JFR_EVENTS_ENABLED";
+    static final String DUMP_THRESHOLD_ENV = "JFR_DUMP_THRESHOLD_MS";
+    static final String DUMP_DIRECTORY_ENV = "JFR_DUMP_DIRECTORY";
+
+    private static final String DEFAULT_DUMP_DIRECTORY = "/tmp";
+    private static final Duration MAX_RECORDING_AGE = Duration.ofMinutes(2);
+
+    static final List<Class<? extends Event>> PASSPORT_EVENTS =
+            List.of(
+                    PipelineStageEvent.class,
+                    ThirdPartyCheckEvent.class,
+                    DvadEndpointCallEvent.class,
+                    AwsSdkCallEvent.class);
+
+    private static final long NO_DUMP_THRESHOLD = -1;
+
+    // One recording per execution environment
+    private static final PassportFlightRecorder INSTANCE = new PassportFlightRecorder();
+
+    private final Recording recording;
+    private final long dumpThresholdNanos;
+    private final Path dumpDirectory;
+
+    PassportFlightRecorder() {
+        boolean enabled = Boolean.parseBoolean(System.getenv(ENABLED_ENV));
+        String dumpThresholdMillis = System.getenv(DUMP_THRESHOLD_ENV);
+        String dumpDirectoryName = System.getenv(DUMP_DIRECTORY_ENV);
+
+        this.recording = enabled ? startRecording() : null;
+        this.dumpThresholdNanos = parseDumpThresholdNanos(dumpThresholdMillis);
+        this.dumpDirectory =
+                Path.of(dumpDirectoryName == null ? DEFAULT_DUMP_DIRECTORY : dumpDirectoryName);
+    }
+
+    private static long parseDumpThresholdNanos(String dumpThresholdMillis) {
+        if (dumpThresholdMillis == null) {
+            return NO_DUMP_THRESHOLD;
+        }
+
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(dumpThresholdMillis.trim()));
+        } catch (NumberFormatException e) {
+            // Not fatal, the recorder is built with the function and must not stop it starting
+            LOGGER.warn(
+                    "Invalid {} {}, recording not dumped",
+                    DUMP_THRESHOLD_ENV,
+                    dumpThresholdMillis);
+            return NO_DUMP_THRESHOLD;
+        }
+    }
+
+    public static PassportFlightRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Dumps the recording if the invocation took at least the dump threshold.
+     *
+     * @param invocationName used to name the file
+     * @param durationNanos the invocation duration
+     * @return the file written, null if not dumped
+     */
+    public Path dumpIfSlow(String invocationName, long durationNanos) {
+        if (recording == null
+                || dumpThresholdNanos == NO_DUMP_THRESHOLD
+                || durationNanos < dumpThresholdNanos) {
+            return null;
+        }
+
+        Path dumpFile =
+                dumpDirectory.resolve(
+                        String.format("%s-%d.jfr", invocationName, System.currentTimeMillis()));
+
+        try {
+            recording.dump(dumpFile);
+        } catch (IOException e) {
+            LOGGER.warn("Flight recording not dumped - {}", e.getMessage());
+            return null;
+        }
+
+        LOGGER.info(
+                "Invocation {} took {} ms, flight recording dumped to {}",
+                invocationName,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                dumpFile);
+
+        return dumpFile;
+    }
+
+    private static Recording startRecording() {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("passport");
+            recording.setMaxAge(MAX_RECORDING_AGE);
+
+            PASSPORT_EVENTS.forEach(recording::enable);
+
+            recording.start();
+
+            LOGGER.info("Flight recording started");
+
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            // Not fatal, the lambda runs without the recording
+            LOGGER.warn("Flight recording not started - {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A named phase of an invocation, as timed by InvocationTimeline (eg form_parse, ci_mapping). */
+@Name("uk.gov.di.ipv.cri.passport.PipelineStage")
+@Label("Pipeline Stage")
+@Category("Passport CRI")
+@Description("A phase of a passport lambda invocation")
+@Enabled(false)
+@StackTrace(false)
+public class PipelineStageEvent extends Event {
+
+    @Label("Invocation")
+    private String invocation;
+
+    @Label("Stage")
+    private String stage;
+
+    public PipelineStageEvent(String invocation, String stage) {
+        this.invocation = invocation;
+        this.stage = stage;
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One passport check against the third party, spanning its endpoint calls. */
+@Name("uk.gov.di.ipv.cri.passport.ThirdPartyCheck")
+@Label("Third Party Check")
+@Category("Passport CRI")
+@Description("A passport check made with a ThirdPartyAPIService")
+@Enabled(false)
+@StackTrace(false)
+public class ThirdPartyCheckEvent extends Event {
+
+    public static final String STATUS_OK = "OK";
+
+    @Label("Service")
+    private String service;
+
+    @Label("Strategy")
+    private String strategy;
+
+    @Label("Status")
+    @Description("OK or the error response of the failed check")
+    private String status;
+
+    public ThirdPartyCheckEvent(String service, String strategy) {
+        this.service = service;
+        this.strategy = strategy;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,182 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventProbe that holds the counter metrics of an invocation and writes them as one EMF document
+ * when flush() is called at the end of the handler. Values for the same metric name are summed.
+ *
+ * <p>Metrics are published with the same namespace, Service dimension and Count unit as the
+ * powertools metrics logger, so existing metric names and dashboards are unchanged. Metrics with
+ * other dimensions (the InvocationTimeline phases) can be added to the same document.
+ */
+public class AccumulatingEventProbe extends EventProbe {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // CloudWatch limit for the metrics in one EMF document
+    static final int MAX_METRICS_PER_DOCUMENT = 100;
+
+    private static final String SERVICE_DIMENSION = "Service";
+    // The unit EventProbe.counterMetric publishes with
+    private static final String COUNT_UNIT = "Count";
+
+    private final PrintStream emfOutput;
+
+    private final String namespace;
+    private final String service;
+
+    // Insertion ordered, the array is the (mutable) primitive total for the name
+    private final Map<String, double[]> metricTotals = new LinkedHashMap<>();
+    // Written with the first document of the next flush
+    private final List<DimensionedMetrics> dimensionedMetrics = new ArrayList<>();
+
+    private record DimensionedMetrics(
+            Map<String, String> dimensions, Map<String, Double> values, String unit) {}
+
+    public AccumulatingEventProbe() {
+        this(System.out);
+    }
+
+    AccumulatingEventProbe(PrintStream emfOutput) {
+        this.emfOutput = emfOutput;
+
+        this.namespace = System.getenv("POWERTOOLS_METRICS_NAMESPACE");
+        this.service = System.getenv("POWERTOOLS_SERVICE_NAME");
+    }
+
+    @Override
+    public EventProbe counterMetric(String key) {
+        return counterMetric(key, 1d);
+    }
+
+    @Override
+    public synchronized EventProbe counterMetric(String key, double value) {
+        metricTotals.computeIfAbsent(key, name -> new double[1])[0] += value;
+        return this;
+    }
+
+    public synchronized Map<String, Double> getMetricTotals() {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        metricTotals.forEach((name, total) -> totals.put(name, total[0]));
+        return totals;
+    }
+
+    /**
+     * Adds metrics with their own dimensions and unit, written in the same document as the counter
+     * metrics on the next flush. Dimensions with a null value are left out.
+     */
+    public synchronized void putDimensionedMetrics(
+            Map<String, String> dimensions, Map<String, Double> values, String unit) {
+        dimensionedMetrics.add(
+                new DimensionedMetrics(
+                        new LinkedHashMap<>(dimensions), new LinkedHashMap<>(values), unit));
+    }
+
+    /** Writes the metrics recorded since the last flush and clears them. */
+    public synchronized void flush() {
+        if (metricTotals.isEmpty() && dimensionedMetrics.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, double[]>> metrics = new ArrayList<>(metricTotals.entrySet());
+
+        int from = 0;
+        do {
+            int to = Math.min(from + MAX_METRICS_PER_DOCUMENT, metrics.size());
+            writeDocument(metrics.subList(from, to), from == 0 ? dimensionedMetrics : List.of());
+            from = to;
+        } while (from < metrics.size());
+
+        metricTotals.clear();
+        dimensionedMetrics.clear();
+    }
+
+    private void writeDocument(
+            List<Map.Entry<String, double[]>> counterMetrics,
+            List<DimensionedMetrics> otherMetrics) {
+        Map<String, Object> emfDocument = new LinkedHashMap<>();
+        List<Map<String, Object>> directives = new ArrayList<>();
+
+        if (!counterMetrics.isEmpty()) {
+            List<Map<String, String>> metricDefinitions = new ArrayList<>();
+
+            for (Map.Entry<String, double[]> metric : counterMetrics) {
+                metricDefinitions.add(Map.of("Name", metric.getKey(), "Unit", COUNT_UNIT));
+                emfDocument.put(metric.getKey(), metric.getValue()[0]);
+            }
+
+            Map<String, String> dimensions = new LinkedHashMap<>();
+            dimensions.put(SERVICE_DIMENSION, service);
+            addDirective(emfDocument, directives, dimensions, metricDefinitions);
+        }
+
+        for (DimensionedMetrics metrics : otherMetrics) {
+            List<Map<String, String>> metricDefinitions = new ArrayList<>();
+
+            for (Map.Entry<String, Double> metric : metrics.values().entrySet()) {
+                metricDefinitions.add(Map.of("Name", metric.getKey(), "Unit", metrics.unit()));
+                emfDocument.put(metric.getKey(), metric.getValue());
+            }
+
+            addDirective(emfDocument, directives, metrics.dimensions(), metricDefinitions);
+        }
+
+        // Without a namespace (local runs) the document is still written, without the EMF metadata
+        if (namespace != null) {
+            emfDocument.put(
+                    "_aws",
+                    Map.of(
+                            "Timestamp",
+                            System.currentTimeMillis(),
+                            "CloudWatchMetrics",
+                            directives));
+        }
+
+        try {
+            emfOutput.println(OBJECT_MAPPER.writeValueAsString(emfDocument));
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Invocation metrics not written - {}", e.getClass().getSimpleName());
+        }
+    }
+
+    // The dimension values are written as properties of the document, as EMF requires
+    private void addDirective(
+            Map<String, Object> emfDocument,
+            List<Map<String, Object>> directives,
+            Map<String, String> dimensionValues,
+            List<Map<String, String>> metricDefinitions) {
+        List<String> dimensions = new ArrayList<>();
+
+        dimensionValues.forEach(
+                (name, value) -> {
+                    if (value != null) {
+                        emfDocument.put(name, value);
+                        dimensions.add(name);
+                    }
+                });
+
+        if (namespace != null) {
+            directives.add(
+                    Map.of(
+                            "Namespace",
+                            namespace,
+                            "Dimensions",
+                            List.of(dimensions),
+                            "Metrics",
+                            metricDefinitions));
+        }
+    }
+}
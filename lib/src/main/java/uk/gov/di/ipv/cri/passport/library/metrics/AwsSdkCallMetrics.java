@@ -0,0 +1,163 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation metrics for the AWS SDK calls made with the ServiceFactory built clients (SSM),
+ * recorded by AwsSdkCallMetricsInterceptor. As with ThirdPartyAPIEndpointLatencyHistograms,
+ * latencies are held for the life of the execution environment and a summary of each publish
+ * interval is sent as metrics named aws_{service}_{operation}_... (eg
+ * aws_ssm_get_parameter_latency_p99).
+ */
+public class AwsSdkCallMetrics {
+
+    private static final long PUBLISH_INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int[] PUBLISHED_PERCENTILES = {50, 90, 99};
+
+    // Each client has its own interceptor, they all record here
+    private static final AwsSdkCallMetrics INSTANCE = new AwsSdkCallMetrics(Clock.systemUTC());
+
+    private final Map<String, Map<String, OperationMetrics>> operationMetrics =
+            new ConcurrentHashMap<>();
+
+    private final Clock clock;
+    private final AtomicLong nextPublishAtMillis;
+
+    AwsSdkCallMetrics(Clock clock) {
+        this.clock = clock;
+        this.nextPublishAtMillis = new AtomicLong(clock.millis() + PUBLISH_INTERVAL_MILLIS);
+    }
+
+    public static AwsSdkCallMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param service SDK service name (eg DynamoDb)
+     * @param operation SDK operation name (eg GetItem)
+     * @return the metrics for the operation, created on first use
+     */
+    public OperationMetrics forOperation(String service, String operation) {
+        return operationMetrics
+                .computeIfAbsent(service, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(
+                        operation, name -> new OperationMetrics(metricPrefix(service, name)));
+    }
+
+    /**
+     * Publishes the calls recorded since the last publish if the publish interval has passed. Only
+     * one caller publishes for an interval.
+     *
+     * @return true if metrics were published
+     */
+    public boolean publishIfDue(EventProbe eventProbe) {
+        long publishAtMillis = nextPublishAtMillis.get();
+        long nowMillis = clock.millis();
+
+        if (nowMillis < publishAtMillis
+                || !nextPublishAtMillis.compareAndSet(
+                        publishAtMillis, nowMillis + PUBLISH_INTERVAL_MILLIS)) {
+            return false;
+        }
+
+        operationMetrics.values().stream()
+                .flatMap(operations -> operations.values().stream())
+                .forEach(operation -> operation.publish(eventProbe));
+
+        return true;
+    }
+
+    // DynamoDb, GetItem -> aws_dynamodb_get_item
+    static String metricPrefix(String service, String operation) {
+        String snakeCaseOperation = operation.replaceAll("([a-z0-9])([A-Z])", "$1_$2");
+
+        return String.format("aws_%s_%s", service, snakeCaseOperation).toLowerCase(Locale.ROOT);
+    }
+
+    /** Metrics for one SDK operation. */
+    public static final class OperationMetrics {
+
+        private final String metricPrefix;
+
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+
+        private volatile LatencyHistogram.Snapshot publishedLatency;
+
+        OperationMetrics(String metricPrefix) {
+            this.metricPrefix = metricPrefix;
+        }
+
+        public String getMetricPrefix() {
+            return metricPrefix;
+        }
+
+        public void recordLatency(long millis) {
+            latencyHistogram.record(millis);
+        }
+
+        public void recordRetries(int count) {
+            retries.add(count);
+        }
+
+        public void recordThrottled() {
+            throttled.increment();
+        }
+
+        public void recordFailed() {
+            failed.increment();
+        }
+
+        public void recordPayloadBytes(long sent, long received) {
+            requestBytes.add(sent);
+            responseBytes.add(received);
+        }
+
+        public long getLatencyPercentile(double percentile) {
+            return latencyHistogram.snapshot().getValueAtPercentile(percentile);
+        }
+
+        private void publish(EventProbe eventProbe) {
+            LatencyHistogram.Snapshot snapshot = latencyHistogram.snapshot();
+            LatencyHistogram.Snapshot previous = publishedLatency;
+            publishedLatency = snapshot;
+
+            LatencyHistogram.Snapshot interval =
+                    previous == null ? snapshot : snapshot.since(previous);
+
+            if (interval.getTotalCount() == 0) {
+                return;
+            }
+
+            eventProbe.counterMetric(metricPrefix + "_calls", interval.getTotalCount());
+
+            for (int percentile : PUBLISHED_PERCENTILES) {
+                eventProbe.counterMetric(
+                        metricPrefix + "_latency_p" + percentile,
+                        interval.getValueAtPercentile(percentile));
+            }
+
+            eventProbe.counterMetric(
+                    metricPrefix + "_latency_max", interval.getValueAtPercentile(100));
+
+            eventProbe.counterMetric(metricPrefix + "_retries", retries.sumThenReset());
+            eventProbe.counterMetric(metricPrefix + "_throttled", throttled.sumThenReset());
+            eventProbe.counterMetric(metricPrefix + "_failed", failed.sumThenReset());
+            eventProbe.counterMetric(metricPrefix + "_request_bytes", requestBytes.sumThenReset());
+            eventProbe.counterMetric(
+                    metricPrefix + "_response_bytes", responseBytes.sumThenReset());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpHeaders;
+import uk.gov.di.ipv.cri.passport.library.jfr.AwsSdkCallEvent;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the latency, retries, throttling and payload size of each AWS SDK call into
+ * AwsSdkCallMetrics.
+ *
+ * <p>Added to the SDK clients built by ServiceFactory (createClientOverrideConfiguration), not
+ * registered globally - that would add it to the common lib ClientProviderFactory clients,
+ * including those of the powertools providers which are kept free of execution interceptors (see
+ * ServiceFactory getClientProviderFactory). Calls made with those clients are not recorded.
+ *
+ * <p>Each call is counted in the InvocationIoLedger, and while the flight recorder is running is
+ * also an AwsSdkCallEvent.
+ */
+public class AwsSdkCallMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> CALL_START_NANOS =
+            new ExecutionAttribute<>("PassportAwsSdkCallStartNanos");
+    private static final ExecutionAttribute<Integer> CALL_ATTEMPTS =
+            new ExecutionAttribute<>("PassportAwsSdkCallAttempts");
+    private static final ExecutionAttribute<Long> CALL_REQUEST_BYTES =
+            new ExecutionAttribute<>("PassportAwsSdkCallRequestBytes");
+    private static final ExecutionAttribute<Long> CALL_RESPONSE_BYTES =
+            new ExecutionAttribute<>("PassportAwsSdkCallResponseBytes");
+    private static final ExecutionAttribute<AwsSdkCallEvent> CALL_EVENT =
+            new ExecutionAttribute<>("PassportAwsSdkCallEvent");
+
+    private static final String CONTENT_LENGTH_HEADER = "Content-Length";
+
+    private final AwsSdkCallMetrics awsSdkCallMetrics;
+    private final LongSupplier nanoTime;
+    private final PassportFlightRecorder flightRecorder;
+    private final InvocationIoLedger ioLedger;
+
+    public AwsSdkCallMetricsInterceptor() {
+        this(
+                AwsSdkCallMetrics.getInstance(),
+                System::nanoTime,
+                PassportFlightRecorder.getInstance(),
+                InvocationIoLedger.getInstance());
+    }
+
+    AwsSdkCallMetricsInterceptor(
+            AwsSdkCallMetrics awsSdkCallMetrics,
+            LongSupplier nanoTime,
+            PassportFlightRecorder flightRecorder,
+            InvocationIoLedger ioLedger) {
+        this.awsSdkCallMetrics = awsSdkCallMetrics;
+        this.nanoTime = nanoTime;
+        this.flightRecorder = flightRecorder;
+        this.ioLedger = ioLedger;
+    }
+
+    @Override
+    public void beforeExecution(
+            Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(CALL_START_NANOS, nanoTime.getAsLong());
+        executionAttributes.putAttribute(CALL_ATTEMPTS, 0);
+        executionAttributes.putAttribute(CALL_REQUEST_BYTES, 0L);
+        executionAttributes.putAttribute(CALL_RESPONSE_BYTES, 0L);
+
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+
+        // Counted when made, so the call is attributed to the phase it started in
+        ioLedger.recordCall(service, operation);
+
+        if (flightRecorder.isRecording()) {
+            AwsSdkCallEvent callEvent = new AwsSdkCallEvent(service, operation);
+            callEvent.begin();
+            executionAttributes.putAttribute(CALL_EVENT, callEvent);
+        }
+    }
+
+    // Called for each attempt
+    @Override
+    public void beforeTransmission(
+            Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        incrementAttribute(executionAttributes, CALL_ATTEMPTS);
+        addContentLength(executionAttributes, CALL_REQUEST_BYTES, context.httpRequest());
+    }
+
+    @Override
+    public void afterTransmission(
+            Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        addContentLength(executionAttributes, CALL_RESPONSE_BYTES, context.httpResponse());
+    }
+
+    @Override
+    public void afterExecution(
+            Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        recordCall(executionAttributes, null);
+    }
+
+    @Override
+    public void onExecutionFailure(
+            Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        recordCall(executionAttributes, context.exception());
+    }
+
+    private void recordCall(ExecutionAttributes executionAttributes, Throwable exception) {
+        Long startNanos = executionAttributes.getAttribute(CALL_START_NANOS);
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+
+        // Failed before the call started
+        if (startNanos == null || service == null || operation == null) {
+            return;
+        }
+
+        AwsSdkCallMetrics.OperationMetrics operationMetrics =
+                awsSdkCallMetrics.forOperation(service, operation);
+
+        operationMetrics.recordLatency(
+                TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - startNanos));
+
+        int attempts = executionAttributes.getAttribute(CALL_ATTEMPTS);
+        if (attempts > 1) {
+            operationMetrics.recordRetries(attempts - 1);
+        }
+
+        long requestBytes = executionAttributes.getAttribute(CALL_REQUEST_BYTES);
+        long responseBytes = executionAttributes.getAttribute(CALL_RESPONSE_BYTES);
+        operationMetrics.recordPayloadBytes(requestBytes, responseBytes);
+
+        String status = AwsSdkCallEvent.STATUS_OK;
+
+        if (exception != null) {
+            operationMetrics.recordFailed();
+            status = AwsSdkCallEvent.STATUS_FAILED;
+
+            // Throttled attempts that later succeed show up as retries
+            if (exception instanceof SdkServiceException sdkServiceException
+                    && sdkServiceException.isThrottlingException()) {
+                operationMetrics.recordThrottled();
+                status = AwsSdkCallEvent.STATUS_THROTTLED;
+            }
+        }
+
+        AwsSdkCallEvent callEvent = executionAttributes.getAttribute(CALL_EVENT);
+
+        if (callEvent != null) {
+            callEvent.setAttempts(attempts);
+            callEvent.setStatus(status);
+            callEvent.setPayloadBytes(requestBytes, responseBytes);
+            callEvent.commit();
+        }
+    }
+
+    private static void incrementAttribute(
+            ExecutionAttributes executionAttributes, ExecutionAttribute<Integer> attribute) {
+        executionAttributes.putAttribute(
+                attribute, executionAttributes.getAttribute(attribute) + 1);
+    }
+
+    // Payloads without a Content-Length (eg chunked) are not counted
+    private static void addContentLength(
+            ExecutionAttributes executionAttributes,
+            ExecutionAttribute<Long> attribute,
+            SdkHttpHeaders httpHeaders) {
+        httpHeaders
+                .firstMatchingHeader(CONTENT_LENGTH_HEADER)
+                .ifPresent(
+                        contentLength ->
+                                executionAttributes.putAttribute(
+                                        attribute,
+                                        executionAttributes.getAttribute(attribute)
+                                                + Long.parseLong(contentLength)));
+    }
+}
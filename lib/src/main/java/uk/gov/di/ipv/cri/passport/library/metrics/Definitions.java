@@ -62,6 +62,14 @@ public class Definitions {
     public static final String LAMBDA_ISSUE_CREDENTIAL_FUNCTION_INIT_DURATION =
             "lambda_issue_credential_function_init_duration";
 
+    // ParameterStoreService cache, counted between invocations
+    public static final String PARAMETER_CACHE_HIT = "parameter_cache_hit";
+    public static final String PARAMETER_CACHE_MISS = "parameter_cache_miss";
+    public static final String PARAMETER_CACHE_REFRESH = "parameter_cache_refresh";
+    public static final String PARAMETER_CACHE_REFRESH_FAILED = "parameter_cache_refresh_failed";
+    public static final String PARAMETER_CACHE_REFRESH_DURATION =
+            "parameter_cache_refresh_duration"; // Slowest refresh
+
     // ThirdPartyAPIService metrics in Passport are recorded per API (DCS/DVAD)
     // For DVAD they are also recorded Per API Endpoint individually
     // See ThirdPartyAPIEndpointMetric
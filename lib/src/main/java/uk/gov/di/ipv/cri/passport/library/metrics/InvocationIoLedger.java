@@ -0,0 +1,137 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the remote calls (AWS SDK and HTTP) made during one invocation by service, operation and
+ * the InvocationTimeline phase they were made in. The ledger is logged when the invocation ends
+ * and can be read by tests, so the calls made by a warm invocation can be held to a budget.
+ *
+ * <p>Calls are recorded by AwsSdkCallMetricsInterceptor (on the ServiceFactory built clients) and
+ * ConnectionTimingInterceptor, so the ledger is shared through getInstance(). A lambda environment
+ * handles one invocation at a time, InvocationTimeline.begin() resets it.
+ *
+ * <p>If REMOTE_CALL_BUDGET is set, invocations making more calls than the budget are logged as a
+ * warning.
+ */
+public class InvocationIoLedger {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String REMOTE_CALL_BUDGET_ENV = "REMOTE_CALL_BUDGET";
+
+    // Calls made outside a timeline phase (eg during function init)
+    static final String NO_PHASE = "none";
+
+    private static final int NO_BUDGET = -1;
+
+    private static final InvocationIoLedger INSTANCE = new InvocationIoLedger();
+
+    private final int remoteCallBudget;
+
+    private String invocationName;
+    private String currentPhase = NO_PHASE;
+
+    // Insertion ordered so the log reads in call order, keyed service/operation/phase
+    private final Map<String, Integer> callCounts = new LinkedHashMap<>();
+    private int totalCalls;
+
+    InvocationIoLedger() {
+        this.remoteCallBudget = parseBudget(System.getenv(REMOTE_CALL_BUDGET_ENV));
+    }
+
+    private static int parseBudget(String budget) {
+        if (budget == null) {
+            return NO_BUDGET;
+        }
+
+        try {
+            return Integer.parseInt(budget.trim());
+        } catch (NumberFormatException e) {
+            // Not fatal, the ledger is built with the function and must not stop it starting
+            LOGGER.warn("Invalid {} {}, no budget applied", REMOTE_CALL_BUDGET_ENV, budget);
+            return NO_BUDGET;
+        }
+    }
+
+    public static InvocationIoLedger getInstance() {
+        return INSTANCE;
+    }
+
+    /** Clears the previous invocation. */
+    public synchronized void begin(String invocationName) {
+        this.invocationName = invocationName;
+        this.currentPhase = NO_PHASE;
+
+        callCounts.clear();
+        totalCalls = 0;
+    }
+
+    /** @param phase the phase calls are now made in, null when outside a phase */
+    public synchronized void setPhase(String phase) {
+        this.currentPhase = phase == null ? NO_PHASE : phase;
+    }
+
+    /**
+     * @param service eg DynamoDb, Ssm or DVAD
+     * @param operation eg GetItem or the DVAD endpoint
+     */
+    public synchronized void recordCall(String service, String operation) {
+        callCounts.merge(callKey(service, operation, currentPhase), 1, Integer::sum);
+        totalCalls++;
+    }
+
+    public synchronized int getTotalCalls() {
+        return totalCalls;
+    }
+
+    /** @return the calls to the service operation across all phases */
+    public synchronized int getCallCount(String service, String operation) {
+        String prefix = callKey(service, operation, "");
+
+        return callCounts.entrySet().stream()
+                .filter(call -> call.getKey().startsWith(prefix))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    /** @return the calls keyed service/operation/phase, in the order first made */
+    public synchronized Map<String, Integer> getCallCounts() {
+        return new LinkedHashMap<>(callCounts);
+    }
+
+    /** @return true if REMOTE_CALL_BUDGET is set and the invocation has made more calls */
+    public synchronized boolean isOverBudget() {
+        return remoteCallBudget != NO_BUDGET && totalCalls > remoteCallBudget;
+    }
+
+    /** Logs the calls of the invocation, as a warning if over the remote call budget. */
+    public synchronized void log() {
+        if (invocationName == null) {
+            return;
+        }
+
+        if (isOverBudget()) {
+            LOGGER.warn(
+                    "Invocation {} made {} remote calls, over budget of {} - {}",
+                    invocationName,
+                    totalCalls,
+                    remoteCallBudget,
+                    callCounts);
+        } else {
+            LOGGER.info(
+                    "Invocation {} made {} remote calls - {}",
+                    invocationName,
+                    totalCalls,
+                    callCounts);
+        }
+    }
+
+    private static String callKey(String service, String operation, String phase) {
+        return service + "/" + operation + "/" + phase;
+    }
+}
@@ -0,0 +1,230 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+import uk.gov.di.ipv.cri.passport.library.jfr.PipelineStageEvent;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Nanosecond timings of the named phases of one lambda invocation, written as EMF metrics when the
+ * invocation ends (phase durations in ms per invocation name). Given an AccumulatingEventProbe the
+ * phases are added to its document for the invocation, otherwise they are written as their own
+ * record.
+ *
+ * <p>A lambda environment handles one invocation at a time, so a single instance is shared by the
+ * handler and its services (see ServiceFactory) and reset with begin() on each invocation.
+ *
+ * <p>Each phase is also a PipelineStageEvent for the flight recorder, and a slow invocation dumps
+ * the recording (see PassportFlightRecorder). The InvocationIoLedger is told the phase its calls
+ * are made in and logged with the record.
+ */
+public class InvocationTimeline {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String PHASE_METRIC_PREFIX = "phase_";
+    private static final String TOTAL_PHASE = "total";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String MILLISECONDS_UNIT = "Milliseconds";
+
+    private final PrintStream emfOutput;
+    private final LongSupplier nanoClock;
+    private final PassportFlightRecorder flightRecorder;
+    private final InvocationIoLedger ioLedger;
+    // Null if the record is written by the timeline
+    private final AccumulatingEventProbe accumulatingEventProbe;
+
+    private final String namespace;
+    private final String service;
+
+    private String invocationName;
+    private long invocationStartNanos;
+
+    private final Map<String, Long> phaseStartNanos = new HashMap<>();
+    // Insertion ordered so the record reads in phase order, repeated phases accumulate
+    private final Map<String, Long> phaseDurationNanos = new LinkedHashMap<>();
+    private final Map<String, PipelineStageEvent> stageEvents = new HashMap<>();
+    // Most recently started last, calls are attributed to the innermost open phase
+    private final Deque<String> openPhases = new ArrayDeque<>();
+
+    public InvocationTimeline() {
+        this(null);
+    }
+
+    /**
+     * @param accumulatingEventProbe the probe whose flush writes the phases with the invocation's
+     *     other metrics, null to write them as a separate record
+     */
+    public InvocationTimeline(AccumulatingEventProbe accumulatingEventProbe) {
+        this(
+                System.out,
+                System::nanoTime,
+                PassportFlightRecorder.getInstance(),
+                InvocationIoLedger.getInstance(),
+                accumulatingEventProbe);
+    }
+
+    InvocationTimeline(PrintStream emfOutput, LongSupplier nanoClock) {
+        this(
+                emfOutput,
+                nanoClock,
+                PassportFlightRecorder.getInstance(),
+                InvocationIoLedger.getInstance(),
+                null);
+    }
+
+    InvocationTimeline(
+            PrintStream emfOutput,
+            LongSupplier nanoClock,
+            PassportFlightRecorder flightRecorder,
+            InvocationIoLedger ioLedger,
+            AccumulatingEventProbe accumulatingEventProbe) {
+        this.emfOutput = emfOutput;
+        this.nanoClock = nanoClock;
+        this.flightRecorder = flightRecorder;
+        this.ioLedger = ioLedger;
+        this.accumulatingEventProbe = accumulatingEventProbe;
+
+        this.namespace = System.getenv("POWERTOOLS_METRICS_NAMESPACE");
+        this.service = System.getenv("POWERTOOLS_SERVICE_NAME");
+    }
+
+    /** Clears the previous invocation and starts timing a new one. */
+    public void begin(String invocationName) {
+        this.invocationName = invocationName;
+        this.invocationStartNanos = nanoClock.getAsLong();
+
+        phaseStartNanos.clear();
+        phaseDurationNanos.clear();
+        stageEvents.clear();
+        openPhases.clear();
+
+        ioLedger.begin(invocationName);
+    }
+
+    public void startPhase(String phase) {
+        phaseStartNanos.put(phase, nanoClock.getAsLong());
+
+        openPhases.remove(phase);
+        openPhases.addLast(phase);
+        ioLedger.setPhase(phase);
+
+        if (flightRecorder.isRecording()) {
+            PipelineStageEvent stageEvent = new PipelineStageEvent(invocationName, phase);
+            stageEvent.begin();
+            stageEvents.put(phase, stageEvent);
+        }
+    }
+
+    public void stopPhase(String phase) {
+        Long startNanos = phaseStartNanos.remove(phase);
+
+        if (startNanos != null) {
+            phaseDurationNanos.merge(phase, nanoClock.getAsLong() - startNanos, Long::sum);
+        }
+
+        if (openPhases.remove(phase)) {
+            ioLedger.setPhase(openPhases.peekLast());
+        }
+
+        PipelineStageEvent stageEvent = stageEvents.remove(phase);
+
+        if (stageEvent != null) {
+            stageEvent.commit();
+        }
+    }
+
+    public Map<String, Long> getPhaseDurationNanos() {
+        return Map.copyOf(phaseDurationNanos);
+    }
+
+    /**
+     * Writes (or hands to the AccumulatingEventProbe) the invocation record. Phases still running
+     * (the invocation failed inside them) are stopped here, so the failing phase shows where the
+     * time went.
+     */
+    public void emit() {
+        if (invocationName == null) {
+            return;
+        }
+
+        long endNanos = nanoClock.getAsLong();
+
+        new ArrayList<>(phaseStartNanos.keySet()).forEach(this::stopPhase);
+        phaseDurationNanos.put(TOTAL_PHASE, endNanos - invocationStartNanos);
+
+        flightRecorder.dumpIfSlow(invocationName, endNanos - invocationStartNanos);
+
+        Map<String, Double> phaseMillis = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Long> phase : phaseDurationNanos.entrySet()) {
+            phaseMillis.put(
+                    PHASE_METRIC_PREFIX + phase.getKey(), phase.getValue() / NANOS_PER_MILLI);
+        }
+
+        if (accumulatingEventProbe != null) {
+            Map<String, String> dimensions = new LinkedHashMap<>();
+            dimensions.put("service", service);
+            dimensions.put("invocation", invocationName);
+            accumulatingEventProbe.putDimensionedMetrics(
+                    dimensions, phaseMillis, MILLISECONDS_UNIT);
+        } else {
+            writeRecord(phaseMillis);
+        }
+
+        ioLedger.log();
+
+        invocationName = null;
+    }
+
+    private void writeRecord(Map<String, Double> phaseMillis) {
+        Map<String, Object> emfRecord = new LinkedHashMap<>();
+        List<Map<String, String>> metrics = new ArrayList<>();
+
+        for (Map.Entry<String, Double> phase : phaseMillis.entrySet()) {
+            metrics.add(Map.of("Name", phase.getKey(), "Unit", MILLISECONDS_UNIT));
+            emfRecord.put(phase.getKey(), phase.getValue());
+        }
+
+        emfRecord.put("invocation", invocationName);
+
+        // Without a namespace (local runs) the record is still written, without the EMF metadata
+        if (namespace != null) {
+            emfRecord.put("service", service);
+            emfRecord.put(
+                    "_aws",
+                    Map.of(
+                            "Timestamp",
+                            System.currentTimeMillis(),
+                            "CloudWatchMetrics",
+                            List.of(
+                                    Map.of(
+                                            "Namespace",
+                                            namespace,
+                                            "Dimensions",
+                                            List.of(List.of("service", "invocation")),
+                                            "Metrics",
+                                            metrics))));
+        }
+
+        try {
+            emfOutput.println(OBJECT_MAPPER.writeValueAsString(emfRecord));
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Invocation timeline not written - {}", e.getClass().getSimpleName());
+        }
+    }
+}
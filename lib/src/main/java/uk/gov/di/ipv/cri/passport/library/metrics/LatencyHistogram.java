@@ -0,0 +1,142 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear (HDR style) buckets. Values below 16ms have their own
+ * bucket, above that each power of two is split into 16 buckets, so a recorded value is within
+ * ~6% of the value reported for it. Values above MAX_TRACKABLE_MILLIS are counted in the last
+ * bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // ~17 minutes, longer than any lambda invocation
+    private static final int MAX_EXPONENT = 20;
+    public static final long MAX_TRACKABLE_MILLIS = (1L << MAX_EXPONENT) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MILLIS) + 1;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        long value = Math.min(Math.max(millis, 0), MAX_TRACKABLE_MILLIS);
+
+        bucketCounts.incrementAndGet(bucketIndex(value));
+        maxMillis.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Copies the current counts. Buckets are read one at a time, a value recorded during the copy
+     * may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = bucketCounts.get(i);
+        }
+
+        return new Snapshot(counts, maxMillis.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >> shift) - SUB_BUCKET_COUNT;
+
+        return SUB_BUCKET_COUNT + (shift * SUB_BUCKET_COUNT) + subBucket;
+    }
+
+    // Highest value that is counted in the bucket
+    static long bucketHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowestValue = (SUB_BUCKET_COUNT + subBucket) << shift;
+
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    /** Point in time counts of a LatencyHistogram. */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long totalCount;
+        private final long maxMillis;
+
+        Snapshot(long[] counts, long maxMillis) {
+            this.counts = counts;
+            this.maxMillis = maxMillis;
+
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @param percentile 0-100
+         * @return the highest value of the bucket holding the percentile, 0 when empty
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * totalCount));
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+
+                if (seen >= rank) {
+                    return Math.min(bucketHighestValue(i), maxMillis);
+                }
+            }
+
+            return maxMillis;
+        }
+
+        /**
+         * The exact max is only held for the whole histogram, the max of an interval is the highest
+         * value of its highest bucket (capped at the overall max).
+         *
+         * @param previous an earlier snapshot of the same histogram
+         * @return the counts recorded since previous was taken
+         */
+        public Snapshot since(Snapshot previous) {
+            long[] intervalCounts = new long[counts.length];
+            int highestIndex = -1;
+
+            for (int i = 0; i < counts.length; i++) {
+                intervalCounts[i] = counts[i] - previous.counts[i];
+
+                if (intervalCounts[i] > 0) {
+                    highestIndex = i;
+                }
+            }
+
+            long intervalMax =
+                    highestIndex < 0 ? 0 : Math.min(bucketHighestValue(highestIndex), maxMillis);
+
+            return new Snapshot(intervalCounts, intervalMax);
+        }
+    }
+}
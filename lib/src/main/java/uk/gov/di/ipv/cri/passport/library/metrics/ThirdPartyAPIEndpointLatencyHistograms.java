@@ -0,0 +1,75 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms for the third party api endpoints, keyed by the endpoint latency metric (eg
+ * DVAD_GRAPHQL_RESPONSE_LATENCY). Histograms accumulate for the life of the execution environment
+ * so percentiles can be read in-process.
+ *
+ * <p>The endpoint services still send one latency metric per request, which is what fleet wide
+ * percentiles are taken from. The interval published here at the end of each invocation only holds
+ * the count and max, as both can be summed / maxed across execution environments, where
+ * percentiles worked out per environment cannot.
+ */
+public class ThirdPartyAPIEndpointLatencyHistograms {
+
+    private static final String COUNT_METRIC_FORMAT = "%s_count";
+    private static final String MAX_METRIC_FORMAT = "%s_max";
+
+    private final Map<ThirdPartyAPIEndpointMetric, LatencyHistogram> histograms =
+            new ConcurrentHashMap<>();
+    private final Map<ThirdPartyAPIEndpointMetric, LatencyHistogram.Snapshot> publishedSnapshots =
+            new ConcurrentHashMap<>();
+
+    public void record(ThirdPartyAPIEndpointMetric latencyMetric, long millis) {
+        histograms.computeIfAbsent(latencyMetric, metric -> new LatencyHistogram()).record(millis);
+    }
+
+    /**
+     * @param latencyMetric endpoint latency metric
+     * @param percentile 0-100
+     * @return latency in ms at the percentile since the execution environment started, 0 when
+     *     nothing has been recorded
+     */
+    public long getLatencyPercentile(ThirdPartyAPIEndpointMetric latencyMetric, double percentile) {
+        LatencyHistogram histogram = histograms.get(latencyMetric);
+
+        if (histogram == null) {
+            return 0;
+        }
+
+        return histogram.snapshot().getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Publishes the latencies recorded since the last publish. Called at the end of each invocation
+     * so nothing recorded is left unpublished when the execution environment goes idle or is
+     * recycled.
+     */
+    public synchronized void publishInterval(EventProbe eventProbe) {
+        histograms.forEach((latencyMetric, histogram) -> publish(eventProbe, latencyMetric));
+    }
+
+    private void publish(EventProbe eventProbe, ThirdPartyAPIEndpointMetric latencyMetric) {
+        LatencyHistogram.Snapshot snapshot = histograms.get(latencyMetric).snapshot();
+        LatencyHistogram.Snapshot previous = publishedSnapshots.put(latencyMetric, snapshot);
+
+        LatencyHistogram.Snapshot interval =
+                previous == null ? snapshot : snapshot.since(previous);
+
+        if (interval.getTotalCount() == 0) {
+            return;
+        }
+
+        String metricName = latencyMetric.withEndpointPrefix();
+
+        eventProbe.counterMetric(
+                String.format(COUNT_METRIC_FORMAT, metricName), interval.getTotalCount());
+        eventProbe.counterMetric(
+                String.format(MAX_METRIC_FORMAT, metricName), interval.getValueAtPercentile(100));
+    }
+}
@@ -3,12 +3,20 @@ package uk.gov.di.ipv.cri.passport.library.metrics;
 import uk.gov.di.ipv.cri.passport.library.exceptions.MetricException;
 import uk.gov.di.ipv.cri.passport.library.exceptions.OAuthErrorResponseException;
 
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_BODY_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_FIRST_BYTE_LATENCY;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_LATENCY;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_ERROR;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_EXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_VALID;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_CONNECT_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_DNS_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_HANDSHAKE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_SESSION_NEW;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_SESSION_RESUMED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.FAULT_INJECTED;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_CREATED;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_SEND_ERROR;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_SEND_OK;
@@ -39,11 +47,42 @@ public enum ThirdPartyAPIEndpointMetric {
 
     DVAD_HEALTH_RESPONSE_LATENCY(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, API_RESPONSE_LATENCY),
 
+    DVAD_HEALTH_CONNECTION_DNS_LATENCY(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, CONNECTION_DNS_LATENCY),
+    DVAD_HEALTH_CONNECTION_CONNECT_LATENCY(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, CONNECTION_CONNECT_LATENCY),
+    DVAD_HEALTH_CONNECTION_TLS_HANDSHAKE_LATENCY(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, CONNECTION_TLS_HANDSHAKE_LATENCY),
+
+    DVAD_HEALTH_CONNECTION_TLS_SESSION_RESUMED(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, CONNECTION_TLS_SESSION_RESUMED),
+    DVAD_HEALTH_CONNECTION_TLS_SESSION_NEW(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, CONNECTION_TLS_SESSION_NEW),
+
+    DVAD_HEALTH_RESPONSE_FIRST_BYTE_LATENCY(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, API_RESPONSE_FIRST_BYTE_LATENCY),
+    DVAD_HEALTH_RESPONSE_BODY_LATENCY(
+            DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, API_RESPONSE_BODY_LATENCY),
+
+    DVAD_HEALTH_FAULT_INJECTED(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, FAULT_INJECTED),
+
+    // Circuit breaker transitions and checks rejected while open (see DvadCircuitBreaker)
+    DVAD_HEALTH_CIRCUIT_OPENED(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, "circuit_opened"),
+    DVAD_HEALTH_CIRCUIT_HALF_OPEN(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, "circuit_half_open"),
+    DVAD_HEALTH_CIRCUIT_CLOSED(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, "circuit_closed"),
+    DVAD_HEALTH_CIRCUIT_REJECTED(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, "circuit_rejected"),
+    // A transition published by another container (see SharedDvadHealthState)
+    DVAD_HEALTH_CIRCUIT_ADOPTED(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT, "circuit_adopted"),
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // DVAD Token End Point Metrics                                                              //
     ///////////////////////////////////////////////////////////////////////////////////////////////
     DVAD_TOKEN_REQUEST_REUSING_CACHED_TOKEN(
             DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, "reusing_cached_token"),
+    // Tokens shared across containers (see SharedDvadAccessToken)
+    DVAD_TOKEN_SHARED_TOKEN_REFRESHED(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, "shared_token_refreshed"),
+    DVAD_TOKEN_SHARED_TOKEN_FALLBACK(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, "shared_token_fallback"),
 
     DVAD_TOKEN_REQUEST_CREATED(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, REQUEST_CREATED),
     DVAD_TOKEN_REQUEST_SEND_OK(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, REQUEST_SEND_OK),
@@ -61,6 +100,24 @@ public enum ThirdPartyAPIEndpointMetric {
 
     DVAD_TOKEN_RESPONSE_LATENCY(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, API_RESPONSE_LATENCY),
 
+    DVAD_TOKEN_CONNECTION_DNS_LATENCY(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, CONNECTION_DNS_LATENCY),
+    DVAD_TOKEN_CONNECTION_CONNECT_LATENCY(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, CONNECTION_CONNECT_LATENCY),
+    DVAD_TOKEN_CONNECTION_TLS_HANDSHAKE_LATENCY(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, CONNECTION_TLS_HANDSHAKE_LATENCY),
+
+    DVAD_TOKEN_CONNECTION_TLS_SESSION_RESUMED(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, CONNECTION_TLS_SESSION_RESUMED),
+    DVAD_TOKEN_CONNECTION_TLS_SESSION_NEW(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, CONNECTION_TLS_SESSION_NEW),
+
+    DVAD_TOKEN_RESPONSE_FIRST_BYTE_LATENCY(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, API_RESPONSE_FIRST_BYTE_LATENCY),
+    DVAD_TOKEN_RESPONSE_BODY_LATENCY(
+            DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, API_RESPONSE_BODY_LATENCY),
+
+    DVAD_TOKEN_FAULT_INJECTED(DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT, FAULT_INJECTED),
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // DVAD GraphQL End Point Metrics                                                            //
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -81,17 +138,40 @@ public enum ThirdPartyAPIEndpointMetric {
             DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, API_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS),
 
     DVAD_GRAPHQL_RESPONSE_LATENCY(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, API_RESPONSE_LATENCY),
+
+    DVAD_GRAPHQL_CONNECTION_DNS_LATENCY(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, CONNECTION_DNS_LATENCY),
+    DVAD_GRAPHQL_CONNECTION_CONNECT_LATENCY(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, CONNECTION_CONNECT_LATENCY),
+    DVAD_GRAPHQL_CONNECTION_TLS_HANDSHAKE_LATENCY(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, CONNECTION_TLS_HANDSHAKE_LATENCY),
+
+    DVAD_GRAPHQL_CONNECTION_TLS_SESSION_RESUMED(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, CONNECTION_TLS_SESSION_RESUMED),
+    DVAD_GRAPHQL_CONNECTION_TLS_SESSION_NEW(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, CONNECTION_TLS_SESSION_NEW),
+
+    DVAD_GRAPHQL_RESPONSE_FIRST_BYTE_LATENCY(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, API_RESPONSE_FIRST_BYTE_LATENCY),
+    DVAD_GRAPHQL_RESPONSE_BODY_LATENCY(
+            DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, API_RESPONSE_BODY_LATENCY),
+
+    DVAD_GRAPHQL_FAULT_INJECTED(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, FAULT_INJECTED),
     ;
 
     private static final String METRIC_FORMAT = "%s_%s";
     private static final String METRIC_CAUSE_FORMAT = METRIC_FORMAT;
 
+    private final ThirdPartyAPIMetricEndpointPrefix endpointPrefix;
+    private final ThirdPartyAPIEndpointMetricType metricType;
     private final String metricWithEndpointPrefix;
 
     // To avoid copy and paste errors in the alternative large list of string mappings for each
     // endpoint metric combo
     ThirdPartyAPIEndpointMetric(
             ThirdPartyAPIMetricEndpointPrefix prefix, ThirdPartyAPIEndpointMetricType metricType) {
+        this.endpointPrefix = prefix;
+        this.metricType = metricType;
         String endPointPrefixLowerCase = prefix.toString().toLowerCase();
         String metricTypeLowercase = metricType.toString().toLowerCase();
         this.metricWithEndpointPrefix =
@@ -100,12 +180,32 @@ public enum ThirdPartyAPIEndpointMetric {
 
     // To allow special case metrics that do not apply to all endpoints (eg UP/DOWN health)
     ThirdPartyAPIEndpointMetric(ThirdPartyAPIMetricEndpointPrefix prefix, String metric) {
+        this.endpointPrefix = prefix;
+        this.metricType = null;
         String endPointPrefixLowerCase = prefix.toString().toLowerCase();
         String metricLowercase = metric.toLowerCase();
         this.metricWithEndpointPrefix =
                 String.format(METRIC_FORMAT, endPointPrefixLowerCase, metricLowercase);
     }
 
+    /**
+     * Finds the metric for an endpoint and metric type, used where the endpoint is only known at
+     * runtime (eg connection timings).
+     *
+     * @throws MetricException if the endpoint has no metric of the type
+     */
+    public static ThirdPartyAPIEndpointMetric of(
+            ThirdPartyAPIMetricEndpointPrefix prefix, ThirdPartyAPIEndpointMetricType metricType) {
+        ThirdPartyAPIEndpointMetric metric =
+                MetricLookup.METRICS[prefix.ordinal()][metricType.ordinal()];
+
+        if (metric == null) {
+            throw new MetricException(String.format("No %s metric for %s", metricType, prefix));
+        }
+
+        return metric;
+    }
+
     public String withEndpointPrefix() {
         return metricWithEndpointPrefix;
     }
@@ -128,4 +228,24 @@ public enum ThirdPartyAPIEndpointMetric {
         return String.format(
                 METRIC_CAUSE_FORMAT, metricWithEndpointPrefix, e.getClass().getSimpleName());
     }
+
+    // Built on first use, enum constants cannot reference static fields during construction
+    private static final class MetricLookup {
+        // [endpoint prefix ordinal][metric type ordinal]
+        private static final ThirdPartyAPIEndpointMetric[][] METRICS =
+                new ThirdPartyAPIEndpointMetric[ThirdPartyAPIMetricEndpointPrefix.values().length]
+                        [ThirdPartyAPIEndpointMetricType.values().length];
+
+        static {
+            for (ThirdPartyAPIEndpointMetric metric : ThirdPartyAPIEndpointMetric.values()) {
+                if (metric.metricType != null) {
+                    METRICS[metric.endpointPrefix.ordinal()][metric.metricType.ordinal()] = metric;
+                }
+            }
+        }
+
+        private MetricLookup() {
+            // Holder
+        }
+    }
 }
@@ -10,5 +10,15 @@ public enum ThirdPartyAPIEndpointMetricType {
     API_RESPONSE_TYPE_ERROR,
     API_RESPONSE_TYPE_EXPECTED_HTTP_STATUS,
     API_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS,
-    API_RESPONSE_LATENCY;
+    API_RESPONSE_LATENCY,
+    // Phases of API_RESPONSE_LATENCY (see ConnectionTimings)
+    CONNECTION_DNS_LATENCY,
+    CONNECTION_CONNECT_LATENCY,
+    CONNECTION_TLS_HANDSHAKE_LATENCY,
+    CONNECTION_TLS_SESSION_RESUMED,
+    CONNECTION_TLS_SESSION_NEW,
+    API_RESPONSE_FIRST_BYTE_LATENCY,
+    API_RESPONSE_BODY_LATENCY,
+    // Faults injected outside production (see DvadFaultInjection)
+    FAULT_INJECTED;
 }
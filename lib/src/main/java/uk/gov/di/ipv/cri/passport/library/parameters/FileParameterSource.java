@@ -0,0 +1,44 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Parameters read once from a local file, keyed by full parameter name. A .properties file or a
+ * flat JSON object ({"/stack/Name": "value"}) is supported.
+ */
+public class FileParameterSource extends InMemoryParameterSource {
+
+    public FileParameterSource(Path parameterFile, ObjectMapper objectMapper) {
+        super(readParameterFile(parameterFile, objectMapper));
+    }
+
+    private static Map<String, String> readParameterFile(
+            Path parameterFile, ObjectMapper objectMapper) {
+        try (Reader reader = Files.newBufferedReader(parameterFile)) {
+            if (parameterFile.toString().endsWith(".properties")) {
+                Properties properties = new Properties();
+                properties.load(reader);
+
+                Map<String, String> parameters = new HashMap<>();
+                properties
+                        .stringPropertyNames()
+                        .forEach(name -> parameters.put(name, properties.getProperty(name)));
+                return parameters;
+            }
+
+            return objectMapper.readValue(reader, new TypeReference<Map<String, String>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read parameter file " + parameterFile, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parameters held in memory, for running the lambdas without SSM (benchmarks, load tests and local
+ * runs). Values are stored decrypted.
+ */
+public class InMemoryParameterSource implements ParameterSource {
+
+    private final Map<String, String> parameters;
+
+    /** @param parameters values keyed by full parameter name */
+    public InMemoryParameterSource(Map<String, String> parameters) {
+        this.parameters = Map.copyOf(parameters);
+    }
+
+    @Override
+    public String get(String name, boolean withDecryption) {
+        String value = parameters.get(name);
+
+        if (value == null) {
+            // As the SSMProvider would
+            throw ParameterNotFoundException.builder()
+                    .message("Parameter " + name + " not found")
+                    .build();
+        }
+
+        return value;
+    }
+
+    @Override
+    public Map<String, String> getMultiple(String path, boolean recursive, boolean withDecryption) {
+        final String pathPrefix = path + "/";
+
+        Map<String, String> pathParameters = new HashMap<>();
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            if (!entry.getKey().startsWith(pathPrefix)) {
+                continue;
+            }
+
+            String relativeName = entry.getKey().substring(pathPrefix.length());
+            if (recursive || relativeName.indexOf('/') == -1) {
+                pathParameters.put(relativeName, entry.getValue());
+            }
+        }
+
+        return pathParameters;
+    }
+
+    public int getParameterCount() {
+        return parameters.size();
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import java.util.Map;
+
+/**
+ * Where ParameterStoreService reads parameters from. Names and paths are full (prefixed), as
+ * stored in SSM.
+ */
+public interface ParameterSource {
+
+    /**
+     * @param name full parameter name
+     * @param withDecryption decrypt a SecureString value
+     * @return the parameter value
+     */
+    String get(String name, boolean withDecryption);
+
+    /**
+     * @param path full path
+     * @param recursive include parameters in sub paths
+     * @param withDecryption decrypt SecureString values
+     * @return parameter values keyed by name relative to the path
+     */
+    Map<String, String> getMultiple(String path, boolean recursive, boolean withDecryption);
+}
@@ -0,0 +1,56 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads parameters with the SsmClient directly. Each call builds its own request, so background
+ * refreshes can run alongside request thread reads (the powertools SSMProvider holds the decryption
+ * and recursive flags on the shared instance).
+ */
+public class SSMParameterSource implements ParameterSource {
+
+    private final SsmClient ssmClient;
+
+    public SSMParameterSource(SsmClient ssmClient) {
+        this.ssmClient = ssmClient;
+    }
+
+    @Override
+    public String get(String name, boolean withDecryption) {
+        GetParameterRequest getParameterRequest =
+                GetParameterRequest.builder().name(name).withDecryption(withDecryption).build();
+
+        return ssmClient.getParameter(getParameterRequest).parameter().value();
+    }
+
+    @Override
+    public Map<String, String> getMultiple(String path, boolean recursive, boolean withDecryption) {
+        GetParametersByPathRequest getParametersByPathRequest =
+                GetParametersByPathRequest.builder()
+                        .path(path)
+                        .recursive(recursive)
+                        .withDecryption(withDecryption)
+                        .build();
+
+        // Keyed relative to the path, as the SSMProvider getMultiple was
+        final String pathPrefix = path + "/";
+
+        Map<String, String> pathParameters = new HashMap<>();
+        for (Parameter parameter :
+                ssmClient.getParametersByPathPaginator(getParametersByPathRequest).parameters()) {
+            String name = parameter.name();
+            String relativeName =
+                    name.startsWith(pathPrefix) ? name.substring(pathPrefix.length()) : name;
+
+            pathParameters.put(relativeName, parameter.value());
+        }
+
+        return pathParameters;
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.di.ipv.cri.passport.library.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+import java.util.UUID;
+
+/**
+ * The DocumentCheckResultItem table schema, with an explicit getter and setter for each attribute
+ * in place of the enhanced client's reflective bean introspection (TableSchema.fromBean). Built
+ * once, when this class is initialised during function init.
+ *
+ * <p>Attribute names and types are those of the bean schema, so items written with either schema
+ * are read by the other. Add any new DocumentCheckResultItem property here too.
+ */
+public final class DocumentCheckResultItemTableSchema {
+
+    public static final TableSchema<DocumentCheckResultItem> TABLE_SCHEMA = create();
+
+    @ExcludeFromGeneratedCoverageReport
+    private DocumentCheckResultItemTableSchema() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    /** Builds a new schema - use TABLE_SCHEMA, this is for comparing build costs. */
+    public static TableSchema<DocumentCheckResultItem> create() {
+        return StaticTableSchema.builder(DocumentCheckResultItem.class)
+                .newItemSupplier(DocumentCheckResultItem::new)
+                .addAttribute(
+                        UUID.class,
+                        attribute ->
+                                attribute
+                                        .name("sessionId")
+                                        .getter(DocumentCheckResultItem::getSessionId)
+                                        .setter(DocumentCheckResultItem::setSessionId)
+                                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                .addAttribute(
+                        String.class,
+                        attribute ->
+                                attribute
+                                        .name("transactionId")
+                                        .getter(DocumentCheckResultItem::getTransactionId)
+                                        .setter(DocumentCheckResultItem::setTransactionId))
+                .addAttribute(
+                        Integer.class,
+                        attribute ->
+                                attribute
+                                        .name("strengthScore")
+                                        .getter(DocumentCheckResultItem::getStrengthScore)
+                                        .setter(DocumentCheckResultItem::setStrengthScore))
+                .addAttribute(
+                        Integer.class,
+                        attribute ->
+                                attribute
+                                        .name("validityScore")
+                                        .getter(DocumentCheckResultItem::getValidityScore)
+                                        .setter(DocumentCheckResultItem::setValidityScore))
+                .addAttribute(
+                        EnhancedType.listOf(String.class),
+                        attribute ->
+                                attribute
+                                        .name("contraIndicators")
+                                        .getter(DocumentCheckResultItem::getContraIndicators)
+                                        .setter(DocumentCheckResultItem::setContraIndicators))
+                .addAttribute(
+                        String.class,
+                        attribute ->
+                                attribute
+                                        .name("documentNumber")
+                                        .getter(DocumentCheckResultItem::getDocumentNumber)
+                                        .setter(DocumentCheckResultItem::setDocumentNumber))
+                .addAttribute(
+                        String.class,
+                        attribute ->
+                                attribute
+                                        .name("expiryDate")
+                                        .getter(DocumentCheckResultItem::getExpiryDate)
+                                        .setter(DocumentCheckResultItem::setExpiryDate))
+                .addAttribute(
+                        EnhancedType.listOf(String.class),
+                        attribute ->
+                                attribute
+                                        .name("checkDetails")
+                                        .getter(DocumentCheckResultItem::getCheckDetails)
+                                        .setter(DocumentCheckResultItem::setCheckDetails))
+                .addAttribute(
+                        EnhancedType.listOf(String.class),
+                        attribute ->
+                                attribute
+                                        .name("failedCheckDetails")
+                                        .getter(DocumentCheckResultItem::getFailedCheckDetails)
+                                        .setter(DocumentCheckResultItem::setFailedCheckDetails))
+                .addAttribute(
+                        EnhancedType.listOf(String.class),
+                        attribute ->
+                                attribute
+                                        .name("ciReasons")
+                                        .getter(DocumentCheckResultItem::getCiReasons)
+                                        .setter(DocumentCheckResultItem::setCiReasons))
+                .addAttribute(
+                        Long.class,
+                        attribute ->
+                                attribute
+                                        .name("ttl")
+                                        .getter(DocumentCheckResultItem::getTtl)
+                                        .setter(DocumentCheckResultItem::setTtl))
+                .build();
+    }
+}
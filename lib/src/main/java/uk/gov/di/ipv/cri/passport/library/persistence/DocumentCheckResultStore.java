@@ -0,0 +1,30 @@
+package uk.gov.di.ipv.cri.passport.library.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+/**
+ * The document check result table, keyed by session id. In place of the common lib DataStore
+ * (which always builds its table schema with TableSchema.fromBean) so the prebuilt {@link
+ * DocumentCheckResultItemTableSchema} is used, with the same create and getItem calls.
+ */
+public class DocumentCheckResultStore {
+
+    private final DynamoDbTable<DocumentCheckResultItem> table;
+
+    public DocumentCheckResultStore(
+            String tableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this.table =
+                dynamoDbEnhancedClient.table(
+                        tableName, DocumentCheckResultItemTableSchema.TABLE_SCHEMA);
+    }
+
+    public void create(DocumentCheckResultItem item) {
+        table.putItem(item);
+    }
+
+    public DocumentCheckResultItem getItem(String sessionId) {
+        return table.getItem(Key.builder().partitionValue(sessionId).build());
+    }
+}
@@ -1,9 +1,23 @@
 package uk.gov.di.ipv.cri.passport.library.service;
 
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.passport.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimingDnsResolver;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimingInterceptor;
+import uk.gov.di.ipv.cri.passport.library.http.ConnectionTimingSSLConnectionSocketFactory;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 
 import javax.net.ssl.SSLContext;
 
@@ -18,16 +32,37 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class ApacheHTTPClientFactoryService {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
     // Used internally at runtime when loading/retrieving keys into/from the SSL Keystore
     private static final char[] RANDOM_RUN_TIME_KEYSTORE_PASSWORD =
             UUID.randomUUID().toString().toCharArray();
 
+    // Connection pools of the clients created by this factory (see closePooledConnections)
+    private final List<PoolingHttpClientConnectionManager> connectionManagers =
+            new CopyOnWriteArrayList<>();
+
+    // Times each phase of requests executed with a ConnectionTimings context
+    private final ConnectionTimingInterceptor connectionTimingInterceptor;
+
+    public ApacheHTTPClientFactoryService(
+            ThirdPartyAPIEndpointLatencyHistograms latencyHistograms, EventProbe eventProbe) {
+        this.connectionTimingInterceptor =
+                new ConnectionTimingInterceptor(latencyHistograms, eventProbe);
+    }
+
     public CloseableHttpClient generatePublicHttpClient() {
-        return HttpClients.custom().build();
+        PoolingHttpClientConnectionManager connectionManager =
+                createConnectionManager(SSLContexts.createDefault());
+
+        return createHttpClient(connectionManager);
     }
 
     public CloseableHttpClient generateHTTPClientFromExternalApacheHttpClient(
@@ -53,7 +88,56 @@ public class ApacheHTTPClientFactoryService {
 
         SSLContext sslContext = sslContextSetup(keystoreTLS, trustStore);
 
-        return HttpClients.custom().setSSLContext(sslContext).build();
+        PoolingHttpClientConnectionManager connectionManager = createConnectionManager(sslContext);
+
+        return createHttpClient(connectionManager);
+    }
+
+    /**
+     * Closes every pooled connection held by the clients created by this factory. Used after a
+     * SnapStart restore, where connections captured in the snapshot are no longer usable.
+     *
+     * @return number of connection pools cleared
+     */
+    public int closePooledConnections() {
+        for (PoolingHttpClientConnectionManager connectionManager : connectionManagers) {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        }
+
+        LOGGER.info("Pooled connections closed for {} http clients", connectionManagers.size());
+
+        return connectionManagers.size();
+    }
+
+    private CloseableHttpClient createHttpClient(
+            PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .addInterceptorFirst((HttpRequestInterceptor) connectionTimingInterceptor)
+                .addInterceptorFirst((HttpResponseInterceptor) connectionTimingInterceptor)
+                .build();
+    }
+
+    private PoolingHttpClientConnectionManager createConnectionManager(SSLContext sslContext) {
+        ConnectionTimingDnsResolver dnsResolver = new ConnectionTimingDnsResolver();
+
+        // Plain http connections are not timed (DVAD and the stub are https)
+        Registry<ConnectionSocketFactory> socketFactoryRegistry =
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register(
+                                "https",
+                                new ConnectionTimingSSLConnectionSocketFactory(
+                                        sslContext, dnsResolver))
+                        .build();
+
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry, dnsResolver);
+
+        connectionManagers.add(connectionManager);
+
+        return connectionManager;
     }
 
     private SSLContext sslContextSetup(KeyStore clientTls, KeyStore caBundle)
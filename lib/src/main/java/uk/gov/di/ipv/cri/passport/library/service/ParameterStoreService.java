@@ -2,27 +2,105 @@ package uk.gov.di.ipv.cri.passport.library.service;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import software.amazon.lambda.powertools.parameters.SSMProvider;
-
+import software.amazon.awssdk.services.ssm.SsmClient;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.config.ParameterCacheTtl;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshot;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+import uk.gov.di.ipv.cri.passport.library.parameters.ParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.SSMParameterSource;
+import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_HIT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_MISS;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_REFRESH;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_REFRESH_DURATION;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_REFRESH_FAILED;
+
+/**
+ * Parameters are cached per key. A value past its ParameterCacheTtl is still returned while a
+ * single background refresh for that key runs, so after a parameter is first read no lookup waits
+ * on SSM.
+ */
 public class ParameterStoreService {
 
     private static final Logger LOGGER = LogManager.getLogger();
     private static final String LOG_MESSAGE_FORMAT = "{} {}";
 
-    private static final String PARAMETER_NAME_FORMAT = "/%s/%s";
+    // A failed refresh is retried after this (or the ttl if shorter), serving the stale value
+    private static final long REFRESH_FAILED_RETRY_MILLIS = 10000;
 
     // Prefixes
     private final String parameterPrefix; // Parameters that can hava prefix override
     private final String stackParameterPrefix; // Parameters that must always be from the stack
     private final String commonParameterPrefix; // Parameters from common-api
 
-    private final SSMProvider ssmProvider;
+    private final ParameterSource parameterSource;
+
+    private enum ParameterLookup {
+        PARAMETER,
+        ENCRYPTED_PARAMETER,
+        STACK_PARAMETER,
+        COMMON_PARAMETER,
+        PATH,
+        PATH_WITH_DECRYPTION
+    }
+
+    private record CachedParameter(Object value, ParameterCacheTtl ttl, long refreshAtMillis) {}
+
+    // Keyed by the unprefixed name, so a cache hit does not build the parameter path
+    private final Map<ParameterLookup, Map<String, CachedParameter>> parameterCache =
+            new EnumMap<>(ParameterLookup.class);
+    private final Map<ParameterLookup, Map<String, CompletableFuture<CachedParameter>>>
+            fetchesInFlight = new EnumMap<>(ParameterLookup.class);
+    private final Map<ParameterLookup, Set<String>> refreshesInFlight =
+            new EnumMap<>(ParameterLookup.class);
+
+    private final Executor refreshExecutor;
+    private final Clock clock;
 
-    public ParameterStoreService(SSMProvider ssmProvider) {
-        this.ssmProvider = ssmProvider;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheRefreshes = new LongAdder();
+    private final LongAdder cacheRefreshesFailed = new LongAdder();
+    private final AtomicLong maxRefreshDurationMs = new AtomicLong();
+
+    // Parameters loaded at init, any not in the snapshot are fetched from the parameterSource
+    private final AtomicReference<PassportConfigSnapshot> configSnapshot =
+            new AtomicReference<>(PassportConfigSnapshot.EMPTY);
+
+    private PassportConfigSnapshotLoader configSnapshotLoader;
+    private List<String> configSnapshotPaths;
+    private List<String> configSnapshotNames;
+
+    public ParameterStoreService(SsmClient ssmClient) {
+        this(new SSMParameterSource(ssmClient));
+    }
+
+    public ParameterStoreService(ParameterSource parameterSource) {
+        this(parameterSource, ForkJoinPool.commonPool(), Clock.systemUTC());
+    }
+
+    ParameterStoreService(ParameterSource parameterSource, Executor refreshExecutor, Clock clock) {
+        this.parameterSource = parameterSource;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
 
         this.parameterPrefix =
                 Optional.ofNullable(System.getenv("PARAMETER_PREFIX"))
@@ -31,66 +109,326 @@ public class ParameterStoreService {
         this.stackParameterPrefix = System.getenv("AWS_STACK_NAME");
 
         this.commonParameterPrefix = System.getenv("COMMON_PARAMETER_NAME_PREFIX");
+
+        for (ParameterLookup parameterLookup : ParameterLookup.values()) {
+            parameterCache.put(parameterLookup, new ConcurrentHashMap<>());
+            fetchesInFlight.put(parameterLookup, new ConcurrentHashMap<>());
+            refreshesInFlight.put(parameterLookup, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Loads the parameters in the spec in one parallel fetch. Intended to be called once during
+     * function init - a failure here is not fatal, parameters are then fetched individually.
+     *
+     * @return the number of parameters loaded
+     */
+    public int loadConfigSnapshot(
+            PassportConfigSnapshotLoader loader, PassportConfigSnapshotSpec spec) {
+
+        List<String> paths = new ArrayList<>();
+        spec.parameterPaths()
+                .forEach(path -> paths.add(createParameterName(parameterPrefix, path)));
+
+        List<String> names = new ArrayList<>();
+        spec.parameters().forEach(name -> names.add(createParameterName(parameterPrefix, name)));
+        spec.stackParameters()
+                .forEach(name -> names.add(createParameterName(stackParameterPrefix, name)));
+        spec.commonParameters()
+                .forEach(name -> names.add(createParameterName(commonParameterPrefix, name)));
+
+        this.configSnapshotLoader = loader;
+        this.configSnapshotPaths = List.copyOf(paths);
+        this.configSnapshotNames = List.copyOf(names);
+
+        try {
+            PassportConfigSnapshot loadedSnapshot = loader.load(paths, names);
+            configSnapshot.set(loadedSnapshot);
+
+            // Values read before the snapshot was loaded
+            parameterCache.values().forEach(Map::clear);
+
+            LOGGER.info(
+                    "Config snapshot loaded {} parameters in {}ms",
+                    loadedSnapshot.getParameterCount(),
+                    loadedSnapshot.getLoadDurationMs());
+
+            return loadedSnapshot.getParameterCount();
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Config snapshot not loaded, parameters will be fetched individually - {}",
+                    e.getClass().getSimpleName());
+
+            return 0;
+        }
     }
 
     public String getParameterValue(String parameterName) {
+        return (String) getCachedValue(ParameterLookup.PARAMETER, parameterName);
+    }
 
-        String parameterPath = String.format(PARAMETER_NAME_FORMAT, parameterPrefix, parameterName);
+    public String getEncryptedParameterValue(String parameterName) {
+        return (String) getCachedValue(ParameterLookup.ENCRYPTED_PARAMETER, parameterName);
+    }
 
-        LOGGER.debug(LOG_MESSAGE_FORMAT, "getParameterValue", parameterPath);
+    public String getStackParameterValue(String parameterName) {
+        return (String) getCachedValue(ParameterLookup.STACK_PARAMETER, parameterName);
+    }
 
-        return ssmProvider.get(parameterPath);
+    public String getCommonParameterValue(String parameterName) {
+        return (String) getCachedValue(ParameterLookup.COMMON_PARAMETER, parameterName);
     }
 
-    public String getEncryptedParameterValue(String parameterName) {
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getAllParametersFromPath(String path) {
+        return (Map<String, String>) getCachedValue(ParameterLookup.PATH, path);
+    }
 
-        String encryptedParameterPath =
-                String.format(PARAMETER_NAME_FORMAT, parameterPrefix, parameterName);
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getAllParametersFromPathWithDecryption(String path) {
+        return (Map<String, String>) getCachedValue(ParameterLookup.PATH_WITH_DECRYPTION, path);
+    }
 
-        LOGGER.debug(LOG_MESSAGE_FORMAT, "getEncryptedParameterValue", encryptedParameterPath);
+    /**
+     * Sends the cache metrics counted since the last call. Counted rather than sent per lookup, as
+     * lookups also happen during function init where metrics cannot be sent.
+     */
+    public void publishCacheMetrics(EventProbe eventProbe) {
+        publishIfNotZero(eventProbe, PARAMETER_CACHE_HIT, cacheHits.sumThenReset());
+        publishIfNotZero(eventProbe, PARAMETER_CACHE_MISS, cacheMisses.sumThenReset());
+        publishIfNotZero(eventProbe, PARAMETER_CACHE_REFRESH, cacheRefreshes.sumThenReset());
+        publishIfNotZero(
+                eventProbe, PARAMETER_CACHE_REFRESH_FAILED, cacheRefreshesFailed.sumThenReset());
+        publishIfNotZero(
+                eventProbe, PARAMETER_CACHE_REFRESH_DURATION, maxRefreshDurationMs.getAndSet(0));
+    }
 
-        return ssmProvider.withDecryption().get(encryptedParameterPath);
+    PassportConfigSnapshot getConfigSnapshot() {
+        return configSnapshot.get();
     }
 
-    public String getStackParameterValue(String parameterName) {
+    private Object getCachedValue(ParameterLookup parameterLookup, String parameterName) {
+        Map<String, CachedParameter> lookupCache = parameterCache.get(parameterLookup);
+
+        CachedParameter cachedParameter = lookupCache.get(parameterName);
 
-        String stackParameterPath =
-                String.format(PARAMETER_NAME_FORMAT, stackParameterPrefix, parameterName);
+        if (cachedParameter == null) {
+            cacheMisses.increment();
 
-        LOGGER.debug(LOG_MESSAGE_FORMAT, "getStackParameterValue", stackParameterPath);
+            return fetchOnce(parameterLookup, parameterName).value();
+        }
 
-        return ssmProvider.get(stackParameterPath);
+        cacheHits.increment();
+
+        if (clock.millis() >= cachedParameter.refreshAtMillis()) {
+            refreshInBackground(parameterLookup, parameterName, cachedParameter);
+        }
+
+        return cachedParameter.value();
     }
 
-    public String getCommonParameterValue(String parameterName) {
+    /**
+     * Concurrent misses for the same parameter wait on the one fetch. The fetch runs outside any
+     * map lock, and a failed fetch is removed so the next lookup tries again.
+     */
+    private CachedParameter fetchOnce(ParameterLookup parameterLookup, String parameterName) {
+        Map<String, CachedParameter> lookupCache = parameterCache.get(parameterLookup);
+        Map<String, CompletableFuture<CachedParameter>> lookupFetches =
+                fetchesInFlight.get(parameterLookup);
+
+        CompletableFuture<CachedParameter> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedParameter> fetchInFlight =
+                lookupFetches.putIfAbsent(parameterName, fetch);
+
+        if (fetchInFlight != null) {
+            return awaitFetch(fetchInFlight);
+        }
+
+        try {
+            // A fetch may have completed between the cache miss and putIfAbsent
+            CachedParameter cachedParameter = lookupCache.get(parameterName);
+
+            if (cachedParameter == null) {
+                Object value = fetchParameter(parameterLookup, parameterName, configSnapshot.get());
+                cachedParameter =
+                        createCachedParameter(value, ParameterCacheTtl.forParameter(parameterName));
+
+                lookupCache.put(parameterName, cachedParameter);
+            }
+
+            fetch.complete(cachedParameter);
+
+            return cachedParameter;
+        } catch (RuntimeException | Error e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            lookupFetches.remove(parameterName, fetch);
+        }
+    }
+
+    private static CachedParameter awaitFetch(CompletableFuture<CachedParameter> fetch) {
+        try {
+            return fetch.join();
+        } catch (CompletionException e) {
+            // The exception the fetching thread threw
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
 
-        String commonParameterPath =
-                String.format(PARAMETER_NAME_FORMAT, commonParameterPrefix, parameterName);
+    private void refreshInBackground(
+            ParameterLookup parameterLookup, String parameterName, CachedParameter staleParameter) {
+
+        Set<String> lookupRefreshesInFlight = refreshesInFlight.get(parameterLookup);
+
+        if (!lookupRefreshesInFlight.add(parameterName)) {
+            return;
+        }
+
+        final long staleSinceMillis = staleParameter.refreshAtMillis();
+
+        CompletableFuture.runAsync(
+                () -> {
+                    StopWatch stopWatch = new StopWatch();
+                    stopWatch.start();
+                    try {
+                        PassportConfigSnapshot snapshot =
+                                isInConfigSnapshot(parameterLookup, parameterName)
+                                        ? refreshConfigSnapshot(staleSinceMillis)
+                                        : configSnapshot.get();
+
+                        Object value = fetchParameter(parameterLookup, parameterName, snapshot);
+
+                        parameterCache
+                                .get(parameterLookup)
+                                .put(
+                                        parameterName,
+                                        createCachedParameter(value, staleParameter.ttl()));
+
+                        cacheRefreshes.increment();
+                    } catch (RuntimeException e) {
+                        long retryAtMillis =
+                                clock.millis()
+                                        + Math.min(
+                                                REFRESH_FAILED_RETRY_MILLIS,
+                                                staleParameter.ttl().getTtlMillis());
+
+                        parameterCache
+                                .get(parameterLookup)
+                                .put(
+                                        parameterName,
+                                        new CachedParameter(
+                                                staleParameter.value(),
+                                                staleParameter.ttl(),
+                                                retryAtMillis));
+
+                        cacheRefreshesFailed.increment();
+
+                        LOGGER.warn(
+                                "Refresh of {} failed, serving previous value - {}",
+                                parameterName,
+                                e.getClass().getSimpleName());
+                    } finally {
+                        maxRefreshDurationMs.accumulateAndGet(stopWatch.stop(), Math::max);
+                        lookupRefreshesInFlight.remove(parameterName);
+                    }
+                },
+                refreshExecutor);
+    }
 
-        LOGGER.debug(LOG_MESSAGE_FORMAT, "getCommonParameterValue", commonParameterPath);
+    /**
+     * Parameters that came from the snapshot are refreshed by a version check of the snapshot, once
+     * for all of them - a check since the parameter went stale is reused. Only changed parameters
+     * are fetched again (see PassportConfigSnapshotLoader.refresh).
+     */
+    private synchronized PassportConfigSnapshot refreshConfigSnapshot(long staleSinceMillis) {
+        PassportConfigSnapshot currentSnapshot = configSnapshot.get();
+
+        if (currentSnapshot.getLoadedAtMillis() > staleSinceMillis) {
+            return currentSnapshot;
+        }
+
+        PassportConfigSnapshot refreshedSnapshot =
+                configSnapshotLoader.refresh(
+                        currentSnapshot, configSnapshotPaths, configSnapshotNames);
+        configSnapshot.set(refreshedSnapshot);
+
+        LOGGER.info(
+                "Config snapshot refreshed in {}ms, changed {}",
+                refreshedSnapshot.getLoadDurationMs(),
+                !refreshedSnapshot.hasSameVersions(currentSnapshot));
+
+        return refreshedSnapshot;
+    }
 
-        return ssmProvider.get(commonParameterPath);
+    private boolean isInConfigSnapshot(ParameterLookup parameterLookup, String parameterName) {
+        return configSnapshotLoader != null
+                && getSnapshotValue(parameterLookup, parameterName, configSnapshot.get()) != null;
     }
 
-    public Map<String, String> getAllParametersFromPath(String path) {
+    private Object fetchParameter(
+            ParameterLookup parameterLookup,
+            String parameterName,
+            PassportConfigSnapshot snapshot) {
 
-        String parametersPath = String.format(PARAMETER_NAME_FORMAT, parameterPrefix, path);
+        Object snapshotValue = getSnapshotValue(parameterLookup, parameterName, snapshot);
+        if (snapshotValue != null) {
+            return snapshotValue;
+        }
 
-        LOGGER.debug(LOG_MESSAGE_FORMAT, "getAllParametersFromPath", parametersPath);
+        String parameterPath = createParameterPath(parameterLookup, parameterName);
 
-        return ssmProvider.recursive().getMultiple(parametersPath);
+        LOGGER.debug(LOG_MESSAGE_FORMAT, parameterLookup, parameterPath);
+
+        return switch (parameterLookup) {
+            case PATH -> parameterSource.getMultiple(parameterPath, true, false);
+            case PATH_WITH_DECRYPTION -> parameterSource.getMultiple(parameterPath, false, true);
+            case ENCRYPTED_PARAMETER -> parameterSource.get(parameterPath, true);
+            default -> parameterSource.get(parameterPath, false);
+        };
     }
 
-    public Map<String, String> getAllParametersFromPathWithDecryption(String path) {
+    private Object getSnapshotValue(
+            ParameterLookup parameterLookup,
+            String parameterName,
+            PassportConfigSnapshot snapshot) {
+
+        String parameterPath = createParameterPath(parameterLookup, parameterName);
 
-        String encryptedParametersPath =
-                String.format(PARAMETER_NAME_FORMAT, parameterPrefix, path);
+        return switch (parameterLookup) {
+            // As the parameterSource lookups in fetchParameter
+            case PATH -> snapshot.getValuesByPath(parameterPath, true, false);
+            case PATH_WITH_DECRYPTION -> snapshot.getValuesByPath(parameterPath, false, true);
+            case ENCRYPTED_PARAMETER -> snapshot.getValue(parameterPath, true);
+            default -> snapshot.getValue(parameterPath, false);
+        };
+    }
+
+    private String createParameterPath(ParameterLookup parameterLookup, String parameterName) {
+        return switch (parameterLookup) {
+            case STACK_PARAMETER -> createParameterName(stackParameterPrefix, parameterName);
+            case COMMON_PARAMETER -> createParameterName(commonParameterPrefix, parameterName);
+            default -> createParameterName(parameterPrefix, parameterName);
+        };
+    }
 
-        LOGGER.debug(
-                LOG_MESSAGE_FORMAT,
-                "getAllParametersFromPathWithDecryption",
-                encryptedParametersPath);
+    private CachedParameter createCachedParameter(Object value, ParameterCacheTtl ttl) {
+        return new CachedParameter(value, ttl, clock.millis() + ttl.getTtlMillis());
+    }
+
+    private static void publishIfNotZero(EventProbe eventProbe, String metric, long value) {
+        if (value != 0) {
+            eventProbe.counterMetric(metric, value);
+        }
+    }
 
-        return ssmProvider.withDecryption().getMultiple(encryptedParametersPath);
+    private static String createParameterName(String prefix, String name) {
+        return "/" + prefix + "/" + name;
     }
 }
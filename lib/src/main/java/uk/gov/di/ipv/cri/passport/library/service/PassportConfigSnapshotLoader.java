@@ -0,0 +1,229 @@
+package uk.gov.di.ipv.cri.passport.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterType;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshot;
+import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches a PassportConfigSnapshot with one GetParametersByPath per path and GetParameters batches
+ * for individual names, all issued in parallel.
+ *
+ * <p>A refresh first checks the parameter versions without decryption, and only fetches (decrypted)
+ * the SecureString parameters which changed.
+ */
+public class PassportConfigSnapshotLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // SSM GetParameters limit
+    static final int GET_PARAMETERS_MAX_NAMES = 10;
+
+    private final SsmClient ssmClient;
+    private final Executor executor;
+
+    public PassportConfigSnapshotLoader(SsmClient ssmClient) {
+        // Not the common pool - it has a single thread (or none) with the cpu lambdas get
+        this(
+                ssmClient,
+                Executors.newCachedThreadPool(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "config-snapshot-fetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    PassportConfigSnapshotLoader(SsmClient ssmClient, Executor executor) {
+        this.ssmClient = ssmClient;
+        this.executor = executor;
+    }
+
+    /**
+     * @param paths full paths, all parameters under each are loaded (recursive, decrypted)
+     * @param names full parameter names (decrypted)
+     * @return the loaded snapshot
+     */
+    public PassportConfigSnapshot load(List<String> paths, List<String> names) {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        List<Parameter> parameters = fetch(paths, names, true);
+
+        Map<String, String> values = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
+        Set<String> secureStringNames = new HashSet<>();
+
+        for (Parameter parameter : parameters) {
+            putParameter(parameter, values, versions, secureStringNames);
+        }
+
+        long loadDurationMs = stopWatch.stop();
+
+        LOGGER.debug("Fetched {} parameters in {}ms", values.size(), loadDurationMs);
+
+        return new PassportConfigSnapshot(
+                values,
+                versions,
+                secureStringNames,
+                paths,
+                System.currentTimeMillis(),
+                loadDurationMs);
+    }
+
+    /**
+     * Checks the versions of the parameters (fetched without decryption, so no KMS calls). If none
+     * changed the current values are kept, otherwise the changed SecureString parameters are
+     * fetched again with decryption.
+     *
+     * @param currentSnapshot the snapshot loaded from the same paths and names
+     * @param paths full paths, all parameters under each are loaded (recursive)
+     * @param names full parameter names
+     * @return the current snapshot with a new load time if unchanged, else the reloaded snapshot
+     */
+    public PassportConfigSnapshot refresh(
+            PassportConfigSnapshot currentSnapshot, List<String> paths, List<String> names) {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        List<Parameter> parameters = fetch(paths, names, false);
+
+        Map<String, Long> checkedVersions = new HashMap<>();
+        parameters.forEach(parameter -> checkedVersions.put(parameter.name(), parameter.version()));
+
+        if (currentSnapshot.hasVersions(checkedVersions)) {
+            return currentSnapshot.withLoadedAt(System.currentTimeMillis(), stopWatch.stop());
+        }
+
+        Map<String, String> values = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
+        Set<String> secureStringNames = new HashSet<>();
+        List<String> changedSecureStringNames = new ArrayList<>();
+
+        for (Parameter parameter : parameters) {
+            boolean secureString = parameter.type() == ParameterType.SECURE_STRING;
+            boolean unchanged =
+                    parameter.version().equals(currentSnapshot.getVersion(parameter.name()));
+
+            if (unchanged && secureString) {
+                // Decrypted when loaded
+                values.put(parameter.name(), currentSnapshot.getValue(parameter.name(), true));
+                versions.put(parameter.name(), parameter.version());
+                secureStringNames.add(parameter.name());
+            } else if (secureString) {
+                changedSecureStringNames.add(parameter.name());
+            } else {
+                putParameter(parameter, values, versions, secureStringNames);
+            }
+        }
+
+        for (Parameter parameter : fetch(List.of(), changedSecureStringNames, true)) {
+            putParameter(parameter, values, versions, secureStringNames);
+        }
+
+        long loadDurationMs = stopWatch.stop();
+
+        LOGGER.debug(
+                "Refreshed {} parameters, {} SecureString parameters changed, in {}ms",
+                values.size(),
+                changedSecureStringNames.size(),
+                loadDurationMs);
+
+        return new PassportConfigSnapshot(
+                values,
+                versions,
+                secureStringNames,
+                paths,
+                System.currentTimeMillis(),
+                loadDurationMs);
+    }
+
+    private List<Parameter> fetch(List<String> paths, List<String> names, boolean withDecryption) {
+        List<CompletableFuture<List<Parameter>>> fetches = new ArrayList<>();
+
+        for (String path : paths) {
+            fetches.add(
+                    CompletableFuture.supplyAsync(
+                            () -> getParametersByPath(path, withDecryption), executor));
+        }
+
+        for (int from = 0; from < names.size(); from += GET_PARAMETERS_MAX_NAMES) {
+            List<String> batch =
+                    names.subList(from, Math.min(from + GET_PARAMETERS_MAX_NAMES, names.size()));
+            fetches.add(
+                    CompletableFuture.supplyAsync(
+                            () -> getParameters(batch, withDecryption), executor));
+        }
+
+        List<Parameter> parameters = new ArrayList<>();
+
+        for (CompletableFuture<List<Parameter>> fetch : fetches) {
+            parameters.addAll(fetch.join());
+        }
+
+        return parameters;
+    }
+
+    private static void putParameter(
+            Parameter parameter,
+            Map<String, String> values,
+            Map<String, Long> versions,
+            Set<String> secureStringNames) {
+        values.put(parameter.name(), parameter.value());
+        versions.put(parameter.name(), parameter.version());
+
+        if (parameter.type() == ParameterType.SECURE_STRING) {
+            secureStringNames.add(parameter.name());
+        }
+    }
+
+    private List<Parameter> getParametersByPath(String path, boolean withDecryption) {
+        GetParametersByPathRequest getParametersByPathRequest =
+                GetParametersByPathRequest.builder()
+                        .path(path)
+                        .recursive(true)
+                        .withDecryption(withDecryption)
+                        .build();
+
+        return ssmClient
+                .getParametersByPathPaginator(getParametersByPathRequest)
+                .parameters()
+                .stream()
+                .toList();
+    }
+
+    private List<Parameter> getParameters(List<String> names, boolean withDecryption) {
+        GetParametersRequest getParametersRequest =
+                GetParametersRequest.builder().names(names).withDecryption(withDecryption).build();
+
+        GetParametersResponse getParametersResponse =
+                ssmClient.getParameters(getParametersRequest);
+
+        if (getParametersResponse.hasInvalidParameters()
+                && !getParametersResponse.invalidParameters().isEmpty()) {
+            // Not fatal - the parameter will be fetched individually if used
+            LOGGER.warn(
+                    "{} parameters not found {}",
+                    getParametersResponse.invalidParameters().size(),
+                    getParametersResponse.invalidParameters());
+        }
+
+        return getParametersResponse.parameters();
+    }
+}
@@ -2,8 +2,12 @@ package uk.gov.di.ipv.cri.passport.library.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
@@ -11,24 +15,44 @@ import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
-import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
-
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetricsInterceptor;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.parameters.FileParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.ParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.SSMParameterSource;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+
+import java.nio.file.Path;
 import java.time.Clock;
+import java.util.Optional;
 
 import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME;
 
 public class ServiceFactory {
 
+    // SSM unless set - FILE reads all parameters from PARAMETER_SOURCE_FILE (offline runs)
+    private static final String PARAMETER_SOURCE = "PARAMETER_SOURCE";
+    private static final String PARAMETER_SOURCE_FILE = "PARAMETER_SOURCE_FILE";
+
     private ObjectMapper objectMapper;
     private EventProbe eventProbe;
+    private InvocationTimeline invocationTimeline;
+    private ThirdPartyAPIEndpointLatencyHistograms thirdPartyAPIEndpointLatencyHistograms;
+    private AwsSdkCallMetrics awsSdkCallMetrics;
     private ClientProviderFactory clientProviderFactory;
     private ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
+    private SsmClient ssmClient;
+    private ParameterSource parameterSource;
     private ParameterStoreService parameterStoreService;
     private ConfigurationService commonLibConfigurationService;
     private SessionService sessionService;
     private AuditService auditService;
     private PersonIdentityService personIdentityService;
-    private DataStore<DocumentCheckResultItem> documentCheckResultStore;
+    private DocumentCheckResultStore documentCheckResultStore;
 
     /**
      * Creates common service objects used by *both* passport lambdas Important - - All objects in
@@ -49,7 +73,7 @@ public class ServiceFactory {
             SessionService sessionService,
             AuditService auditService,
             PersonIdentityService personIdentityService,
-            DataStore<DocumentCheckResultItem> documentCheckResultStore) {
+            DocumentCheckResultStore documentCheckResultStore) {
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
         this.clientProviderFactory = clientProviderFactory;
@@ -72,12 +96,52 @@ public class ServiceFactory {
     public EventProbe getEventProbe() {
 
         if (eventProbe == null) {
-            eventProbe = new EventProbe();
+            // Metrics are written once at the end of each invocation
+            eventProbe = new AccumulatingEventProbe();
         }
 
         return eventProbe;
     }
 
+    /**
+     * @return the event probe if it holds the invocation's metrics until flushed, null if an
+     *     injected probe writes them itself (there is then nothing to flush)
+     */
+    public AccumulatingEventProbe getAccumulatingEventProbe() {
+        return getEventProbe() instanceof AccumulatingEventProbe accumulatingEventProbe
+                ? accumulatingEventProbe
+                : null;
+    }
+
+    public InvocationTimeline getInvocationTimeline() {
+
+        if (invocationTimeline == null) {
+            // Written with the invocation's metrics when the event probe accumulates them
+            invocationTimeline = new InvocationTimeline(getAccumulatingEventProbe());
+        }
+
+        return invocationTimeline;
+    }
+
+    public ThirdPartyAPIEndpointLatencyHistograms getThirdPartyAPIEndpointLatencyHistograms() {
+
+        if (thirdPartyAPIEndpointLatencyHistograms == null) {
+            thirdPartyAPIEndpointLatencyHistograms = new ThirdPartyAPIEndpointLatencyHistograms();
+        }
+
+        return thirdPartyAPIEndpointLatencyHistograms;
+    }
+
+    public AwsSdkCallMetrics getAwsSdkCallMetrics() {
+
+        if (awsSdkCallMetrics == null) {
+            // Shared with AwsSdkCallMetricsInterceptor, see createClientOverrideConfiguration
+            awsSdkCallMetrics = AwsSdkCallMetrics.getInstance();
+        }
+
+        return awsSdkCallMetrics;
+    }
+
     public ClientProviderFactory getClientProviderFactory() {
 
         if (clientProviderFactory == null) {
@@ -92,7 +156,9 @@ public class ServiceFactory {
 
     public ApacheHTTPClientFactoryService getApacheHTTPClientFactoryService() {
         if (apacheHTTPClientFactoryService == null) {
-            apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService();
+            apacheHTTPClientFactoryService =
+                    new ApacheHTTPClientFactoryService(
+                            getThirdPartyAPIEndpointLatencyHistograms(), getEventProbe());
         }
 
         return apacheHTTPClientFactoryService;
@@ -101,13 +167,80 @@ public class ServiceFactory {
     public ParameterStoreService getParameterStoreService() {
 
         if (parameterStoreService == null) {
-            parameterStoreService =
-                    new ParameterStoreService(getClientProviderFactory().getSSMProvider());
+            parameterStoreService = new ParameterStoreService(getParameterSource());
         }
 
         return parameterStoreService;
     }
 
+    public ParameterSource getParameterSource() {
+
+        if (parameterSource == null) {
+            String source = Optional.ofNullable(System.getenv(PARAMETER_SOURCE)).orElse("SSM");
+
+            if ("SSM".equals(source)) {
+                parameterSource = new SSMParameterSource(getSsmClient());
+            } else if ("FILE".equals(source)) {
+                parameterSource =
+                        new FileParameterSource(
+                                Path.of(System.getenv(PARAMETER_SOURCE_FILE)), getObjectMapper());
+            } else {
+                throw new IllegalStateException("Unknown " + PARAMETER_SOURCE + " " + source);
+            }
+        }
+
+        return parameterSource;
+    }
+
+    public SsmClient getSsmClient() {
+
+        if (ssmClient == null) {
+            // Used directly for parameter reads (see SSMParameterSource) and batch fetches.
+            // It replaces the client of the powertools SSMProvider, so is built as
+            // ClientProviderFactory builds that client with
+            // avoidExecutionInterceptorsOnClientsUsedByPowerTools (see getClientProviderFactory),
+            // without the OpenTel execution interceptor. Only the passport call metrics
+            // interceptor is added.
+            ssmClient =
+                    SsmClient.builder()
+                            .region(Region.of(System.getenv("AWS_REGION")))
+                            .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                            .httpClient(AwsCrtHttpClient.create())
+                            .overrideConfiguration(createClientOverrideConfiguration())
+                            .build();
+        }
+
+        return ssmClient;
+    }
+
+    /**
+     * Override configuration of the SDK clients built here (not the ClientProviderFactory clients,
+     * which include those of the powertools providers), records their calls with
+     * AwsSdkCallMetricsInterceptor.
+     */
+    public static ClientOverrideConfiguration createClientOverrideConfiguration() {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(new AwsSdkCallMetricsInterceptor())
+                .build();
+    }
+
+    /**
+     * Loads the parameters a lambda uses in one parallel fetch during function init, later reads
+     * from the ParameterStoreService are then served from memory.
+     *
+     * @return the number of parameters loaded
+     */
+    public int loadConfigSnapshot(PassportConfigSnapshotSpec spec) {
+
+        if (!(getParameterSource() instanceof SSMParameterSource)) {
+            // Already in memory
+            return 0;
+        }
+
+        return getParameterStoreService()
+                .loadConfigSnapshot(new PassportConfigSnapshotLoader(getSsmClient()), spec);
+    }
+
     public SessionService getSessionService() {
 
         if (sessionService == null) {
@@ -159,7 +292,7 @@ public class ServiceFactory {
         return commonLibConfigurationService;
     }
 
-    public DataStore<DocumentCheckResultItem> getDocumentCheckResultStore() {
+    public DocumentCheckResultStore getDocumentCheckResultStore() {
 
         if (documentCheckResultStore == null) {
             final String tableName =
@@ -167,10 +300,8 @@ public class ServiceFactory {
                             .getStackParameterValue(DOCUMENT_CHECK_RESULT_TABLE_NAME);
 
             documentCheckResultStore =
-                    new DataStore<>(
-                            tableName,
-                            DocumentCheckResultItem.class,
-                            getClientProviderFactory().getDynamoDbEnhancedClient());
+                    new DocumentCheckResultStore(
+                            tableName, getClientProviderFactory().getDynamoDbEnhancedClient());
         }
 
         return documentCheckResultStore;
@@ -0,0 +1,20 @@
+package uk.gov.di.ipv.cri.passport.library.snapstart;
+
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+/**
+ * EventProbe used while priming. Metrics recorded outside of an invocation would be flushed with
+ * the first real invocation, so priming runs must not publish any.
+ */
+public class PrimingEventProbe extends EventProbe {
+
+    @Override
+    public EventProbe counterMetric(String key) {
+        return this;
+    }
+
+    @Override
+    public EventProbe counterMetric(String key, double value) {
+        return this;
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.di.ipv.cri.passport.library.snapstart;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
+
+import java.security.SecureRandom;
+
+/**
+ * Base for the lambda SnapStart runtime hooks.
+ *
+ * <p>beforeCheckpoint runs once after function init, before the snapshot is taken, code run in
+ * prime() is JIT compiled/class loaded into the snapshot. afterRestore runs in each execution
+ * environment restored from that snapshot.
+ *
+ * <p>Priming and restore are best effort - a failure is logged and never prevents the snapshot or
+ * the restore from completing.
+ */
+public abstract class SnapStartPrimingResource implements Resource {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Algorithm whose instances share a single seeded state (also used by UUID.randomUUID)
+    static final String SHARED_STATE_SECURE_RANDOM_ALGORITHM = "NativePRNG";
+    private static final int RESEED_BYTES = 32;
+
+    private final String resourceName = getClass().getSimpleName();
+
+    /** Registers this resource with the global CRaC context (callers must hold a reference). */
+    public void register() {
+        Core.getGlobalContext().register(this);
+        LOGGER.info("{} registered for SnapStart runtime hooks", resourceName);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        LOGGER.info("{} priming before checkpoint...", resourceName);
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        try {
+            prime();
+            LOGGER.info("{} primed in {}ms", resourceName, stopWatch.stop());
+        } catch (Exception e) {
+            // Priming is an optimisation, the snapshot must still be taken
+            LOGGER.warn(
+                    "{} priming failed after {}ms - {}",
+                    resourceName,
+                    stopWatch.stop(),
+                    e.getClass().getSimpleName());
+            LOGGER.debug(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        LOGGER.info("{} restoring...", resourceName);
+
+        reseedSecureRandom(new SecureRandom());
+
+        try {
+            restore();
+        } catch (Exception e) {
+            LOGGER.warn("{} restore failed - {}", resourceName, e.getClass().getSimpleName());
+            LOGGER.debug(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Every environment restored from a snapshot starts with the same in-memory PRNG state. Fresh
+     * seed material is mixed into the shared NativePRNG state, which is also the source for
+     * UUID.randomUUID (request ids, session ids, jti).
+     *
+     * @param secureRandom a default SecureRandom instance
+     * @return true if the shared state was reseeded
+     */
+    static boolean reseedSecureRandom(SecureRandom secureRandom) {
+        if (!SHARED_STATE_SECURE_RANDOM_ALGORITHM.equals(secureRandom.getAlgorithm())) {
+            // Any other algorithm would hand each restored environment the same sequence
+            LOGGER.error(
+                    "SecureRandom algorithm {} is not {}, unable to reseed shared state after restore",
+                    secureRandom.getAlgorithm(),
+                    SHARED_STATE_SECURE_RANDOM_ALGORITHM);
+            return false;
+        }
+
+        secureRandom.setSeed(secureRandom.generateSeed(RESEED_BYTES));
+        LOGGER.info("SecureRandom reseeded after restore");
+
+        return true;
+    }
+
+    /** Exercise the hot paths of the lambda, must not perform any remote writes. */
+    @SuppressWarnings("java:S112")
+    protected abstract void prime() throws Exception;
+
+    /** Refresh any state which must not be shared between restored environments. */
+    @SuppressWarnings("java:S112")
+    protected abstract void restore() throws Exception;
+}
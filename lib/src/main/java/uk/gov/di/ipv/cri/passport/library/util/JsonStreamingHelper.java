@@ -0,0 +1,197 @@
+package uk.gov.di.ipv.cri.passport.library.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and writes the properties of the hand written (de)serializers of the request and response
+ * types, in place of Jackson's reflective bean (de)serializers. Values are read with the same
+ * coercions and null handling as the bean deserializers - the common token is read directly,
+ * anything else is passed to Jackson's own deserializer for the value type.
+ */
+public final class JsonStreamingHelper {
+
+    private JsonStreamingHelper() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    /** @return true when the parser is at an object, else Jackson reports the unexpected token */
+    public static boolean isAtObject(JsonParser jsonParser) {
+        JsonToken token = jsonParser.currentToken();
+        return token == JsonToken.START_OBJECT
+                || token == JsonToken.FIELD_NAME
+                || token == JsonToken.END_OBJECT;
+    }
+
+    /**
+     * @return the name of the first property of the object the parser is at (moving the parser to
+     *     it), null for an empty object. Move to each following property with nextFieldName()
+     */
+    public static String firstPropertyName(JsonParser jsonParser) throws IOException {
+        JsonToken token = jsonParser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return jsonParser.nextFieldName();
+        }
+
+        return token == JsonToken.FIELD_NAME ? jsonParser.currentName() : null;
+    }
+
+    public static String readString(JsonParser jsonParser, DeserializationContext context)
+            throws IOException {
+        if (jsonParser.currentToken() == JsonToken.VALUE_STRING) {
+            return jsonParser.getText();
+        }
+
+        return read(jsonParser, context, String.class);
+    }
+
+    public static long readLong(JsonParser jsonParser, DeserializationContext context)
+            throws IOException {
+        if (jsonParser.currentToken() == JsonToken.VALUE_NUMBER_INT
+                && jsonParser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            return jsonParser.getLongValue();
+        }
+
+        return read(jsonParser, context, Long.TYPE);
+    }
+
+    public static UUID readUUID(JsonParser jsonParser, DeserializationContext context)
+            throws IOException {
+        return read(jsonParser, context, UUID.class);
+    }
+
+    /** A LocalDate with a @JsonFormat pattern, as read by the JavaTimeModule. */
+    public static LocalDate readLocalDate(
+            JsonParser jsonParser, DeserializationContext context, DateTimeFormatter formatter)
+            throws IOException {
+        if (jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+            return read(jsonParser, context, LocalDate.class);
+        }
+
+        String text = jsonParser.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(text, formatter);
+        } catch (DateTimeException e) {
+            return (LocalDate)
+                    context.handleWeirdStringValue(
+                            LocalDate.class,
+                            text,
+                            "Failed to deserialize java.time.LocalDate: (%s) %s",
+                            e.getClass().getName(),
+                            e.getMessage());
+        }
+    }
+
+    /**
+     * A List of String, with a single value read as a one element list when acceptSingleValue
+     * (JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY).
+     */
+    public static List<String> readStringList(
+            JsonParser jsonParser, DeserializationContext context, boolean acceptSingleValue)
+            throws IOException {
+        JsonToken token = jsonParser.currentToken();
+        if (acceptSingleValue && token != JsonToken.START_ARRAY && token != JsonToken.VALUE_NULL) {
+            List<String> values = new ArrayList<>(1);
+            values.add(readString(jsonParser, context));
+            return values;
+        }
+
+        return read(
+                jsonParser,
+                context,
+                context.getTypeFactory().constructCollectionType(List.class, String.class));
+    }
+
+    public static Map<String, String> readStringMap(
+            JsonParser jsonParser, DeserializationContext context) throws IOException {
+        return read(
+                jsonParser,
+                context,
+                context.getTypeFactory().constructMapType(Map.class, String.class, String.class));
+    }
+
+    /** Reads a value with Jackson's deserializer for its type, null as that deserializer would. */
+    public static <T> T read(JsonParser jsonParser, DeserializationContext context, Class<T> type)
+            throws IOException {
+        return read(jsonParser, context, context.constructType(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T read(JsonParser jsonParser, DeserializationContext context, JavaType type)
+            throws IOException {
+        if (jsonParser.currentToken() == JsonToken.VALUE_NULL) {
+            return (T) context.findRootValueDeserializer(type).getNullValue(context);
+        }
+
+        return context.readValue(jsonParser, type);
+    }
+
+    /** Reports a missing required (creator) property, as Jackson's bean deserializer does. */
+    public static <T> T reportMissingProperty(
+            DeserializationContext context, Class<T> type, String propertyName)
+            throws IOException {
+        return context.reportInputMismatch(
+                type, "Missing required creator property '%s'", propertyName);
+    }
+
+    public static void writeUUIDField(JsonGenerator jsonGenerator, String name, UUID value)
+            throws IOException {
+        jsonGenerator.writeStringField(name, value == null ? null : value.toString());
+    }
+
+    public static void writeLocalDateField(
+            JsonGenerator jsonGenerator,
+            String name,
+            LocalDate value,
+            DateTimeFormatter formatter)
+            throws IOException {
+        jsonGenerator.writeStringField(name, value == null ? null : formatter.format(value));
+    }
+
+    public static void writeStringListField(
+            JsonGenerator jsonGenerator, String name, List<String> values) throws IOException {
+        jsonGenerator.writeFieldName(name);
+        if (values == null) {
+            jsonGenerator.writeNull();
+            return;
+        }
+
+        jsonGenerator.writeStartArray(values, values.size());
+        for (String value : values) {
+            jsonGenerator.writeString(value);
+        }
+        jsonGenerator.writeEndArray();
+    }
+
+    public static void writeStringMapField(
+            JsonGenerator jsonGenerator, String name, Map<String, String> values)
+            throws IOException {
+        jsonGenerator.writeFieldName(name);
+        if (values == null) {
+            jsonGenerator.writeNull();
+            return;
+        }
+
+        jsonGenerator.writeStartObject(values);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            jsonGenerator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        jsonGenerator.writeEndObject();
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.di.ipv.cri.passport.library.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.HMPO_API_HEADER_PARAMETER_PATH;
+import static uk.gov.di.ipv.cri.passport.library.config.ParameterStoreParameters.MAX_JWT_TTL_UNIT;
+
+class ParameterCacheTtlTest {
+
+    @Test
+    void shouldReturnTtlForKnownParameters() {
+        assertEquals(
+                ParameterCacheTtl.STATIC,
+                ParameterCacheTtl.forParameter(DOCUMENT_CHECK_RESULT_TABLE_NAME));
+        assertEquals(
+                ParameterCacheTtl.ROTATING_SECRET,
+                ParameterCacheTtl.forParameter(HMPO_API_HEADER_PARAMETER_PATH));
+        assertEquals(ParameterCacheTtl.TUNABLE, ParameterCacheTtl.forParameter(MAX_JWT_TTL_UNIT));
+    }
+
+    @Test
+    void shouldReturnTunableTtlForUnknownParameters() {
+        assertEquals(ParameterCacheTtl.TUNABLE, ParameterCacheTtl.forParameter("Unknown"));
+    }
+
+    @Test
+    void shouldRefreshRotatingSecretsBeforeStaticParameters() {
+        assertTrue(
+                ParameterCacheTtl.ROTATING_SECRET.getTtlMillis()
+                        < ParameterCacheTtl.STATIC.getTtlMillis());
+    }
+}
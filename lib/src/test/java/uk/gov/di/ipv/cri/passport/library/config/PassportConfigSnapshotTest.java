@@ -0,0 +1,108 @@
+package uk.gov.di.ipv.cri.passport.library.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassportConfigSnapshotTest {
+
+    private static final String TEST_PATH = "/stack/HMPODVAD";
+
+    private final PassportConfigSnapshot passportConfigSnapshot =
+            new PassportConfigSnapshot(
+                    Map.of(
+                            "/stack/Parameter",
+                            "value",
+                            TEST_PATH + "/API/EndpointUrl",
+                            "url",
+                            TEST_PATH + "/API/Header/ApiKey",
+                            "key"),
+                    Map.of(
+                            "/stack/Parameter",
+                            1L,
+                            TEST_PATH + "/API/EndpointUrl",
+                            2L,
+                            TEST_PATH + "/API/Header/ApiKey",
+                            3L),
+                    Set.of(TEST_PATH + "/API/Header/ApiKey"),
+                    List.of(TEST_PATH),
+                    1000,
+                    50);
+
+    @Test
+    void shouldReturnValueByFullParameterName() {
+        assertEquals("value", passportConfigSnapshot.getValue("/stack/Parameter", false));
+        assertEquals("value", passportConfigSnapshot.getValue("/stack/Parameter", true));
+        assertNull(passportConfigSnapshot.getValue("/stack/Missing", true));
+        assertEquals(3, passportConfigSnapshot.getParameterCount());
+        assertEquals(1000, passportConfigSnapshot.getLoadedAtMillis());
+        assertEquals(50, passportConfigSnapshot.getLoadDurationMs());
+    }
+
+    @Test
+    void shouldReturnValuesRelativeToPathWhenPathLoaded() {
+        assertEquals(
+                Map.of("API/EndpointUrl", "url", "API/Header/ApiKey", "key"),
+                passportConfigSnapshot.getValuesByPath(TEST_PATH, true, true));
+        assertEquals(
+                Map.of("EndpointUrl", "url"),
+                passportConfigSnapshot.getValuesByPath(TEST_PATH + "/API", false, false));
+        assertEquals(
+                Map.of("ApiKey", "key"),
+                passportConfigSnapshot.getValuesByPath(TEST_PATH + "/API/Header", false, true));
+    }
+
+    @Test
+    void shouldOnlyReturnSecureStringValuesToLookupsWithDecryption() {
+        assertEquals(
+                "key", passportConfigSnapshot.getValue(TEST_PATH + "/API/Header/ApiKey", true));
+        assertNull(passportConfigSnapshot.getValue(TEST_PATH + "/API/Header/ApiKey", false));
+        assertNull(passportConfigSnapshot.getValuesByPath(TEST_PATH, true, false));
+        assertNull(passportConfigSnapshot.getValuesByPath(TEST_PATH + "/API/Header", false, false));
+    }
+
+    @Test
+    void shouldReturnNullWhenPathNotLoaded() {
+        assertNull(passportConfigSnapshot.getValuesByPath("/stack", true, true));
+        assertNull(passportConfigSnapshot.getValuesByPath("/stack/HMPODVADOther", true, true));
+        assertNull(PassportConfigSnapshot.EMPTY.getValuesByPath(TEST_PATH, true, true));
+    }
+
+    @Test
+    void shouldCompareVersions() {
+        PassportConfigSnapshot changedSnapshot =
+                new PassportConfigSnapshot(
+                        Map.of("/stack/Parameter", "value"),
+                        Map.of("/stack/Parameter", 1L),
+                        Set.of(),
+                        List.of(),
+                        2000,
+                        50);
+
+        assertTrue(passportConfigSnapshot.hasSameVersions(passportConfigSnapshot));
+        assertFalse(passportConfigSnapshot.hasSameVersions(changedSnapshot));
+        assertFalse(passportConfigSnapshot.hasSameVersions(PassportConfigSnapshot.EMPTY));
+        assertTrue(changedSnapshot.hasVersions(Map.of("/stack/Parameter", 1L)));
+        assertFalse(changedSnapshot.hasVersions(Map.of("/stack/Parameter", 2L)));
+        assertEquals(2L, passportConfigSnapshot.getVersion(TEST_PATH + "/API/EndpointUrl"));
+        assertNull(passportConfigSnapshot.getVersion("/stack/Missing"));
+    }
+
+    @Test
+    void shouldKeepParametersWhenLoadTimeUpdated() {
+        PassportConfigSnapshot checkedSnapshot = passportConfigSnapshot.withLoadedAt(3000, 5);
+
+        assertEquals(3000, checkedSnapshot.getLoadedAtMillis());
+        assertEquals(5, checkedSnapshot.getLoadDurationMs());
+        assertTrue(checkedSnapshot.hasSameVersions(passportConfigSnapshot));
+        assertNull(checkedSnapshot.getValue(TEST_PATH + "/API/Header/ApiKey", false));
+        assertEquals("value", checkedSnapshot.getValue("/stack/Parameter", false));
+    }
+}
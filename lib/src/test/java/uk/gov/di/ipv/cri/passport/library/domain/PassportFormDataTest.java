@@ -0,0 +1,125 @@
+package uk.gov.di.ipv.cri.passport.library.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.assertEveryPropertyRoundTrips;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.createReflectiveObjectMapper;
+import static uk.gov.di.ipv.cri.passport.library.JsonSerializationTestFixtures.readOutcome;
+
+class PassportFormDataTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final ObjectMapper REFLECTIVE_OBJECT_MAPPER = createReflectiveObjectMapper();
+
+    private static final String IDS =
+            "\"correlationId\":\"d8a29425-3b86-4442-b771-0cee78ebc4dd\","
+                    + "\"requestId\":\"28c30eb2-577b-40d1-b55e-c0fcb75bfae7\","
+                    + "\"timestamp\":\"2024-01-01T00:00:00.000+0000\"";
+
+    @Test
+    void shouldSerializeAsTheReflectiveSerializer() throws JsonProcessingException {
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.writeValueAsString(passportFormData),
+                OBJECT_MAPPER.writeValueAsString(passportFormData));
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.convertValue(passportFormData, Map.class),
+                OBJECT_MAPPER.convertValue(passportFormData, Map.class));
+    }
+
+    @Test
+    void shouldSerializeNullPropertiesAsTheReflectiveSerializer() throws JsonProcessingException {
+        PassportFormData passportFormData = new PassportFormData();
+
+        assertEquals(
+                REFLECTIVE_OBJECT_MAPPER.writeValueAsString(passportFormData),
+                OBJECT_MAPPER.writeValueAsString(passportFormData));
+    }
+
+    @Test
+    void shouldRoundTripEveryProperty() throws JsonProcessingException {
+        PassportFormData passportFormData = PassportFormTestDataGenerator.generate();
+        passportFormData.setCorrelationId(UUID.fromString("d8a29425-3b86-4442-b771-0cee78ebc4dd"));
+        passportFormData.setRequestId(UUID.fromString("28c30eb2-577b-40d1-b55e-c0fcb75bfae7"));
+        passportFormData.setTimestamp("2024-01-01T00:00:00.000+0000");
+
+        assertEveryPropertyRoundTrips(passportFormData);
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\",\"MiddleName\"],"
+                        + "\"dateOfBirth\":\"1999-01-01\",\"expiryDate\":\"2030-01-01\","
+                        + IDS
+                        + "}",
+                // Single forename, invalid day of month, coerced scalars
+                "{\"passportNumber\":123456789,\"surname\":true,\"forenames\":\"FirstName\","
+                        + "\"dateOfBirth\":\" \",\"expiryDate\":\"2030-02-30\","
+                        + IDS
+                        + "}",
+                "{\"passportNumber\":null,\"surname\":null,\"forenames\":null,"
+                        + "\"dateOfBirth\":\"\",\"expiryDate\":null,"
+                        + "\"correlationId\":null,\"requestId\":null,\"timestamp\":null}",
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\",null,3],"
+                        + "\"dateOfBirth\":[1999,1,2],\"expiryDate\":\"2030-01-01\","
+                        + IDS
+                        + "}",
+                // Missing required property
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\"],\"dateOfBirth\":\"1999-01-01\"}",
+                "{}",
+                // Unknown property
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\"],\"dateOfBirth\":\"1999-01-01\","
+                        + "\"expiryDate\":\"2030-01-01\",\"unknown\":1}",
+                // Invalid values
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\"],\"dateOfBirth\":\"1999-1-1\","
+                        + "\"expiryDate\":\"2030-01-01\"}",
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                        + "\"forenames\":[\"FirstName\"],\"dateOfBirth\":\"1999-01-01\","
+                        + "\"expiryDate\":\"2030-01-01\",\"correlationId\":\"not-a-uuid\"}",
+                "{\"passportNumber\":{},\"surname\":\"Surname\",\"forenames\":[\"FirstName\"],"
+                        + "\"dateOfBirth\":\"1999-01-01\",\"expiryDate\":\"2030-01-01\"}",
+                "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\",\"forenames\":{},"
+                        + "\"dateOfBirth\":\"1999-01-01\",\"expiryDate\":\"2030-01-01\"}",
+                "\"123456789\"",
+                "[]",
+                "null",
+                "{\"passportNumber\":\"123456789\""
+            })
+    void shouldDeserializeAsTheReflectiveDeserializer(String json) {
+        assertEquals(
+                readOutcome(REFLECTIVE_OBJECT_MAPPER, json, PassportFormData.class),
+                readOutcome(OBJECT_MAPPER, json, PassportFormData.class));
+    }
+
+    @Test
+    void shouldGenerateTheIdsAndTimestampWhenNotGiven() throws JsonProcessingException {
+        PassportFormData passportFormData =
+                OBJECT_MAPPER.readValue(
+                        "{\"passportNumber\":\"123456789\",\"surname\":\"Surname\","
+                                + "\"forenames\":[\"FirstName\"],\"dateOfBirth\":\"1999-01-01\","
+                                + "\"expiryDate\":\"2030-01-01\"}",
+                        PassportFormData.class);
+
+        assertNotNull(passportFormData.getCorrelationId());
+        assertNotNull(passportFormData.getRequestId());
+        assertNotNull(passportFormData.getTimestamp());
+    }
+}
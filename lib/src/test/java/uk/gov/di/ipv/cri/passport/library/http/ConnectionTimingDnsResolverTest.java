@@ -0,0 +1,35 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.conn.DnsResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionTimingDnsResolverTest {
+
+    @Mock private DnsResolver mockDnsResolver;
+
+    @Test
+    void shouldReturnResolvedAddressesAndHoldResolveDurationUntilTaken()
+            throws UnknownHostException {
+        InetAddress[] addresses = {InetAddress.getLoopbackAddress()};
+        when(mockDnsResolver.resolve("localhost")).thenReturn(addresses);
+
+        ConnectionTimingDnsResolver dnsResolver = new ConnectionTimingDnsResolver(mockDnsResolver);
+
+        assertSame(addresses, dnsResolver.resolve("localhost"));
+        assertNotEquals(ConnectionTimings.NOT_SET, dnsResolver.takeLastResolveNanos());
+        // Taken once, a pooled connection does not report a stale resolve
+        assertEquals(ConnectionTimings.NOT_SET, dnsResolver.takeLastResolveNanos());
+    }
+}
@@ -0,0 +1,186 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationIoLedger;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_CONNECT_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_DNS_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_TLS_HANDSHAKE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_TLS_SESSION_NEW;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_TLS_SESSION_RESUMED;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_BODY_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_FIRST_BYTE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_HEALTH_RESPONSE_FIRST_BYTE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionTimingInterceptorTest {
+
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private PassportFlightRecorder mockFlightRecorder;
+    @Mock private InvocationIoLedger mockIoLedger;
+
+    private ConnectionTimingInterceptor connectionTimingInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        connectionTimingInterceptor =
+                new ConnectionTimingInterceptor(
+                        mockLatencyHistograms, mockEventProbe, mockFlightRecorder, mockIoLedger);
+    }
+
+    @Test
+    void shouldRecordResponsePhasesOnceTheBodyIsRead() throws IOException {
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+        HttpResponse response = createResponse("{\"data\":{}}");
+
+        connectionTimingInterceptor.process(new HttpPost("https://localhost"), context);
+        connectionTimingInterceptor.process(response, context);
+
+        // Nothing recorded until the body has been read
+        verifyNoInteractions(mockLatencyHistograms);
+
+        assertEquals("{\"data\":{}}", EntityUtils.toString(response.getEntity()));
+
+        verify(mockLatencyHistograms)
+                .record(eq(DVAD_GRAPHQL_RESPONSE_FIRST_BYTE_LATENCY), anyLong());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_BODY_LATENCY), anyLong());
+        // Pooled connection, no connection phases
+        verifyNoMoreInteractions(mockLatencyHistograms);
+        verifyNoInteractions(mockEventProbe);
+        verify(mockIoLedger).recordCall("DVAD", DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT.name());
+    }
+
+    @Test
+    void shouldRecordConnectionPhasesForNewConnection() throws IOException {
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+        HttpResponse response = createResponse("{}");
+
+        connectionTimingInterceptor.process(new HttpPost("https://localhost"), context);
+        connectionTimings.dnsResolved(1_000_000);
+        connectionTimings.connected(2_000_000, System.nanoTime());
+        connectionTimings.tlsHandshakeCompleted(30_000_000, false);
+        connectionTimingInterceptor.process(response, context);
+
+        EntityUtils.consume(response.getEntity());
+
+        verify(mockLatencyHistograms).record(DVAD_GRAPHQL_CONNECTION_DNS_LATENCY, 1);
+        verify(mockLatencyHistograms).record(DVAD_GRAPHQL_CONNECTION_CONNECT_LATENCY, 2);
+        verify(mockLatencyHistograms).record(DVAD_GRAPHQL_CONNECTION_TLS_HANDSHAKE_LATENCY, 30);
+        verify(mockEventProbe)
+                .counterMetric(DVAD_GRAPHQL_CONNECTION_TLS_SESSION_NEW.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldCountResumedTlsSessions() throws IOException {
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+        HttpResponse response = createResponse("{}");
+
+        connectionTimingInterceptor.process(new HttpPost("https://localhost"), context);
+        ConnectionTimings.from(context).tlsHandshakeCompleted(5_000_000, true);
+        connectionTimingInterceptor.process(response, context);
+
+        EntityUtils.consume(response.getEntity());
+
+        verify(mockEventProbe)
+                .counterMetric(DVAD_GRAPHQL_CONNECTION_TLS_SESSION_RESUMED.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldRecordImmediatelyWhenResponseHasNoBody() {
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT);
+
+        connectionTimingInterceptor.process(new HttpPost("https://localhost"), context);
+        connectionTimingInterceptor.process(
+                new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"), context);
+
+        verify(mockLatencyHistograms)
+                .record(eq(DVAD_HEALTH_RESPONSE_FIRST_BYTE_LATENCY), anyLong());
+        verifyNoMoreInteractions(mockLatencyHistograms);
+    }
+
+    @Test
+    void shouldNotRecordRequestsMadeWithoutTimingContext() throws IOException {
+        HttpClientContext context = HttpClientContext.create();
+        HttpResponse response = createResponse("{}");
+
+        connectionTimingInterceptor.process(new HttpPost("https://localhost"), context);
+        connectionTimingInterceptor.process(response, context);
+
+        EntityUtils.consume(response.getEntity());
+
+        verifyNoInteractions(mockLatencyHistograms, mockEventProbe);
+        // Still a remote call
+        verify(mockIoLedger).recordCall("HTTP", "POST");
+    }
+
+    @Test
+    void shouldRecordPhasesWhileFlightRecording() throws IOException {
+        when(mockFlightRecorder.isRecording()).thenReturn(true);
+
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+        HttpPost request = new HttpPost("https://localhost");
+        request.setEntity(new StringEntity("{\"query\":\"\"}", StandardCharsets.UTF_8));
+        HttpResponse response = createResponse("{\"data\":{}}");
+
+        connectionTimingInterceptor.process(request, context);
+        connectionTimingInterceptor.process(response, context);
+
+        assertNotNull(context.getAttribute(ConnectionTimingInterceptor.CALL_EVENT_ATTRIBUTE));
+
+        EntityUtils.toString(response.getEntity());
+
+        assertEquals(11, ConnectionTimings.from(context).getBodyBytes());
+        verify(mockLatencyHistograms)
+                .record(eq(DVAD_GRAPHQL_RESPONSE_FIRST_BYTE_LATENCY), anyLong());
+        verify(mockLatencyHistograms).record(eq(DVAD_GRAPHQL_RESPONSE_BODY_LATENCY), anyLong());
+    }
+
+    private static HttpResponse createResponse(String body) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+
+        // Streamed as a received response is
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        response.setEntity(entity);
+
+        return response;
+    }
+}
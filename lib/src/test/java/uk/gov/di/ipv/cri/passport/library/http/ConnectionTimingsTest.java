@@ -0,0 +1,73 @@
+package uk.gov.di.ipv.cri.passport.library.http;
+
+import org.apache.http.client.protocol.HttpClientContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
+
+class ConnectionTimingsTest {
+
+    @Test
+    void shouldReturnTimingsForTheEndpointFromCreatedContext() {
+        HttpClientContext context =
+                ConnectionTimings.createContext(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+
+        ConnectionTimings connectionTimings = ConnectionTimings.from(context);
+
+        assertEquals(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT, connectionTimings.getEndpoint());
+        assertEquals(ConnectionTimings.NOT_SET, connectionTimings.getDnsNanos());
+        assertEquals(ConnectionTimings.NOT_SET, connectionTimings.getFirstByteNanos());
+        assertNull(connectionTimings.getTlsSessionResumed());
+    }
+
+    @Test
+    void shouldReturnNullForContextWithoutTimings() {
+        assertNull(ConnectionTimings.from(HttpClientContext.create()));
+        assertNull(ConnectionTimings.from(null));
+    }
+
+    @Test
+    void shouldMeasureFirstByteFromRequestStartOnPooledConnection() {
+        ConnectionTimings connectionTimings =
+                new ConnectionTimings(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+
+        connectionTimings.requestStarted(1000);
+        connectionTimings.responseHeadersReceived(1500);
+        connectionTimings.responseBodyRead(1700, 64);
+
+        assertEquals(500, connectionTimings.getFirstByteNanos());
+        assertEquals(200, connectionTimings.getBodyNanos());
+        assertEquals(64, connectionTimings.getBodyBytes());
+        assertEquals(ConnectionTimings.NOT_SET, connectionTimings.getConnectNanos());
+    }
+
+    @Test
+    void shouldMeasureFirstByteFromConnectedOnNewConnection() {
+        ConnectionTimings connectionTimings =
+                new ConnectionTimings(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+
+        connectionTimings.requestStarted(1000);
+        connectionTimings.dnsResolved(50);
+        connectionTimings.connected(100, 1150);
+        connectionTimings.tlsHandshakeCompleted(300, false);
+        connectionTimings.responseHeadersReceived(1500);
+
+        assertEquals(50, connectionTimings.getDnsNanos());
+        assertEquals(100, connectionTimings.getConnectNanos());
+        assertEquals(300, connectionTimings.getTlsHandshakeNanos());
+        assertEquals(Boolean.FALSE, connectionTimings.getTlsSessionResumed());
+        assertEquals(350, connectionTimings.getFirstByteNanos());
+    }
+
+    @Test
+    void shouldNotMeasureBodyWithoutResponseHeaders() {
+        ConnectionTimings connectionTimings =
+                new ConnectionTimings(DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT);
+
+        connectionTimings.responseBodyRead(1700, 64);
+
+        assertEquals(ConnectionTimings.NOT_SET, connectionTimings.getBodyNanos());
+    }
+}
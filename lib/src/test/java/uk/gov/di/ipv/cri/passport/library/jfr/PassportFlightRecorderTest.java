@@ -0,0 +1,93 @@
+package uk.gov.di.ipv.cri.passport.library.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SystemStubsExtension.class)
+class PassportFlightRecorderTest {
+
+    private static final String STAGE_EVENT_NAME = "uk.gov.di.ipv.cri.passport.PipelineStage";
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @TempDir private Path dumpDirectory;
+
+    @Test
+    void shouldNotRecordWhenNotEnabled() {
+        environmentVariables.set(PassportFlightRecorder.DUMP_THRESHOLD_ENV, "0");
+
+        PassportFlightRecorder flightRecorder = new PassportFlightRecorder();
+
+        assertFalse(flightRecorder.isRecording());
+        assertNull(flightRecorder.dumpIfSlow("check_passport", Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldNotDumpWithoutThreshold() {
+        environmentVariables.set(PassportFlightRecorder.ENABLED_ENV, "true");
+
+        PassportFlightRecorder flightRecorder = new PassportFlightRecorder();
+
+        assertTrue(flightRecorder.isRecording());
+        assertNull(flightRecorder.dumpIfSlow("check_passport", Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldNotDumpWhenThresholdIsInvalid() {
+        environmentVariables.set(PassportFlightRecorder.ENABLED_ENV, "true");
+        environmentVariables.set(PassportFlightRecorder.DUMP_THRESHOLD_ENV, "500ms");
+
+        PassportFlightRecorder flightRecorder = new PassportFlightRecorder();
+
+        assertTrue(flightRecorder.isRecording());
+        assertNull(flightRecorder.dumpIfSlow("check_passport", Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldDumpPassportEventsWhenInvocationIsSlow() throws IOException {
+        environmentVariables.set(PassportFlightRecorder.ENABLED_ENV, "true");
+        environmentVariables.set(PassportFlightRecorder.DUMP_THRESHOLD_ENV, "500");
+        environmentVariables.set(
+                PassportFlightRecorder.DUMP_DIRECTORY_ENV, dumpDirectory.toString());
+
+        PassportFlightRecorder flightRecorder = new PassportFlightRecorder();
+
+        PipelineStageEvent stageEvent = new PipelineStageEvent("check_passport", "form_parse");
+        stageEvent.begin();
+        stageEvent.commit();
+
+        assertNull(flightRecorder.dumpIfSlow("check_passport", TimeUnit.MILLISECONDS.toNanos(499)));
+
+        Path dumpFile =
+                flightRecorder.dumpIfSlow("check_passport", TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertNotNull(dumpFile);
+        assertTrue(Files.exists(dumpFile));
+
+        List<RecordedEvent> stageEvents =
+                RecordingFile.readAllEvents(dumpFile).stream()
+                        .filter(event -> STAGE_EVENT_NAME.equals(event.getEventType().getName()))
+                        .toList();
+
+        assertFalse(stageEvents.isEmpty());
+        assertEquals("form_parse", stageEvents.get(0).getString("stage"));
+    }
+}
@@ -0,0 +1,210 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SystemStubsExtension.class)
+class AccumulatingEventProbeTest {
+
+    private static final String NAMESPACE = "di-ipv-cri-passport-api";
+    private static final String SERVICE = "di-ipv-cri-passport-api-checkpassport";
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ByteArrayOutputStream emfOutput;
+
+    @BeforeEach
+    void setUp() {
+        emfOutput = new ByteArrayOutputStream();
+    }
+
+    @Test
+    void shouldSumValuesForTheSameMetricName() {
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.counterMetric("dvad_graphql_response_latency", 120);
+        eventProbe.counterMetric("dvad_graphql_response_latency", 30);
+
+        assertEquals(2d, eventProbe.getMetricTotals().get("form_data_parsed"));
+        assertEquals(150d, eventProbe.getMetricTotals().get("dvad_graphql_response_latency"));
+    }
+
+    @Test
+    void shouldWriteOneEmfDocumentPerFlush() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", NAMESPACE);
+        environmentVariables.set("POWERTOOLS_SERVICE_NAME", SERVICE);
+
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.counterMetric("lambda_check_passport_completed_ok");
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.flush();
+
+        String[] lines = writtenLines();
+        assertEquals(1, lines.length);
+
+        JsonNode emfDocument = objectMapper.readTree(lines[0]);
+        assertEquals(2, emfDocument.get("form_data_parsed").asInt());
+        assertEquals(1, emfDocument.get("lambda_check_passport_completed_ok").asInt());
+        assertEquals(SERVICE, emfDocument.get("Service").asText());
+
+        JsonNode cloudWatchMetrics = emfDocument.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals(NAMESPACE, cloudWatchMetrics.get("Namespace").asText());
+        assertEquals("Service", cloudWatchMetrics.get("Dimensions").get(0).get(0).asText());
+        assertEquals(2, cloudWatchMetrics.get("Metrics").size());
+        assertEquals(
+                "form_data_parsed", cloudWatchMetrics.get("Metrics").get(0).get("Name").asText());
+        assertEquals("Count", cloudWatchMetrics.get("Metrics").get(0).get("Unit").asText());
+    }
+
+    @Test
+    void shouldWriteDimensionedMetricsInTheSameDocument() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", NAMESPACE);
+        environmentVariables.set("POWERTOOLS_SERVICE_NAME", SERVICE);
+
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put("invocation", "check_passport");
+        dimensions.put("unset", null);
+
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.putDimensionedMetrics(dimensions, Map.of("phase_total", 12.5), "Milliseconds");
+        eventProbe.flush();
+
+        String[] lines = writtenLines();
+        assertEquals(1, lines.length);
+
+        JsonNode emfDocument = objectMapper.readTree(lines[0]);
+        assertEquals(1, emfDocument.get("form_data_parsed").asInt());
+        assertEquals(12.5, emfDocument.get("phase_total").asDouble());
+        assertEquals("check_passport", emfDocument.get("invocation").asText());
+        assertFalse(emfDocument.has("unset"));
+
+        JsonNode cloudWatchMetrics = emfDocument.get("_aws").get("CloudWatchMetrics");
+        assertEquals(2, cloudWatchMetrics.size());
+
+        JsonNode phaseMetrics = cloudWatchMetrics.get(1);
+        assertEquals(NAMESPACE, phaseMetrics.get("Namespace").asText());
+        assertEquals(1, phaseMetrics.get("Dimensions").get(0).size());
+        assertEquals("invocation", phaseMetrics.get("Dimensions").get(0).get(0).asText());
+        assertEquals("phase_total", phaseMetrics.get("Metrics").get(0).get("Name").asText());
+        assertEquals("Milliseconds", phaseMetrics.get("Metrics").get(0).get("Unit").asText());
+    }
+
+    @Test
+    void shouldWriteDimensionedMetricsWithoutCounterMetrics() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", NAMESPACE);
+
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.putDimensionedMetrics(
+                Map.of("invocation", "issue_credential"),
+                Map.of("phase_total", 3d),
+                "Milliseconds");
+        eventProbe.flush();
+
+        String[] lines = writtenLines();
+        assertEquals(1, lines.length);
+
+        JsonNode cloudWatchMetrics =
+                objectMapper.readTree(lines[0]).get("_aws").get("CloudWatchMetrics");
+        assertEquals(1, cloudWatchMetrics.size());
+        assertEquals(
+                "phase_total", cloudWatchMetrics.get(0).get("Metrics").get(0).get("Name").asText());
+
+        // Cleared by the flush
+        eventProbe.flush();
+        assertEquals(1, writtenLines().length);
+    }
+
+    @Test
+    void shouldNotWriteEmfMetadataWithoutNamespace() throws IOException {
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.flush();
+
+        JsonNode emfDocument = objectMapper.readTree(writtenLines()[0]);
+        assertEquals(1, emfDocument.get("form_data_parsed").asInt());
+        assertFalse(emfDocument.has("_aws"));
+    }
+
+    @Test
+    void shouldSplitMetricsAboveTheDocumentLimit() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", NAMESPACE);
+
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        int metricCount = AccumulatingEventProbe.MAX_METRICS_PER_DOCUMENT + 1;
+        for (int i = 0; i < metricCount; i++) {
+            eventProbe.counterMetric("metric_" + i);
+        }
+        eventProbe.flush();
+
+        String[] lines = writtenLines();
+        assertEquals(2, lines.length);
+
+        JsonNode firstMetrics =
+                objectMapper.readTree(lines[0]).get("_aws").get("CloudWatchMetrics").get(0);
+        JsonNode secondMetrics =
+                objectMapper.readTree(lines[1]).get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals(
+                AccumulatingEventProbe.MAX_METRICS_PER_DOCUMENT,
+                firstMetrics.get("Metrics").size());
+        assertEquals(1, secondMetrics.get("Metrics").size());
+    }
+
+    @Test
+    void shouldClearMetricsAfterFlush() {
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.counterMetric("form_data_parsed");
+        eventProbe.flush();
+
+        assertTrue(eventProbe.getMetricTotals().isEmpty());
+
+        // Nothing recorded, nothing written
+        eventProbe.flush();
+        assertEquals(1, writtenLines().length);
+    }
+
+    @Test
+    void shouldWriteNothingWhenNoMetricsRecorded() {
+        AccumulatingEventProbe eventProbe = createAccumulatingEventProbe();
+
+        eventProbe.flush();
+
+        assertEquals(0, emfOutput.size());
+    }
+
+    private AccumulatingEventProbe createAccumulatingEventProbe() {
+        return new AccumulatingEventProbe(new PrintStream(emfOutput, true, StandardCharsets.UTF_8));
+    }
+
+    private String[] writtenLines() {
+        return emfOutput.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+    }
+}
@@ -0,0 +1,168 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+
+import java.time.Clock;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AwsSdkCallMetricsInterceptorTest {
+
+    private static final long ONE_MS_IN_NANOS = 1_000_000L;
+
+    @Mock private AwsSdkCallMetrics mockAwsSdkCallMetrics;
+    @Mock private AwsSdkCallMetrics.OperationMetrics mockOperationMetrics;
+
+    @Mock private Context.BeforeExecution mockBeforeExecution;
+    @Mock private Context.BeforeTransmission mockBeforeTransmission;
+    @Mock private Context.AfterTransmission mockAfterTransmission;
+    @Mock private Context.AfterExecution mockAfterExecution;
+    @Mock private Context.FailedExecution mockFailedExecution;
+    @Mock private SdkHttpRequest mockSdkHttpRequest;
+    @Mock private SdkHttpResponse mockSdkHttpResponse;
+    @Mock private PassportFlightRecorder mockFlightRecorder;
+    @Mock private InvocationIoLedger mockIoLedger;
+
+    private long testTimeNanos;
+
+    private ExecutionAttributes executionAttributes;
+    private AwsSdkCallMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        testTimeNanos = 0;
+
+        executionAttributes = new ExecutionAttributes();
+        executionAttributes.putAttribute(SdkExecutionAttribute.SERVICE_NAME, "DynamoDb");
+        executionAttributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, "GetItem");
+
+        interceptor =
+                new AwsSdkCallMetricsInterceptor(
+                        mockAwsSdkCallMetrics,
+                        () -> testTimeNanos,
+                        mockFlightRecorder,
+                        mockIoLedger);
+    }
+
+    @Test
+    void shouldRecordLatencyAndPayloadOfSuccessfulCall() {
+        when(mockAwsSdkCallMetrics.forOperation("DynamoDb", "GetItem"))
+                .thenReturn(mockOperationMetrics);
+
+        interceptor.beforeExecution(mockBeforeExecution, executionAttributes);
+        transmit("120", "45");
+        testTimeNanos += 25 * ONE_MS_IN_NANOS;
+        interceptor.afterExecution(mockAfterExecution, executionAttributes);
+
+        verify(mockOperationMetrics).recordLatency(25);
+        verify(mockOperationMetrics).recordPayloadBytes(120, 45);
+        verifyNoMoreInteractions(mockOperationMetrics);
+        verify(mockIoLedger).recordCall("DynamoDb", "GetItem");
+    }
+
+    @Test
+    void shouldRecordRetriesAndThrottledFailure() {
+        when(mockAwsSdkCallMetrics.forOperation("DynamoDb", "GetItem"))
+                .thenReturn(mockOperationMetrics);
+        when(mockFailedExecution.exception())
+                .thenReturn(SdkServiceException.builder().statusCode(429).build());
+
+        interceptor.beforeExecution(mockBeforeExecution, executionAttributes);
+        transmit("100", null);
+        transmit("100", null);
+        transmit("100", null);
+        testTimeNanos += 300 * ONE_MS_IN_NANOS;
+        interceptor.onExecutionFailure(mockFailedExecution, executionAttributes);
+
+        verify(mockOperationMetrics).recordLatency(300);
+        verify(mockOperationMetrics).recordRetries(2);
+        verify(mockOperationMetrics).recordPayloadBytes(300, 0);
+        verify(mockOperationMetrics).recordFailed();
+        verify(mockOperationMetrics).recordThrottled();
+    }
+
+    @Test
+    void shouldNotRecordThrottledForOtherFailures() {
+        when(mockAwsSdkCallMetrics.forOperation("DynamoDb", "GetItem"))
+                .thenReturn(mockOperationMetrics);
+        when(mockFailedExecution.exception())
+                .thenReturn(SdkClientException.create("Unable to execute HTTP request"));
+
+        interceptor.beforeExecution(mockBeforeExecution, executionAttributes);
+        interceptor.onExecutionFailure(mockFailedExecution, executionAttributes);
+
+        verify(mockOperationMetrics).recordFailed();
+        verify(mockOperationMetrics).recordPayloadBytes(0, 0);
+        verify(mockOperationMetrics).recordLatency(0);
+    }
+
+    @Test
+    void shouldIgnoreFailureBeforeCallStarted() {
+        when(mockFailedExecution.exception())
+                .thenReturn(SdkClientException.create("Invalid request"));
+
+        interceptor.onExecutionFailure(mockFailedExecution, executionAttributes);
+
+        verifyNoInteractions(mockAwsSdkCallMetrics);
+    }
+
+    @Test
+    void shouldRecordIntoCallMetrics() {
+        AwsSdkCallMetrics awsSdkCallMetrics = new AwsSdkCallMetrics(Clock.systemUTC());
+        AwsSdkCallMetricsInterceptor realInterceptor =
+                new AwsSdkCallMetricsInterceptor(
+                        awsSdkCallMetrics, () -> testTimeNanos, mockFlightRecorder, mockIoLedger);
+
+        realInterceptor.beforeExecution(mockBeforeExecution, executionAttributes);
+        testTimeNanos += 7 * ONE_MS_IN_NANOS;
+        realInterceptor.afterExecution(mockAfterExecution, executionAttributes);
+
+        assertEquals(
+                7, awsSdkCallMetrics.forOperation("DynamoDb", "GetItem").getLatencyPercentile(50));
+    }
+
+    @Test
+    void shouldRecordCallWhileFlightRecording() {
+        when(mockFlightRecorder.isRecording()).thenReturn(true);
+        when(mockAwsSdkCallMetrics.forOperation("DynamoDb", "GetItem"))
+                .thenReturn(mockOperationMetrics);
+
+        interceptor.beforeExecution(mockBeforeExecution, executionAttributes);
+        transmit("120", "45");
+        testTimeNanos += 25 * ONE_MS_IN_NANOS;
+        interceptor.afterExecution(mockAfterExecution, executionAttributes);
+
+        verify(mockOperationMetrics).recordLatency(25);
+        verify(mockOperationMetrics).recordPayloadBytes(120, 45);
+    }
+
+    private void transmit(String requestContentLength, String responseContentLength) {
+        when(mockBeforeTransmission.httpRequest()).thenReturn(mockSdkHttpRequest);
+        when(mockSdkHttpRequest.firstMatchingHeader("Content-Length"))
+                .thenReturn(Optional.ofNullable(requestContentLength));
+        when(mockAfterTransmission.httpResponse()).thenReturn(mockSdkHttpResponse);
+        when(mockSdkHttpResponse.firstMatchingHeader("Content-Length"))
+                .thenReturn(Optional.ofNullable(responseContentLength));
+
+        interceptor.beforeTransmission(mockBeforeTransmission, executionAttributes);
+        interceptor.afterTransmission(mockAfterTransmission, executionAttributes);
+    }
+}
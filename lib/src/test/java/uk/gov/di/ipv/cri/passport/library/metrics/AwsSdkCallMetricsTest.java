@@ -0,0 +1,125 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AwsSdkCallMetricsTest {
+
+    private static final long PUBLISH_INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    @Mock private Clock mockClock;
+    @Mock private EventProbe mockEventProbe;
+
+    private long testTimeMillis = 1000;
+
+    private AwsSdkCallMetrics awsSdkCallMetrics;
+
+    @BeforeEach
+    void setUp() {
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        awsSdkCallMetrics = new AwsSdkCallMetrics(mockClock);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "DynamoDb, GetItem, aws_dynamodb_get_item",
+        "Sqs, SendMessage, aws_sqs_send_message",
+        "Ssm, GetParametersByPath, aws_ssm_get_parameters_by_path",
+        "Kms, Sign, aws_kms_sign"
+    })
+    void shouldNameMetricsByServiceAndOperation(
+            String service, String operation, String expectedPrefix) {
+        assertEquals(
+                expectedPrefix,
+                awsSdkCallMetrics.forOperation(service, operation).getMetricPrefix());
+    }
+
+    @Test
+    void shouldReturnSameMetricsForAnOperation() {
+        assertSame(
+                awsSdkCallMetrics.forOperation("DynamoDb", "GetItem"),
+                awsSdkCallMetrics.forOperation("DynamoDb", "GetItem"));
+    }
+
+    @Test
+    void shouldNotPublishBeforeTheIntervalHasPassed() {
+        awsSdkCallMetrics.forOperation("Kms", "Sign").recordLatency(40);
+
+        testTimeMillis += PUBLISH_INTERVAL_MILLIS - 1;
+
+        assertFalse(awsSdkCallMetrics.publishIfDue(mockEventProbe));
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldPublishSummaryOfCallsSinceLastPublish() {
+        AwsSdkCallMetrics.OperationMetrics operationMetrics =
+                awsSdkCallMetrics.forOperation("DynamoDb", "PutItem");
+
+        operationMetrics.recordLatency(12);
+        operationMetrics.recordLatency(30);
+        operationMetrics.recordRetries(2);
+        operationMetrics.recordFailed();
+        operationMetrics.recordThrottled();
+        operationMetrics.recordPayloadBytes(500, 20);
+        testTimeMillis += PUBLISH_INTERVAL_MILLIS;
+
+        assertTrue(awsSdkCallMetrics.publishIfDue(mockEventProbe));
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_calls", 2);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_latency_p50", 12);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_latency_p90", 30);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_latency_p99", 30);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_latency_max", 30);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_retries", 2);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_throttled", 1);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_failed", 1);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_request_bytes", 500);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_response_bytes", 20);
+        clearInvocations(mockEventProbe);
+
+        operationMetrics.recordLatency(5);
+        testTimeMillis += PUBLISH_INTERVAL_MILLIS;
+
+        // Second interval only holds the third call
+        assertTrue(awsSdkCallMetrics.publishIfDue(mockEventProbe));
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_calls", 1);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_latency_max", 5);
+        verify(mockEventProbe).counterMetric("aws_dynamodb_put_item_retries", 0);
+
+        // In-process percentiles still cover all calls
+        assertEquals(30, operationMetrics.getLatencyPercentile(100));
+    }
+
+    @Test
+    void shouldNotPublishOperationsWithNoCallsInTheInterval() {
+        awsSdkCallMetrics.forOperation("Sqs", "SendMessage").recordLatency(8);
+        testTimeMillis += PUBLISH_INTERVAL_MILLIS;
+        awsSdkCallMetrics.publishIfDue(mockEventProbe);
+        clearInvocations(mockEventProbe);
+
+        testTimeMillis += PUBLISH_INTERVAL_MILLIS;
+
+        assertTrue(awsSdkCallMetrics.publishIfDue(mockEventProbe));
+        verifyNoInteractions(mockEventProbe);
+    }
+}
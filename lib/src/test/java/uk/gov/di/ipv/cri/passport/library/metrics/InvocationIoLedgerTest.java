@@ -0,0 +1,110 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SystemStubsExtension.class)
+class InvocationIoLedgerTest {
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Test
+    void shouldCountCallsByServiceOperationAndPhase() {
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("check_passport");
+        ioLedger.setPhase("session_validation");
+        ioLedger.recordCall("DynamoDb", "GetItem");
+        ioLedger.setPhase("save_person_identity");
+        ioLedger.recordCall("DynamoDb", "PutItem");
+        ioLedger.setPhase("save_document_check_result");
+        ioLedger.recordCall("DynamoDb", "PutItem");
+        ioLedger.recordCall("Ssm", "GetParameter");
+
+        assertEquals(4, ioLedger.getTotalCalls());
+        assertEquals(2, ioLedger.getCallCount("DynamoDb", "PutItem"));
+        assertEquals(1, ioLedger.getCallCount("Ssm", "GetParameter"));
+        assertEquals(0, ioLedger.getCallCount("Sqs", "SendMessage"));
+        assertEquals(
+                List.of(
+                        "DynamoDb/GetItem/session_validation",
+                        "DynamoDb/PutItem/save_person_identity",
+                        "DynamoDb/PutItem/save_document_check_result",
+                        "Ssm/GetParameter/save_document_check_result"),
+                List.copyOf(ioLedger.getCallCounts().keySet()));
+    }
+
+    @Test
+    void shouldRecordCallsOutsideAPhase() {
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("issue_credential");
+        ioLedger.setPhase(null);
+        ioLedger.recordCall("Kms", "Sign");
+
+        assertEquals(Map.of("Kms/Sign/none", 1), ioLedger.getCallCounts());
+    }
+
+    @Test
+    void shouldClearPreviousInvocationOnBegin() {
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("check_passport");
+        ioLedger.setPhase("third_party_check");
+        ioLedger.recordCall("DVAD", "DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT");
+        ioLedger.begin("check_passport");
+        ioLedger.recordCall("Sqs", "SendMessage");
+
+        assertEquals(1, ioLedger.getTotalCalls());
+        assertEquals(Map.of("Sqs/SendMessage/none", 1), ioLedger.getCallCounts());
+    }
+
+    @Test
+    void shouldReportInvocationOverBudget() {
+        environmentVariables.set(InvocationIoLedger.REMOTE_CALL_BUDGET_ENV, "1");
+
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("check_passport");
+        ioLedger.recordCall("DynamoDb", "GetItem");
+
+        assertFalse(ioLedger.isOverBudget());
+
+        ioLedger.recordCall("DynamoDb", "PutItem");
+
+        assertTrue(ioLedger.isOverBudget());
+    }
+
+    @Test
+    void shouldApplyNoBudgetWhenTheBudgetIsInvalid() {
+        environmentVariables.set(InvocationIoLedger.REMOTE_CALL_BUDGET_ENV, "ten");
+
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("check_passport");
+        ioLedger.recordCall("DynamoDb", "GetItem");
+
+        assertFalse(ioLedger.isOverBudget());
+    }
+
+    @Test
+    void shouldNeverBeOverBudgetWithoutBudget() {
+        InvocationIoLedger ioLedger = new InvocationIoLedger();
+
+        ioLedger.begin("check_passport");
+        ioLedger.recordCall("DynamoDb", "GetItem");
+        ioLedger.recordCall("DynamoDb", "PutItem");
+
+        assertFalse(ioLedger.isOverBudget());
+    }
+}
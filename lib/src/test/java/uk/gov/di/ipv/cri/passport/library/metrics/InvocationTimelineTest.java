@@ -0,0 +1,249 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.passport.library.jfr.PassportFlightRecorder;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class InvocationTimelineTest {
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private PassportFlightRecorder mockFlightRecorder;
+    @Mock private InvocationIoLedger mockIoLedger;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ByteArrayOutputStream emfOutput;
+    private long testTimeNanos;
+
+    @BeforeEach
+    void setUp() {
+        emfOutput = new ByteArrayOutputStream();
+        testTimeNanos = 0;
+    }
+
+    @Test
+    void shouldAccumulatePhaseDurations() {
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("check_passport");
+        runPhase(invocationTimeline, "form_parse", 1_000);
+        runPhase(invocationTimeline, "third_party_check", 5_000_000);
+        runPhase(invocationTimeline, "form_parse", 500);
+
+        Map<String, Long> phaseDurations = invocationTimeline.getPhaseDurationNanos();
+
+        assertEquals(2, phaseDurations.size());
+        assertEquals(1_500L, phaseDurations.get("form_parse"));
+        assertEquals(5_000_000L, phaseDurations.get("third_party_check"));
+    }
+
+    @Test
+    void shouldIgnorePhaseStoppedWithoutStart() {
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("check_passport");
+        invocationTimeline.stopPhase("form_parse");
+
+        assertTrue(invocationTimeline.getPhaseDurationNanos().isEmpty());
+    }
+
+    @Test
+    void shouldEmitOneEmfRecordPerInvocation() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", "TestNamespace");
+        environmentVariables.set("POWERTOOLS_SERVICE_NAME", "TestService");
+
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("check_passport");
+        runPhase(invocationTimeline, "third_party_check", 2_500_000);
+        testTimeNanos += 500_000;
+        invocationTimeline.emit();
+
+        String[] records = emfOutput.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, records.length);
+
+        JsonNode emfRecord = objectMapper.readTree(records[0]);
+
+        assertEquals("check_passport", emfRecord.get("invocation").asText());
+        assertEquals("TestService", emfRecord.get("service").asText());
+        assertEquals(2.5, emfRecord.get("phase_third_party_check").asDouble());
+        assertEquals(3.0, emfRecord.get("phase_total").asDouble());
+
+        JsonNode cloudWatchMetrics = emfRecord.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals("TestNamespace", cloudWatchMetrics.get("Namespace").asText());
+        assertEquals("service", cloudWatchMetrics.get("Dimensions").get(0).get(0).asText());
+        assertEquals(2, cloudWatchMetrics.get("Metrics").size());
+        assertEquals(
+                "phase_third_party_check",
+                cloudWatchMetrics.get("Metrics").get(0).get("Name").asText());
+        assertEquals("Milliseconds", cloudWatchMetrics.get("Metrics").get(0).get("Unit").asText());
+    }
+
+    @Test
+    void shouldStopOpenPhasesWhenEmitting() throws IOException {
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("issue_credential");
+        invocationTimeline.startPhase("vc_generation");
+        testTimeNanos += 1_000_000;
+        invocationTimeline.emit();
+
+        JsonNode emfRecord = objectMapper.readTree(emfOutput.toString(StandardCharsets.UTF_8));
+
+        assertEquals(1.0, emfRecord.get("phase_vc_generation").asDouble());
+        // No namespace, the record is written without EMF metadata
+        assertFalse(emfRecord.has("_aws"));
+    }
+
+    @Test
+    void shouldEmitOnlyOncePerBegin() {
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("check_passport");
+        invocationTimeline.emit();
+        invocationTimeline.emit();
+
+        assertEquals(1, emfOutput.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void shouldClearPreviousInvocationOnBegin() {
+        InvocationTimeline invocationTimeline = createInvocationTimeline();
+
+        invocationTimeline.begin("check_passport");
+        runPhase(invocationTimeline, "form_parse", 1_000);
+        invocationTimeline.startPhase("third_party_check");
+        invocationTimeline.begin("check_passport");
+        invocationTimeline.stopPhase("third_party_check");
+
+        assertTrue(invocationTimeline.getPhaseDurationNanos().isEmpty());
+    }
+
+    @Test
+    void shouldOfferInvocationDurationToFlightRecorder() {
+        when(mockFlightRecorder.isRecording()).thenReturn(true);
+
+        InvocationTimeline invocationTimeline =
+                new InvocationTimeline(
+                        new PrintStream(emfOutput, true, StandardCharsets.UTF_8),
+                        () -> testTimeNanos,
+                        mockFlightRecorder,
+                        mockIoLedger,
+                        null);
+
+        invocationTimeline.begin("check_passport");
+        runPhase(invocationTimeline, "form_parse", 1_000);
+        testTimeNanos += 2_000;
+        invocationTimeline.emit();
+
+        verify(mockFlightRecorder).dumpIfSlow("check_passport", 3_000);
+    }
+
+    @Test
+    void shouldTellIoLedgerTheInnermostOpenPhase() {
+        InvocationTimeline invocationTimeline =
+                new InvocationTimeline(
+                        new PrintStream(emfOutput, true, StandardCharsets.UTF_8),
+                        () -> testTimeNanos,
+                        mockFlightRecorder,
+                        mockIoLedger,
+                        null);
+
+        invocationTimeline.begin("check_passport");
+        invocationTimeline.startPhase("third_party_check");
+        invocationTimeline.startPhase("token_request");
+        invocationTimeline.stopPhase("token_request");
+        invocationTimeline.stopPhase("third_party_check");
+        invocationTimeline.emit();
+
+        InOrder inOrder = inOrder(mockIoLedger);
+        inOrder.verify(mockIoLedger).begin("check_passport");
+        inOrder.verify(mockIoLedger).setPhase("third_party_check");
+        inOrder.verify(mockIoLedger).setPhase("token_request");
+        inOrder.verify(mockIoLedger).setPhase("third_party_check");
+        inOrder.verify(mockIoLedger).setPhase(null);
+        inOrder.verify(mockIoLedger).log();
+    }
+
+    @Test
+    void shouldAddTheRecordToTheAccumulatingEventProbeDocument() throws IOException {
+        environmentVariables.set("POWERTOOLS_METRICS_NAMESPACE", "TestNamespace");
+        environmentVariables.set("POWERTOOLS_SERVICE_NAME", "TestService");
+
+        ByteArrayOutputStream probeOutput = new ByteArrayOutputStream();
+        AccumulatingEventProbe accumulatingEventProbe =
+                new AccumulatingEventProbe(
+                        new PrintStream(probeOutput, true, StandardCharsets.UTF_8));
+
+        InvocationTimeline invocationTimeline =
+                new InvocationTimeline(
+                        new PrintStream(emfOutput, true, StandardCharsets.UTF_8),
+                        () -> testTimeNanos,
+                        mockFlightRecorder,
+                        mockIoLedger,
+                        accumulatingEventProbe);
+
+        invocationTimeline.begin("check_passport");
+        runPhase(invocationTimeline, "form_parse", 1_000_000);
+        accumulatingEventProbe.counterMetric("form_data_parsed");
+        invocationTimeline.emit();
+
+        // Nothing written until the probe is flushed
+        assertEquals(0, emfOutput.size());
+        assertEquals(0, probeOutput.size());
+        verify(mockIoLedger).log();
+
+        accumulatingEventProbe.flush();
+
+        String[] documents = probeOutput.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, documents.length);
+
+        JsonNode emfDocument = objectMapper.readTree(documents[0]);
+        assertEquals(1, emfDocument.get("form_data_parsed").asInt());
+        assertEquals(1.0, emfDocument.get("phase_form_parse").asDouble());
+        assertEquals("check_passport", emfDocument.get("invocation").asText());
+        assertEquals("TestService", emfDocument.get("service").asText());
+
+        JsonNode phaseMetrics = emfDocument.get("_aws").get("CloudWatchMetrics").get(1);
+        assertEquals("service", phaseMetrics.get("Dimensions").get(0).get(0).asText());
+        assertEquals("invocation", phaseMetrics.get("Dimensions").get(0).get(1).asText());
+        assertEquals("Milliseconds", phaseMetrics.get("Metrics").get(0).get("Unit").asText());
+        assertEquals(0, emfOutput.size());
+    }
+
+    private InvocationTimeline createInvocationTimeline() {
+        return new InvocationTimeline(
+                new PrintStream(emfOutput, true, StandardCharsets.UTF_8), () -> testTimeNanos);
+    }
+
+    private void runPhase(InvocationTimeline invocationTimeline, String phase, long nanos) {
+        invocationTimeline.startPhase(phase);
+        testTimeNanos += nanos;
+        invocationTimeline.stopPhase(phase);
+    }
+}
@@ -0,0 +1,98 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 15, 16, 17, 31, 32, 100, 1000, 12345, 60000})
+    void shouldReportValueWithinSixPercentOfRecordedValue(long millis) {
+        int index = LatencyHistogram.bucketIndex(millis);
+        long highestValue = LatencyHistogram.bucketHighestValue(index);
+
+        assertTrue(highestValue >= millis);
+        assertTrue(highestValue - millis <= Math.max(1, millis / 16));
+    }
+
+    @Test
+    void shouldHaveContiguousBuckets() {
+        for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long previousHighest = LatencyHistogram.bucketHighestValue(i - 1);
+
+            assertEquals(i, LatencyHistogram.bucketIndex(previousHighest + 1));
+        }
+    }
+
+    @Test
+    void shouldReturnValueAtPercentile() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        IntStream.rangeClosed(1, 100).forEach(latencyHistogram::record);
+
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.snapshot();
+
+        assertEquals(100, snapshot.getTotalCount());
+        // 50 shares a bucket with 51
+        assertEquals(51, snapshot.getValueAtPercentile(50));
+        assertEquals(91, snapshot.getValueAtPercentile(90));
+        assertEquals(99, snapshot.getValueAtPercentile(99));
+        assertEquals(100, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void shouldReturnZeroWhenEmpty() {
+        assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    void shouldClampValuesOutOfRange() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        latencyHistogram.record(-1);
+        latencyHistogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.snapshot();
+
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_MILLIS, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void shouldReturnCountsSincePreviousSnapshot() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        latencyHistogram.record(5000);
+        LatencyHistogram.Snapshot previous = latencyHistogram.snapshot();
+
+        latencyHistogram.record(10);
+        latencyHistogram.record(12);
+
+        LatencyHistogram.Snapshot interval = latencyHistogram.snapshot().since(previous);
+
+        assertEquals(2, interval.getTotalCount());
+        assertEquals(12, interval.getValueAtPercentile(100));
+    }
+
+    @Test
+    void shouldCountConcurrentRecords() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        Runnable recorder = () -> IntStream.range(0, 10000).forEach(latencyHistogram::record);
+
+        CompletableFuture<?>[] recorders =
+                IntStream.range(0, 4)
+                        .mapToObj(thread -> CompletableFuture.runAsync(recorder))
+                        .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(recorders).join();
+
+        assertEquals(40000, latencyHistogram.snapshot().getTotalCount());
+    }
+}
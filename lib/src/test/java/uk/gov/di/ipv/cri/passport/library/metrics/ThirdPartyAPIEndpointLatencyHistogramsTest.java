@@ -0,0 +1,94 @@
+package uk.gov.di.ipv.cri.passport.library.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_RESPONSE_LATENCY;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointMetric.DVAD_TOKEN_RESPONSE_LATENCY;
+
+@ExtendWith(MockitoExtension.class)
+class ThirdPartyAPIEndpointLatencyHistogramsTest {
+
+    @Mock private EventProbe mockEventProbe;
+
+    private ThirdPartyAPIEndpointLatencyHistograms latencyHistograms;
+
+    @BeforeEach
+    void setUp() {
+        latencyHistograms = new ThirdPartyAPIEndpointLatencyHistograms();
+    }
+
+    @Test
+    void shouldReturnLatencyPercentilesPerEndpoint() {
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, 200);
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, 10);
+        latencyHistograms.record(DVAD_TOKEN_RESPONSE_LATENCY, 5);
+
+        assertEquals(
+                10, latencyHistograms.getLatencyPercentile(DVAD_GRAPHQL_RESPONSE_LATENCY, 50));
+        assertEquals(
+                200, latencyHistograms.getLatencyPercentile(DVAD_GRAPHQL_RESPONSE_LATENCY, 99));
+        assertEquals(5, latencyHistograms.getLatencyPercentile(DVAD_TOKEN_RESPONSE_LATENCY, 99));
+    }
+
+    @Test
+    void shouldReturnZeroLatencyForEndpointWithNoRecords() {
+        assertEquals(0, latencyHistograms.getLatencyPercentile(DVAD_TOKEN_RESPONSE_LATENCY, 99));
+    }
+
+    @Test
+    void shouldNotPublishWhenNothingHasBeenRecorded() {
+        latencyHistograms.publishInterval(mockEventProbe);
+
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldPublishCountAndMaxOfLatenciesSinceLastPublish() {
+        String metricName = DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix();
+
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, 200);
+        latencyHistograms.publishInterval(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(metricName + "_count", 1);
+        verify(mockEventProbe).counterMetric(metricName + "_max", 200);
+        verifyNoMoreInteractions(mockEventProbe);
+        clearInvocations(mockEventProbe);
+
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, 10);
+        latencyHistograms.publishInterval(mockEventProbe);
+
+        // Second interval only holds the second request
+        verify(mockEventProbe).counterMetric(metricName + "_count", 1);
+        verify(mockEventProbe).counterMetric(metricName + "_max", 10);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        // In-process percentiles still cover both
+        assertEquals(
+                200, latencyHistograms.getLatencyPercentile(DVAD_GRAPHQL_RESPONSE_LATENCY, 99));
+    }
+
+    @Test
+    void shouldNotPublishEndpointsWithNoRecordsInTheInterval() {
+        latencyHistograms.record(DVAD_TOKEN_RESPONSE_LATENCY, 5);
+        latencyHistograms.publishInterval(mockEventProbe);
+        clearInvocations(mockEventProbe);
+
+        latencyHistograms.record(DVAD_GRAPHQL_RESPONSE_LATENCY, 10);
+        latencyHistograms.publishInterval(mockEventProbe);
+
+        String metricName = DVAD_GRAPHQL_RESPONSE_LATENCY.withEndpointPrefix();
+        verify(mockEventProbe).counterMetric(metricName + "_count", 1);
+        verify(mockEventProbe).counterMetric(metricName + "_max", 10);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+}
@@ -17,6 +17,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT;
 import static uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIMetricEndpointPrefix.DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT;
 
@@ -85,6 +86,25 @@ class ThirdPartyAPIEndpointMetricTest {
                                 DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT,
                                 "reusing_cached_token")
                         .toLowerCase());
+        // Add the special case shared token metrics
+        for (String sharedTokenMetric : List.of("refreshed", "fallback")) {
+            expectedMetricsCaptureList.add(
+                    String.format(
+                                    expectedFormat,
+                                    DVAD_THIRD_PARTY_API_TOKEN_ENDPOINT,
+                                    "shared_token_" + sharedTokenMetric)
+                            .toLowerCase());
+        }
+        // Add the special case circuit breaker metrics
+        for (String circuitMetric :
+                List.of("opened", "half_open", "closed", "rejected", "adopted")) {
+            expectedMetricsCaptureList.add(
+                    String.format(
+                                    expectedFormat,
+                                    DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT,
+                                    "circuit_" + circuitMetric)
+                            .toLowerCase());
+        }
 
         // Sort the two lists so the orders are the same
         Collections.sort(expectedMetricsCaptureList);
@@ -134,4 +154,38 @@ class ThirdPartyAPIEndpointMetricTest {
                         ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_REQUEST_SEND_ERROR
                                 .withEndpointPrefixAndExceptionName(ioException));
     }
+
+    @Test
+    void shouldFindMetricForEndpointAndMetricType() {
+        for (ThirdPartyAPIEndpointMetric metric : ThirdPartyAPIEndpointMetric.values()) {
+            String[] nameParts = metric.withEndpointPrefix().split("_endpoint_");
+
+            for (ThirdPartyAPIEndpointMetricType metricType :
+                    ThirdPartyAPIEndpointMetricType.values()) {
+                if (nameParts[1].equals(metricType.toString().toLowerCase())) {
+                    ThirdPartyAPIMetricEndpointPrefix prefix =
+                            ThirdPartyAPIMetricEndpointPrefix.valueOf(
+                                    (nameParts[0] + "_endpoint").toUpperCase());
+
+                    assertEquals(metric, ThirdPartyAPIEndpointMetric.of(prefix, metricType));
+                }
+            }
+        }
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVAD_GRAPHQL_CONNECTION_TLS_HANDSHAKE_LATENCY,
+                ThirdPartyAPIEndpointMetric.of(
+                        DVAD_THIRD_PARTY_API_GRAPHQL_ENDPOINT,
+                        ThirdPartyAPIEndpointMetricType.CONNECTION_TLS_HANDSHAKE_LATENCY));
+    }
+
+    @Test
+    void shouldThrowMetricExceptionForEndpointWithoutMetricType() {
+        assertThrows(
+                MetricException.class,
+                () ->
+                        ThirdPartyAPIEndpointMetric.of(
+                                DVAD_THIRD_PARTY_API_HEALTH_ENDPOINT,
+                                ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_ERROR));
+    }
 }
@@ -0,0 +1,58 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileParameterSourceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir private Path tempDir;
+
+    @Test
+    void shouldReadParametersFromJsonFile() throws IOException {
+        Path parameterFile =
+                Files.writeString(
+                        tempDir.resolve("parameters.json"),
+                        "{\"/stack/Parameter\":\"value\",\"/stack/Path/Key\":\"key\"}");
+
+        FileParameterSource fileParameterSource =
+                new FileParameterSource(parameterFile, objectMapper);
+
+        assertEquals("value", fileParameterSource.get("/stack/Parameter", false));
+        assertEquals(
+                Map.of("Key", "key"), fileParameterSource.getMultiple("/stack/Path", true, true));
+    }
+
+    @Test
+    void shouldReadParametersFromPropertiesFile() throws IOException {
+        Path parameterFile =
+                Files.writeString(
+                        tempDir.resolve("parameters.properties"), "/stack/Parameter=value\n");
+
+        FileParameterSource fileParameterSource =
+                new FileParameterSource(parameterFile, objectMapper);
+
+        assertEquals("value", fileParameterSource.get("/stack/Parameter", true));
+        assertEquals(1, fileParameterSource.getParameterCount());
+    }
+
+    @Test
+    void shouldThrowWhenFileCannotBeRead() {
+        Path missingFile = tempDir.resolve("missing.json");
+
+        assertThrows(
+                UncheckedIOException.class,
+                () -> new FileParameterSource(missingFile, objectMapper));
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryParameterSourceTest {
+
+    private final InMemoryParameterSource inMemoryParameterSource =
+            new InMemoryParameterSource(
+                    Map.of(
+                            "/stack/Parameter",
+                            "value",
+                            "/stack/HMPODVAD/API/EndpointUrl",
+                            "url",
+                            "/stack/HMPODVAD/API/Header/ApiKey",
+                            "key"));
+
+    @Test
+    void shouldGetParameterByFullName() {
+        assertEquals("value", inMemoryParameterSource.get("/stack/Parameter", false));
+        assertEquals("value", inMemoryParameterSource.get("/stack/Parameter", true));
+        assertEquals(3, inMemoryParameterSource.getParameterCount());
+    }
+
+    @Test
+    void shouldThrowParameterNotFoundExceptionWhenParameterMissing() {
+        assertThrows(
+                ParameterNotFoundException.class,
+                () -> inMemoryParameterSource.get("/stack/Missing", false));
+    }
+
+    @Test
+    void shouldGetMultipleParametersRelativeToPath() {
+        assertEquals(
+                Map.of("API/EndpointUrl", "url", "API/Header/ApiKey", "key"),
+                inMemoryParameterSource.getMultiple("/stack/HMPODVAD", true, false));
+        assertEquals(
+                Map.of("ApiKey", "key"),
+                inMemoryParameterSource.getMultiple("/stack/HMPODVAD/API/Header", false, true));
+        assertEquals(
+                Map.of(), inMemoryParameterSource.getMultiple("/stack/HMPODVAD", false, false));
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.di.ipv.cri.passport.library.parameters;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.paginators.GetParametersByPathIterable;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SSMParameterSourceTest {
+
+    private static final String TEST_NAME = "/stack/Parameter";
+    private static final String TEST_PATH = "/stack/Path";
+
+    @Mock private SsmClient mockSsmClient;
+
+    @Captor private ArgumentCaptor<GetParameterRequest> getParameterCaptor;
+    @Captor private ArgumentCaptor<GetParametersByPathRequest> getParametersByPathCaptor;
+
+    private SSMParameterSource ssmParameterSource;
+
+    @BeforeEach
+    void setUp() {
+        ssmParameterSource = new SSMParameterSource(mockSsmClient);
+    }
+
+    @Test
+    void shouldGetParameter() {
+        when(mockSsmClient.getParameter(any(GetParameterRequest.class)))
+                .thenReturn(createGetParameterResponse());
+
+        assertEquals("value", ssmParameterSource.get(TEST_NAME, false));
+
+        verify(mockSsmClient).getParameter(getParameterCaptor.capture());
+        assertEquals(TEST_NAME, getParameterCaptor.getValue().name());
+        assertFalse(getParameterCaptor.getValue().withDecryption());
+    }
+
+    @Test
+    void shouldGetParameterWithDecryption() {
+        when(mockSsmClient.getParameter(any(GetParameterRequest.class)))
+                .thenReturn(createGetParameterResponse());
+
+        assertEquals("value", ssmParameterSource.get(TEST_NAME, true));
+
+        verify(mockSsmClient).getParameter(getParameterCaptor.capture());
+        assertTrue(getParameterCaptor.getValue().withDecryption());
+    }
+
+    @Test
+    void shouldGetMultipleParametersRecursivelyWithDecryption() {
+        stubGetParametersByPath(
+                createParameter(TEST_PATH + "/Key"), createParameter(TEST_PATH + "/Sub/Key"));
+
+        assertEquals(
+                Map.of("Key", "value", "Sub/Key", "value"),
+                ssmParameterSource.getMultiple(TEST_PATH, true, true));
+
+        verify(mockSsmClient).getParametersByPathPaginator(getParametersByPathCaptor.capture());
+        assertEquals(TEST_PATH, getParametersByPathCaptor.getValue().path());
+        assertTrue(getParametersByPathCaptor.getValue().recursive());
+        assertTrue(getParametersByPathCaptor.getValue().withDecryption());
+    }
+
+    @Test
+    void shouldGetMultipleParameters() {
+        stubGetParametersByPath(createParameter(TEST_PATH + "/Key"));
+
+        assertEquals(
+                Map.of("Key", "value"), ssmParameterSource.getMultiple(TEST_PATH, false, false));
+
+        verify(mockSsmClient).getParametersByPathPaginator(getParametersByPathCaptor.capture());
+        assertFalse(getParametersByPathCaptor.getValue().recursive());
+        assertFalse(getParametersByPathCaptor.getValue().withDecryption());
+    }
+
+    private void stubGetParametersByPath(Parameter... parameters) {
+        when(mockSsmClient.getParametersByPathPaginator(any(GetParametersByPathRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                new GetParametersByPathIterable(
+                                        mockSsmClient, invocation.getArgument(0)));
+        when(mockSsmClient.getParametersByPath(any(GetParametersByPathRequest.class)))
+                .thenReturn(GetParametersByPathResponse.builder().parameters(parameters).build());
+    }
+
+    private static GetParameterResponse createGetParameterResponse() {
+        return GetParameterResponse.builder().parameter(createParameter(TEST_NAME)).build();
+    }
+
+    private static Parameter createParameter(String name) {
+        return Parameter.builder().name(name).value("value").build();
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.di.ipv.cri.passport.library.persistence;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DocumentCheckResultItemTableSchemaTest {
+
+    private static final TableSchema<DocumentCheckResultItem> BEAN_TABLE_SCHEMA =
+            TableSchema.fromBean(DocumentCheckResultItem.class);
+    private static final TableSchema<DocumentCheckResultItem> STATIC_TABLE_SCHEMA =
+            DocumentCheckResultItemTableSchema.TABLE_SCHEMA;
+
+    @Test
+    void shouldHaveTheSameAttributesAsTheBeanSchema() {
+        assertEquals(BEAN_TABLE_SCHEMA.attributeNames(), STATIC_TABLE_SCHEMA.attributeNames());
+
+        TableMetadata beanTableMetadata = BEAN_TABLE_SCHEMA.tableMetadata();
+        TableMetadata staticTableMetadata = STATIC_TABLE_SCHEMA.tableMetadata();
+        assertEquals(
+                beanTableMetadata.primaryPartitionKey(), staticTableMetadata.primaryPartitionKey());
+        assertEquals(beanTableMetadata.keyAttributes(), staticTableMetadata.keyAttributes());
+    }
+
+    @Test
+    void shouldWriteTheSameAttributeValuesAsTheBeanSchema() {
+        DocumentCheckResultItem item = createDocumentCheckResultItem();
+
+        assertEquals(
+                BEAN_TABLE_SCHEMA.itemToMap(item, false),
+                STATIC_TABLE_SCHEMA.itemToMap(item, false));
+        assertEquals(
+                BEAN_TABLE_SCHEMA.itemToMap(item, true), STATIC_TABLE_SCHEMA.itemToMap(item, true));
+    }
+
+    @Test
+    void shouldWriteTheSameAttributeValuesAsTheBeanSchemaForAnEmptyItem() {
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+
+        assertEquals(
+                BEAN_TABLE_SCHEMA.itemToMap(item, true), STATIC_TABLE_SCHEMA.itemToMap(item, true));
+    }
+
+    @Test
+    void shouldReadItemsWrittenByTheBeanSchema() {
+        DocumentCheckResultItem item = createDocumentCheckResultItem();
+        Map<String, AttributeValue> beanAttributeValues = BEAN_TABLE_SCHEMA.itemToMap(item, true);
+
+        DocumentCheckResultItem readItem = STATIC_TABLE_SCHEMA.mapToItem(beanAttributeValues);
+
+        assertEquals(item, readItem);
+        assertEquals(item.getTtl(), readItem.getTtl());
+    }
+
+    @Test
+    void shouldWriteItemsReadByTheBeanSchema() {
+        DocumentCheckResultItem item = createDocumentCheckResultItem();
+        Map<String, AttributeValue> staticAttributeValues =
+                STATIC_TABLE_SCHEMA.itemToMap(item, true);
+
+        DocumentCheckResultItem readItem = BEAN_TABLE_SCHEMA.mapToItem(staticAttributeValues);
+
+        assertEquals(item, readItem);
+        assertEquals(item.getTtl(), readItem.getTtl());
+    }
+
+    @Test
+    void shouldReadAnItemWithMissingAttributes() {
+        Map<String, AttributeValue> attributeValues =
+                Map.of(
+                        "sessionId",
+                        AttributeValue.fromS("5a1e1c3b-6b8f-4d5e-9f0a-1b2c3d4e5f60"),
+                        "strengthScore",
+                        AttributeValue.fromN("4"));
+
+        assertEquals(
+                BEAN_TABLE_SCHEMA.mapToItem(attributeValues),
+                STATIC_TABLE_SCHEMA.mapToItem(attributeValues));
+    }
+
+    private static DocumentCheckResultItem createDocumentCheckResultItem() {
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+        item.setSessionId(UUID.randomUUID());
+        item.setTransactionId(UUID.randomUUID().toString());
+        item.setStrengthScore(4);
+        item.setValidityScore(2);
+        item.setContraIndicators(List.of("A01", "B02"));
+        item.setDocumentNumber("321654987");
+        item.setExpiryDate("2030-01-01");
+        item.setCheckDetails(List.of("scenario_1"));
+        item.setFailedCheckDetails(List.of("scenario_2"));
+        item.setCiReasons(List.of("A01,flagOne", "B02,flagTwo"));
+        item.setTtl(1700000000L);
+        return item;
+    }
+}
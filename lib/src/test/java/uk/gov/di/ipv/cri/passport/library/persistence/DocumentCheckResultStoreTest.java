@@ -0,0 +1,55 @@
+package uk.gov.di.ipv.cri.passport.library.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentCheckResultStoreTest {
+
+    private static final String TABLE_NAME = "document-check-result";
+
+    @Mock private DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
+    @Mock private DynamoDbTable<DocumentCheckResultItem> mockTable;
+
+    private DocumentCheckResultStore documentCheckResultStore;
+
+    @BeforeEach
+    void setUp() {
+        when(mockDynamoDbEnhancedClient.table(
+                        TABLE_NAME, DocumentCheckResultItemTableSchema.TABLE_SCHEMA))
+                .thenReturn(mockTable);
+
+        documentCheckResultStore =
+                new DocumentCheckResultStore(TABLE_NAME, mockDynamoDbEnhancedClient);
+    }
+
+    @Test
+    void shouldPutTheItem() {
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+
+        documentCheckResultStore.create(item);
+
+        verify(mockTable).putItem(item);
+    }
+
+    @Test
+    void shouldGetTheItemBySessionId() {
+        String sessionId = UUID.randomUUID().toString();
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+        when(mockTable.getItem(Key.builder().partitionValue(sessionId).build())).thenReturn(item);
+
+        assertEquals(item, documentCheckResultStore.getItem(sessionId));
+    }
+}
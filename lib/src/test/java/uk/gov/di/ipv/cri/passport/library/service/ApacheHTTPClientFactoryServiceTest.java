@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
@@ -28,6 +31,9 @@ import static uk.gov.di.ipv.cri.passport.library.CertAndKeyTestFixtures.TEST_TLS
 class ApacheHTTPClientFactoryServiceTest {
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
+    @Mock private ThirdPartyAPIEndpointLatencyHistograms mockLatencyHistograms;
+    @Mock private EventProbe mockEventProbe;
+
     private ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
 
     @BeforeEach
@@ -35,7 +41,8 @@ class ApacheHTTPClientFactoryServiceTest {
         environmentVariables.set("AWS_REGION", "eu-west-2");
         environmentVariables.set("AWS_STACK_NAME", "TEST_STACK");
 
-        apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService();
+        apacheHTTPClientFactoryService =
+                new ApacheHTTPClientFactoryService(mockLatencyHistograms, mockEventProbe);
     }
 
     @Test
@@ -118,4 +125,19 @@ class ApacheHTTPClientFactoryServiceTest {
 
         assertNotNull(closeableHttpClient);
     }
+
+    @Test
+    void shouldClosePooledConnectionsForEachClientCreated() {
+
+        assertEquals(0, apacheHTTPClientFactoryService.closePooledConnections());
+
+        apacheHTTPClientFactoryService.generatePublicHttpClient();
+        assertDoesNotThrow(
+                () ->
+                        apacheHTTPClientFactoryService
+                                .generateHTTPClientFromExternalApacheHttpClient(
+                                        TEST_TLS_CRT, TEST_TLS_KEY, TEST_ROOT_CRT, TEST_TLS_CRT));
+
+        assertEquals(2, apacheHTTPClientFactoryService.closePooledConnections());
+    }
 }
@@ -5,16 +5,39 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import software.amazon.lambda.powertools.parameters.SSMProvider;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.config.ParameterCacheTtl;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshot;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+import uk.gov.di.ipv.cri.passport.library.parameters.ParameterSource;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_HIT;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_MISS;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_REFRESH;
+import static uk.gov.di.ipv.cri.passport.library.metrics.Definitions.PARAMETER_CACHE_REFRESH_FAILED;
 
 @ExtendWith(MockitoExtension.class)
 @ExtendWith(SystemStubsExtension.class)
@@ -25,7 +48,12 @@ class ParameterStoreServiceTest {
 
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
-    @Mock SSMProvider mockSSMProvider;
+    @Mock ParameterSource mockParameterSource;
+    @Mock PassportConfigSnapshotLoader mockPassportConfigSnapshotLoader;
+    @Mock EventProbe mockEventProbe;
+    @Mock Clock mockClock;
+
+    private long testTimeMillis = 1000;
 
     private final String AWS_STACK_NAME = "passport-api-dev";
     private final String PARAMETER_PREFIX = "passport-api-pipeline";
@@ -40,45 +68,44 @@ class ParameterStoreServiceTest {
         environmentVariables.set("AWS_STACK_NAME", AWS_STACK_NAME);
         environmentVariables.set("COMMON_PARAMETER_NAME_PREFIX", COMMON_PARAMETER_NAME_PREFIX);
 
-        parameterStoreService = new ParameterStoreService(mockSSMProvider);
+        parameterStoreService = new ParameterStoreService(mockParameterSource);
     }
 
     @Test
     void shouldGetParamValueByParameterName() {
         String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
-        when(mockSSMProvider.get(fullParamName)).thenReturn(TEST_PARAM_VALUE);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
         assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
-        verify(mockSSMProvider).get(fullParamName);
+        verify(mockParameterSource).get(fullParamName, false);
     }
 
     @Test
     void shouldGetEncryptedParameterValueByParameterName() {
         String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
-        when(mockSSMProvider.withDecryption()).thenReturn(mockSSMProvider);
-        when(mockSSMProvider.get(fullParamName)).thenReturn(TEST_PARAM_VALUE);
+        when(mockParameterSource.get(fullParamName, true)).thenReturn(TEST_PARAM_VALUE);
         assertEquals(
                 TEST_PARAM_VALUE,
                 parameterStoreService.getEncryptedParameterValue(TEST_PARAM_NAME));
-        verify(mockSSMProvider).get(fullParamName);
+        verify(mockParameterSource).get(fullParamName, true);
     }
 
     @Test
     void shouldGetStackParameterValueValueByParameterName() {
         String fullParamName = String.format("/%s/%s", AWS_STACK_NAME, TEST_PARAM_NAME);
-        when(mockSSMProvider.get(fullParamName)).thenReturn(TEST_PARAM_VALUE);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
         assertEquals(
                 TEST_PARAM_VALUE, parameterStoreService.getStackParameterValue(TEST_PARAM_NAME));
-        verify(mockSSMProvider).get(fullParamName);
+        verify(mockParameterSource).get(fullParamName, false);
     }
 
     @Test
     void shouldGetCommonParameterValueValueByParameterName() {
         String fullParamName =
                 String.format("/%s/%s", COMMON_PARAMETER_NAME_PREFIX, TEST_PARAM_NAME);
-        when(mockSSMProvider.get(fullParamName)).thenReturn(TEST_PARAM_VALUE);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
         assertEquals(
                 TEST_PARAM_VALUE, parameterStoreService.getCommonParameterValue(TEST_PARAM_NAME));
-        verify(mockSSMProvider).get(fullParamName);
+        verify(mockParameterSource).get(fullParamName, false);
     }
 
     @Test
@@ -89,13 +116,11 @@ class ParameterStoreServiceTest {
         String testPath = "TESTPATH/SUBPATH";
         String fullPath = String.format("/%s/%s", PARAMETER_PREFIX, testPath);
 
-        when(mockSSMProvider.recursive()).thenReturn(mockSSMProvider);
-        when(mockSSMProvider.getMultiple(fullPath)).thenReturn(testParameterMap);
+        when(mockParameterSource.getMultiple(fullPath, true, false)).thenReturn(testParameterMap);
 
         assertEquals(testParameterMap, parameterStoreService.getAllParametersFromPath(testPath));
 
-        verify(mockSSMProvider).recursive();
-        verify(mockSSMProvider).getMultiple(fullPath);
+        verify(mockParameterSource).getMultiple(fullPath, true, false);
     }
 
     @Test
@@ -106,14 +131,375 @@ class ParameterStoreServiceTest {
         String testPath = "TESTPATH/SUBPATH";
         String fullPath = String.format("/%s/%s", PARAMETER_PREFIX, testPath);
 
-        when(mockSSMProvider.withDecryption()).thenReturn(mockSSMProvider);
-        when(mockSSMProvider.getMultiple(fullPath)).thenReturn(testParameterMap);
+        when(mockParameterSource.getMultiple(fullPath, false, true)).thenReturn(testParameterMap);
 
         assertEquals(
                 testParameterMap,
                 parameterStoreService.getAllParametersFromPathWithDecryption(testPath));
 
-        verify(mockSSMProvider).withDecryption();
-        verify(mockSSMProvider).getMultiple(fullPath);
+        verify(mockParameterSource).getMultiple(fullPath, false, true);
+    }
+
+    @Test
+    void shouldGetParameterValuesFromConfigSnapshotWhenLoaded() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        String fullStackParamName = String.format("/%s/%s", AWS_STACK_NAME, TEST_PARAM_NAME);
+        String fullCommonParamName =
+                String.format("/%s/%s", COMMON_PARAMETER_NAME_PREFIX, TEST_PARAM_NAME);
+        String fullPath = String.format("/%s/%s", PARAMETER_PREFIX, "TESTPATH");
+
+        List<String> fullNames = List.of(fullParamName, fullStackParamName, fullCommonParamName);
+
+        PassportConfigSnapshot testSnapshot =
+                createTestSnapshot(
+                        Map.of(
+                                fullParamName,
+                                TEST_PARAM_VALUE,
+                                fullStackParamName,
+                                TEST_PARAM_VALUE,
+                                fullCommonParamName,
+                                TEST_PARAM_VALUE,
+                                fullPath + "/SUBPATH/KEY1",
+                                "TEST_VALUE1"),
+                        List.of(fullPath),
+                        System.currentTimeMillis());
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(fullPath), fullNames))
+                .thenReturn(testSnapshot);
+
+        assertEquals(
+                4,
+                parameterStoreService.loadConfigSnapshot(
+                        mockPassportConfigSnapshotLoader, createTestSpec()));
+
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                TEST_PARAM_VALUE,
+                parameterStoreService.getEncryptedParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                TEST_PARAM_VALUE, parameterStoreService.getStackParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                TEST_PARAM_VALUE, parameterStoreService.getCommonParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                Map.of("KEY1", "TEST_VALUE1"),
+                parameterStoreService.getAllParametersFromPath("TESTPATH/SUBPATH"));
+        assertEquals(
+                Map.of("SUBPATH/KEY1", "TEST_VALUE1"),
+                parameterStoreService.getAllParametersFromPath("TESTPATH"));
+        assertEquals(
+                Map.of(),
+                parameterStoreService.getAllParametersFromPathWithDecryption("TESTPATH"));
+
+        verifyNoInteractions(mockParameterSource);
+    }
+
+    @Test
+    void shouldGetSecureStringsFromParameterSourceForLookupsWithoutDecryption() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        String fullPath = String.format("/%s/%s", PARAMETER_PREFIX, "TESTPATH");
+        String fullPathParamName = fullPath + "/KEY1";
+
+        PassportConfigSnapshot testSnapshot =
+                new PassportConfigSnapshot(
+                        Map.of(fullParamName, "decrypted", fullPathParamName, "decrypted"),
+                        Map.of(fullParamName, 1L, fullPathParamName, 1L),
+                        Set.of(fullParamName, fullPathParamName),
+                        List.of(fullPath),
+                        System.currentTimeMillis(),
+                        1);
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(fullPath), List.of(fullParamName)))
+                .thenReturn(testSnapshot);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn("ciphertext");
+        when(mockParameterSource.getMultiple(fullPath, true, false))
+                .thenReturn(Map.of("KEY1", "ciphertext"));
+
+        parameterStoreService.loadConfigSnapshot(
+                mockPassportConfigSnapshotLoader,
+                PassportConfigSnapshotSpec.builder()
+                        .parameterPath("TESTPATH")
+                        .parameter(TEST_PARAM_NAME)
+                        .build());
+
+        assertEquals(
+                "decrypted", parameterStoreService.getEncryptedParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                Map.of("KEY1", "decrypted"),
+                parameterStoreService.getAllParametersFromPathWithDecryption("TESTPATH"));
+        assertEquals("ciphertext", parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(
+                Map.of("KEY1", "ciphertext"),
+                parameterStoreService.getAllParametersFromPath("TESTPATH"));
+
+        verify(mockParameterSource).get(fullParamName, false);
+        verify(mockParameterSource).getMultiple(fullPath, true, false);
+    }
+
+    @Test
+    void shouldGetParameterValueFromParameterSourceWhenNotInConfigSnapshot() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(), List.of()))
+                .thenReturn(createTestSnapshot(Map.of(), List.of(), System.currentTimeMillis()));
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
+
+        parameterStoreService.loadConfigSnapshot(
+                mockPassportConfigSnapshotLoader, PassportConfigSnapshotSpec.builder().build());
+
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        verify(mockParameterSource).get(fullParamName, false);
+    }
+
+    @Test
+    void shouldFallBackToParameterSourceWhenConfigSnapshotLoadFails() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(), List.of()))
+                .thenThrow(new IllegalStateException("Test SSM failure"));
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
+
+        assertEquals(
+                0,
+                parameterStoreService.loadConfigSnapshot(
+                        mockPassportConfigSnapshotLoader,
+                        PassportConfigSnapshotSpec.builder().build()));
+
+        assertSame(PassportConfigSnapshot.EMPTY, parameterStoreService.getConfigSnapshot());
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+    }
+
+    @Test
+    void shouldServeCachedParameterValueWithoutCallingParameterSourceAgain() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn(TEST_PARAM_VALUE);
+
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        verify(mockParameterSource, times(1)).get(fullParamName, false);
+
+        parameterStoreService.publishCacheMetrics(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_MISS, 1);
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_HIT, 1);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldWaitOnTheOneFetchWhenAParameterIsMissedConcurrently() throws Exception {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(mockParameterSource.get(fullParamName, false))
+                .thenAnswer(
+                        invocation -> {
+                            fetchStarted.countDown();
+                            releaseFetch.await();
+                            return TEST_PARAM_VALUE;
+                        });
+        when(mockParameterSource.get(fullParamName + "2", false)).thenReturn("other");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> firstLookup =
+                    executorService.submit(
+                            () -> parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+            fetchStarted.await();
+
+            Future<String> secondLookup =
+                    executorService.submit(
+                            () -> parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+            // A different parameter is not held up by the fetch in flight
+            assertEquals("other", parameterStoreService.getParameterValue(TEST_PARAM_NAME + "2"));
+
+            releaseFetch.countDown();
+
+            assertEquals(TEST_PARAM_VALUE, firstLookup.get(5, TimeUnit.SECONDS));
+            assertEquals(TEST_PARAM_VALUE, secondLookup.get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(mockParameterSource, times(1)).get(fullParamName, false);
+    }
+
+    @Test
+    void shouldFetchAgainAfterAFailedFetch() {
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        when(mockParameterSource.get(fullParamName, false))
+                .thenThrow(new IllegalStateException("Test SSM failure"))
+                .thenReturn(TEST_PARAM_VALUE);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        verify(mockParameterSource, times(2)).get(fullParamName, false);
+    }
+
+    @Test
+    void shouldServeStaleParameterValueWhileRefreshingInBackground() {
+        parameterStoreService =
+                new ParameterStoreService(mockParameterSource, Runnable::run, mockClock);
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn("initial", TEST_PARAM_VALUE);
+
+        assertEquals("initial", parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        testTimeMillis += ParameterCacheTtl.TUNABLE.getTtlMillis();
+
+        // Stale value returned, refresh runs on the (direct) executor
+        assertEquals("initial", parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        verify(mockParameterSource, times(2)).get(fullParamName, false);
+
+        parameterStoreService.publishCacheMetrics(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_MISS, 1);
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_HIT, 2);
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_REFRESH, 1);
+    }
+
+    @Test
+    void shouldOnlyRefreshAStaleParameterOnceAtATime() {
+        List<Runnable> refreshes = new ArrayList<>();
+        parameterStoreService =
+                new ParameterStoreService(mockParameterSource, refreshes::add, mockClock);
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        String fullParamName = String.format("/%s/%s", AWS_STACK_NAME, TEST_PARAM_NAME);
+        when(mockParameterSource.get(fullParamName, false)).thenReturn("initial", TEST_PARAM_VALUE);
+
+        parameterStoreService.getStackParameterValue(TEST_PARAM_NAME);
+
+        testTimeMillis += ParameterCacheTtl.TUNABLE.getTtlMillis();
+
+        assertEquals("initial", parameterStoreService.getStackParameterValue(TEST_PARAM_NAME));
+        assertEquals("initial", parameterStoreService.getStackParameterValue(TEST_PARAM_NAME));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+
+        assertEquals(
+                TEST_PARAM_VALUE, parameterStoreService.getStackParameterValue(TEST_PARAM_NAME));
+        assertEquals(1, refreshes.size());
+    }
+
+    @Test
+    void shouldServeStaleParameterValueWhenRefreshFails() {
+        parameterStoreService =
+                new ParameterStoreService(mockParameterSource, Runnable::run, mockClock);
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        when(mockParameterSource.get(fullParamName, false))
+                .thenReturn(TEST_PARAM_VALUE)
+                .thenThrow(new IllegalStateException("Test SSM failure"));
+
+        parameterStoreService.getParameterValue(TEST_PARAM_NAME);
+
+        testTimeMillis += ParameterCacheTtl.TUNABLE.getTtlMillis();
+
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        // Not retried until the failure backoff has passed
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        verify(mockParameterSource, times(2)).get(fullParamName, false);
+
+        parameterStoreService.publishCacheMetrics(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(PARAMETER_CACHE_REFRESH_FAILED, 1);
+    }
+
+    @Test
+    void shouldRefreshConfigSnapshotParametersByRefreshingTheSnapshot() {
+        parameterStoreService =
+                new ParameterStoreService(mockParameterSource, Runnable::run, mockClock);
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        List<String> fullNames = List.of(fullParamName);
+
+        PassportConfigSnapshot initialSnapshot =
+                createTestSnapshot(Map.of(fullParamName, "initial"), List.of(), 1);
+        PassportConfigSnapshot refreshedSnapshot =
+                createTestSnapshot(
+                        Map.of(fullParamName, TEST_PARAM_VALUE),
+                        List.of(),
+                        ParameterCacheTtl.TUNABLE.getTtlMillis() + 1);
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(), fullNames))
+                .thenReturn(initialSnapshot);
+        when(mockPassportConfigSnapshotLoader.refresh(initialSnapshot, List.of(), fullNames))
+                .thenReturn(refreshedSnapshot);
+
+        parameterStoreService.loadConfigSnapshot(
+                mockPassportConfigSnapshotLoader,
+                PassportConfigSnapshotSpec.builder().parameter(TEST_PARAM_NAME).build());
+
+        assertEquals("initial", parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+
+        testTimeMillis += ParameterCacheTtl.TUNABLE.getTtlMillis();
+
+        assertEquals("initial", parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertSame(refreshedSnapshot, parameterStoreService.getConfigSnapshot());
+
+        verify(mockPassportConfigSnapshotLoader).load(List.of(), fullNames);
+        verify(mockPassportConfigSnapshotLoader).refresh(initialSnapshot, List.of(), fullNames);
+        verifyNoInteractions(mockParameterSource);
+    }
+
+    @Test
+    void shouldKeepCurrentConfigSnapshotWhenRefreshFails() {
+        parameterStoreService =
+                new ParameterStoreService(mockParameterSource, Runnable::run, mockClock);
+        when(mockClock.millis()).thenAnswer(invocation -> testTimeMillis);
+
+        String fullParamName = String.format("/%s/%s", PARAMETER_PREFIX, TEST_PARAM_NAME);
+        List<String> fullNames = List.of(fullParamName);
+
+        PassportConfigSnapshot initialSnapshot =
+                createTestSnapshot(Map.of(fullParamName, TEST_PARAM_VALUE), List.of(), 1);
+
+        when(mockPassportConfigSnapshotLoader.load(List.of(), fullNames))
+                .thenReturn(initialSnapshot);
+        when(mockPassportConfigSnapshotLoader.refresh(initialSnapshot, List.of(), fullNames))
+                .thenThrow(new IllegalStateException("Test SSM failure"));
+
+        parameterStoreService.loadConfigSnapshot(
+                mockPassportConfigSnapshotLoader,
+                PassportConfigSnapshotSpec.builder().parameter(TEST_PARAM_NAME).build());
+
+        parameterStoreService.getParameterValue(TEST_PARAM_NAME);
+
+        testTimeMillis += ParameterCacheTtl.TUNABLE.getTtlMillis();
+
+        assertEquals(TEST_PARAM_VALUE, parameterStoreService.getParameterValue(TEST_PARAM_NAME));
+        assertSame(initialSnapshot, parameterStoreService.getConfigSnapshot());
+
+        verifyNoInteractions(mockParameterSource);
+    }
+
+    private PassportConfigSnapshotSpec createTestSpec() {
+        return PassportConfigSnapshotSpec.builder()
+                .parameterPath("TESTPATH")
+                .parameter(TEST_PARAM_NAME)
+                .stackParameter(TEST_PARAM_NAME)
+                .commonParameter(TEST_PARAM_NAME)
+                .build();
+    }
+
+    private PassportConfigSnapshot createTestSnapshot(
+            Map<String, String> values, List<String> paths, long version) {
+        Map<String, Long> versions = new HashMap<>();
+        values.keySet().forEach(name -> versions.put(name, version));
+        return new PassportConfigSnapshot(values, versions, Set.of(), paths, version, 1);
     }
 }
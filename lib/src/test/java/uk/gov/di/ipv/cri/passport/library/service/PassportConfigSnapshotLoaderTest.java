@@ -0,0 +1,236 @@
+package uk.gov.di.ipv.cri.passport.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterType;
+import software.amazon.awssdk.services.ssm.paginators.GetParametersByPathIterable;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PassportConfigSnapshotLoaderTest {
+
+    private static final String TEST_PATH = "/stack/HMPODVAD";
+    private static final String SECURE_PARAMETER = "/stack/SecureParameter";
+    private static final String PLAIN_PARAMETER = "/stack/PlainParameter";
+
+    @Mock private SsmClient mockSsmClient;
+
+    private PassportConfigSnapshotLoader passportConfigSnapshotLoader;
+
+    @BeforeEach
+    void setUp() {
+        passportConfigSnapshotLoader =
+                new PassportConfigSnapshotLoader(mockSsmClient, Runnable::run);
+    }
+
+    @Test
+    void shouldLoadPathsAndBatchedNamesIntoSnapshot() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < PassportConfigSnapshotLoader.GET_PARAMETERS_MAX_NAMES + 1; i++) {
+            names.add("/stack/Parameter" + i);
+        }
+
+        when(mockSsmClient.getParametersByPathPaginator(any(GetParametersByPathRequest.class)))
+                .thenReturn(
+                        new GetParametersByPathIterable(
+                                mockSsmClient,
+                                GetParametersByPathRequest.builder().path(TEST_PATH).build()));
+        when(mockSsmClient.getParametersByPath(any(GetParametersByPathRequest.class)))
+                .thenReturn(
+                        GetParametersByPathResponse.builder()
+                                .parameters(createParameter(TEST_PATH + "/API/EndpointUrl", 2))
+                                .build());
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersRequest request = invocation.getArgument(0);
+                            return GetParametersResponse.builder()
+                                    .parameters(createParameter(request.names().get(0), 1))
+                                    .invalidParameters(
+                                            request.names().subList(1, request.names().size()))
+                                    .build();
+                        });
+
+        PassportConfigSnapshot passportConfigSnapshot =
+                passportConfigSnapshotLoader.load(List.of(TEST_PATH), names);
+
+        assertEquals(3, passportConfigSnapshot.getParameterCount());
+        assertEquals("value", passportConfigSnapshot.getValue("/stack/Parameter0", false));
+        assertEquals("value", passportConfigSnapshot.getValue("/stack/Parameter10", false));
+        assertEquals(
+                Map.of("API/EndpointUrl", "value"),
+                passportConfigSnapshot.getValuesByPath(TEST_PATH, true, false));
+        assertTrue(passportConfigSnapshot.getLoadDurationMs() >= 0);
+
+        ArgumentCaptor<GetParametersRequest> getParametersRequestCaptor =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient, times(2)).getParameters(getParametersRequestCaptor.capture());
+
+        List<GetParametersRequest> getParametersRequests =
+                getParametersRequestCaptor.getAllValues();
+        assertEquals(
+                PassportConfigSnapshotLoader.GET_PARAMETERS_MAX_NAMES,
+                getParametersRequests.get(0).names().size());
+        assertEquals(1, getParametersRequests.get(1).names().size());
+        assertTrue(getParametersRequests.get(0).withDecryption());
+    }
+
+    @Test
+    void shouldHoldSecureStringValuesForLookupsWithDecryption() {
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenReturn(
+                        GetParametersResponse.builder()
+                                .parameters(
+                                        createParameter(
+                                                SECURE_PARAMETER,
+                                                "secret",
+                                                ParameterType.SECURE_STRING,
+                                                1))
+                                .build());
+
+        PassportConfigSnapshot passportConfigSnapshot =
+                passportConfigSnapshotLoader.load(List.of(), List.of(SECURE_PARAMETER));
+
+        assertEquals("secret", passportConfigSnapshot.getValue(SECURE_PARAMETER, true));
+        assertNull(passportConfigSnapshot.getValue(SECURE_PARAMETER, false));
+    }
+
+    @Test
+    void shouldKeepTheSnapshotWhenVersionsAreUnchanged() {
+        PassportConfigSnapshot currentSnapshot = createCurrentSnapshot();
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenReturn(
+                        GetParametersResponse.builder()
+                                .parameters(
+                                        createParameter(
+                                                SECURE_PARAMETER,
+                                                "ciphertext",
+                                                ParameterType.SECURE_STRING,
+                                                1),
+                                        createParameter(
+                                                PLAIN_PARAMETER, "plain", ParameterType.STRING, 1))
+                                .build());
+
+        PassportConfigSnapshot refreshedSnapshot =
+                passportConfigSnapshotLoader.refresh(
+                        currentSnapshot, List.of(), List.of(SECURE_PARAMETER, PLAIN_PARAMETER));
+
+        assertTrue(refreshedSnapshot.getLoadedAtMillis() > currentSnapshot.getLoadedAtMillis());
+        assertTrue(refreshedSnapshot.hasSameVersions(currentSnapshot));
+        assertEquals("secret", refreshedSnapshot.getValue(SECURE_PARAMETER, true));
+
+        ArgumentCaptor<GetParametersRequest> getParametersRequestCaptor =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient).getParameters(getParametersRequestCaptor.capture());
+        assertFalse(getParametersRequestCaptor.getValue().withDecryption());
+    }
+
+    @Test
+    void shouldFetchOnlyChangedSecureStringsWithDecryptionWhenVersionsChanged() {
+        PassportConfigSnapshot currentSnapshot = createCurrentSnapshot();
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersRequest request = invocation.getArgument(0);
+                            if (request.withDecryption()) {
+                                return GetParametersResponse.builder()
+                                        .parameters(
+                                                createParameter(
+                                                        SECURE_PARAMETER,
+                                                        "changed secret",
+                                                        ParameterType.SECURE_STRING,
+                                                        2))
+                                        .build();
+                            }
+                            return GetParametersResponse.builder()
+                                    .parameters(
+                                            createParameter(
+                                                    SECURE_PARAMETER,
+                                                    "ciphertext",
+                                                    ParameterType.SECURE_STRING,
+                                                    2),
+                                            createParameter(
+                                                    PLAIN_PARAMETER,
+                                                    "changed plain",
+                                                    ParameterType.STRING,
+                                                    2))
+                                    .build();
+                        });
+
+        PassportConfigSnapshot refreshedSnapshot =
+                passportConfigSnapshotLoader.refresh(
+                        currentSnapshot, List.of(), List.of(SECURE_PARAMETER, PLAIN_PARAMETER));
+
+        assertFalse(refreshedSnapshot.hasSameVersions(currentSnapshot));
+        assertEquals("changed secret", refreshedSnapshot.getValue(SECURE_PARAMETER, true));
+        assertNull(refreshedSnapshot.getValue(SECURE_PARAMETER, false));
+        assertEquals("changed plain", refreshedSnapshot.getValue(PLAIN_PARAMETER, false));
+
+        ArgumentCaptor<GetParametersRequest> getParametersRequestCaptor =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient, times(2)).getParameters(getParametersRequestCaptor.capture());
+
+        GetParametersRequest decryptedRequest = getParametersRequestCaptor.getAllValues().get(1);
+        assertTrue(decryptedRequest.withDecryption());
+        assertEquals(List.of(SECURE_PARAMETER), decryptedRequest.names());
+    }
+
+    @Test
+    void shouldThrowWhenAFetchFails() {
+        List<String> names = List.of("/stack/Parameter");
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenThrow(new IllegalStateException("Test SSM failure"));
+
+        assertThrows(
+                CompletionException.class,
+                () -> passportConfigSnapshotLoader.load(List.of(), names));
+    }
+
+    private static Parameter createParameter(String name, long version) {
+        return createParameter(name, "value", ParameterType.STRING, version);
+    }
+
+    private static Parameter createParameter(
+            String name, String value, ParameterType type, long version) {
+        return Parameter.builder().name(name).value(value).type(type).version(version).build();
+    }
+
+    private static PassportConfigSnapshot createCurrentSnapshot() {
+        return new PassportConfigSnapshot(
+                Map.of(SECURE_PARAMETER, "secret", PLAIN_PARAMETER, "plain"),
+                Map.of(SECURE_PARAMETER, 1L, PLAIN_PARAMETER, 1L),
+                Set.of(SECURE_PARAMETER),
+                List.of(),
+                1,
+                1);
+    }
+}
@@ -4,26 +4,49 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockedConstruction;
 import org.mockito.junit.jupiter.MockitoExtension;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
-import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetricsInterceptor;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.parameters.FileParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.ParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.SSMParameterSource;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @ExtendWith(SystemStubsExtension.class)
@@ -32,7 +55,10 @@ class ServiceFactoryTest {
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
     @Mock private AuditService mockAuditService;
-    @Mock private DataStore<DocumentCheckResultItem> mockDocumentCheckResultStore;
+    @Mock private DocumentCheckResultStore mockDocumentCheckResultStore;
+    @Mock private SsmClient mockSsmClient;
+    @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private SSMParameterSource mockSSMParameterSource;
 
     private ServiceFactory serviceFactory;
 
@@ -63,6 +89,63 @@ class ServiceFactoryTest {
         assertEquals(eventProbe, eventProbe2);
     }
 
+    @Test
+    void shouldReturnSharedAwsSdkCallMetrics() {
+        AwsSdkCallMetrics awsSdkCallMetrics = serviceFactory.getAwsSdkCallMetrics();
+
+        assertEquals(AwsSdkCallMetrics.getInstance(), awsSdkCallMetrics);
+        assertEquals(awsSdkCallMetrics, serviceFactory.getAwsSdkCallMetrics());
+    }
+
+    @Test
+    void shouldReturnAccumulatingEventProbeAsEventProbe() {
+        AccumulatingEventProbe accumulatingEventProbe = serviceFactory.getAccumulatingEventProbe();
+        assertNotNull(accumulatingEventProbe);
+
+        assertEquals(accumulatingEventProbe, serviceFactory.getEventProbe());
+        assertEquals(accumulatingEventProbe, serviceFactory.getAccumulatingEventProbe());
+    }
+
+    @Test
+    void shouldReturnAnInjectedAccumulatingEventProbe() {
+        AccumulatingEventProbe accumulatingEventProbe = new AccumulatingEventProbe();
+
+        serviceFactory = createServiceFactory(accumulatingEventProbe);
+
+        assertSame(accumulatingEventProbe, serviceFactory.getAccumulatingEventProbe());
+        assertSame(accumulatingEventProbe, serviceFactory.getEventProbe());
+    }
+
+    @Test
+    void shouldReturnNoAccumulatingEventProbeWhenTheInjectedProbeIsNotOne() {
+        EventProbe eventProbe = new EventProbe();
+
+        serviceFactory = createServiceFactory(eventProbe);
+
+        assertNull(serviceFactory.getAccumulatingEventProbe());
+        assertSame(eventProbe, serviceFactory.getEventProbe());
+    }
+
+    @Test
+    void shouldReturnInvocationTimeline() {
+        InvocationTimeline invocationTimeline = serviceFactory.getInvocationTimeline();
+        assertNotNull(invocationTimeline);
+
+        InvocationTimeline invocationTimeline2 = serviceFactory.getInvocationTimeline();
+        assertEquals(invocationTimeline, invocationTimeline2);
+    }
+
+    @Test
+    void shouldReturnThirdPartyAPIEndpointLatencyHistograms() {
+        ThirdPartyAPIEndpointLatencyHistograms latencyHistograms =
+                serviceFactory.getThirdPartyAPIEndpointLatencyHistograms();
+        assertNotNull(latencyHistograms);
+
+        ThirdPartyAPIEndpointLatencyHistograms latencyHistograms2 =
+                serviceFactory.getThirdPartyAPIEndpointLatencyHistograms();
+        assertEquals(latencyHistograms, latencyHistograms2);
+    }
+
     @Test
     void shouldReturnClientProviderFactory() {
         ClientProviderFactory clientProviderFactory1 = serviceFactory.getClientProviderFactory();
@@ -92,6 +175,105 @@ class ServiceFactoryTest {
         assertEquals(parameterStoreService1, parameterStoreService2);
     }
 
+    @Test
+    void shouldReturnSsmClient() {
+        SsmClient ssmClient1 = serviceFactory.getSsmClient();
+        assertNotNull(ssmClient1);
+
+        SsmClient ssmClient2 = serviceFactory.getSsmClient();
+        assertEquals(ssmClient1, ssmClient2);
+    }
+
+    @Test
+    void shouldAddCallMetricsInterceptorToClientOverrideConfiguration() {
+        List<ExecutionInterceptor> executionInterceptors =
+                ServiceFactory.createClientOverrideConfiguration().executionInterceptors();
+
+        assertEquals(1, executionInterceptors.size());
+        assertInstanceOf(AwsSdkCallMetricsInterceptor.class, executionInterceptors.get(0));
+    }
+
+    @Test
+    void shouldLoadConfigSnapshotIntoParameterStoreService()
+            throws NoSuchFieldException, IllegalAccessException {
+
+        Field parameterSourceField = serviceFactory.getClass().getDeclaredField("parameterSource");
+        parameterSourceField.setAccessible(true);
+        parameterSourceField.set(serviceFactory, mockSSMParameterSource);
+
+        Field ssmClientField = serviceFactory.getClass().getDeclaredField("ssmClient");
+        ssmClientField.setAccessible(true);
+        ssmClientField.set(serviceFactory, mockSsmClient);
+
+        Field parameterStoreServiceField =
+                serviceFactory.getClass().getDeclaredField("parameterStoreService");
+        parameterStoreServiceField.setAccessible(true);
+        parameterStoreServiceField.set(serviceFactory, mockParameterStoreService);
+
+        PassportConfigSnapshotSpec testSpec = PassportConfigSnapshotSpec.builder().build();
+
+        try (MockedConstruction<PassportConfigSnapshotLoader> loaderMockedConstruction =
+                mockConstruction(PassportConfigSnapshotLoader.class)) {
+
+            when(mockParameterStoreService.loadConfigSnapshot(
+                            any(PassportConfigSnapshotLoader.class), eq(testSpec)))
+                    .thenReturn(1);
+
+            assertEquals(1, serviceFactory.loadConfigSnapshot(testSpec));
+            assertEquals(1, loaderMockedConstruction.constructed().size());
+        }
+    }
+
+    @Test
+    void shouldNotLoadConfigSnapshotWhenParametersAreNotFromSSM(@TempDir Path tempDir)
+            throws IOException, NoSuchFieldException, IllegalAccessException {
+        Path parameterFile = Files.writeString(tempDir.resolve("parameters.json"), "{}");
+        environmentVariables.set("PARAMETER_SOURCE", "FILE");
+        environmentVariables.set("PARAMETER_SOURCE_FILE", parameterFile.toString());
+
+        Field parameterStoreServiceField =
+                serviceFactory.getClass().getDeclaredField("parameterStoreService");
+        parameterStoreServiceField.setAccessible(true);
+        parameterStoreServiceField.set(serviceFactory, mockParameterStoreService);
+
+        assertEquals(
+                0, serviceFactory.loadConfigSnapshot(PassportConfigSnapshotSpec.builder().build()));
+
+        verifyNoInteractions(mockParameterStoreService);
+    }
+
+    @Test
+    void shouldReturnSSMParameterSourceByDefault() {
+        ParameterSource parameterSource1 = serviceFactory.getParameterSource();
+        assertInstanceOf(SSMParameterSource.class, parameterSource1);
+
+        ParameterSource parameterSource2 = serviceFactory.getParameterSource();
+        assertEquals(parameterSource1, parameterSource2);
+    }
+
+    @Test
+    void shouldReturnFileParameterSourceWhenSelected(@TempDir Path tempDir) throws IOException {
+        Path parameterFile =
+                Files.writeString(
+                        tempDir.resolve("parameters.properties"), "/TEST_STACK/Name=value");
+        environmentVariables.set("PARAMETER_SOURCE", "FILE");
+        environmentVariables.set("PARAMETER_SOURCE_FILE", parameterFile.toString());
+
+        ParameterSource parameterSource = serviceFactory.getParameterSource();
+
+        assertInstanceOf(FileParameterSource.class, parameterSource);
+        assertEquals(
+                "value",
+                serviceFactory.getParameterStoreService().getStackParameterValue("Name"));
+    }
+
+    @Test
+    void shouldThrowWhenParameterSourceIsUnknown() {
+        environmentVariables.set("PARAMETER_SOURCE", "UNKNOWN");
+
+        assertThrows(IllegalStateException.class, () -> serviceFactory.getParameterSource());
+    }
+
     @Test
     void shouldReturnCommonLibConfigurationService() {
         ConfigurationService commonLibConfigurationService1 =
@@ -157,7 +339,7 @@ class ServiceFactoryTest {
     void shouldReturnDocumentCheckResultStore()
             throws NoSuchFieldException, IllegalAccessException {
 
-        // DataStore makes nested object calls using objects created during construction
+        // DocumentCheckResultStore makes nested object calls using objects created during construction
         // This test just confirms that the service is a singleton
         Field documentCheckResultStoreField =
                 serviceFactory.getClass().getDeclaredField("documentCheckResultStore");
@@ -165,12 +347,24 @@ class ServiceFactoryTest {
         documentCheckResultStoreField.setAccessible(true);
         documentCheckResultStoreField.set(serviceFactory, mockDocumentCheckResultStore);
 
-        DataStore<DocumentCheckResultItem> documentCheckResultStore =
+        DocumentCheckResultStore documentCheckResultStore =
                 serviceFactory.getDocumentCheckResultStore();
         assertNotNull(documentCheckResultStore);
 
-        DataStore<DocumentCheckResultItem> documentCheckResultStore2 =
+        DocumentCheckResultStore documentCheckResultStore2 =
                 serviceFactory.getDocumentCheckResultStore();
         assertEquals(documentCheckResultStore, documentCheckResultStore2);
     }
+
+    private ServiceFactory createServiceFactory(EventProbe eventProbe) {
+        return new ServiceFactory(
+                null,
+                eventProbe,
+                null,
+                mockParameterStoreService,
+                null,
+                mockAuditService,
+                null,
+                mockDocumentCheckResultStore);
+    }
 }
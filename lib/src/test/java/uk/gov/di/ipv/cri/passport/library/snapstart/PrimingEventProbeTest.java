@@ -0,0 +1,17 @@
+package uk.gov.di.ipv.cri.passport.library.snapstart;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PrimingEventProbeTest {
+
+    @Test
+    void shouldReturnItselfWithoutPublishingMetrics() {
+        EventProbe primingEventProbe = new PrimingEventProbe();
+
+        assertSame(primingEventProbe, primingEventProbe.counterMetric("metric"));
+        assertSame(primingEventProbe, primingEventProbe.counterMetric("metric", 1d));
+    }
+}
@@ -0,0 +1,94 @@
+package uk.gov.di.ipv.cri.passport.library.snapstart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.SecureRandom;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SnapStartPrimingResourceTest {
+
+    @Mock private SecureRandom mockSecureRandom;
+
+    private static class TestPrimingResource extends SnapStartPrimingResource {
+        private final boolean fail;
+        private int primeCount = 0;
+        private int restoreCount = 0;
+
+        TestPrimingResource(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        protected void prime() {
+            primeCount++;
+            if (fail) {
+                throw new IllegalStateException("prime");
+            }
+        }
+
+        @Override
+        protected void restore() {
+            restoreCount++;
+            if (fail) {
+                throw new IllegalStateException("restore");
+            }
+        }
+    }
+
+    @Test
+    void shouldPrimeBeforeCheckpointAndRestoreAfterRestore() {
+        TestPrimingResource testPrimingResource = new TestPrimingResource(false);
+
+        testPrimingResource.beforeCheckpoint(null);
+        testPrimingResource.afterRestore(null);
+
+        assertEquals(1, testPrimingResource.primeCount);
+        assertEquals(1, testPrimingResource.restoreCount);
+    }
+
+    @Test
+    void shouldNotThrowWhenPrimingOrRestoreFails() {
+        TestPrimingResource testPrimingResource = new TestPrimingResource(true);
+
+        assertDoesNotThrow(() -> testPrimingResource.beforeCheckpoint(null));
+        assertDoesNotThrow(() -> testPrimingResource.afterRestore(null));
+
+        assertEquals(1, testPrimingResource.primeCount);
+        assertEquals(1, testPrimingResource.restoreCount);
+    }
+
+    @Test
+    void shouldReseedSharedStateSecureRandom() {
+        byte[] seed = new byte[32];
+        when(mockSecureRandom.getAlgorithm())
+                .thenReturn(SnapStartPrimingResource.SHARED_STATE_SECURE_RANDOM_ALGORITHM);
+        when(mockSecureRandom.generateSeed(32)).thenReturn(seed);
+
+        assertTrue(SnapStartPrimingResource.reseedSecureRandom(mockSecureRandom));
+
+        verify(mockSecureRandom).setSeed(seed);
+    }
+
+    @Test
+    void shouldNotReseedOtherSecureRandomAlgorithms() {
+        when(mockSecureRandom.getAlgorithm()).thenReturn("SHA1PRNG");
+
+        assertFalse(SnapStartPrimingResource.reseedSecureRandom(mockSecureRandom));
+
+        verify(mockSecureRandom, never()).generateSeed(anyInt());
+        verify(mockSecureRandom, never()).setSeed(any(byte[].class));
+    }
+}
@@ -0,0 +1,138 @@
+package uk.gov.di.ipv.cri.passport.library.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonStreamingHelperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldReadLongsAsJackson() throws JsonProcessingException {
+        assertEquals(
+                new Values(1800, null, null),
+                objectMapper.readValue("{\"long\":1800}", Values.class));
+        assertEquals(
+                new Values(1800, null, null),
+                objectMapper.readValue("{\"long\":\"1800\"}", Values.class));
+        assertEquals(
+                new Values(0, null, null), objectMapper.readValue("{\"long\":null}", Values.class));
+        assertThrows(
+                JsonProcessingException.class,
+                () -> objectMapper.readValue("{\"long\":99999999999999999999}", Values.class));
+    }
+
+    @Test
+    void shouldReadStringMapsAsJackson() throws JsonProcessingException {
+        Map<String, String> expectedMap = new LinkedHashMap<>();
+        expectedMap.put("a", "1");
+        expectedMap.put("b", null);
+
+        assertEquals(
+                new Values(0, expectedMap, null),
+                objectMapper.readValue("{\"long\":0,\"map\":{\"a\":1,\"b\":null}}", Values.class));
+        assertNull(objectMapper.readValue("{\"long\":0,\"map\":null}", Values.class).map());
+        assertThrows(
+                MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"long\":0,\"map\":[]}", Values.class));
+    }
+
+    @Test
+    void shouldReadStringListsAsJackson() throws JsonProcessingException {
+        assertEquals(
+                new Values(0, null, List.of("a", "1")),
+                objectMapper.readValue("{\"long\":0,\"list\":[\"a\",1]}", Values.class));
+        assertNull(objectMapper.readValue("{\"long\":0,\"list\":null}", Values.class).list());
+        assertThrows(
+                MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"long\":0,\"list\":\"a\"}", Values.class));
+    }
+
+    @Test
+    void shouldReportMissingProperties() {
+        assertThrows(
+                MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"map\":{}}", Values.class));
+    }
+
+    @Test
+    void shouldWriteStringMapsAndListsAsJackson() throws IOException {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "1");
+        map.put("b", null);
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator jsonGenerator = objectMapper.createGenerator(json)) {
+            jsonGenerator.writeStartObject();
+            JsonStreamingHelper.writeStringMapField(jsonGenerator, "map", map);
+            JsonStreamingHelper.writeStringMapField(jsonGenerator, "nullMap", null);
+            JsonStreamingHelper.writeStringListField(jsonGenerator, "list", List.of("a"));
+            JsonStreamingHelper.writeStringListField(jsonGenerator, "nullList", null);
+            jsonGenerator.writeEndObject();
+        }
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("map", map);
+        expected.put("nullMap", null);
+        expected.put("list", List.of("a"));
+        expected.put("nullList", null);
+        assertEquals(objectMapper.writeValueAsString(expected), json.toString());
+    }
+
+    @JsonDeserialize(using = ValuesDeserializer.class)
+    record Values(long value, Map<String, String> map, List<String> list) {}
+
+    static class ValuesDeserializer extends StdDeserializer<Values> {
+
+        ValuesDeserializer() {
+            super(Values.class);
+        }
+
+        @Override
+        public Values deserialize(JsonParser jsonParser, DeserializationContext context)
+                throws IOException {
+            long value = 0;
+            boolean hasValue = false;
+            Map<String, String> map = null;
+            List<String> list = null;
+            for (String name = JsonStreamingHelper.firstPropertyName(jsonParser);
+                    name != null;
+                    name = jsonParser.nextFieldName()) {
+                jsonParser.nextToken();
+                switch (name) {
+                    case "long" -> {
+                        value = JsonStreamingHelper.readLong(jsonParser, context);
+                        hasValue = true;
+                    }
+                    case "map" -> map = JsonStreamingHelper.readStringMap(jsonParser, context);
+                    case "list" -> list =
+                            JsonStreamingHelper.readStringList(jsonParser, context, false);
+                    default -> jsonParser.skipChildren();
+                }
+            }
+
+            if (!hasValue) {
+                return JsonStreamingHelper.reportMissingProperty(context, Values.class, "long");
+            }
+
+            return new Values(value, map, list);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package uk.gov.di.ipv.cri.passport.library;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures the bytes allocated per operation of a warm hot path with
+ * ThreadMXBean.getThreadAllocatedBytes and fails when the per-path budget is exceeded.
+ *
+ * <p>The budget for a path can be overridden with ALLOCATION_BUDGET_{PATH} (bytes per operation),
+ * eg ALLOCATION_BUDGET_CONTRA_INDICATOR_MAPPER=4096. When the budget is exceeded the operation is
+ * run again under a flight recording and the allocation samples are printed by allocated class and
+ * allocating application frame.
+ *
+ * <p>A path whose allocation has not been measured under the build's JDK is created with
+ * reportOnly, its bytes per operation are logged but only checked when the override is set. Once
+ * measured, commit the figure and the margin added to it as the path's forPath budget.
+ */
+public class AllocationBudget {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final int DEFAULT_WARMUP_OPERATIONS = 2_000;
+    public static final int DEFAULT_MEASURED_OPERATIONS = 500;
+
+    private static final String BUDGET_ENV_PREFIX = "ALLOCATION_BUDGET_";
+    private static final String APPLICATION_PACKAGE = "uk.gov.di.ipv.cri.passport";
+    private static final int BREAKDOWN_LINES = 20;
+    private static final long REPORT_ONLY = -1;
+
+    private final String path;
+    private final long bytesPerOperationBudget;
+
+    private int warmupOperations = DEFAULT_WARMUP_OPERATIONS;
+    private int measuredOperations = DEFAULT_MEASURED_OPERATIONS;
+
+    /** An operation of the hot path, checked exceptions fail the measurement. */
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    private AllocationBudget(String path, long bytesPerOperationBudget) {
+        this.path = path;
+        this.bytesPerOperationBudget = bytesPerOperationBudget;
+    }
+
+    /**
+     * @param path name of the hot path, used for the budget override and the report
+     * @param defaultBytesPerOperation budget unless overridden by the environment
+     */
+    public static AllocationBudget forPath(String path, long defaultBytesPerOperation) {
+        String budgetOverride =
+                System.getenv(BUDGET_ENV_PREFIX + path.toUpperCase(Locale.ROOT).replace('-', '_'));
+
+        return new AllocationBudget(
+                path,
+                budgetOverride == null ? defaultBytesPerOperation : Long.parseLong(budgetOverride));
+    }
+
+    /**
+     * @param path name of the hot path, used for the budget override and the report
+     */
+    public static AllocationBudget reportOnly(String path) {
+        return forPath(path, REPORT_ONLY);
+    }
+
+    public AllocationBudget warmupOperations(int warmupOperations) {
+        this.warmupOperations = warmupOperations;
+        return this;
+    }
+
+    public AllocationBudget measuredOperations(int measuredOperations) {
+        this.measuredOperations = measuredOperations;
+        return this;
+    }
+
+    /** Warms the operation then measures it, throwing AssertionError when over budget. */
+    public long assertWithinBudget(Operation operation) {
+        runOperations(operation, warmupOperations);
+
+        long bytesPerOperation = measure(operation);
+
+        if (bytesPerOperationBudget == REPORT_ONLY) {
+            LOGGER.info(
+                    "Allocation budget {}: {} bytes/op (report only, not yet measured)",
+                    path,
+                    bytesPerOperation);
+            return bytesPerOperation;
+        }
+
+        LOGGER.info(
+                "Allocation budget {}: {} bytes/op (budget {})",
+                path,
+                bytesPerOperation,
+                bytesPerOperationBudget);
+
+        if (bytesPerOperation > bytesPerOperationBudget) {
+            throw new AssertionError(
+                    String.format(
+                            "%s allocated %d bytes/op, over budget of %d bytes/op%n%s",
+                            path,
+                            bytesPerOperation,
+                            bytesPerOperationBudget,
+                            allocationBreakdown(operation)));
+        }
+
+        return bytesPerOperation;
+    }
+
+    private long measure(Operation operation) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        runOperations(operation, measuredOperations);
+        long allocatedAfter = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        return (allocatedAfter - allocatedBefore) / measuredOperations;
+    }
+
+    // Sampled, so the breakdown shows where to look rather than exact sizes
+    private String allocationBreakdown(Operation operation) {
+        Map<String, Long> sampledBytes = new HashMap<>();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "10000/s");
+            recording.start();
+            runOperations(operation, measuredOperations);
+            recording.stop();
+
+            Path recordingFile = Files.createTempFile("allocation-" + path, ".jfr");
+            recording.dump(recordingFile);
+
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+                String allocation =
+                        event.getClass("objectClass").getName() + " at " + allocatingFrame(event);
+                sampledBytes.merge(allocation, event.getLong("weight"), Long::sum);
+            }
+
+            Files.deleteIfExists(recordingFile);
+        } catch (IOException e) {
+            return "Allocation breakdown not available - " + e.getMessage();
+        }
+
+        StringBuilder breakdown = new StringBuilder("Sampled bytes/op by class and frame:");
+
+        sampledBytes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(BREAKDOWN_LINES)
+                .forEach(
+                        allocation ->
+                                breakdown.append(
+                                        String.format(
+                                                "%n  %10d  %s",
+                                                allocation.getValue() / measuredOperations,
+                                                allocation.getKey())));
+
+        return breakdown.toString();
+    }
+
+    // The first passport frame, or the top frame for allocations outside the application
+    private static String allocatingFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+
+        RecordedFrame allocatingFrame =
+                frames.stream()
+                        .filter(frame -> frame.getMethod().getType().getName() != null)
+                        .filter(
+                                frame ->
+                                        frame.getMethod()
+                                                .getType()
+                                                .getName()
+                                                .startsWith(APPLICATION_PACKAGE))
+                        .findFirst()
+                        .orElse(frames.isEmpty() ? null : frames.get(0));
+
+        if (allocatingFrame == null) {
+            return "unknown";
+        }
+
+        return allocatingFrame.getMethod().getType().getName()
+                + "."
+                + allocatingFrame.getMethod().getName()
+                + ":"
+                + allocatingFrame.getLineNumber();
+    }
+
+    private static void runOperations(Operation operation, int operations) {
+        try {
+            for (int i = 0; i < operations; i++) {
+                operation.run();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Allocation budget operation failed", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package uk.gov.di.ipv.cri.passport.library;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * ObjectMappers for checking the hand written (de)serializers of the request and response types
+ * against the reflective bean (de)serializers Jackson would otherwise use.
+ */
+public class JsonSerializationTestFixtures {
+
+    private static final String APPLICATION_PACKAGE = "uk.gov.di.ipv.cri.passport";
+
+    private JsonSerializationTestFixtures() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    /** As configured for the lambdas (see ServiceFactory). */
+    public static ObjectMapper createObjectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * As configured for the lambdas, ignoring the (de)serializers set on classes with
+     * {@code @JsonSerialize(using = ...)} and {@code @JsonDeserialize(using = ...)}.
+     */
+    public static ObjectMapper createReflectiveObjectMapper() {
+        ObjectMapper objectMapper = createObjectMapper();
+        objectMapper.setAnnotationIntrospector(new ClassSerializersIgnoringIntrospector());
+        return objectMapper;
+    }
+
+    /**
+     * @return the JSON read into the type then written by the reflective ObjectMapper, or the name
+     *     of the exception thrown reading it - equal for equivalent deserializers
+     */
+    public static String readOutcome(ObjectMapper objectMapper, String json, Class<?> type) {
+        try {
+            Object value = objectMapper.readValue(json, type);
+            return createReflectiveObjectMapper().writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    /**
+     * Fails unless every property the reflective (de)serializers find on the value's type (and on
+     * the application types within it) survives the hand written ones, so a property added to a
+     * type but not to its nested (de)serializers fails that type's test. The value must have every
+     * property set, a property not set also fails.
+     */
+    public static void assertEveryPropertyRoundTrips(Object value) throws JsonProcessingException {
+        ObjectMapper objectMapper = createObjectMapper();
+        ObjectMapper reflectiveObjectMapper = createReflectiveObjectMapper();
+        Class<?> type = value.getClass();
+
+        JsonNode written = objectMapper.valueToTree(value);
+        assertWritesEveryProperty(
+                reflectiveObjectMapper, reflectiveObjectMapper.constructType(type), written, "");
+
+        JsonNode reflectivelyWritten = reflectiveObjectMapper.valueToTree(value);
+        if (!reflectivelyWritten.equals(written)) {
+            throw new AssertionError(
+                    String.format(
+                            "%s written as %s, reflectively as %s",
+                            type.getSimpleName(), written, reflectivelyWritten));
+        }
+
+        if (!type.isAnnotationPresent(JsonDeserialize.class)) {
+            return; // Only ever written
+        }
+
+        for (BeanPropertyDefinition property :
+                reflectiveObjectMapper
+                        .getDeserializationConfig()
+                        .introspect(reflectiveObjectMapper.constructType(type))
+                        .findProperties()) {
+            if (property.couldDeserialize() && !written.has(property.getName())) {
+                throw new AssertionError(
+                        type.getSimpleName() + "." + property.getName() + " is never written");
+            }
+        }
+
+        String json = reflectiveObjectMapper.writeValueAsString(value);
+        String reflectivelyRead = readOutcome(reflectiveObjectMapper, json, type);
+        String read = readOutcome(objectMapper, json, type);
+        if (!reflectivelyRead.equals(json) || !read.equals(json)) {
+            throw new AssertionError(
+                    String.format(
+                            "%s read back as %s, reflectively as %s, from %s",
+                            type.getSimpleName(), read, reflectivelyRead, json));
+        }
+    }
+
+    private static void assertWritesEveryProperty(
+            ObjectMapper reflectiveObjectMapper, JavaType type, JsonNode written, String path) {
+        for (BeanPropertyDefinition property :
+                reflectiveObjectMapper
+                        .getSerializationConfig()
+                        .introspect(type)
+                        .findProperties()) {
+            if (!property.couldSerialize()) {
+                continue;
+            }
+
+            String propertyPath = path + "/" + property.getName();
+            JsonNode propertyValue = written.get(property.getName());
+            if (propertyValue == null || propertyValue.isNull()) {
+                throw new AssertionError(
+                        String.format(
+                                "%s of %s not written, or not set in the test value",
+                                propertyPath, type.getRawClass().getSimpleName()));
+            }
+
+            JavaType propertyType = property.getPrimaryType();
+            if (propertyType.isCollectionLikeType() || propertyType.isArrayType()) {
+                for (int i = 0; i < propertyValue.size(); i++) {
+                    assertWritesEveryApplicationProperty(
+                            reflectiveObjectMapper,
+                            propertyType.getContentType(),
+                            propertyValue.get(i),
+                            propertyPath + "/" + i);
+                }
+            } else {
+                assertWritesEveryApplicationProperty(
+                        reflectiveObjectMapper, propertyType, propertyValue, propertyPath);
+            }
+        }
+    }
+
+    private static void assertWritesEveryApplicationProperty(
+            ObjectMapper reflectiveObjectMapper, JavaType type, JsonNode written, String path) {
+        if (written.isObject() && type.getRawClass().getName().startsWith(APPLICATION_PACKAGE)) {
+            assertWritesEveryProperty(reflectiveObjectMapper, type, written, path);
+        }
+    }
+
+    private static class ClassSerializersIgnoringIntrospector
+            extends JacksonAnnotationIntrospector {
+
+        @Override
+        public Object findSerializer(Annotated annotated) {
+            return annotated instanceof AnnotatedClass ? null : super.findSerializer(annotated);
+        }
+
+        @Override
+        public Object findDeserializer(Annotated annotated) {
+            return annotated instanceof AnnotatedClass ? null : super.findDeserializer(annotated);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs each handler's function init in a fresh JVM, many times, for each of a list of JVM flag
+ * sets, and reports where the init time goes - class loading, each ServiceFactory getter, SSM
+ * reads, TLS client builds, the CI mapping parse and the Jackson bootstrap (see {@link
+ * ColdStartRun}).
+ *
+ * <p>SSM is the {@link SsmStandInServer}, serving the load harness parameters and the client
+ * parameters of a {@link DvadStandInServer} (DVAD is not called during init). Other AWS clients
+ * are created but not called during init.
+ *
+ * <p>Runs are interleaved (each round runs every flag set and handler once) so drift in the
+ * machine's load is spread across them, the first round only warms the OS file cache and is not
+ * reported. Every result is written to coldStart.outputDirectory/results.csv, the output of the
+ * JVMs to child-output.log.
+ */
+public final class ColdStartBenchmark {
+
+    private static final String DEFAULT_FLAG_SETS =
+            "default=;lambda=-XX:+TieredCompilation -XX:TieredStopAtLevel=1 -Xshare:auto";
+    private static final String DEFAULT_HANDLERS =
+            ColdStartRun.CHECK_PASSPORT + "," + ColdStartRun.ISSUE_CREDENTIAL;
+    private static final List<String> MODES =
+            List.of(ColdStartRun.CONSTRUCTOR_MODE, ColdStartRun.ATTRIBUTED_MODE);
+
+    private static final String INIT_UNATTRIBUTED = "init: unattributed";
+    private static final String CLASS_LOADING = "class loading (in init)";
+    private static final long RUN_TIMEOUT_SECONDS = 120;
+    private static final double[] PERCENTILES = {50, 90};
+
+    // Not passed on to the runs, they would change the init measured
+    static final List<String> REMOVED_ENVIRONMENT =
+            List.of("JAVA_TOOL_OPTIONS", "_JAVA_OPTIONS", "PARAMETER_SOURCE", "CIMap");
+
+    private ColdStartBenchmark() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static void main(String[] args)
+            throws IOException, InterruptedException, GeneralSecurityException {
+        final int runs = Integer.getInteger("coldStart.runs", 10);
+        final Map<String, List<String>> flagSets =
+                parseFlagSets(System.getProperty("coldStart.flagSets", DEFAULT_FLAG_SETS));
+        final List<String> handlers =
+                List.of(System.getProperty("coldStart.handlers", DEFAULT_HANDLERS).split(","));
+        final Path outputDirectory =
+                Path.of(System.getProperty("coldStart.outputDirectory", "cold-start"));
+
+        Files.createDirectories(outputDirectory);
+        Path resultFile = outputDirectory.resolve("run-result.tsv");
+        File childOutput = outputDirectory.resolve("child-output.log").toFile();
+        Files.deleteIfExists(childOutput.toPath());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Keyed by flag set, handler then mode - each component's usage of every run
+        Map<String, Map<String, List<InitTimings.Usage>>> results = new LinkedHashMap<>();
+        int failedRuns = 0;
+
+        try (DvadStandInServer dvadStandInServer =
+                        new DvadStandInServer(
+                                objectMapper, DvadStandInSettings.fromSystemProperties());
+                SsmStandInServer ssmStandInServer =
+                        new SsmStandInServer(
+                                objectMapper,
+                                LoadHarness.createParameters(
+                                        dvadStandInServer.createClientParameters()));
+                PrintStream csv =
+                        new PrintStream(
+                                Files.newOutputStream(outputDirectory.resolve("results.csv")),
+                                true,
+                                StandardCharsets.UTF_8)) {
+            csv.println(
+                    "flag_set,handler,mode,run,component,millis,classes_loaded,class_loading_ms");
+
+            System.out.printf(
+                    "Running %d cold starts (plus a warm up round) of %s, modes %s, flag sets %s%n",
+                    runs, handlers, MODES, flagSets.keySet());
+
+            for (int run = 0; run <= runs; run++) {
+                for (Map.Entry<String, List<String>> flagSet : flagSets.entrySet()) {
+                    for (String handler : handlers) {
+                        for (String mode : MODES) {
+                            Map<String, InitTimings.Usage> usageByComponent =
+                                    runInit(
+                                            flagSet.getValue(),
+                                            handler,
+                                            mode,
+                                            ssmStandInServer.getEndpointUrl(),
+                                            resultFile,
+                                            childOutput);
+                            if (usageByComponent == null) {
+                                failedRuns++;
+                            } else if (run > 0) {
+                                record(
+                                        results,
+                                        csv,
+                                        flagSet.getKey() + " " + handler + " " + mode,
+                                        run,
+                                        usageByComponent);
+                            }
+                        }
+                    }
+                }
+                System.out.printf("Round %d of %d done%n", run, runs);
+            }
+
+            for (String handler : handlers) {
+                for (String flagSet : flagSets.keySet()) {
+                    report(System.out, flagSet, handler, results);
+                }
+                compare(System.out, handler, flagSets.keySet(), results);
+            }
+            System.out.printf("%d failed runs, see %s%n", failedRuns, childOutput);
+            ssmStandInServer.report(System.out);
+            System.out.printf("Every run in %s%n", outputDirectory.resolve("results.csv"));
+        }
+    }
+
+    // key is the flag set, handler and mode
+    private static void record(
+            Map<String, Map<String, List<InitTimings.Usage>>> results,
+            PrintStream csv,
+            String key,
+            int run,
+            Map<String, InitTimings.Usage> usageByComponent) {
+        Map<String, List<InitTimings.Usage>> keyResults =
+                results.computeIfAbsent(key, k -> new LinkedHashMap<>());
+
+        for (Map.Entry<String, InitTimings.Usage> component : usageByComponent.entrySet()) {
+            InitTimings.Usage usage = component.getValue();
+            keyResults.computeIfAbsent(component.getKey(), k -> new ArrayList<>()).add(usage);
+            csv.printf(
+                    "%s,%d,\"%s\",%.3f,%d,%d%n",
+                    key.replace(' ', ','),
+                    run,
+                    component.getKey(),
+                    toMillis(usage.nanos()),
+                    usage.classesLoaded(),
+                    usage.classLoadingMillis());
+        }
+    }
+
+    /** @return each component's usage, null if the run failed */
+    private static Map<String, InitTimings.Usage> runInit(
+            List<String> flags,
+            String handler,
+            String mode,
+            String ssmEndpointUrl,
+            Path resultFile,
+            File childOutput)
+            throws IOException, InterruptedException {
+        Files.deleteIfExists(resultFile);
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(flags);
+        command.add("--add-exports");
+        command.add("java.management/sun.management=ALL-UNNAMED");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ColdStartRun.class.getName());
+        command.add(handler);
+        command.add(mode);
+        command.add(resultFile.toString());
+
+        ProcessBuilder processBuilder =
+                new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(childOutput));
+        Map<String, String> environment = processBuilder.environment();
+        REMOVED_ENVIRONMENT.forEach(environment::remove);
+        putFunctionEnvironment(environment, ssmEndpointUrl, "cold-start");
+
+        Process process = processBuilder.start();
+        if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            return null;
+        }
+        if (process.exitValue() != 0 || !Files.exists(resultFile)) {
+            return null;
+        }
+
+        return readResult(resultFile);
+    }
+
+    /**
+     * The lambda environment of a function run in a child process, AWS calls go to the SSM
+     * stand-in at awsEndpointUrl.
+     */
+    static void putFunctionEnvironment(
+            Map<String, String> environment, String awsEndpointUrl, String name) {
+        environment.put("AWS_REGION", "eu-west-2");
+        environment.put("AWS_ACCESS_KEY_ID", name);
+        environment.put("AWS_SECRET_ACCESS_KEY", name); // pragma: allowlist secret
+        environment.put("AWS_ENDPOINT_URL", awsEndpointUrl);
+        // Stack, common and prefixed parameters all share one prefix (see LoadHarness)
+        environment.put("AWS_STACK_NAME", LoadHarness.PARAMETER_PREFIX);
+        environment.put("PARAMETER_PREFIX", LoadHarness.PARAMETER_PREFIX);
+        environment.put("COMMON_PARAMETER_NAME_PREFIX", LoadHarness.PARAMETER_PREFIX);
+        environment.put("ENVIRONMENT", "dev");
+        environment.put("SQS_AUDIT_EVENT_QUEUE_URL", awsEndpointUrl + "/000000000000/" + name);
+        environment.put(
+                "SQS_AUDIT_EVENT_PREFIX", name.toUpperCase(Locale.ROOT).replace('-', '_'));
+        environment.put("POWERTOOLS_METRICS_NAMESPACE", name);
+        environment.put("POWERTOOLS_SERVICE_NAME", name);
+    }
+
+    private static Map<String, InitTimings.Usage> readResult(Path resultFile)
+            throws IOException {
+        Map<String, InitTimings.Usage> usageByComponent = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(resultFile, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            usageByComponent.put(
+                    fields[0],
+                    new InitTimings.Usage(
+                            Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3])));
+        }
+
+        // The init outside any component, e.g. loading the classes of the steps themselves
+        InitTimings.Usage total = usageByComponent.get(ColdStartRun.INIT_TOTAL);
+        InitTimings.Usage unattributed = total;
+        for (Map.Entry<String, InitTimings.Usage> component : usageByComponent.entrySet()) {
+            if (!component.getKey().equals(ColdStartRun.JVM_START)
+                    && !component.getKey().equals(ColdStartRun.INIT_TOTAL)) {
+                unattributed = unattributed.minus(component.getValue());
+            }
+        }
+        usageByComponent.put(INIT_UNATTRIBUTED, unattributed);
+        usageByComponent.put(
+                CLASS_LOADING,
+                new InitTimings.Usage(
+                        TimeUnit.MILLISECONDS.toNanos(total.classLoadingMillis()),
+                        total.classesLoaded(),
+                        total.classLoadingMillis()));
+
+        return usageByComponent;
+    }
+
+    /** Prints the attributed components of one handler and flag set. */
+    private static void report(
+            PrintStream out,
+            String flagSet,
+            String handler,
+            Map<String, Map<String, List<InitTimings.Usage>>> results) {
+        Map<String, List<InitTimings.Usage>> attributed =
+                results.getOrDefault(
+                        flagSet + " " + handler + " " + ColdStartRun.ATTRIBUTED_MODE, Map.of());
+
+        out.printf("%n%s, flag set %s (attributed runs)%n", handler, flagSet);
+        out.printf(
+                "%-50s %9s %9s %9s %9s%n", "component", "p50 ms", "p90 ms", "classes", "cl ms");
+        for (Map.Entry<String, List<InitTimings.Usage>> component : attributed.entrySet()) {
+            long[] nanos = sorted(component.getValue(), InitTimings.Usage::nanos);
+            out.printf("%-50s", component.getKey());
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", toMillis(PhaseLatencies.percentile(nanos, percentile)));
+            }
+            out.printf(
+                    " %9d %9d%n",
+                    PhaseLatencies.percentile(
+                            sorted(component.getValue(), InitTimings.Usage::classesLoaded), 50),
+                    PhaseLatencies.percentile(
+                            sorted(component.getValue(), InitTimings.Usage::classLoadingMillis),
+                            50));
+        }
+    }
+
+    /** Prints the p50 totals of a handler under each flag set. */
+    private static void compare(
+            PrintStream out,
+            String handler,
+            Iterable<String> flagSets,
+            Map<String, Map<String, List<InitTimings.Usage>>> results) {
+        out.printf("%n%s, p50 ms by flag set%n", handler);
+        out.printf(
+                "%-20s %14s %14s %14s %14s%n",
+                "flag set", "jvm to main", "init", "init attrib.", "class loading");
+        for (String flagSet : flagSets) {
+            Map<String, List<InitTimings.Usage>> constructor =
+                    results.getOrDefault(
+                            flagSet + " " + handler + " " + ColdStartRun.CONSTRUCTOR_MODE,
+                            Map.of());
+            Map<String, List<InitTimings.Usage>> attributed =
+                    results.getOrDefault(
+                            flagSet + " " + handler + " " + ColdStartRun.ATTRIBUTED_MODE,
+                            Map.of());
+
+            out.printf(
+                    "%-20s %14.2f %14.2f %14.2f %14.2f%n",
+                    flagSet,
+                    p50Millis(constructor.get(ColdStartRun.JVM_START)),
+                    p50Millis(constructor.get(ColdStartRun.INIT_TOTAL)),
+                    p50Millis(attributed.get(ColdStartRun.INIT_TOTAL)),
+                    p50Millis(constructor.get(CLASS_LOADING)));
+        }
+    }
+
+    // name=flags pairs separated by ;
+    static Map<String, List<String>> parseFlagSets(String flagSetsSpec) {
+        Map<String, List<String>> flagSets = new LinkedHashMap<>();
+        for (String flagSet : flagSetsSpec.split(";")) {
+            int separator = flagSet.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid flag set " + flagSet);
+            }
+
+            String flags = flagSet.substring(separator + 1).trim();
+            flagSets.put(
+                    flagSet.substring(0, separator).trim(),
+                    flags.isEmpty() ? List.of() : Arrays.asList(flags.split("\\s+")));
+        }
+
+        return flagSets;
+    }
+
+    private static long[] sorted(
+            List<InitTimings.Usage> usages,
+            ToLongFunction<InitTimings.Usage> value) {
+        return usages.stream().mapToLong(value).sorted().toArray();
+    }
+
+    private static double p50Millis(List<InitTimings.Usage> usages) {
+        if (usages == null || usages.isEmpty()) {
+            return Double.NaN;
+        }
+        return toMillis(PhaseLatencies.percentile(sorted(usages, InitTimings.Usage::nanos), 50));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,209 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import uk.gov.di.ipv.cri.common.library.util.KMSSigner;
+import uk.gov.di.ipv.cri.passport.checkpassport.handler.CheckPassportHandler;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.DocumentDataVerificationService;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
+import uk.gov.di.ipv.cri.passport.issuecredential.handler.IssueCredentialHandler;
+import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One lambda function init, in a JVM started for it by {@link ColdStartBenchmark}. Writes the
+ * share of each init component to a result file, a line of {@code
+ * <component>\t<nanos>\t<classes loaded>\t<class loading ms>} each.
+ *
+ * <p>In the constructor mode the handler is created with its default constructor, as the lambda
+ * runtime does. In the attributed mode the steps of the default constructor are run one by one
+ * with a {@link TimedServiceFactory}, so each ServiceFactory getter, SSM read and TLS client build
+ * is recorded. The SnapStart priming resource is not created in the attributed mode, it does no
+ * work until a checkpoint.
+ */
+public final class ColdStartRun {
+
+    static final String CHECK_PASSPORT = "check-passport";
+    static final String ISSUE_CREDENTIAL = "issue-credential";
+
+    static final String CONSTRUCTOR_MODE = "constructor";
+    static final String ATTRIBUTED_MODE = "attributed";
+
+    static final String JVM_START = "jvm: start to main";
+    static final String INIT_TOTAL = "init: total";
+    static final String HANDLER_CLASS_INIT = "handler: class init";
+    static final String HANDLER_CONSTRUCTOR = "handler: default constructor";
+    static final String HANDLER_SERVICES = "handler: services";
+    static final String CI_MAPPING_PARSE = "ci mapping: ContraIndicatorMapper";
+
+    private static final String CONFIG_SNAPSHOT_SPEC_FIELD = "CONFIG_SNAPSHOT_SPEC";
+
+    private ColdStartRun() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static void main(String[] args) throws Exception {
+        long jvmStartToMainMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (args.length != 3) {
+            throw new IllegalArgumentException(
+                    "Usage: ColdStartRun <check-passport|issue-credential> "
+                            + "<constructor|attributed> <result file>");
+        }
+
+        InitTimings timings = new InitTimings();
+        InitTimings.Usage atMain = timings.now();
+
+        String handlerClassName = handlerClassName(args[0]);
+        InitTimings.Usage initStart = timings.now();
+        Class<?> handlerClass =
+                timings.time(HANDLER_CLASS_INIT, () -> Class.forName(handlerClassName));
+        switch (args[1]) {
+            case CONSTRUCTOR_MODE -> timings.time(
+                    HANDLER_CONSTRUCTOR,
+                    () -> handlerClass.getDeclaredConstructor().newInstance());
+            case ATTRIBUTED_MODE -> AttributedInit.run(handlerClass, timings);
+            default -> throw new IllegalArgumentException("Unknown mode " + args[1]);
+        }
+        InitTimings.Usage init = timings.now().minus(initStart);
+
+        writeResult(
+                Path.of(args[2]),
+                new InitTimings.Usage(
+                        TimeUnit.MILLISECONDS.toNanos(jvmStartToMainMillis),
+                        atMain.classesLoaded(),
+                        atMain.classLoadingMillis()),
+                init,
+                timings);
+    }
+
+    // Names only, the handler classes are loaded in the timed init
+    private static String handlerClassName(String handler) {
+        return switch (handler) {
+            case CHECK_PASSPORT -> "uk.gov.di.ipv.cri.passport.checkpassport.handler"
+                    + ".CheckPassportHandler";
+            case ISSUE_CREDENTIAL -> "uk.gov.di.ipv.cri.passport.issuecredential.handler"
+                    + ".IssueCredentialHandler";
+            default -> throw new IllegalArgumentException("Unknown handler " + handler);
+        };
+    }
+
+    private static void writeResult(
+            Path resultFile,
+            InitTimings.Usage jvmStart,
+            InitTimings.Usage init,
+            InitTimings timings)
+            throws IOException {
+        try (PrintStream result =
+                new PrintStream(Files.newOutputStream(resultFile), false, StandardCharsets.UTF_8)) {
+            writeLine(result, JVM_START, jvmStart, timings);
+            writeLine(result, INIT_TOTAL, init, timings);
+            for (Map.Entry<String, InitTimings.Usage> component :
+                    timings.getSelfUsageByComponent().entrySet()) {
+                writeLine(result, component.getKey(), component.getValue(), timings);
+            }
+        }
+    }
+
+    private static void writeLine(
+            PrintStream result, String component, InitTimings.Usage usage, InitTimings timings) {
+        result.printf(
+                "%s\t%d\t%d\t%d%n",
+                component,
+                usage.nanos(),
+                usage.classesLoaded(),
+                timings.hasClassLoadingTime() ? usage.classLoadingMillis() : -1);
+    }
+
+    /**
+     * The steps of the handlers' default constructors. A class of its own so the classes it uses
+     * are loaded (for verification) in the timed init rather than before main.
+     */
+    private static final class AttributedInit {
+
+        private AttributedInit() {
+            throw new IllegalStateException("Instantiation is not valid for this class.");
+        }
+
+        static void run(Class<?> handlerClass, InitTimings timings) throws Exception {
+            if (handlerClass == CheckPassportHandler.class) {
+                initCheckPassport(timings);
+            } else {
+                initIssueCredential(timings);
+            }
+        }
+
+        // Mirrors CheckPassportHandler()
+        private static void initCheckPassport(InitTimings timings) throws Exception {
+            TimedServiceFactory serviceFactory = new TimedServiceFactory(timings);
+            serviceFactory.loadConfigSnapshot(configSnapshotSpec(CheckPassportHandler.class));
+
+            FormDataValidator formDataValidator =
+                    timings.time("check passport: FormDataValidator", FormDataValidator::new);
+            ContraIndicatorMapper contraIndicatorMapper =
+                    timings.time(
+                            CI_MAPPING_PARSE, () -> new ContraIndicatorMapper(serviceFactory));
+            DocumentDataVerificationService documentDataVerificationService =
+                    timings.time(
+                            "check passport: DocumentDataVerificationService",
+                            () ->
+                                    new DocumentDataVerificationService(
+                                            serviceFactory,
+                                            formDataValidator,
+                                            contraIndicatorMapper));
+
+            timings.time(
+                    HANDLER_SERVICES,
+                    () ->
+                            new CheckPassportHandler(
+                                    serviceFactory, documentDataVerificationService));
+        }
+
+        // Mirrors IssueCredentialHandler()
+        private static void initIssueCredential(InitTimings timings) throws Exception {
+            TimedServiceFactory serviceFactory = new TimedServiceFactory(timings);
+            serviceFactory.loadConfigSnapshot(configSnapshotSpec(IssueCredentialHandler.class));
+
+            String kmsSigningKeyId =
+                    timings.time(
+                            "ssm: common lib signing key id",
+                            () ->
+                                    serviceFactory
+                                            .getCommonLibConfigurationService()
+                                            .getVerifiableCredentialKmsSigningKeyId());
+            KMSSigner kmsSigner =
+                    timings.time(
+                            "issue credential: KMSSigner",
+                            () ->
+                                    new KMSSigner(
+                                            kmsSigningKeyId,
+                                            serviceFactory
+                                                    .getClientProviderFactory()
+                                                    .getKMSClient()));
+            VerifiableCredentialService verifiableCredentialService =
+                    timings.time(
+                            "issue credential: VerifiableCredentialService",
+                            () -> new VerifiableCredentialService(serviceFactory, kmsSigner));
+
+            timings.time(
+                    HANDLER_SERVICES,
+                    () -> new IssueCredentialHandler(serviceFactory, verifiableCredentialService));
+        }
+
+        // The parameters each handler loads in its default constructor
+        private static PassportConfigSnapshotSpec configSnapshotSpec(Class<?> handlerClass)
+                throws ReflectiveOperationException {
+            Field field = handlerClass.getDeclaredField(CONFIG_SNAPSHOT_SPEC_FIELD);
+            field.setAccessible(true); // NOSONAR - benchmark tooling only
+            return (PassportConfigSnapshotSpec) field.get(null);
+        }
+    }
+}
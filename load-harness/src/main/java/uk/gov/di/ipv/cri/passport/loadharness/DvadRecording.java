@@ -0,0 +1,227 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * GraphQL response bodies replayed by the DVAD stand-in, each with a weight - the share of
+ * requests answered with it. Responses with an errors payload are kept apart, they are only
+ * replayed at the configured error rate.
+ *
+ * <pre>
+ * {"responses": [{"weight": 85, "body": {"data": {"validatePassport": {...}}}}],
+ *  "errorResponses": [{"weight": 1, "body": {"data": null, "errors": [...]}}]}
+ * </pre>
+ *
+ * <p>A recording is made from captured graphql response bodies (one per line, e.g. from the debug
+ * logs of a test environment) by {@link #main}, which scrubs each body and weights it by how often
+ * it was seen. Scrubbing keeps the shape - flag names, true/false flag values, error locations,
+ * paths, codes and enum classifications - and replaces any other text.
+ */
+public final class DvadRecording {
+
+    private static final String DEFAULT_RECORDING = "/dvad-recording.json";
+    private static final String RESPONSES = "responses";
+    private static final String ERROR_RESPONSES = "errorResponses";
+    private static final String WEIGHT = "weight";
+    private static final String BODY = "body";
+    private static final String ERRORS = "errors";
+
+    private static final String SCRUBBED = "scrubbed";
+    private static final Pattern FLAG_VALUE = Pattern.compile("true|false");
+    private static final Pattern ENUM_VALUE = Pattern.compile("[A-Z0-9_]*");
+
+    private final WeightedBodies responses;
+    private final WeightedBodies errorResponses;
+
+    private DvadRecording(WeightedBodies responses, WeightedBodies errorResponses) {
+        this.responses = responses;
+        this.errorResponses = errorResponses;
+    }
+
+    /** @param recordingPath a recording file, or null for the recording bundled with the harness */
+    static DvadRecording load(ObjectMapper objectMapper, Path recordingPath) throws IOException {
+        JsonNode recording;
+        if (recordingPath == null) {
+            try (InputStream inputStream =
+                    DvadRecording.class.getResourceAsStream(DEFAULT_RECORDING)) {
+                recording = objectMapper.readTree(inputStream);
+            }
+        } else {
+            recording = objectMapper.readTree(recordingPath.toFile());
+        }
+
+        WeightedBodies responses = WeightedBodies.from(objectMapper, recording.path(RESPONSES));
+        if (responses.isEmpty()) {
+            throw new IllegalArgumentException("Recording has no responses");
+        }
+
+        return new DvadRecording(
+                responses, WeightedBodies.from(objectMapper, recording.path(ERROR_RESPONSES)));
+    }
+
+    String nextResponse() {
+        return responses.next();
+    }
+
+    /** @return an errors payload, or a normal response if none were recorded */
+    String nextErrorResponse() {
+        return errorResponses.isEmpty() ? responses.next() : errorResponses.next();
+    }
+
+    /**
+     * Scrubs captured graphql response bodies into a recording.
+     *
+     * @param args the captured bodies file and the recording file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || args[0].isEmpty() || args[1].isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Usage: DvadRecording <captured bodies file> <recording file>");
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> capturedBodies =
+                Files.readAllLines(Path.of(args[0])).stream()
+                        .filter(line -> !line.isBlank())
+                        .toList();
+
+        JsonNode recording = record(objectMapper, capturedBodies);
+        objectMapper
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(Path.of(args[1]).toFile(), recording);
+
+        System.out.printf(
+                "%d bodies recorded as %d responses and %d error responses%n",
+                capturedBodies.size(),
+                recording.path(RESPONSES).size(),
+                recording.path(ERROR_RESPONSES).size());
+    }
+
+    static ObjectNode record(ObjectMapper objectMapper, List<String> capturedBodies)
+            throws IOException {
+        // Identical bodies after scrubbing are merged, weighted by occurrence
+        Map<JsonNode, Integer> responseCounts = new LinkedHashMap<>();
+        Map<JsonNode, Integer> errorResponseCounts = new LinkedHashMap<>();
+        for (String capturedBody : capturedBodies) {
+            JsonNode body = scrub(objectMapper.readTree(capturedBody));
+            Map<JsonNode, Integer> counts =
+                    body.path(ERRORS).isArray() ? errorResponseCounts : responseCounts;
+            counts.merge(body, 1, Integer::sum);
+        }
+
+        ObjectNode recording = objectMapper.createObjectNode();
+        addWeightedBodies(recording.putArray(RESPONSES), responseCounts);
+        addWeightedBodies(recording.putArray(ERROR_RESPONSES), errorResponseCounts);
+        return recording;
+    }
+
+    static JsonNode scrub(JsonNode body) {
+        JsonNode scrubbed = body.deepCopy();
+
+        JsonNode validatePassport = scrubbed.path("data").path("validatePassport");
+        if (validatePassport.isObject()) {
+            replaceText((ObjectNode) validatePassport, FLAG_VALUE);
+        }
+
+        for (JsonNode error : scrubbed.path(ERRORS)) {
+            if (!error.isObject()) {
+                continue;
+            }
+            ObjectNode errorObject = (ObjectNode) error;
+
+            // Null and empty messages are kept, they are shapes the client handles
+            JsonNode message = errorObject.path("message");
+            if (message.isTextual() && !message.asText().isEmpty()) {
+                errorObject.put("message", SCRUBBED);
+            }
+
+            JsonNode extensions = errorObject.path("extensions");
+            if (extensions.isObject()) {
+                // A validation classification holds the rejected field values
+                replaceText((ObjectNode) extensions, ENUM_VALUE);
+            }
+        }
+
+        return scrubbed;
+    }
+
+    private static void replaceText(ObjectNode objectNode, Pattern keptValues) {
+        Iterator<Map.Entry<String, JsonNode>> fields = objectNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+
+            if (value.isObject()) {
+                replaceText((ObjectNode) value, keptValues);
+            } else if (value.isTextual() && !keptValues.matcher(value.asText()).matches()) {
+                field.setValue(TextNode.valueOf(SCRUBBED));
+            }
+        }
+    }
+
+    private static void addWeightedBodies(ArrayNode weightedBodies, Map<JsonNode, Integer> counts) {
+        counts.forEach(
+                (body, count) -> weightedBodies.addObject().put(WEIGHT, count).set(BODY, body));
+    }
+
+    private static final class WeightedBodies {
+
+        private final String[] bodies;
+        // Running total of the weights, searched with a random point below the total
+        private final long[] cumulativeWeights;
+
+        private WeightedBodies(String[] bodies, long[] cumulativeWeights) {
+            this.bodies = bodies;
+            this.cumulativeWeights = cumulativeWeights;
+        }
+
+        static WeightedBodies from(ObjectMapper objectMapper, JsonNode weightedBodies)
+                throws IOException {
+            List<String> bodies = new ArrayList<>();
+            long[] cumulativeWeights = new long[weightedBodies.size()];
+
+            long totalWeight = 0;
+            for (JsonNode weightedBody : weightedBodies) {
+                long weight = weightedBody.path(WEIGHT).asLong(1);
+                if (weight <= 0) {
+                    throw new IllegalArgumentException("Recording weight must be positive");
+                }
+
+                totalWeight += weight;
+                cumulativeWeights[bodies.size()] = totalWeight;
+                bodies.add(objectMapper.writeValueAsString(weightedBody.path(BODY)));
+            }
+
+            return new WeightedBodies(bodies.toArray(String[]::new), cumulativeWeights);
+        }
+
+        boolean isEmpty() {
+            return bodies.length == 0;
+        }
+
+        String next() {
+            long point =
+                    ThreadLocalRandom.current()
+                            .nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+            return bodies[index >= 0 ? index : -index - 1];
+        }
+    }
+}
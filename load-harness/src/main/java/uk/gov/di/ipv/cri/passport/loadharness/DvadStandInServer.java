@@ -0,0 +1,315 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.AccessTokenResponse;
+import uk.gov.di.ipv.cri.passport.library.dvad.domain.response.HealthCheckResponse;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local DVAD serving the health, token and graphql endpoints over mutual TLS on loopback, for
+ * load runs without the DVAD test environment. The client is given parameters (see {@link
+ * #createClientParameters}) that route the UAT and LIVE strategies here, so the same endpoint
+ * paths, mTLS client and connection pool as against DVAD are used.
+ *
+ * <p>Graphql requests are answered from a {@link DvadRecording}. Each response is delayed by the
+ * endpoint {@link LatencyDistribution}, health checks are answered DOWN and graphql requests with
+ * an errors payload at the configured rates, and tokens stop being accepted after their validity.
+ *
+ * <p>Run standalone with ./gradlew :load-harness:dvadStandIn (see README).
+ */
+public final class DvadStandInServer implements AutoCloseable {
+
+    static final String HEALTH_PATH = "/health";
+    static final String TOKEN_PATH = "/token";
+    static final String GRAPHQL_PATH = "/graphql";
+
+    private static final String BEARER = "Bearer";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String APPLICATION_JSON = "application/json";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+
+    private final DvadStandInSettings settings;
+    private final DvadRecording recording;
+    private final DvadTlsMaterial tlsMaterial;
+
+    private final HttpsServer httpsServer;
+    private final ExecutorService executorService;
+
+    private final byte[] healthUpBody;
+    private final byte[] healthDownBody;
+    private final ObjectMapper objectMapper;
+
+    // Token to the System.nanoTime it stops being accepted
+    private final Map<String, Long> tokenExpiryNanos = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> responseCounts = new ConcurrentSkipListMap<>();
+
+    DvadStandInServer(ObjectMapper objectMapper, DvadStandInSettings settings)
+            throws IOException, InterruptedException, GeneralSecurityException {
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.recording = DvadRecording.load(objectMapper, settings.recording());
+        this.tlsMaterial = DvadTlsMaterial.generate();
+
+        healthUpBody =
+                objectMapper.writeValueAsBytes(HealthCheckResponse.builder().status("UP").build());
+        healthDownBody =
+                objectMapper.writeValueAsBytes(
+                        HealthCheckResponse.builder().status("DOWN").build());
+
+        httpsServer =
+                HttpsServer.create(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.port()),
+                        0);
+        SSLContext sslContext = tlsMaterial.createServerSslContext();
+        httpsServer.setHttpsConfigurator(
+                new HttpsConfigurator(sslContext) {
+                    @Override
+                    public void configure(HttpsParameters httpsParameters) {
+                        SSLParameters sslParameters = sslContext.getDefaultSSLParameters();
+                        sslParameters.setNeedClientAuth(true);
+                        httpsParameters.setSSLParameters(sslParameters);
+                    }
+                });
+
+        httpsServer.createContext(HEALTH_PATH, exchange -> handle(exchange, "GET", this::health));
+        httpsServer.createContext(TOKEN_PATH, exchange -> handle(exchange, "POST", this::token));
+        httpsServer.createContext(
+                GRAPHQL_PATH, exchange -> handle(exchange, "POST", this::graphQL));
+
+        // Unbounded so responses held for their latency never queue the next requests
+        executorService = Executors.newCachedThreadPool();
+        httpsServer.setExecutor(executorService);
+        httpsServer.start();
+    }
+
+    String getBaseUrl() {
+        // localhost to match the server certificate
+        return "https://localhost:" + httpsServer.getAddress().getPort();
+    }
+
+    /**
+     * @return the HMPODVAD parameters (relative names) for a client of this stand-in, the STUB
+     *     strategy is not included as its client does not present the client certificate
+     */
+    Map<String, String> createClientParameters() throws IOException, GeneralSecurityException {
+        Map<String, String> parameters = new HashMap<>();
+
+        String baseUrl = getBaseUrl();
+        parameters.put("HMPODVAD/API/EndpointUrl", baseUrl);
+        parameters.put(
+                "HMPODVAD/API/TestStrategy/EndpointUrl",
+                objectMapper.writeValueAsString(Map.of("UAT", baseUrl, "LIVE", baseUrl)));
+        parameters.put("HMPODVAD/API/HealthPath", HEALTH_PATH);
+        parameters.put("HMPODVAD/API/TokenPath", TOKEN_PATH);
+        parameters.put("HMPODVAD/API/GraphQLPath", GRAPHQL_PATH);
+        parameters.put("HMPODVAD/API/GraphQl/QueryString", "query");
+        parameters.put("HMPODVAD/API/Header/ApiKey", "dvad-stand-in");
+        parameters.put("HMPODVAD/API/Header/UserAgent", "dvad-stand-in");
+        parameters.put("HMPODVAD/API/Header/NetworkType", "dvad-stand-in");
+        parameters.put("HMPODVAD/API/Header/ClientId", "dvad-stand-in");
+        parameters.put("HMPODVAD/API/Header/Secret", "dvad-stand-in");
+        parameters.put("HMPODVAD/API/Header/GrantType", "client_credentials");
+        parameters.put(
+                "HMPODVAD/HttpClient/TLSCert-24-09-2024", tlsMaterial.getClientCertificate());
+        parameters.put("HMPODVAD/HttpClient/TLSKey-24-09-2024", tlsMaterial.getClientKey());
+        parameters.put(
+                "HMPODVAD/HttpClient/TLSRootCertificate", tlsMaterial.getServerCertificate());
+        parameters.put(
+                "HMPODVAD/HttpClient/TLSIntermediateCertificate-24-09-2024",
+                tlsMaterial.getServerCertificate());
+
+        return parameters;
+    }
+
+    /** Prints the responses given by endpoint and outcome. */
+    void report(PrintStream out) {
+        responseCounts.forEach(
+                (response, count) -> out.printf("dvad %s x%d%n", response, count.sum()));
+    }
+
+    private void handle(HttpExchange exchange, String method, EndpointHandler endpointHandler)
+            throws IOException {
+        try (exchange) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                respond(exchange, "method", HTTP_METHOD_NOT_ALLOWED, new byte[0]);
+                return;
+            }
+
+            // The request is read in full before answering, as DVAD would
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.readAllBytes();
+            }
+
+            endpointHandler.handle(exchange);
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        delay(settings.healthLatency());
+
+        // DVAD reports DOWN in a 200 response
+        if (ThreadLocalRandom.current().nextDouble() < settings.healthDownRate()) {
+            respond(exchange, "health down", HTTP_OK, healthDownBody);
+        } else {
+            respond(exchange, "health up", HTTP_OK, healthUpBody);
+        }
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        delay(settings.tokenLatency());
+
+        long nowNanos = System.nanoTime();
+        tokenExpiryNanos.values().removeIf(expiryNanos -> expiryNanos - nowNanos < 0);
+
+        String accessToken = UUID.randomUUID().toString();
+        tokenExpiryNanos.put(
+                accessToken, nowNanos + TimeUnit.SECONDS.toNanos(settings.tokenValiditySeconds()));
+
+        respond(
+                exchange,
+                "token issued",
+                HTTP_OK,
+                objectMapper.writeValueAsBytes(
+                        AccessTokenResponse.builder()
+                                .accessToken(accessToken)
+                                .tokenType(BEARER)
+                                .expiresIn(settings.tokenLifetimeSeconds())
+                                .build()));
+    }
+
+    private void graphQL(HttpExchange exchange) throws IOException {
+        delay(settings.graphQLLatency());
+
+        if (!isAccepted(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            respond(exchange, "graphql unauthorized", HTTP_UNAUTHORIZED, new byte[0]);
+        } else if (ThreadLocalRandom.current().nextDouble() < settings.graphQLErrorRate()) {
+            respond(
+                    exchange,
+                    "graphql errors",
+                    HTTP_OK,
+                    recording.nextErrorResponse().getBytes(StandardCharsets.UTF_8));
+        } else {
+            respond(
+                    exchange,
+                    "graphql ok",
+                    HTTP_OK,
+                    recording.nextResponse().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private boolean isAccepted(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER + " ")) {
+            return false;
+        }
+
+        Long expiryNanos = tokenExpiryNanos.get(authorization.substring(BEARER.length() + 1));
+        return expiryNanos != null && expiryNanos - System.nanoTime() > 0;
+    }
+
+    private void respond(HttpExchange exchange, String response, int statusCode, byte[] body)
+            throws IOException {
+        responseCounts.computeIfAbsent(response, key -> new LongAdder()).increment();
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE, APPLICATION_JSON);
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static void delay(LatencyDistribution latencyDistribution) {
+        long delayMillis = latencyDistribution.sampleMillis();
+        if (delayMillis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        httpsServer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Runs the stand-in until stopped, writing the client parameters (full names, under the
+     * dvadStandIn.parameterPrefix) to the dvadStandIn.parameterFile for a PARAMETER_SOURCE=FILE
+     * run of the lambdas.
+     */
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String parameterPrefix = System.getProperty("dvadStandIn.parameterPrefix", "local");
+        Path parameterFile =
+                Path.of(System.getProperty("dvadStandIn.parameterFile", "dvad-parameters.json"));
+
+        DvadStandInServer dvadStandInServer =
+                new DvadStandInServer(objectMapper, DvadStandInSettings.fromSystemProperties());
+
+        Map<String, String> fullNameParameters = new HashMap<>();
+        dvadStandInServer
+                .createClientParameters()
+                .forEach(
+                        (name, value) ->
+                                fullNameParameters.put("/" + parameterPrefix + "/" + name, value));
+        Files.createDirectories(parameterFile.toAbsolutePath().getParent());
+        objectMapper
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(parameterFile.toFile(), fullNameParameters);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime()
+                .addShutdownHook(
+                        new Thread(
+                                () -> {
+                                    dvadStandInServer.report(System.out);
+                                    dvadStandInServer.close();
+                                    stopped.countDown();
+                                }));
+
+        System.out.printf(
+                "DVAD stand-in on %s, client parameters in %s%n",
+                dvadStandInServer.getBaseUrl(), parameterFile.toAbsolutePath());
+        stopped.await();
+    }
+
+    @FunctionalInterface
+    private interface EndpointHandler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
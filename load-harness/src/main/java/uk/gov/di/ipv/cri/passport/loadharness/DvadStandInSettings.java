@@ -0,0 +1,60 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import java.nio.file.Path;
+
+/**
+ * DVAD stand-in behaviour, read from dvadStandIn.* system properties.
+ *
+ * @param port 0 for any free port
+ * @param tokenLifetimeSeconds expires_in of each token issued
+ * @param tokenValiditySeconds how long a token is accepted, below the lifetime to simulate tokens
+ *     expiring early (revoked or clock skew) - the graphql endpoint then answers 401
+ * @param healthDownRate share of health checks answered DOWN
+ * @param graphQLErrorRate share of graphql requests answered with a recorded errors payload
+ * @param recording the recording replayed, null for the bundled recording
+ */
+record DvadStandInSettings(
+        int port,
+        LatencyDistribution healthLatency,
+        LatencyDistribution tokenLatency,
+        LatencyDistribution graphQLLatency,
+        long tokenLifetimeSeconds,
+        long tokenValiditySeconds,
+        double healthDownRate,
+        double graphQLErrorRate,
+        Path recording) {
+
+    private static final String PROPERTY_PREFIX = "dvadStandIn.";
+
+    static DvadStandInSettings fromSystemProperties() {
+        // Each endpoint latency defaults to the common latency
+        String latency = property("latency", "fixed:0");
+        long tokenLifetimeSeconds = Long.parseLong(property("tokenLifetimeSeconds", "1800"));
+        String recording = property("recording", null);
+
+        return new DvadStandInSettings(
+                Integer.parseInt(property("port", "0")),
+                LatencyDistribution.parse(property("healthLatency", latency)),
+                LatencyDistribution.parse(property("tokenLatency", latency)),
+                LatencyDistribution.parse(property("graphQLLatency", latency)),
+                tokenLifetimeSeconds,
+                Long.parseLong(
+                        property("tokenValiditySeconds", Long.toString(tokenLifetimeSeconds))),
+                rate("healthDownRate"),
+                rate("graphQLErrorRate"),
+                recording == null ? null : Path.of(recording));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static double rate(String name) {
+        double rate = Double.parseDouble(property(name, "0"));
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(PROPERTY_PREFIX + name + " must be 0 to 1");
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,148 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A server and a client key pair for the DVAD stand-in mutual TLS, generated per run. The test
+ * fixture certificates have expired and carry no subject alternative name, so cannot be used for
+ * a real handshake.
+ *
+ * <p>Both certificates are self-signed, the server trusts the client certificate and the client is
+ * given the server certificate as its root and intermediate certificates.
+ */
+final class DvadTlsMaterial {
+
+    private static final String SERVER_ALIAS = "dvad-stand-in";
+    private static final String CLIENT_ALIAS = "load-harness";
+    // Only held for the run, never written outside the temporary directory
+    private static final char[] PASSWORD = "load-harness".toCharArray();
+
+    private final KeyStore serverKeyStore;
+    private final KeyStore clientKeyStore;
+
+    private DvadTlsMaterial(KeyStore serverKeyStore, KeyStore clientKeyStore) {
+        this.serverKeyStore = serverKeyStore;
+        this.clientKeyStore = clientKeyStore;
+    }
+
+    // keytool as the JDK has no public api to create certificates
+    static DvadTlsMaterial generate()
+            throws IOException, InterruptedException, GeneralSecurityException {
+        Path directory = Files.createTempDirectory("dvad-stand-in");
+        Path serverKeyStorePath = directory.resolve("server.p12");
+        Path clientKeyStorePath = directory.resolve("client.p12");
+
+        try {
+            // The mTLS client verifies the hostname
+            generateKeyPair(
+                    serverKeyStorePath,
+                    SERVER_ALIAS,
+                    "CN=localhost",
+                    "SAN=dns:localhost,ip:127.0.0.1");
+            generateKeyPair(clientKeyStorePath, CLIENT_ALIAS, "CN=load-harness", null);
+
+            return new DvadTlsMaterial(
+                    loadKeyStore(serverKeyStorePath), loadKeyStore(clientKeyStorePath));
+        } finally {
+            Files.deleteIfExists(serverKeyStorePath);
+            Files.deleteIfExists(clientKeyStorePath);
+            Files.delete(directory);
+        }
+    }
+
+    SSLContext createServerSslContext() throws GeneralSecurityException, IOException {
+        KeyManagerFactory keyManagerFactory =
+                KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(serverKeyStore, PASSWORD);
+
+        KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry(CLIENT_ALIAS, clientKeyStore.getCertificate(CLIENT_ALIAS));
+        TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(
+                keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    /** @return base64 DER, as the TLSCert parameter */
+    String getClientCertificate() throws GeneralSecurityException {
+        return encode(clientKeyStore.getCertificate(CLIENT_ALIAS).getEncoded());
+    }
+
+    /** @return base64 PKCS8, as the TLSKey parameter */
+    String getClientKey() throws GeneralSecurityException {
+        return encode(clientKeyStore.getKey(CLIENT_ALIAS, PASSWORD).getEncoded());
+    }
+
+    /** @return base64 DER, as the TLSRootCertificate and TLSIntermediateCertificate parameters */
+    String getServerCertificate() throws GeneralSecurityException {
+        return encode(serverKeyStore.getCertificate(SERVER_ALIAS).getEncoded());
+    }
+
+    private static void generateKeyPair(
+            Path keyStorePath, String alias, String distinguishedName, String extension)
+            throws IOException, InterruptedException {
+        List<String> command =
+                new ArrayList<>(
+                        List.of(
+                                Path.of(System.getProperty("java.home"), "bin", "keytool")
+                                        .toString(),
+                                "-genkeypair",
+                                "-alias",
+                                alias,
+                                "-keyalg",
+                                "RSA",
+                                "-keysize",
+                                "2048",
+                                "-validity",
+                                "2",
+                                "-dname",
+                                distinguishedName,
+                                "-storetype",
+                                "PKCS12",
+                                "-keystore",
+                                keyStorePath.toString(),
+                                "-storepass",
+                                new String(PASSWORD)));
+        if (extension != null) {
+            command.add("-ext");
+            command.add(extension);
+        }
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed for " + alias + " - " + output);
+        }
+    }
+
+    private static KeyStore loadKeyStore(Path keyStorePath)
+            throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream inputStream = Files.newInputStream(keyStorePath)) {
+            keyStore.load(inputStream, PASSWORD);
+        }
+        return keyStore;
+    }
+
+    private static String encode(byte[] encoded) {
+        return Base64.getEncoder().encodeToString(encoded);
+    }
+}
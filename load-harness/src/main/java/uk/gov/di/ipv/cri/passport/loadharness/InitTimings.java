@@ -0,0 +1,128 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time, classes loaded and class loading time of each component of a function init. Components
+ * nest (a ServiceFactory getter calling another), each is recorded with its own (self) share, the
+ * nested components' share taken out.
+ *
+ * <p>Class loading time is the HotSpot class loading counter (ms, including static initializers),
+ * only read when java.management/sun.management is exported to the class path (see {@link
+ * #hasClassLoadingTime()}).
+ */
+final class InitTimings {
+
+    /** A step of the init, as run by the handler constructor. */
+    @FunctionalInterface
+    interface Step<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    record Usage(long nanos, long classesLoaded, long classLoadingMillis) {
+
+        Usage plus(Usage other) {
+            return new Usage(
+                    nanos + other.nanos,
+                    classesLoaded + other.classesLoaded,
+                    classLoadingMillis + other.classLoadingMillis);
+        }
+
+        Usage minus(Usage other) {
+            return new Usage(
+                    nanos - other.nanos,
+                    classesLoaded - other.classesLoaded,
+                    classLoadingMillis - other.classLoadingMillis);
+        }
+    }
+
+    private record Frame(String component, Usage start, Usage[] nested) {}
+
+    private static final Usage NONE = new Usage(0, 0, 0);
+
+    private final ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+    private final Object hotspotClassLoading;
+    private final Method classLoadingTime;
+
+    private final Map<String, Usage> selfUsageByComponent = new LinkedHashMap<>();
+    private final Deque<Frame> running = new ArrayDeque<>();
+
+    InitTimings() {
+        Object hotspotMBean = null;
+        Method timeMethod = null;
+        try {
+            hotspotMBean =
+                    Class.forName("sun.management.ManagementFactoryHelper")
+                            .getMethod("getHotspotClassLoadingMBean")
+                            .invoke(null);
+            timeMethod =
+                    Class.forName("sun.management.HotspotClassLoadingMBean")
+                            .getMethod("getClassLoadingTime");
+            timeMethod.invoke(hotspotMBean);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            hotspotMBean = null;
+            timeMethod = null;
+        }
+        this.hotspotClassLoading = hotspotMBean;
+        this.classLoadingTime = timeMethod;
+    }
+
+    <T, E extends Exception> T time(String component, Step<T, E> step) throws E {
+        begin(component);
+        try {
+            return step.run();
+        } finally {
+            end();
+        }
+    }
+
+    /** Starts a component, for steps throwing several checked exceptions - end it in a finally. */
+    void begin(String component) {
+        running.push(new Frame(component, now(), new Usage[] {NONE}));
+    }
+
+    void end() {
+        Frame frame = running.pop();
+        Usage total = now().minus(frame.start());
+
+        selfUsageByComponent.merge(frame.component(), total.minus(frame.nested()[0]), Usage::plus);
+        Frame parent = running.peek();
+        if (parent != null) {
+            parent.nested()[0] = parent.nested()[0].plus(total);
+        }
+    }
+
+    Usage now() {
+        return new Usage(
+                System.nanoTime(),
+                classLoadingMXBean.getTotalLoadedClassCount(),
+                getClassLoadingMillis());
+    }
+
+    /** @return the self usage of each component, in the order first run */
+    Map<String, Usage> getSelfUsageByComponent() {
+        return selfUsageByComponent;
+    }
+
+    boolean hasClassLoadingTime() {
+        return classLoadingTime != null;
+    }
+
+    private long getClassLoadingMillis() {
+        if (classLoadingTime == null) {
+            return 0;
+        }
+
+        try {
+            return (long) classLoadingTime.invoke(hotspotClassLoading);
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response latency of a DVAD stand-in endpoint, parsed from a spec.
+ *
+ * <ul>
+ *   <li>{@code fixed:<ms>}
+ *   <li>{@code lognormal:<medianMs>:<sigma>} - a long right tail, as most remote calls
+ *   <li>{@code bimodal:<medianMs>:<sigma>:<tailProbability>:<tailMedianMs>} - lognormal, with the
+ *       given share of responses from a second lognormal around the tail median (i.e. a slow
+ *       backend path or a GC pause)
+ * </ul>
+ */
+interface LatencyDistribution {
+
+    long sampleMillis();
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.split(":");
+
+        try {
+            switch (parts[0]) {
+                case "fixed":
+                    if (parts.length == 2) {
+                        return new Fixed(Long.parseLong(parts[1]));
+                    }
+                    break;
+                case "lognormal":
+                    if (parts.length == 3) {
+                        return new LogNormal(
+                                Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    }
+                    break;
+                case "bimodal":
+                    if (parts.length == 5) {
+                        double sigma = Double.parseDouble(parts[2]);
+                        return new Bimodal(
+                                new LogNormal(Double.parseDouble(parts[1]), sigma),
+                                Double.parseDouble(parts[3]),
+                                new LogNormal(Double.parseDouble(parts[4]), sigma));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency distribution " + spec, e);
+        }
+
+        throw new IllegalArgumentException("Invalid latency distribution " + spec);
+    }
+
+    record Fixed(long millis) implements LatencyDistribution {
+        @Override
+        public long sampleMillis() {
+            return millis;
+        }
+    }
+
+    record LogNormal(double medianMillis, double sigma) implements LatencyDistribution {
+        @Override
+        public long sampleMillis() {
+            // The median of a lognormal is e^mu
+            return Math.round(
+                    medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    record Bimodal(LogNormal body, double tailProbability, LogNormal tail)
+            implements LatencyDistribution {
+        @Override
+        public long sampleMillis() {
+            return ThreadLocalRandom.current().nextDouble() < tailProbability
+                    ? tail.sampleMillis()
+                    : body.sampleMillis();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.passport.library.VerifiableCredentialServiceTestFixtures;
+import uk.gov.di.ipv.cri.passport.library.parameters.InMemoryParameterSource;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Drives full check passport then issue credential journeys through the real handlers, at a
+ * configured concurrency, and reports throughput, per phase latency percentiles and error rates.
+ *
+ * <p>AWS is replaced by DynamoDB Local (tables created per run), an in process audit queue, an in
+ * memory parameter source and a local ES256 signer. DVAD is the {@link DvadStandInServer}, reached
+ * through the LIVE strategy and its mTLS client. Each worker holds its own handler instances, as
+ * one warm lambda would.
+ *
+ * <p>The lambdas' own output (logs, EMF metrics and invocation timelines) is written to the
+ * loadHarness.lambdaOutput file, the report to the console.
+ */
+public final class LoadHarness {
+
+    static final String PARAMETER_PREFIX = "load-harness";
+    private static final String DYNAMODB_LOCAL = "http://localhost:8000";
+
+    private LoadHarness() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static void main(String[] args)
+            throws IOException,
+                    InterruptedException,
+                    ExecutionException,
+                    GeneralSecurityException,
+                    JOSEException {
+        final int concurrency = Integer.getInteger("loadHarness.concurrency", 8);
+        final int journeys = Integer.getInteger("loadHarness.journeys", 2000);
+        final int warmupJourneys = Integer.getInteger("loadHarness.warmupJourneys", 200);
+        final DvadStandInSettings dvadStandInSettings = DvadStandInSettings.fromSystemProperties();
+        final URI dynamoDbEndpoint =
+                URI.create(System.getProperty("loadHarness.dynamoDbEndpoint", DYNAMODB_LOCAL));
+        final Path lambdaOutput =
+                Path.of(System.getProperty("loadHarness.lambdaOutput", "lambda-output.log"));
+
+        // Before any logger is created, the lambda log configuration writes to System.out
+        PrintStream report = System.out;
+        Files.createDirectories(lambdaOutput.toAbsolutePath().getParent());
+        System.setOut(
+                new PrintStream(
+                        new BufferedOutputStream(Files.newOutputStream(lambdaOutput)),
+                        false,
+                        StandardCharsets.UTF_8));
+
+        ObjectMapper objectMapper = new ServiceFactory().getObjectMapper();
+        RecordingSqsClient recordingSqsClient = new RecordingSqsClient();
+
+        try (DvadStandInServer dvadStandInServer =
+                        new DvadStandInServer(objectMapper, dvadStandInSettings);
+                LocalDynamoDbTables localDynamoDbTables =
+                        new LocalDynamoDbTables(
+                                dynamoDbEndpoint, Long.toString(System.currentTimeMillis()))) {
+
+            ParameterStoreService parameterStoreService =
+                    new ParameterStoreService(
+                            new InMemoryParameterSource(
+                                    createParameters(
+                                            dvadStandInServer.createClientParameters())));
+            ConfigurationService configurationService = createConfigurationService();
+            ECDSASigner signer = createSigner();
+
+            List<PassportJourney> passportJourneys = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                passportJourneys.add(
+                        new PassportJourney(
+                                localDynamoDbTables,
+                                recordingSqsClient,
+                                parameterStoreService,
+                                configurationService,
+                                signer));
+            }
+
+            ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+            try {
+                report.printf("Warming up with %d journeys%n", warmupJourneys);
+                runJourneys(executorService, passportJourneys, warmupJourneys);
+
+                report.printf(
+                        "Running %d journeys at concurrency %d, %s%n",
+                        journeys, concurrency, dvadStandInSettings);
+                long auditEventsBefore = recordingSqsClient.getMessagesSent();
+                long startNanos = System.nanoTime();
+                PhaseLatencies phaseLatencies =
+                        runJourneys(executorService, passportJourneys, journeys);
+                double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+                // A journey stops at its first error
+                int failedJourneys = phaseLatencies.getErrorCount();
+                report.printf(
+                        "%d journeys in %.1fs - %.1f journeys/s, %d failed (%.2f%%), "
+                                + "%d audit events%n",
+                        journeys,
+                        elapsedSeconds,
+                        journeys / elapsedSeconds,
+                        failedJourneys,
+                        100.0 * failedJourneys / journeys,
+                        recordingSqsClient.getMessagesSent() - auditEventsBefore);
+                phaseLatencies.report(report);
+                dvadStandInServer.report(report);
+                report.printf("Lambda output in %s%n", lambdaOutput.toAbsolutePath());
+            } finally {
+                executorService.shutdownNow();
+                System.out.flush();
+            }
+        }
+    }
+
+    private static PhaseLatencies runJourneys(
+            ExecutorService executorService, List<PassportJourney> passportJourneys, int journeys)
+            throws InterruptedException, ExecutionException {
+        PhaseLatencies phaseLatencies = new PhaseLatencies();
+        AtomicInteger journeysStarted = new AtomicInteger();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (PassportJourney passportJourney : passportJourneys) {
+            workers.add(
+                    executorService.submit(
+                            () -> {
+                                while (journeysStarted.getAndIncrement() < journeys) {
+                                    passportJourney.run(phaseLatencies);
+                                }
+                            }));
+        }
+
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        return phaseLatencies;
+    }
+
+    static Map<String, String> createParameters(Map<String, String> dvadParameters) {
+        Map<String, String> parameters = new HashMap<>(dvadParameters);
+
+        parameters.put("ContraindicationMappings", "flagOne@true:A01||flagTwo@false:B02");
+        parameters.put("JwtTtlUnit", "SECONDS");
+        parameters.put("SessionTtl", "7200");
+
+        // Stack, common and prefixed parameters all share one prefix (see loadTest environment)
+        Map<String, String> fullNameParameters = new HashMap<>();
+        parameters.forEach(
+                (name, value) ->
+                        fullNameParameters.put("/" + PARAMETER_PREFIX + "/" + name, value));
+
+        return fullNameParameters;
+    }
+
+    // The common lib configuration is read from SSM, only the values used are answered here
+    private static ConfigurationService createConfigurationService() {
+        ConfigurationService configurationService =
+                mock(ConfigurationService.class, withSettings().stubOnly());
+
+        when(configurationService.getVerifiableCredentialIssuer())
+                .thenReturn("https://load-harness.account.gov.uk");
+        when(configurationService.getMaxJwtTtl()).thenReturn(15780000L);
+        when(configurationService.getSessionExpirationEpoch())
+                .thenAnswer(invocation -> Instant.now().plus(2, ChronoUnit.HOURS).getEpochSecond());
+        when(configurationService.getAuthorizationCodeExpirationEpoch())
+                .thenAnswer(
+                        invocation -> Instant.now().plus(10, ChronoUnit.MINUTES).getEpochSecond());
+
+        return configurationService;
+    }
+
+    private static ECDSASigner createSigner() throws GeneralSecurityException, JOSEException {
+        return new ECDSASigner(new VerifiableCredentialServiceTestFixtures() {}.getPrivateKey());
+    }
+}
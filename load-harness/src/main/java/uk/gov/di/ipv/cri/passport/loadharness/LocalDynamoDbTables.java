@@ -0,0 +1,115 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.CreateTableEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.EnhancedGlobalSecondaryIndex;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.persistence.item.personidentity.PersonIdentityItem;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultItemTableSchema;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The session, person identity and document check result tables in DynamoDB Local. Tables are
+ * named per run so runs against the same DynamoDB Local do not share items, and are deleted on
+ * close.
+ */
+final class LocalDynamoDbTables implements AutoCloseable {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final String tableNamePrefix;
+
+    private final List<DynamoDbTable<?>> createdTables = new ArrayList<>();
+
+    LocalDynamoDbTables(URI endpoint, String runId) {
+        // As the lambda clients, only the endpoint differs
+        dynamoDbClient =
+                DynamoDbClient.builder()
+                        .endpointOverride(endpoint)
+                        .region(Region.of(System.getenv("AWS_REGION")))
+                        .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                        .httpClient(AwsCrtHttpClient.create())
+                        .build();
+        dynamoDbEnhancedClient =
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        tableNamePrefix = "load-harness-" + runId + "-";
+
+        // The access token index is used to find the session in issue credential
+        createTable(
+                "session",
+                TableSchema.fromBean(SessionItem.class),
+                CreateTableEnhancedRequest.builder()
+                        .globalSecondaryIndices(
+                                EnhancedGlobalSecondaryIndex.builder()
+                                        .indexName(SessionItem.ACCESS_TOKEN_INDEX)
+                                        .projection(
+                                                Projection.builder()
+                                                        .projectionType(ProjectionType.ALL)
+                                                        .build())
+                                        .build())
+                        .build());
+        createTable(
+                "person-identity",
+                TableSchema.fromBean(PersonIdentityItem.class),
+                CreateTableEnhancedRequest.builder().build());
+        createTable(
+                "document-check-result",
+                DocumentCheckResultItemTableSchema.TABLE_SCHEMA,
+                CreateTableEnhancedRequest.builder().build());
+    }
+
+    DataStore<SessionItem> getSessionStore() {
+        return new DataStore<>(tableName("session"), SessionItem.class, dynamoDbEnhancedClient);
+    }
+
+    DataStore<PersonIdentityItem> getPersonIdentityStore() {
+        return new DataStore<>(
+                tableName("person-identity"), PersonIdentityItem.class, dynamoDbEnhancedClient);
+    }
+
+    DocumentCheckResultStore getDocumentCheckResultStore() {
+        return new DocumentCheckResultStore(
+                tableName("document-check-result"), dynamoDbEnhancedClient);
+    }
+
+    private <T> void createTable(
+            String name,
+            TableSchema<T> tableSchema,
+            CreateTableEnhancedRequest createTableRequest) {
+        DynamoDbTable<T> table = dynamoDbEnhancedClient.table(tableName(name), tableSchema);
+
+        // Tables are on demand when no provisioned throughput is requested
+        table.createTable(createTableRequest);
+        dynamoDbClient
+                .waiter()
+                .waitUntilTableExists(builder -> builder.tableName(table.tableName()));
+
+        createdTables.add(table);
+    }
+
+    private String tableName(String name) {
+        return tableNamePrefix + name;
+    }
+
+    @Override
+    public void close() {
+        for (DynamoDbTable<?> table : createdTables) {
+            table.deleteTable();
+        }
+
+        dynamoDbClient.close();
+    }
+}
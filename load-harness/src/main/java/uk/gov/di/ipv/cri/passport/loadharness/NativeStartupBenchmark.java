@@ -0,0 +1,368 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs each function through the lambda runtime interface client as the JVM build (the staged
+ * jars) and as the native image build (see lambdas/build.gradle), many times, and compares the
+ * init, first invocation and steady state latency of the two.
+ *
+ * <p>Each run is a fresh runtime process polling a {@link RuntimeApiStandInServer}. Init is from
+ * process start to the first poll for an invocation, each invocation from the event being handed
+ * to the runtime to its result being posted. SSM is the {@link SsmStandInServer} serving the load
+ * harness parameters, other AWS calls are answered with an error by it unless
+ * nativeStartup.dynamoDbEndpoint points DynamoDB at DynamoDB Local. No session exists for the
+ * events sent, so check passport and issue credential answer with their session and access token
+ * errors - the same work in both builds, the comparison is of the runtimes, not of a journey.
+ *
+ * <p>Runs are interleaved (each round runs every build and handler once), the first round only
+ * warms the OS file cache and is not reported. Every result is written to
+ * nativeStartup.outputDirectory/results.csv, the output of the runtimes to child-output.log.
+ *
+ * <p>With nativeStartup.smoke, the benchmark fails if a run failed or the native build answered
+ * an invocation with an error where the JVM build did not, e.g. a class missing from the
+ * reflection configuration.
+ */
+public final class NativeStartupBenchmark {
+
+    static final String CERT_EXPIRY_REMINDER = "cert-expiry-reminder";
+
+    private static final String JVM_BUILD = "jvm";
+    private static final String NATIVE_BUILD = "native";
+    private static final List<String> BUILDS = List.of(JVM_BUILD, NATIVE_BUILD);
+
+    private static final String DEFAULT_HANDLERS =
+            String.join(
+                    ",",
+                    ColdStartRun.CHECK_PASSPORT,
+                    ColdStartRun.ISSUE_CREDENTIAL,
+                    CERT_EXPIRY_REMINDER);
+    // As the lambda java17 runtime starts the JVM
+    private static final String DEFAULT_JVM_FLAGS =
+            "-XX:+TieredCompilation -XX:TieredStopAtLevel=1 -Xshare:auto";
+
+    private static final String RUNTIME_INTERFACE_CLIENT =
+            "com.amazonaws.services.lambda.runtime.api.client.AWSLambda";
+    private static final String MEMORY_SIZE_MB = "2048";
+
+    private static final String INIT = "init";
+    private static final String FIRST_INVOCATION = "first invocation";
+    private static final String STEADY_STATE = "steady state";
+    private static final List<String> PHASES = List.of(INIT, FIRST_INVOCATION, STEADY_STATE);
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private NativeStartupBenchmark() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static void main(String[] args)
+            throws IOException, InterruptedException, GeneralSecurityException {
+        final int runs = Integer.getInteger("nativeStartup.runs", 5);
+        final int invocations = Integer.getInteger("nativeStartup.invocations", 20);
+        final List<String> handlers =
+                List.of(System.getProperty("nativeStartup.handlers", DEFAULT_HANDLERS).split(","));
+        final List<String> jvmFlags =
+                Arrays.asList(
+                        System.getProperty("nativeStartup.jvmFlags", DEFAULT_JVM_FLAGS)
+                                .split("\\s+"));
+        final String dynamoDbEndpoint = System.getProperty("nativeStartup.dynamoDbEndpoint");
+        final boolean smoke = Boolean.getBoolean("nativeStartup.smoke");
+        final Path outputDirectory =
+                Path.of(System.getProperty("nativeStartup.outputDirectory", "native-startup"));
+
+        Files.createDirectories(outputDirectory);
+        File childOutput = outputDirectory.resolve("child-output.log").toFile();
+        Files.deleteIfExists(childOutput.toPath());
+
+        ObjectMapper objectMapper = new ServiceFactory().getObjectMapper();
+
+        // Keyed by handler then build
+        Map<String, Map<String, PhaseLatencies>> results = new LinkedHashMap<>();
+        int failedRuns = 0;
+
+        try (DvadStandInServer dvadStandInServer =
+                        new DvadStandInServer(
+                                objectMapper, DvadStandInSettings.fromSystemProperties());
+                SsmStandInServer ssmStandInServer =
+                        new SsmStandInServer(
+                                objectMapper,
+                                LoadHarness.createParameters(
+                                        dvadStandInServer.createClientParameters()));
+                PrintStream csv =
+                        new PrintStream(
+                                Files.newOutputStream(outputDirectory.resolve("results.csv")),
+                                true,
+                                StandardCharsets.UTF_8)) {
+            csv.println("build,handler,run,invocation,millis,error");
+
+            Map<String, String> functionEnvironment = new LinkedHashMap<>();
+            ColdStartBenchmark.putFunctionEnvironment(
+                    functionEnvironment, ssmStandInServer.getEndpointUrl(), "native-startup");
+            if (dynamoDbEndpoint != null) {
+                functionEnvironment.put("AWS_ENDPOINT_URL_DYNAMODB", dynamoDbEndpoint);
+            }
+
+            System.out.printf(
+                    "Running %d cold starts (plus a warm up round) of %s, %d invocations each, "
+                            + "builds %s%n",
+                    runs, handlers, invocations, BUILDS);
+
+            for (int run = 0; run <= runs; run++) {
+                for (String handler : handlers) {
+                    for (String build : BUILDS) {
+                        // The warm up round is not recorded
+                        boolean completed =
+                                runFunction(
+                                        command(build, handler, jvmFlags),
+                                        handler,
+                                        invocations,
+                                        objectMapper,
+                                        functionEnvironment,
+                                        childOutput,
+                                        run > 0
+                                                ? resultsOf(results, handler, build)
+                                                : new PhaseLatencies(),
+                                        run > 0 ? csv : null,
+                                        build + "," + handler + "," + run);
+                        if (!completed) {
+                            failedRuns++;
+                        }
+                    }
+                }
+                System.out.printf("Round %d of %d done%n", run, runs);
+            }
+
+            for (Map.Entry<String, Map<String, PhaseLatencies>> handler : results.entrySet()) {
+                for (Map.Entry<String, PhaseLatencies> build : handler.getValue().entrySet()) {
+                    System.out.printf("%n%s, %s build%n", handler.getKey(), build.getKey());
+                    build.getValue().report(System.out);
+                }
+                compare(System.out, handler.getKey(), handler.getValue());
+            }
+            System.out.printf("%d failed runs, see %s%n", failedRuns, childOutput);
+            ssmStandInServer.report(System.out);
+            System.out.printf("Every run in %s%n", outputDirectory.resolve("results.csv"));
+        }
+
+        if (smoke) {
+            checkSmoke(results, failedRuns, childOutput);
+        }
+    }
+
+    private static void checkSmoke(
+            Map<String, Map<String, PhaseLatencies>> results, int failedRuns, File childOutput) {
+        if (failedRuns > 0) {
+            throw new IllegalStateException(
+                    String.format("%d failed runs, see %s", failedRuns, childOutput));
+        }
+
+        for (Map.Entry<String, Map<String, PhaseLatencies>> handler : results.entrySet()) {
+            int jvmErrors = handler.getValue().get(JVM_BUILD).getErrorCount();
+            int nativeErrors = handler.getValue().get(NATIVE_BUILD).getErrorCount();
+            if (nativeErrors > jvmErrors) {
+                throw new IllegalStateException(
+                        String.format(
+                                "%s native build invocation errors %d, JVM build %d, see %s",
+                                handler.getKey(), nativeErrors, jvmErrors, childOutput));
+            }
+        }
+    }
+
+    /**
+     * Starts a runtime process, waits for its init then sends it the invocations one at a time.
+     *
+     * @param csvPrefix the build, handler and run of each csv line
+     * @return false if the runtime failed its init, exited or timed out
+     */
+    private static boolean runFunction(
+            List<String> command,
+            String handler,
+            int invocations,
+            ObjectMapper objectMapper,
+            Map<String, String> functionEnvironment,
+            File childOutput,
+            PhaseLatencies phaseLatencies,
+            PrintStream csv,
+            String csvPrefix)
+            throws IOException, InterruptedException {
+        String functionName = "native-startup-" + handler;
+
+        try (RuntimeApiStandInServer runtimeApi = new RuntimeApiStandInServer(functionName)) {
+            ProcessBuilder processBuilder =
+                    new ProcessBuilder(command)
+                            .redirectErrorStream(true)
+                            .redirectOutput(ProcessBuilder.Redirect.appendTo(childOutput));
+            Map<String, String> environment = processBuilder.environment();
+            ColdStartBenchmark.REMOVED_ENVIRONMENT.forEach(environment::remove);
+            environment.putAll(functionEnvironment);
+            environment.put("AWS_LAMBDA_RUNTIME_API", runtimeApi.getRuntimeApi());
+            environment.put("AWS_LAMBDA_FUNCTION_NAME", functionName);
+            environment.put("AWS_LAMBDA_FUNCTION_VERSION", "$LATEST");
+            environment.put("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", MEMORY_SIZE_MB);
+            environment.put("AWS_LAMBDA_LOG_GROUP_NAME", "/aws/lambda/" + functionName);
+            environment.put("AWS_LAMBDA_LOG_STREAM_NAME", "native-startup");
+            environment.put("_HANDLER", command.get(command.size() - 1));
+
+            long startNanos = System.nanoTime();
+            Process process = processBuilder.start();
+            process.onExit().thenRun(runtimeApi::runtimeExited);
+            try {
+                long initNanos = runtimeApi.awaitInit(TIMEOUT_SECONDS) - startNanos;
+                phaseLatencies.record(INIT, initNanos);
+                printCsv(csv, csvPrefix, 0, initNanos, false);
+
+                for (int invocation = 1; invocation <= invocations; invocation++) {
+                    RuntimeApiStandInServer.InvocationResult result =
+                            runtimeApi.invoke(event(handler, objectMapper), TIMEOUT_SECONDS);
+                    String phase = invocation == 1 ? FIRST_INVOCATION : STEADY_STATE;
+                    if (result.error()) {
+                        phaseLatencies.recordError(phase, result.nanos(), "invocation error");
+                    } else {
+                        phaseLatencies.record(phase, result.nanos());
+                    }
+                    printCsv(csv, csvPrefix, invocation, result.nanos(), result.error());
+                }
+                return true;
+            } catch (ExecutionException | TimeoutException e) {
+                return false;
+            } finally {
+                process.destroyForcibly();
+                process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static PhaseLatencies resultsOf(
+            Map<String, Map<String, PhaseLatencies>> results, String handler, String build) {
+        return results.computeIfAbsent(handler, key -> new LinkedHashMap<>())
+                .computeIfAbsent(build, key -> new PhaseLatencies());
+    }
+
+    private static List<String> command(String build, String handler, List<String> jvmFlags) {
+        String functionHandler = handlerClassName(handler) + "::handleRequest";
+        String staging = "nativeStartup." + handler;
+
+        List<String> command = new ArrayList<>();
+        if (build.equals(NATIVE_BUILD)) {
+            command.add(requiredProperty(staging + ".executable"));
+        } else {
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmFlags);
+            command.add("-cp");
+            command.add(requiredProperty(staging + ".lib") + File.separator + "*");
+            command.add(RUNTIME_INTERFACE_CLIENT);
+        }
+        command.add(functionHandler);
+
+        return command;
+    }
+
+    // Each invocation a new session id or access token, none of them known
+    private static String event(String handler, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        ObjectNode event = objectMapper.createObjectNode();
+        switch (handler) {
+            case ColdStartRun.CHECK_PASSPORT -> {
+                event.put("httpMethod", "POST");
+                event.put("path", "/check");
+                event.putObject("headers").put("session_id", UUID.randomUUID().toString());
+                event.put(
+                        "body",
+                        objectMapper.writeValueAsString(PassportFormTestDataGenerator.generate()));
+            }
+            case ColdStartRun.ISSUE_CREDENTIAL -> {
+                event.put("httpMethod", "POST");
+                event.put("path", "/credential/issue");
+                event.putObject("headers").put("Authorization", "Bearer " + UUID.randomUUID());
+            }
+            case CERT_EXPIRY_REMINDER -> {
+                event.put("version", "0");
+                event.put("id", UUID.randomUUID().toString());
+                event.put("detail-type", "Scheduled Event");
+                event.put("source", "aws.events");
+                event.put("time", Instant.now().toString());
+                event.putObject("detail");
+            }
+            default -> throw new IllegalArgumentException("Unknown handler " + handler);
+        }
+
+        return objectMapper.writeValueAsString(event);
+    }
+
+    private static String handlerClassName(String handler) {
+        return switch (handler) {
+            case ColdStartRun.CHECK_PASSPORT -> "uk.gov.di.ipv.cri.passport.checkpassport.handler"
+                    + ".CheckPassportHandler";
+            case ColdStartRun.ISSUE_CREDENTIAL -> "uk.gov.di.ipv.cri.passport.issuecredential"
+                    + ".handler.IssueCredentialHandler";
+            case CERT_EXPIRY_REMINDER -> "uk.gov.di.ipv.cri.passport.certexpiryreminder.handler"
+                    + ".CertExpiryReminderHandler";
+            default -> throw new IllegalArgumentException("Unknown handler " + handler);
+        };
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("System property " + name + " is not set");
+        }
+        return value;
+    }
+
+    private static void printCsv(
+            PrintStream csv, String csvPrefix, int invocation, long nanos, boolean error) {
+        if (csv != null) {
+            csv.printf(
+                    "%s,%d,%.3f,%b%n",
+                    csvPrefix,
+                    invocation,
+                    nanos / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                    error);
+        }
+    }
+
+    /** Prints the p50 and p90 of each phase of a handler under each build. */
+    private static void compare(
+            PrintStream out, String handler, Map<String, PhaseLatencies> resultsByBuild) {
+        out.printf("%n%s, ms by build%n", handler);
+        out.printf("%-20s", "phase");
+        for (String build : resultsByBuild.keySet()) {
+            out.printf(" %12s %12s", build + " p50", build + " p90");
+        }
+        out.println();
+
+        for (String phase : PHASES) {
+            out.printf("%-20s", phase);
+            for (PhaseLatencies phaseLatencies : resultsByBuild.values()) {
+                out.printf(
+                        " %12.2f %12.2f",
+                        phaseLatencies.percentileMillis(phase, 50),
+                        phaseLatencies.percentileMillis(phase, 90));
+            }
+            out.println();
+        }
+    }
+}
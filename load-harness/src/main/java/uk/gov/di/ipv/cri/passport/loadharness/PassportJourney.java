@@ -0,0 +1,210 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import uk.gov.di.ipv.cri.common.library.domain.SessionRequest;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
+import uk.gov.di.ipv.cri.common.library.service.AuditService;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityMapper;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.passport.checkpassport.handler.CheckPassportHandler;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.DocumentDataVerificationService;
+import uk.gov.di.ipv.cri.passport.checkpassport.services.FormDataValidator;
+import uk.gov.di.ipv.cri.passport.issuecredential.handler.IssueCredentialHandler;
+import uk.gov.di.ipv.cri.passport.issuecredential.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.passport.library.PassportFormTestDataGenerator;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One warm instance of each lambda, as the runtime would hold them, driving check passport then
+ * issue credential for a new session each journey. The steps owned by the common lambdas (session,
+ * access token) are done directly through the SessionService.
+ *
+ * <p>Not thread safe - like the lambdas each instance serves one journey at a time.
+ */
+final class PassportJourney {
+
+    static final String CREATE_SESSION = "create_session";
+    static final String CHECK_PASSPORT = "check_passport";
+    static final String ACCESS_TOKEN = "access_token";
+    static final String ISSUE_CREDENTIAL = "issue_credential";
+
+    // Routes check passport to the DVAD LIVE endpoint and mTLS client
+    private static final String CLIENT_ID = "ipv-core";
+
+    private static final int HTTP_OK = 200;
+
+    private final SessionService sessionService;
+    private final CheckPassportHandler checkPassportHandler;
+    private final IssueCredentialHandler issueCredentialHandler;
+
+    private final String passportFormJson;
+
+    PassportJourney(
+            LocalDynamoDbTables localDynamoDbTables,
+            SqsClient sqsClient,
+            ParameterStoreService parameterStoreService,
+            ConfigurationService configurationService,
+            JWSSigner signer)
+            throws JsonProcessingException {
+
+        ObjectMapper objectMapper = new ServiceFactory().getObjectMapper();
+
+        sessionService =
+                new SessionService(
+                        localDynamoDbTables.getSessionStore(),
+                        configurationService,
+                        Clock.systemUTC());
+
+        // ConfigurationService is not injectable, it would otherwise be created with SSM providers
+        ServiceFactory serviceFactory =
+                new ServiceFactory(
+                        objectMapper,
+                        null,
+                        null,
+                        parameterStoreService,
+                        sessionService,
+                        new AuditService(
+                                sqsClient,
+                                configurationService,
+                                objectMapper,
+                                new AuditEventFactory(configurationService, Clock.systemUTC())),
+                        new PersonIdentityService(
+                                new PersonIdentityMapper(),
+                                configurationService,
+                                localDynamoDbTables.getPersonIdentityStore()),
+                        localDynamoDbTables.getDocumentCheckResultStore()) {
+                    @Override
+                    public ConfigurationService getCommonLibConfigurationService() {
+                        return configurationService;
+                    }
+                };
+
+        checkPassportHandler =
+                new CheckPassportHandler(
+                        serviceFactory,
+                        new DocumentDataVerificationService(
+                                serviceFactory,
+                                new FormDataValidator(),
+                                new ContraIndicatorMapper(serviceFactory)));
+        issueCredentialHandler =
+                new IssueCredentialHandler(
+                        serviceFactory, new VerifiableCredentialService(serviceFactory, signer));
+
+        passportFormJson =
+                objectMapper.writeValueAsString(PassportFormTestDataGenerator.generate());
+    }
+
+    /** @return true if the journey completed without error */
+    boolean run(PhaseLatencies phaseLatencies) {
+        long startNanos = System.nanoTime();
+        UUID sessionId;
+        try {
+            sessionId = sessionService.saveSession(createSessionRequest());
+        } catch (RuntimeException e) {
+            return failed(phaseLatencies, CREATE_SESSION, startNanos, e);
+        }
+        phaseLatencies.record(CREATE_SESSION, System.nanoTime() - startNanos);
+
+        startNanos = System.nanoTime();
+        try {
+            APIGatewayProxyResponseEvent checkPassportResponse =
+                    checkPassportHandler.handleRequest(
+                            new APIGatewayProxyRequestEvent()
+                                    .withHeaders(Map.of("session_id", sessionId.toString()))
+                                    .withBody(passportFormJson),
+                            new HarnessContext("check-passport"));
+            if (!completed(phaseLatencies, CHECK_PASSPORT, startNanos, checkPassportResponse)) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            return failed(phaseLatencies, CHECK_PASSPORT, startNanos, e);
+        }
+
+        startNanos = System.nanoTime();
+        BearerAccessToken accessToken = new BearerAccessToken();
+        try {
+            SessionItem sessionItem = sessionService.getSession(sessionId.toString());
+            sessionItem.setAccessToken(accessToken.toAuthorizationHeader());
+            sessionItem.setAccessTokenExpiryDate(
+                    Instant.now().plus(1, ChronoUnit.HOURS).getEpochSecond());
+            sessionService.updateSession(sessionItem);
+        } catch (RuntimeException e) {
+            return failed(phaseLatencies, ACCESS_TOKEN, startNanos, e);
+        }
+        phaseLatencies.record(ACCESS_TOKEN, System.nanoTime() - startNanos);
+
+        startNanos = System.nanoTime();
+        try {
+            APIGatewayProxyResponseEvent issueCredentialResponse =
+                    issueCredentialHandler.handleRequest(
+                            new APIGatewayProxyRequestEvent()
+                                    .withHeaders(
+                                            Map.of(
+                                                    IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                                                    accessToken.toAuthorizationHeader())),
+                            new HarnessContext("issue-credential"));
+            return completed(
+                    phaseLatencies, ISSUE_CREDENTIAL, startNanos, issueCredentialResponse);
+        } catch (RuntimeException e) {
+            return failed(phaseLatencies, ISSUE_CREDENTIAL, startNanos, e);
+        }
+    }
+
+    private static SessionRequest createSessionRequest() {
+        Date expirationTime = Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+
+        SessionRequest sessionRequest = new SessionRequest();
+        sessionRequest.setClientId(CLIENT_ID);
+        sessionRequest.setIssuer(CLIENT_ID);
+        sessionRequest.setAudience("load-harness");
+        sessionRequest.setSubject("urn:fdc:gov.uk:" + UUID.randomUUID());
+        sessionRequest.setRedirectUri(URI.create("http://localhost/callback"));
+        sessionRequest.setNotBeforeTime(new Date());
+        sessionRequest.setExpirationTime(expirationTime);
+
+        return sessionRequest;
+    }
+
+    private static boolean completed(
+            PhaseLatencies phaseLatencies,
+            String phase,
+            long startNanos,
+            APIGatewayProxyResponseEvent responseEvent) {
+        long latencyNanos = System.nanoTime() - startNanos;
+
+        if (responseEvent.getStatusCode() != HTTP_OK) {
+            phaseLatencies.recordError(
+                    phase, latencyNanos, "status " + responseEvent.getStatusCode());
+            return false;
+        }
+
+        phaseLatencies.record(phase, latencyNanos);
+        return true;
+    }
+
+    private static boolean failed(
+            PhaseLatencies phaseLatencies, String phase, long startNanos, RuntimeException e) {
+        phaseLatencies.recordError(
+                phase, System.nanoTime() - startNanos, e.getClass().getSimpleName());
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of each journey phase and the errors seen in them, recorded by all workers. Phases are
+ * reported in the order first recorded.
+ */
+final class PhaseLatencies {
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final Map<String, List<Long>> latencyNanosByPhase = new LinkedHashMap<>();
+    private final Map<String, Map<String, Integer>> errorsByPhase = new LinkedHashMap<>();
+
+    synchronized void record(String phase, long latencyNanos) {
+        latencyNanosByPhase.computeIfAbsent(phase, key -> new ArrayList<>()).add(latencyNanos);
+    }
+
+    /**
+     * @param reason the response status code or the exception thrown
+     */
+    synchronized void recordError(String phase, long latencyNanos, String reason) {
+        record(phase, latencyNanos);
+        errorsByPhase
+                .computeIfAbsent(phase, key -> new TreeMap<>())
+                .merge(reason, 1, Integer::sum);
+    }
+
+    synchronized int getErrorCount() {
+        return errorsByPhase.values().stream()
+                .flatMap(reasons -> reasons.values().stream())
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    /** @return the percentile of a phase's latencies in millis, NaN if none were recorded */
+    synchronized double percentileMillis(String phase, double percentile) {
+        List<Long> latencyNanos = latencyNanosByPhase.get(phase);
+        if (latencyNanos == null || latencyNanos.isEmpty()) {
+            return Double.NaN;
+        }
+
+        return toMillis(
+                percentile(
+                        latencyNanos.stream().mapToLong(Long::longValue).sorted().toArray(),
+                        percentile));
+    }
+
+    synchronized void report(PrintStream out) {
+        out.printf(
+                "%-18s %8s %8s %7s %9s %9s %9s %9s%n",
+                "phase", "count", "errors", "error%", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+        for (Map.Entry<String, List<Long>> entry : latencyNanosByPhase.entrySet()) {
+            long[] latencyNanos =
+                    entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Integer> errors = errorsByPhase.getOrDefault(entry.getKey(), Map.of());
+            int errorCount = errors.values().stream().mapToInt(Integer::intValue).sum();
+
+            out.printf(
+                    "%-18s %8d %8d %7.2f",
+                    entry.getKey(),
+                    latencyNanos.length,
+                    errorCount,
+                    100.0 * errorCount / latencyNanos.length);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", toMillis(percentile(latencyNanos, percentile)));
+            }
+            out.printf(" %9.2f%n", toMillis(latencyNanos[latencyNanos.length - 1]));
+        }
+
+        errorsByPhase.forEach(
+                (phase, reasons) ->
+                        reasons.forEach(
+                                (reason, count) ->
+                                        out.printf(
+                                                "error %s %s x%d%n", phase, reason, count)));
+    }
+
+    // Nearest rank
+    static long percentile(long[] sortedValues, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+        return sortedValues[Math.max(rank - 1, 0)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Stands in for the audit queue, messages are counted and dropped. */
+final class RecordingSqsClient implements SqsClient {
+
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    @Override
+    public SendMessageResponse sendMessage(SendMessageRequest sendMessageRequest) {
+        messagesSent.incrementAndGet();
+
+        return SendMessageResponse.builder().messageId(UUID.randomUUID().toString()).build();
+    }
+
+    long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
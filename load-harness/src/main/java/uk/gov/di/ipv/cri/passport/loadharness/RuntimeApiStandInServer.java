@@ -0,0 +1,212 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A local lambda Runtime API (next invocation, invocation response and error, init error) over
+ * plain http on loopback, for running a function's runtime outside lambda. Point the runtime at it
+ * with AWS_LAMBDA_RUNTIME_API.
+ *
+ * <p>One runtime process per instance - the first poll for the next invocation marks the end of
+ * its init, each invocation is timed from being handed to the runtime to its result being posted.
+ */
+final class RuntimeApiStandInServer implements AutoCloseable {
+
+    private static final String RUNTIME_PATH = "/2018-06-01/runtime/";
+    private static final String NEXT_INVOCATION = "invocation/next";
+    private static final String INVOCATION_PREFIX = "invocation/";
+    private static final String INIT_ERROR = "init/error";
+    private static final String RESPONSE = "response";
+    private static final String ERROR = "error";
+
+    private static final String REQUEST_ID_HEADER = "Lambda-Runtime-Aws-Request-Id";
+    private static final String DEADLINE_HEADER = "Lambda-Runtime-Deadline-Ms";
+    private static final String FUNCTION_ARN_HEADER = "Lambda-Runtime-Invoked-Function-Arn";
+    private static final String TRACE_ID_HEADER = "Lambda-Runtime-Trace-Id";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String APPLICATION_JSON = "application/json";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_ACCEPTED = 202;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private static final long DEADLINE_MS = 30000;
+
+    private final String functionArn;
+
+    private final HttpServer httpServer;
+    private final ExecutorService executorService;
+
+    private final BlockingQueue<Invocation> queuedInvocations = new LinkedBlockingQueue<>();
+    private final Map<String, Invocation> invocationsByRequestId = new ConcurrentHashMap<>();
+    private final CompletableFuture<Long> firstPollNanos = new CompletableFuture<>();
+
+    /** The outcome of one invocation, error is true if the runtime posted an invocation error. */
+    record InvocationResult(long nanos, boolean error, String body) {}
+
+    RuntimeApiStandInServer(String functionName) throws IOException {
+        this.functionArn = "arn:aws:lambda:eu-west-2:000000000000:function:" + functionName;
+
+        httpServer =
+                HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext(RUNTIME_PATH, this::handle);
+
+        // Next invocation polls block, one thread each
+        executorService = Executors.newCachedThreadPool();
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+    }
+
+    /** @return the AWS_LAMBDA_RUNTIME_API value (host and port, no scheme) */
+    String getRuntimeApi() {
+        return "127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * @return the System.nanoTime() of the runtime's first poll for the next invocation
+     * @throws ExecutionException if the runtime posted an init error
+     */
+    long awaitInit(long timeoutSeconds)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return firstPollNanos.get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Queues an event for the runtime and waits for its result. */
+    InvocationResult invoke(String event, long timeoutSeconds)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Invocation invocation = new Invocation(UUID.randomUUID().toString(), event);
+        invocationsByRequestId.put(invocation.requestId, invocation);
+        queuedInvocations.add(invocation);
+
+        return invocation.result.get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Fails the init and any invocation not yet answered, the runtime process has exited. */
+    void runtimeExited() {
+        IllegalStateException exited = new IllegalStateException("Runtime exited");
+        firstPollNanos.completeExceptionally(exited);
+        invocationsByRequestId
+                .values()
+                .forEach(invocation -> invocation.result.completeExceptionally(exited));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(RUNTIME_PATH.length());
+            byte[] requestBody;
+            try (InputStream body = exchange.getRequestBody()) {
+                requestBody = body.readAllBytes();
+            }
+
+            if (path.equals(NEXT_INVOCATION)) {
+                handOut(exchange);
+            } else if (path.equals(INIT_ERROR)) {
+                firstPollNanos.completeExceptionally(
+                        new IllegalStateException(
+                                "Init error " + new String(requestBody, StandardCharsets.UTF_8)));
+                respond(exchange, HTTP_ACCEPTED, new byte[0]);
+            } else if (path.startsWith(INVOCATION_PREFIX)) {
+                complete(exchange, path.substring(INVOCATION_PREFIX.length()), requestBody);
+            } else {
+                respond(exchange, HTTP_NOT_FOUND, new byte[0]);
+            }
+        }
+    }
+
+    // Blocks until an invocation is queued, as the Runtime API does
+    private void handOut(HttpExchange exchange) throws IOException {
+        firstPollNanos.complete(System.nanoTime());
+
+        Invocation invocation;
+        try {
+            invocation = queuedInvocations.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        invocation.handedOutNanos = System.nanoTime();
+        exchange.getResponseHeaders().set(REQUEST_ID_HEADER, invocation.requestId);
+        exchange.getResponseHeaders()
+                .set(DEADLINE_HEADER, Long.toString(System.currentTimeMillis() + DEADLINE_MS));
+        exchange.getResponseHeaders().set(FUNCTION_ARN_HEADER, functionArn);
+        exchange.getResponseHeaders()
+                .set(TRACE_ID_HEADER, "Root=1-00000000-" + invocation.traceId());
+        respond(exchange, HTTP_OK, invocation.event.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // <request id>/response or <request id>/error
+    private void complete(HttpExchange exchange, String path, byte[] requestBody)
+            throws IOException {
+        long completedNanos = System.nanoTime();
+        int separator = path.indexOf('/');
+        Invocation invocation =
+                separator < 0 ? null : invocationsByRequestId.remove(path.substring(0, separator));
+        String outcome = separator < 0 ? "" : path.substring(separator + 1);
+        if (invocation == null || !(outcome.equals(RESPONSE) || outcome.equals(ERROR))) {
+            respond(exchange, HTTP_NOT_FOUND, new byte[0]);
+            return;
+        }
+
+        invocation.result.complete(
+                new InvocationResult(
+                        completedNanos - invocation.handedOutNanos,
+                        outcome.equals(ERROR),
+                        new String(requestBody, StandardCharsets.UTF_8)));
+        respond(exchange, HTTP_ACCEPTED, new byte[0]);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set(CONTENT_TYPE, APPLICATION_JSON);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private static final class Invocation {
+        private final String requestId;
+        private final String event;
+        private final CompletableFuture<InvocationResult> result = new CompletableFuture<>();
+
+        private volatile long handedOutNanos;
+
+        private Invocation(String requestId, String event) {
+            this.requestId = requestId;
+            this.event = event;
+        }
+
+        // The 24 hex digit part of an X-Ray trace id
+        private String traceId() {
+            return requestId.replace("-", "").substring(0, 24);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local SSM answering GetParameter, GetParameters and GetParametersByPath (the AWS JSON 1.1
+ * protocol) over plain http on loopback, for lambda inits without AWS. Point a lambda at it with
+ * AWS_ENDPOINT_URL.
+ *
+ * <p>Parameters are served from a fixed map of full names. Names not in it are answered with
+ * {@link #DEFAULT_VALUE} rather than ParameterNotFound, as the common lib reads several TTLs the
+ * passport lambdas do not use.
+ */
+final class SsmStandInServer implements AutoCloseable {
+
+    static final String DEFAULT_VALUE = "3600";
+
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final String TARGET_PREFIX = "AmazonSSM.";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String AWS_JSON = "application/x-amz-json-1.1";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> parameters;
+
+    private final HttpServer httpServer;
+    private final ExecutorService executorService;
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentSkipListMap<>();
+
+    SsmStandInServer(ObjectMapper objectMapper, Map<String, String> parameters)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.parameters = Map.copyOf(parameters);
+
+        httpServer =
+                HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", this::handle);
+
+        executorService = Executors.newCachedThreadPool();
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+    }
+
+    String getEndpointUrl() {
+        return "http://127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    /** Prints the requests answered by operation. */
+    void report(PrintStream out) {
+        requestCounts.forEach(
+                (operation, count) -> out.printf("ssm %s x%d%n", operation, count.sum()));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request;
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                request = objectMapper.readTree(requestBody);
+            }
+
+            String target = exchange.getRequestHeaders().getFirst(TARGET_HEADER);
+            String operation =
+                    target != null && target.startsWith(TARGET_PREFIX)
+                            ? target.substring(TARGET_PREFIX.length())
+                            : String.valueOf(target);
+            requestCounts.computeIfAbsent(operation, key -> new LongAdder()).increment();
+
+            ObjectNode response = objectMapper.createObjectNode();
+            switch (operation) {
+                case "GetParameter" -> response.set(
+                        "Parameter", parameter(request.path("Name").asText()));
+                case "GetParameters" -> {
+                    ArrayNode found = response.putArray("Parameters");
+                    request.path("Names").forEach(name -> found.add(parameter(name.asText())));
+                    response.putArray("InvalidParameters");
+                }
+                case "GetParametersByPath" -> {
+                    ArrayNode found = response.putArray("Parameters");
+                    byPath(request.path("Path").asText(), request.path("Recursive").asBoolean())
+                            .forEach(found::add);
+                }
+                default -> {
+                    response.put("__type", "UnknownOperationException");
+                    response.put("message", "Not answered by the SSM stand-in " + operation);
+                    respond(exchange, HTTP_BAD_REQUEST, response);
+                    return;
+                }
+            }
+
+            respond(exchange, HTTP_OK, response);
+        }
+    }
+
+    private ObjectNode parameter(String name) {
+        ObjectNode parameter = objectMapper.createObjectNode();
+        parameter.put("Name", name);
+        parameter.put("Type", "String");
+        parameter.put("Value", parameters.getOrDefault(name, DEFAULT_VALUE));
+        parameter.put("Version", 1);
+        parameter.put("DataType", "text");
+
+        return parameter;
+    }
+
+    private List<ObjectNode> byPath(String path, boolean recursive) {
+        String pathPrefix = path.endsWith("/") ? path : path + "/";
+
+        return parameters.keySet().stream()
+                .filter(name -> name.startsWith(pathPrefix))
+                .filter(name -> recursive || name.indexOf('/', pathPrefix.length()) == -1)
+                .sorted()
+                .map(this::parameter)
+                .toList();
+    }
+
+    private void respond(HttpExchange exchange, int status, ObjectNode response)
+            throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(response);
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE, AWS_JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+}
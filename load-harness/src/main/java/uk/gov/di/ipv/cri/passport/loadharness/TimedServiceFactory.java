@@ -0,0 +1,233 @@
+package uk.gov.di.ipv.cri.passport.loadharness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import uk.gov.di.ipv.cri.common.library.service.AuditService;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.passport.library.config.PassportConfigSnapshotSpec;
+import uk.gov.di.ipv.cri.passport.library.metrics.AccumulatingEventProbe;
+import uk.gov.di.ipv.cri.passport.library.metrics.AwsSdkCallMetrics;
+import uk.gov.di.ipv.cri.passport.library.metrics.InvocationTimeline;
+import uk.gov.di.ipv.cri.passport.library.metrics.ThirdPartyAPIEndpointLatencyHistograms;
+import uk.gov.di.ipv.cri.passport.library.parameters.ParameterSource;
+import uk.gov.di.ipv.cri.passport.library.parameters.SSMParameterSource;
+import uk.gov.di.ipv.cri.passport.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.passport.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.passport.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.passport.library.service.ServiceFactory;
+
+import java.io.IOException;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Map;
+
+/**
+ * A ServiceFactory recording each getter's share of the init in {@link InitTimings}, along with
+ * the SSM reads of its parameter source and the mTLS client builds of its
+ * ApacheHTTPClientFactoryService. A getter returning an object it already created adds a few nanos
+ * to its share only.
+ *
+ * <p>The parameter source is always SSM, as in a deployed lambda.
+ */
+final class TimedServiceFactory extends ServiceFactory {
+
+    static final String SSM_SNAPSHOT = "ssm: config snapshot";
+    static final String SSM_GET = "ssm: parameter get";
+    static final String SSM_GET_MULTIPLE = "ssm: parameter get by path";
+    static final String TLS_MTLS_CLIENT = "tls: keystore and mTLS client";
+    static final String TLS_PUBLIC_CLIENT = "tls: public client";
+    static final String JACKSON_BOOTSTRAP = "jackson: getObjectMapper";
+
+    private static final String GETTER = "factory: ";
+
+    private final InitTimings timings;
+
+    private ParameterSource parameterSource;
+    private ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
+
+    TimedServiceFactory(InitTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public ObjectMapper getObjectMapper() {
+        return timings.time(JACKSON_BOOTSTRAP, super::getObjectMapper);
+    }
+
+    @Override
+    public EventProbe getEventProbe() {
+        return timings.time(GETTER + "getEventProbe", super::getEventProbe);
+    }
+
+    @Override
+    public AccumulatingEventProbe getAccumulatingEventProbe() {
+        return timings.time(GETTER + "getAccumulatingEventProbe", super::getAccumulatingEventProbe);
+    }
+
+    @Override
+    public InvocationTimeline getInvocationTimeline() {
+        return timings.time(GETTER + "getInvocationTimeline", super::getInvocationTimeline);
+    }
+
+    @Override
+    public ThirdPartyAPIEndpointLatencyHistograms getThirdPartyAPIEndpointLatencyHistograms() {
+        return timings.time(
+                GETTER + "getThirdPartyAPIEndpointLatencyHistograms",
+                super::getThirdPartyAPIEndpointLatencyHistograms);
+    }
+
+    @Override
+    public AwsSdkCallMetrics getAwsSdkCallMetrics() {
+        return timings.time(GETTER + "getAwsSdkCallMetrics", super::getAwsSdkCallMetrics);
+    }
+
+    @Override
+    public ClientProviderFactory getClientProviderFactory() {
+        return timings.time(GETTER + "getClientProviderFactory", super::getClientProviderFactory);
+    }
+
+    @Override
+    public ApacheHTTPClientFactoryService getApacheHTTPClientFactoryService() {
+        return timings.time(
+                GETTER + "getApacheHTTPClientFactoryService",
+                () -> {
+                    if (apacheHTTPClientFactoryService == null) {
+                        apacheHTTPClientFactoryService =
+                                new TimedApacheHTTPClientFactoryService(
+                                        getThirdPartyAPIEndpointLatencyHistograms(),
+                                        getEventProbe(),
+                                        timings);
+                    }
+
+                    return apacheHTTPClientFactoryService;
+                });
+    }
+
+    @Override
+    public ParameterStoreService getParameterStoreService() {
+        return timings.time(GETTER + "getParameterStoreService", super::getParameterStoreService);
+    }
+
+    @Override
+    public ParameterSource getParameterSource() {
+        return timings.time(
+                GETTER + "getParameterSource",
+                () -> {
+                    if (parameterSource == null) {
+                        parameterSource =
+                                new TimedSSMParameterSource(getSsmClient(), timings);
+                    }
+
+                    return parameterSource;
+                });
+    }
+
+    @Override
+    public SsmClient getSsmClient() {
+        return timings.time(GETTER + "getSsmClient", super::getSsmClient);
+    }
+
+    @Override
+    public int loadConfigSnapshot(PassportConfigSnapshotSpec spec) {
+        return timings.time(SSM_SNAPSHOT, () -> super.loadConfigSnapshot(spec));
+    }
+
+    @Override
+    public SessionService getSessionService() {
+        return timings.time(GETTER + "getSessionService", super::getSessionService);
+    }
+
+    @Override
+    public AuditService getAuditService() {
+        return timings.time(GETTER + "getAuditService", super::getAuditService);
+    }
+
+    @Override
+    public PersonIdentityService getPersonIdentityService() {
+        return timings.time(GETTER + "getPersonIdentityService", super::getPersonIdentityService);
+    }
+
+    @Override
+    public ConfigurationService getCommonLibConfigurationService() {
+        return timings.time(
+                GETTER + "getCommonLibConfigurationService",
+                super::getCommonLibConfigurationService);
+    }
+
+    @Override
+    public DocumentCheckResultStore getDocumentCheckResultStore() {
+        return timings.time(
+                GETTER + "getDocumentCheckResultStore", super::getDocumentCheckResultStore);
+    }
+
+    private static final class TimedSSMParameterSource extends SSMParameterSource {
+
+        private final InitTimings timings;
+
+        TimedSSMParameterSource(SsmClient ssmClient, InitTimings timings) {
+            super(ssmClient);
+            this.timings = timings;
+        }
+
+        @Override
+        public String get(String name, boolean withDecryption) {
+            return timings.time(SSM_GET, () -> super.get(name, withDecryption));
+        }
+
+        @Override
+        public Map<String, String> getMultiple(
+                String path, boolean recursive, boolean withDecryption) {
+            return timings.time(
+                    SSM_GET_MULTIPLE, () -> super.getMultiple(path, recursive, withDecryption));
+        }
+    }
+
+    private static final class TimedApacheHTTPClientFactoryService
+            extends ApacheHTTPClientFactoryService {
+
+        private final InitTimings timings;
+
+        TimedApacheHTTPClientFactoryService(
+                ThirdPartyAPIEndpointLatencyHistograms latencyHistograms,
+                EventProbe eventProbe,
+                InitTimings timings) {
+            super(latencyHistograms, eventProbe);
+            this.timings = timings;
+        }
+
+        @Override
+        public CloseableHttpClient generatePublicHttpClient() {
+            return timings.time(TLS_PUBLIC_CLIENT, super::generatePublicHttpClient);
+        }
+
+        @Override
+        public CloseableHttpClient generateHTTPClientFromExternalApacheHttpClient(
+                String base64TLSCertString,
+                String base64TLSKeyString,
+                String base64TLSRootCertString,
+                String base64TLSIntCertString)
+                throws NoSuchAlgorithmException, InvalidKeySpecException, CertificateException,
+                        KeyStoreException, IOException, UnrecoverableKeyException,
+                        KeyManagementException {
+            timings.begin(TLS_MTLS_CLIENT);
+            try {
+                return super.generateHTTPClientFromExternalApacheHttpClient(
+                        base64TLSCertString,
+                        base64TLSKeyString,
+                        base64TLSRootCertString,
+                        base64TLSIntCertString);
+            } finally {
+                timings.end();
+            }
+        }
+    }
+}
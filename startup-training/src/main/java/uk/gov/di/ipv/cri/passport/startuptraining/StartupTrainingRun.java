@@ -0,0 +1,87 @@
+package uk.gov.di.ipv.cri.passport.startuptraining;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import uk.gov.di.ipv.cri.passport.library.util.StopWatch;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+
+/**
+ * Build time entry point of the native image agent run (see lambdas/build.gradle), records what the
+ * handler loads and reflects on while it is created and primed. Only on that run's class path,
+ * never in a lambda zip.
+ *
+ * <p>The handler is created with its default constructor (as the lambda runtime does), then the
+ * registered SnapStart priming resources are run. Remote calls are made to whatever stand-ins the
+ * environment points at - a failure during priming is logged and the run continues.
+ */
+public final class StartupTrainingRun {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Latched by each handler as LAMBDA_*_FUNCTION_INIT_DURATION
+    static final String FUNCTION_INIT_DURATION_FIELD = "functionInitMetricLatchedValue";
+    static final long UNAVAILABLE = -1;
+
+    private StartupTrainingRun() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public record StartupReport(
+            String handler,
+            long functionInitDurationMs,
+            long handlerConstructionMs,
+            long primingMs,
+            long loadedClassCount) {}
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: StartupTrainingRun <handler class name>");
+        }
+
+        StartupReport startupReport = run(args[0]);
+
+        LOGGER.info("Startup report {}", startupReport);
+    }
+
+    static StartupReport run(String handlerClassName) throws ReflectiveOperationException {
+        StopWatch stopWatch = new StopWatch();
+
+        stopWatch.start();
+        Class<?> handlerClass = Class.forName(handlerClassName);
+        Object handler = handlerClass.getDeclaredConstructor().newInstance();
+        long handlerConstructionMs = stopWatch.stop();
+
+        stopWatch.start();
+        try {
+            Core.getGlobalContext().beforeCheckpoint(null);
+        } catch (CheckpointException e) {
+            LOGGER.warn("Priming failed - {}", e.getClass().getSimpleName());
+        }
+        long primingMs = stopWatch.stop();
+
+        ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+
+        return new StartupReport(
+                handlerClassName,
+                readFunctionInitDuration(handler),
+                handlerConstructionMs,
+                primingMs,
+                classLoadingMXBean.getTotalLoadedClassCount());
+    }
+
+    static long readFunctionInitDuration(Object handler) {
+        try {
+            Field field = handler.getClass().getDeclaredField(FUNCTION_INIT_DURATION_FIELD);
+            field.setAccessible(true); // NOSONAR - build time tooling only
+            return field.getLong(handler);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("{} does not record a function init duration", handler.getClass());
+            return UNAVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.di.ipv.cri.passport.startuptraining;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupTrainingRunTest {
+
+    private static final long TEST_FUNCTION_INIT_DURATION = 1234;
+
+    public static class TestHandler {
+        private final long functionInitMetricLatchedValue = TEST_FUNCTION_INIT_DURATION;
+
+        public TestHandler() {
+            // Intended
+        }
+    }
+
+    public static class TestHandlerWithoutInitMetric {
+        public TestHandlerWithoutInitMetric() {
+            // Intended
+        }
+    }
+
+    @Test
+    void shouldCreateHandlerAndReportItsFunctionInitDuration()
+            throws ReflectiveOperationException {
+        StartupTrainingRun.StartupReport startupReport =
+                StartupTrainingRun.run(TestHandler.class.getName());
+
+        assertEquals(TestHandler.class.getName(), startupReport.handler());
+        assertEquals(TEST_FUNCTION_INIT_DURATION, startupReport.functionInitDurationMs());
+        assertTrue(startupReport.loadedClassCount() > 0);
+    }
+
+    @Test
+    void shouldReportUnavailableWhenHandlerDoesNotRecordFunctionInitDuration() {
+        assertEquals(
+                StartupTrainingRun.UNAVAILABLE,
+                StartupTrainingRun.readFunctionInitDuration(new TestHandlerWithoutInitMetric()));
+    }
+
+    @Test
+    void shouldRunFromMainWithAHandlerClassName() {
+        String[] args = new String[] {TestHandler.class.getName()};
+        assertDoesNotThrow(() -> StartupTrainingRun.main(args));
+    }
+
+    @Test
+    void shouldThrowWhenHandlerClassNameIsMissing() {
+        String[] noArgs = new String[] {};
+        assertThrows(IllegalArgumentException.class, () -> StartupTrainingRun.main(noArgs));
+    }
+}